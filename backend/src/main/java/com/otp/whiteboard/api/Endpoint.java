@@ -17,6 +17,13 @@ public class Endpoint {
     public static final String BOARD_INTERNAL_API = API + BOARD;
 
     public static final String DRAW_WEBSOCKET = DRAW;
+    public static final String DRAW_BATCH_WEBSOCKET = DRAW + "/batch";
     public static final String CURSOR_WEBSOCKET = CURSOR;
     public static final String HISTORY_WEBSOCKET = "/history";
+    public static final String HISTORY_PAGE_WEBSOCKET = HISTORY_WEBSOCKET + "/page";
+    public static final String HISTORY_SNAPSHOT_WEBSOCKET = HISTORY_WEBSOCKET + "/snapshot";
+    public static final String HISTORY_VIEWPORT_WEBSOCKET = HISTORY_WEBSOCKET + "/viewport";
+    public static final String HISTORY_SINCE_WEBSOCKET = HISTORY_WEBSOCKET + "/since";
+    public static final String HISTORY_STREAM_WEBSOCKET = HISTORY_WEBSOCKET + "/stream";
+    public static final String HISTORY_STREAM_ACK_WEBSOCKET = HISTORY_STREAM_WEBSOCKET + "/ack";
 }
@@ -2,10 +2,13 @@ package com.otp.whiteboard.api.controller;
 
 import com.otp.whiteboard.dto.board.BoardCreatingRequest;
 import com.otp.whiteboard.dto.board.BoardDto;
+import com.otp.whiteboard.dto.board.BoardImportRequest;
+import com.otp.whiteboard.dto.board.BoardImportResponse;
 import com.otp.whiteboard.dto.board.BoardUpdateRequest;
 import com.otp.whiteboard.dto.board.ModifyBoardUserRequest;
 import com.otp.whiteboard.model.User;
 import com.otp.whiteboard.security.CustomUserDetails;
+import com.otp.whiteboard.service.BoardImportService;
 import com.otp.whiteboard.service.BoardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -26,9 +29,11 @@ import static com.otp.whiteboard.api.Endpoint.BOARD_INTERNAL_API;
 @SecurityRequirement(name = "Bearer Authentication")
 public class BoardController {
     private final BoardService boardService;
+    private final BoardImportService boardImportService;
 
-    public BoardController(final BoardService boardService) {
+    public BoardController(final BoardService boardService, final BoardImportService boardImportService) {
         this.boardService = boardService;
+        this.boardImportService = boardImportService;
     }
 
     @Operation(
@@ -150,4 +155,24 @@ public class BoardController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            summary = "Import strokes into a board",
+            description = """
+                    This endpoint adds complete strokes to an existing board in one bulk write.
+                    It accepts a JSON payload with the strokes and their points and returns the number of strokes, rows and points imported.
+                    """
+    )
+    @PostMapping("/{boardId}/import")
+    public ResponseEntity<BoardImportResponse> importStrokes(
+            @PathVariable("boardId") final Long boardId,
+            @RequestBody @NotNull @Valid final BoardImportRequest request,
+            @AuthenticationPrincipal @Valid final CustomUserDetails currentUserDetails
+    ) {
+        final User currentUser = currentUserDetails != null ? currentUserDetails.user() : null;
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+        final BoardImportResponse response = boardImportService.importStrokes(boardId, request, currentUser);
+        return ResponseEntity.ok(response);
+    }
 }
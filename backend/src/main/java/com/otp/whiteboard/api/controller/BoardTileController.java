@@ -0,0 +1,75 @@
+package com.otp.whiteboard.api.controller;
+
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.security.CustomUserDetails;
+import com.otp.whiteboard.service.BoardTileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+
+import static com.otp.whiteboard.api.Endpoint.BOARD_INTERNAL_API;
+
+@RestController
+@Tag(name = "Board Tiles", description = "APIs for loading rendered tiles of a board")
+@RequestMapping(BOARD_INTERNAL_API)
+@SecurityRequirement(name = "Bearer Authentication")
+public class BoardTileController {
+    /**
+     * The response header carrying the board's sequence number up to which the tile includes the persisted strokes.
+     */
+    public static final String SEQUENCE_HEADER = "X-Board-Sequence";
+
+    private final BoardTileService boardTileService;
+
+    public BoardTileController(final BoardTileService boardTileService) {
+        this.boardTileService = boardTileService;
+    }
+
+    @Operation(
+            summary = "Get a rendered tile of a board",
+            description = """
+                    This endpoint returns a 256x256 PNG tile of the strokes persisted on a board, addressed by zoom level, column and row.
+                    The highest zoom level is the board's native scale. The response carries an ETag, so unchanged tiles are answered with 304.
+                    Tiles lag behind live drawing until strokes are written, so the X-Board-Sequence header carries the sequence number the tile covers:
+                    paint the tile, then replay the events after it with the /history/since message. A 304 keeps the sequence number received with the image.
+                    """
+    )
+    @GetMapping(value = "/{boardId}/tiles/{z}/{x}/{y}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getTile(
+            @PathVariable("boardId") final Long boardId,
+            @PathVariable("z") final int z,
+            @PathVariable("x") final int x,
+            @PathVariable("y") final int y,
+            @AuthenticationPrincipal @Valid final CustomUserDetails currentUserDetails,
+            final WebRequest webRequest
+    ) {
+        final User currentUser = currentUserDetails != null ? currentUserDetails.user() : null;
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+        final BoardTileService.Tile rendered = boardTileService.getTile(boardId, z, x, y, currentUser);
+        final byte[] tile = rendered.png();
+        final String eTag = "\"" + Integer.toHexString(Arrays.hashCode(tile)) + "-" + tile.length + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .header(SEQUENCE_HEADER, Long.toString(rendered.sequence()))
+                .body(tile);
+    }
+}
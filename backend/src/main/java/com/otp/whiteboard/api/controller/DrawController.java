@@ -1,9 +1,19 @@
 package com.otp.whiteboard.api.controller;
 
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
 import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
 import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
 import com.otp.whiteboard.dto.drawing.HistoryRequest;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceRequest;
+import com.otp.whiteboard.dto.drawing.HistoryStreamAck;
+import com.otp.whiteboard.dto.drawing.HistoryStreamRequest;
+import com.otp.whiteboard.dto.drawing.ViewportHistoryRequest;
+import com.otp.whiteboard.service.DrawBroadcaster;
 import com.otp.whiteboard.service.DrawEventService;
+import com.otp.whiteboard.service.HistoryStreamer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.Header;
@@ -11,7 +21,6 @@ import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.annotation.SendToUser;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -19,33 +28,73 @@ import java.util.Collections;
 import java.util.List;
 
 import static com.otp.whiteboard.api.Endpoint.CURSOR_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.DRAW_BATCH_WEBSOCKET;
 import static com.otp.whiteboard.api.Endpoint.DRAW_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_PAGE_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_SINCE_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_STREAM_ACK_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_STREAM_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_SNAPSHOT_WEBSOCKET;
+import static com.otp.whiteboard.api.Endpoint.HISTORY_VIEWPORT_WEBSOCKET;
 import static com.otp.whiteboard.api.Endpoint.HISTORY_WEBSOCKET;
 
 @Controller
 public class DrawController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DrawController.class);
+    private static final String DRAW_TOPIC = "/topic/draw";
+    private static final String DRAW_BATCH_TOPIC = "/topic/draw/batch";
+    private static final String CURSOR_TOPIC = "/topic/cursor";
     private final DrawEventService drawEventService;
+    private final DrawBroadcaster drawBroadcaster;
+    private final HistoryStreamer historyStreamer;
 
-    public DrawController(final DrawEventService drawEventService) {
+    public DrawController(final DrawEventService drawEventService, final DrawBroadcaster drawBroadcaster,
+                          final HistoryStreamer historyStreamer) {
         this.drawEventService = drawEventService;
+        this.drawBroadcaster = drawBroadcaster;
+        this.historyStreamer = historyStreamer;
     }
 
+    /**
+     * Broadcasts the event to {@code /topic/draw}, or leaves it to the board's next coalesced frame on
+     * {@code /topic/draw/frame}. The event is accepted as JSON or, with the binary content type, in the compact
+     * wire format, and broadcast with its sequence number in each format that has subscribers.
+     * A resent event is not broadcast again. An event the board cannot take because its persistence lane is full
+     * is not broadcast either, and reported with its id on {@code /queue/errors}, so the client can resend it.
+     */
     @MessageMapping(DRAW_WEBSOCKET)
-    @SendTo("/topic/draw")
-    public DrawDto onDraw(@Payload final DrawDto event) {
-        drawEventService.publishDrawEvent(event);
-        return event;
+    public void onDraw(@Payload final DrawDto event) {
+        final DrawDto accepted = drawEventService.publishDrawEvent(event);
+        if (accepted == null || drawBroadcaster.coalesce(accepted)) {
+            return;
+        }
+        drawBroadcaster.broadcast(DRAW_TOPIC, accepted);
+    }
+
+    /**
+     * Broadcasts the batch to {@code /topic/draw/batch} with the sequence number of its last point, in each format
+     * that has subscribers. A resent batch is not broadcast again, and a batch rejected because the board's
+     * persistence lane is full is reported with its id on {@code /queue/errors}, like single draws.
+     */
+    @MessageMapping(DRAW_BATCH_WEBSOCKET)
+    public void onDrawBatch(@Payload final DrawBatchDto batch) {
+        final DrawBatchDto accepted = drawEventService.publishDrawBatch(batch);
+        if (accepted != null) {
+            drawBroadcaster.broadcast(DRAW_BATCH_TOPIC, accepted);
+        }
     }
 
     @MessageMapping(CURSOR_WEBSOCKET)
-    @SendTo("/topic/cursor")
-    public CursorDto onCursor(@Payload final CursorDto cursor) {
+    public void onCursor(@Payload final CursorDto cursor) {
         drawEventService.publishCursorEvent(cursor);
-        return cursor;
+        drawBroadcaster.broadcast(CURSOR_TOPIC, cursor);
     }
 
+    /**
+     * Sends the board history to the requesting user as a plain list: the whole history when the request has
+     * neither a limit nor a cursor, otherwise the requested page. Use {@code /history/page} to get the next cursor.
+     */
     @MessageMapping(HISTORY_WEBSOCKET)
     @SendToUser("/queue/history")
     public List<DrawDto> history(@Payload final  HistoryRequest req,
@@ -54,13 +103,73 @@ public class DrawController {
         try {
             LOGGER.info("History request: session={}, user={}, boardId={}, limit={}",
                     sessionId, principal != null ? principal.getName() : "anon", req.boardId(), req.limit());
-            return drawEventService.getBoardStrokes(req.boardId());
+            if (req.limit() == null && req.cursor() == null) {
+                return drawEventService.getBoardStrokes(req.boardId());
+            }
+            return drawEventService.getBoardHistory(req.boardId(), req.limit(), req.cursor(), req.order()).events();
         } catch (RuntimeException e) {
             LOGGER.error("History retrieval failed");
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Sends one page of the board history and the cursor of the next page to the requesting user.
+     * An invalid limit or cursor is reported on {@code /queue/errors}.
+     */
+    @MessageMapping(HISTORY_PAGE_WEBSOCKET)
+    @SendToUser("/queue/history/page")
+    public HistoryPageDto historyPage(@Payload final HistoryRequest req) {
+        return drawEventService.getBoardHistory(req.boardId(), req.limit(), req.cursor(), req.order());
+    }
+
+    /**
+     * Sends the board's latest snapshot and the events drawn after it to the requesting user, so a joining
+     * client draws each earlier stroke at once instead of replaying all of its points.
+     */
+    @MessageMapping(HISTORY_SNAPSHOT_WEBSOCKET)
+    @SendToUser("/queue/history/snapshot")
+    public BoardSnapshotDto historySnapshot(@Payload final HistoryRequest req) {
+        return drawEventService.getBoardSnapshot(req.boardId());
+    }
+
+    /**
+     * Sends the strokes of the board that intersect the requesting user's viewport, so a client panning a large
+     * board only loads what it shows. An invalid viewport is reported on {@code /queue/errors}.
+     */
+    @MessageMapping(HISTORY_VIEWPORT_WEBSOCKET)
+    @SendToUser("/queue/history/viewport")
+    public List<DrawDto> historyViewport(@Payload final ViewportHistoryRequest req) {
+        return drawEventService.getBoardStrokesInViewport(req.boardId(), req.minX(), req.minY(), req.maxX(), req.maxY());
+    }
+
+    /**
+     * Sends a reconnecting user the draw events after the last sequence number they received, instead of the
+     * whole board, or tells them to resync when those events are no longer available.
+     */
+    @MessageMapping(HISTORY_SINCE_WEBSOCKET)
+    @SendToUser("/queue/history/since")
+    public HistorySinceDto historySince(@Payload final HistorySinceRequest req) {
+        return drawEventService.getBoardStrokesSince(req.boardId(), req.since());
+    }
+
+    /**
+     * Streams the board history to the requesting session in numbered chunks on {@code /queue/history/stream},
+     * ending with a completion frame. Use this instead of {@code /history} for boards whose history does not
+     * fit in one message; the client acknowledges chunks on {@code /history/stream/ack} to receive more.
+     */
+    @MessageMapping(HISTORY_STREAM_WEBSOCKET)
+    public void historyStream(@Payload final HistoryStreamRequest req,
+                              @Header("simpSessionId") final String sessionId) {
+        historyStreamer.start(sessionId, req);
+    }
+
+    @MessageMapping(HISTORY_STREAM_ACK_WEBSOCKET)
+    public void historyStreamAck(@Payload final HistoryStreamAck ack,
+                                 @Header("simpSessionId") final String sessionId) {
+        historyStreamer.ack(sessionId, ack);
+    }
+
     @MessageExceptionHandler
     @SendToUser("/queue/errors")
     public String handleException(final Exception e) {
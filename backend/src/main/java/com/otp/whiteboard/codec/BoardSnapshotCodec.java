@@ -0,0 +1,127 @@
+package com.otp.whiteboard.codec;
+
+import com.otp.whiteboard.dto.drawing.SnapshotStrokeDto;
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of the board snapshots kept next to the Redis history lists.
+ * <p>
+ * Layout: {@code [version][anchor][sequence][count][stroke]...}. The anchor is the id of the first event in
+ * the history list when the snapshot was taken, so a snapshot of a list that has since expired and been
+ * started again is recognised as stale. Each stroke is written as its nullable strings, the tool's code
+ * plus one ({@code 0} for none), the optional brush size, the ended flag and its geometry packed with {@link PackedPoints}.
+ */
+public final class BoardSnapshotCodec {
+    private static final byte VERSION = 1;
+
+    private BoardSnapshotCodec() {
+        // Prevent instantiation
+    }
+
+    /**
+     * A stored snapshot: the strokes built from the first {@code sequence} events of the list starting with
+     * {@code anchorEventId}.
+     */
+    public record Snapshot(@Nullable String anchorEventId, long sequence, @NotNull List<SnapshotStrokeDto> strokes) {
+    }
+
+    /**
+     * Encodes a snapshot.
+     *
+     * @param snapshot  the snapshot.
+     * @param precision the number of decimal digits of the coordinates to keep.
+     * @return the encoded snapshot.
+     */
+    @Nonnull
+    public static byte[] encode(@NotNull final Snapshot snapshot, final int precision) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, snapshot.anchorEventId());
+            out.writeLong(snapshot.sequence());
+            out.writeInt(snapshot.strokes().size());
+            for (final SnapshotStrokeDto stroke : snapshot.strokes()) {
+                writeString(out, stroke.strokeId());
+                writeString(out, stroke.displayName());
+                writeString(out, stroke.brushColor());
+                out.writeByte(stroke.tool() == null ? 0 : stroke.tool().getCode() + 1);
+                out.writeBoolean(stroke.brushSize() != null);
+                if (stroke.brushSize() != null) {
+                    out.writeLong(stroke.brushSize());
+                }
+                out.writeBoolean(stroke.ended());
+                final byte[] geometry = PackedPoints.pack(stroke.points(), precision);
+                out.writeInt(geometry.length);
+                out.write(geometry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a snapshot written by {@link #encode}.
+     *
+     * @param encoded the encoded snapshot.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if the data is truncated or was written in an unknown version.
+     */
+    @Nonnull
+    public static Snapshot decode(@NotNull final byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            final byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown board snapshot version: " + version);
+            }
+            final String anchorEventId = readString(in);
+            final long sequence = in.readLong();
+            final int count = in.readInt();
+            if (count < 0 || count > encoded.length) {
+                throw new IllegalArgumentException("Invalid board snapshot stroke count: " + count);
+            }
+            final List<SnapshotStrokeDto> strokes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final String strokeId = readString(in);
+                final String displayName = readString(in);
+                final String brushColor = readString(in);
+                final int tool = in.readUnsignedByte();
+                final Long brushSize = in.readBoolean() ? in.readLong() : null;
+                final boolean ended = in.readBoolean();
+                final int length = in.readInt();
+                if (length <= 0 || length > in.available()) {
+                    throw new IllegalArgumentException("Invalid board snapshot geometry length: " + length);
+                }
+                final double[] points = PackedPoints.unpack(in.readNBytes(length));
+                strokes.add(new SnapshotStrokeDto(strokeId, displayName,
+                        tool == 0 ? null : DrawingTool.fromCode(tool - 1), brushColor, brushSize, ended, points));
+            }
+            return new Snapshot(anchorEventId, sequence, strokes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Board snapshot is truncated", e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
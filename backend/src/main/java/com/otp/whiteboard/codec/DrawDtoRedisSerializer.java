@@ -0,0 +1,58 @@
+package com.otp.whiteboard.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Stores {@link DrawDto} values in the {@code drawing-events-board-*} lists with {@link DrawMessageCodec},
+ * without the {@code @class} type name and field names that the generic JSON serializer writes into
+ * every entry.
+ * <p>
+ * Entries written as JSON before this serializer was introduced are still read, so lists that were
+ * populated by an older instance stay readable until they expire.
+ */
+public class DrawDtoRedisSerializer implements RedisSerializer<DrawDto> {
+    private static final byte JSON_OBJECT_START = '{';
+
+    private final ObjectMapper legacyMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    @Nullable
+    public byte[] serialize(@Nullable final DrawDto value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        return DrawMessageCodec.encode(value);
+    }
+
+    @Override
+    @Nullable
+    public DrawDto deserialize(@Nullable final byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] == JSON_OBJECT_START) {
+                return legacyMapper.readValue(bytes, DrawDto.class);
+            }
+            if (!(DrawMessageCodec.decode(bytes) instanceof DrawDto draw)) {
+                throw new SerializationException("Stored entry is not a draw event");
+            }
+            return draw;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Could not read stored draw event", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return DrawDto.class;
+    }
+}
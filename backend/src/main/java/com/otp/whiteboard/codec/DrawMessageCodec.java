@@ -0,0 +1,455 @@
+package com.otp.whiteboard.codec;
+
+import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.DrawFrameDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary wire format for draw, batch and cursor messages, used instead of JSON by clients that
+ * negotiate {@link DrawMessageConverter#DRAW_BINARY}.
+ * <p>
+ * A message starts with a type tag, followed by a bit mask of the fields that are present, as a varint so new
+ * fields can be added. Field names
+ * are implied by the position, numbers are zig-zag varints, coordinates are big-endian IEEE-754 doubles
+ * so they round-trip exactly, and enums are written as their stable code, not their ordinal, so stored history
+ * survives reordered or added constants. Each string is written once per
+ * message; repeats, such as the display name and colour of every event in a frame, are back-references
+ * into the strings seen so far.
+ * <p>
+ * Layouts:
+ * <ul>
+ *     <li>draw: {@code [5][varint mask][boardId][timestamp][type][tool][x][y][brushSize][seq][id][displayName]
+ *     [brushColor][strokeId]}</li>
+ *     <li>draw without a sequence number: {@code [1][mask]...[brushSize][id]...}, with a one-byte mask; no longer
+ *     written, but still read from history stored before draws carried their {@code seq}</li>
+ *     <li>cursor: {@code [2][mask][x][y][displayName][photoUrl]}</li>
+ *     <li>frame: {@code [3][mask][boardId][timestamp][varint count][draw body]...}, where each draw body is laid
+ *     out as after the tag of a draw ({@code 5}), and each event's
+ *     timestamp is the difference to the previous one</li>
+ *     <li>batch: {@code [4][varint mask][boardId][timestamp][tool][brushSize][seq][varint point count][x y]...
+ *     [id][displayName][brushColor][strokeId]}, where the mask also carries the start and end flags</li>
+ * </ul>
+ */
+public final class DrawMessageCodec {
+    public static final byte TYPE_DRAW = 5;
+    public static final byte TYPE_CURSOR = 2;
+    public static final byte TYPE_FRAME = 3;
+    public static final byte TYPE_BATCH = 4;
+    /** Draw events with a one-byte mask and no {@code seq}, written by earlier versions. */
+    public static final byte TYPE_DRAW_WITHOUT_SEQ = 1;
+
+    private static final int DRAW_ID = 1;
+    private static final int DRAW_BOARD_ID = 1 << 1;
+    private static final int DRAW_DISPLAY_NAME = 1 << 2;
+    private static final int DRAW_TYPE = 1 << 3;
+    private static final int DRAW_TOOL = 1 << 4;
+    private static final int DRAW_BRUSH_SIZE = 1 << 5;
+    private static final int DRAW_BRUSH_COLOR = 1 << 6;
+    private static final int DRAW_STROKE_ID = 1 << 7;
+    private static final int DRAW_SEQ = 1 << 8;
+
+    private static final int CURSOR_DISPLAY_NAME = 1;
+    private static final int CURSOR_PHOTO_URL = 1 << 1;
+
+    private static final int FRAME_BOARD_ID = 1;
+
+    private static final int BATCH_ID = 1;
+    private static final int BATCH_BOARD_ID = 1 << 1;
+    private static final int BATCH_DISPLAY_NAME = 1 << 2;
+    private static final int BATCH_TOOL = 1 << 3;
+    private static final int BATCH_BRUSH_SIZE = 1 << 4;
+    private static final int BATCH_BRUSH_COLOR = 1 << 5;
+    private static final int BATCH_STROKE_ID = 1 << 6;
+    private static final int BATCH_SEQ = 1 << 7;
+    private static final int BATCH_START = 1 << 8;
+    private static final int BATCH_END = 1 << 9;
+
+    private DrawMessageCodec() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return {@code true} if {@link #encode(Object)} accepts payloads of this type.
+     */
+    public static boolean supports(@NotNull final Class<?> type) {
+        return DrawDto.class.isAssignableFrom(type)
+                || CursorDto.class.isAssignableFrom(type)
+                || DrawFrameDto.class.isAssignableFrom(type)
+                || DrawBatchDto.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Encodes a draw event, cursor position, draw frame or draw batch.
+     *
+     * @param payload a {@link DrawDto}, {@link CursorDto}, {@link DrawFrameDto} or {@link DrawBatchDto}.
+     * @return the encoded message.
+     * @throws IllegalArgumentException if the payload type is not supported.
+     */
+    @Nonnull
+    public static byte[] encode(@NotNull final Object payload) {
+        final Writer writer = new Writer();
+        if (payload instanceof DrawDto draw) {
+            writer.put(TYPE_DRAW);
+            writeDraw(writer, draw, 0);
+        } else if (payload instanceof CursorDto cursor) {
+            writer.put(TYPE_CURSOR);
+            writeCursor(writer, cursor);
+        } else if (payload instanceof DrawFrameDto frame) {
+            writer.put(TYPE_FRAME);
+            writeFrame(writer, frame);
+        } else if (payload instanceof DrawBatchDto batch) {
+            writer.put(TYPE_BATCH);
+            writeBatch(writer, batch);
+        } else {
+            throw new IllegalArgumentException("Unsupported payload type: " + payload.getClass().getName());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a message produced by {@link #encode(Object)}.
+     *
+     * @param encoded the encoded message.
+     * @return the decoded {@link DrawDto}, {@link CursorDto}, {@link DrawFrameDto} or {@link DrawBatchDto}.
+     * @throws IllegalArgumentException if the message type is unknown or the data is malformed.
+     */
+    @Nonnull
+    public static Object decode(@NotNull final byte[] encoded) {
+        final Reader reader = new Reader(encoded);
+        final byte type = reader.get();
+        final Object payload = switch (type) {
+            case TYPE_DRAW -> readDraw(reader, reader.getVarint(), 0);
+            case TYPE_DRAW_WITHOUT_SEQ -> readDraw(reader, reader.get() & 0xFF, 0);
+            case TYPE_CURSOR -> readCursor(reader);
+            case TYPE_FRAME -> readFrame(reader);
+            case TYPE_BATCH -> readBatch(reader);
+            default -> throw new IllegalArgumentException("Unknown message type: " + type);
+        };
+        if (reader.remaining() != 0) {
+            throw new IllegalArgumentException("Unexpected trailing bytes in encoded message");
+        }
+        return payload;
+    }
+
+    private static void writeDraw(final Writer writer, final DrawDto draw, final long previousTimestamp) {
+        int mask = 0;
+        mask |= draw.id() != null ? DRAW_ID : 0;
+        mask |= draw.boardId() != null ? DRAW_BOARD_ID : 0;
+        mask |= draw.displayName() != null ? DRAW_DISPLAY_NAME : 0;
+        mask |= draw.type() != null ? DRAW_TYPE : 0;
+        mask |= draw.tool() != null ? DRAW_TOOL : 0;
+        mask |= draw.brushSize() != null ? DRAW_BRUSH_SIZE : 0;
+        mask |= draw.brushColor() != null ? DRAW_BRUSH_COLOR : 0;
+        mask |= draw.strokeId() != null ? DRAW_STROKE_ID : 0;
+        mask |= draw.seq() != null ? DRAW_SEQ : 0;
+        writer.putVarint(mask);
+        if (draw.boardId() != null) {
+            writer.putSignedVarint(draw.boardId());
+        }
+        writer.putSignedVarint(draw.timestamp() - previousTimestamp);
+        if (draw.type() != null) {
+            writer.put((byte) draw.type().getCode());
+        }
+        if (draw.tool() != null) {
+            writer.put((byte) draw.tool().getCode());
+        }
+        writer.putDouble(draw.x());
+        writer.putDouble(draw.y());
+        if (draw.brushSize() != null) {
+            writer.putSignedVarint(draw.brushSize());
+        }
+        if (draw.seq() != null) {
+            writer.putSignedVarint(draw.seq());
+        }
+        writer.putString(draw.id());
+        writer.putString(draw.displayName());
+        writer.putString(draw.brushColor());
+        writer.putString(draw.strokeId());
+    }
+
+    private static DrawDto readDraw(final Reader reader, final long mask, final long previousTimestamp) {
+        final Long boardId = (mask & DRAW_BOARD_ID) != 0 ? reader.getSignedVarint() : null;
+        final long timestamp = previousTimestamp + reader.getSignedVarint();
+        final DrawEventType type = (mask & DRAW_TYPE) != 0 ? DrawEventType.fromCode(reader.get()) : null;
+        final DrawingTool tool = (mask & DRAW_TOOL) != 0 ? DrawingTool.fromCode(reader.get()) : null;
+        final double x = reader.getDouble();
+        final double y = reader.getDouble();
+        final Long brushSize = (mask & DRAW_BRUSH_SIZE) != 0 ? reader.getSignedVarint() : null;
+        final Long seq = (mask & DRAW_SEQ) != 0 ? reader.getSignedVarint() : null;
+        final String id = (mask & DRAW_ID) != 0 ? reader.getString() : null;
+        final String displayName = (mask & DRAW_DISPLAY_NAME) != 0 ? reader.getString() : null;
+        final String brushColor = (mask & DRAW_BRUSH_COLOR) != 0 ? reader.getString() : null;
+        final String strokeId = (mask & DRAW_STROKE_ID) != 0 ? reader.getString() : null;
+        return new DrawDto(id, boardId, displayName, timestamp, type, tool, x, y, brushSize, brushColor, strokeId, seq);
+    }
+
+    private static void writeCursor(final Writer writer, final CursorDto cursor) {
+        int mask = 0;
+        mask |= cursor.displayName() != null ? CURSOR_DISPLAY_NAME : 0;
+        mask |= cursor.photoUrl() != null ? CURSOR_PHOTO_URL : 0;
+        writer.put((byte) mask);
+        writer.putDouble(cursor.x());
+        writer.putDouble(cursor.y());
+        writer.putString(cursor.displayName());
+        writer.putString(cursor.photoUrl());
+    }
+
+    private static CursorDto readCursor(final Reader reader) {
+        final int mask = reader.get() & 0xFF;
+        final double x = reader.getDouble();
+        final double y = reader.getDouble();
+        final String displayName = (mask & CURSOR_DISPLAY_NAME) != 0 ? reader.getString() : null;
+        final String photoUrl = (mask & CURSOR_PHOTO_URL) != 0 ? reader.getString() : null;
+        return new CursorDto(displayName, photoUrl, x, y);
+    }
+
+    private static void writeFrame(final Writer writer, final DrawFrameDto frame) {
+        writer.put((byte) (frame.boardId() != null ? FRAME_BOARD_ID : 0));
+        if (frame.boardId() != null) {
+            writer.putSignedVarint(frame.boardId());
+        }
+        writer.putSignedVarint(frame.timestamp());
+        final List<DrawDto> events = frame.events() != null ? frame.events() : List.of();
+        writer.putVarint(events.size());
+        long previousTimestamp = frame.timestamp();
+        for (final DrawDto event : events) {
+            writeDraw(writer, event, previousTimestamp);
+            previousTimestamp = event.timestamp();
+        }
+    }
+
+    private static DrawFrameDto readFrame(final Reader reader) {
+        final int mask = reader.get() & 0xFF;
+        final Long boardId = (mask & FRAME_BOARD_ID) != 0 ? reader.getSignedVarint() : null;
+        final long timestamp = reader.getSignedVarint();
+        final long count = reader.getVarint();
+        // Every event takes at least one byte, which bounds the allocation for corrupted input.
+        if (count < 0 || count > reader.remaining()) {
+            throw new IllegalArgumentException("Encoded message is truncated");
+        }
+        final List<DrawDto> events = new ArrayList<>((int) count);
+        long previousTimestamp = timestamp;
+        for (int i = 0; i < count; i++) {
+            final DrawDto event = readDraw(reader, reader.getVarint(), previousTimestamp);
+            events.add(event);
+            previousTimestamp = event.timestamp();
+        }
+        return new DrawFrameDto(boardId, timestamp, events);
+    }
+
+    private static void writeBatch(final Writer writer, final DrawBatchDto batch) {
+        final double[] points = batch.points() != null ? batch.points() : new double[0];
+        int mask = 0;
+        mask |= batch.id() != null ? BATCH_ID : 0;
+        mask |= batch.boardId() != null ? BATCH_BOARD_ID : 0;
+        mask |= batch.displayName() != null ? BATCH_DISPLAY_NAME : 0;
+        mask |= batch.tool() != null ? BATCH_TOOL : 0;
+        mask |= batch.brushSize() != null ? BATCH_BRUSH_SIZE : 0;
+        mask |= batch.brushColor() != null ? BATCH_BRUSH_COLOR : 0;
+        mask |= batch.strokeId() != null ? BATCH_STROKE_ID : 0;
+        mask |= batch.seq() != null ? BATCH_SEQ : 0;
+        mask |= batch.start() ? BATCH_START : 0;
+        mask |= batch.end() ? BATCH_END : 0;
+        writer.putVarint(mask);
+        if (batch.boardId() != null) {
+            writer.putSignedVarint(batch.boardId());
+        }
+        writer.putSignedVarint(batch.timestamp());
+        if (batch.tool() != null) {
+            writer.put((byte) batch.tool().getCode());
+        }
+        if (batch.brushSize() != null) {
+            writer.putSignedVarint(batch.brushSize());
+        }
+        if (batch.seq() != null) {
+            writer.putSignedVarint(batch.seq());
+        }
+        writer.putVarint(points.length);
+        for (final double coordinate : points) {
+            writer.putDouble(coordinate);
+        }
+        writer.putString(batch.id());
+        writer.putString(batch.displayName());
+        writer.putString(batch.brushColor());
+        writer.putString(batch.strokeId());
+    }
+
+    private static DrawBatchDto readBatch(final Reader reader) {
+        final long mask = reader.getVarint();
+        final Long boardId = (mask & BATCH_BOARD_ID) != 0 ? reader.getSignedVarint() : null;
+        final long timestamp = reader.getSignedVarint();
+        final DrawingTool tool = (mask & BATCH_TOOL) != 0 ? DrawingTool.fromCode(reader.get()) : null;
+        final Long brushSize = (mask & BATCH_BRUSH_SIZE) != 0 ? reader.getSignedVarint() : null;
+        final Long seq = (mask & BATCH_SEQ) != 0 ? reader.getSignedVarint() : null;
+        final long length = reader.getVarint();
+        if (length < 0 || length > reader.remaining() / Double.BYTES) {
+            throw new IllegalArgumentException("Encoded message is truncated");
+        }
+        final double[] points = new double[(int) length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = reader.getDouble();
+        }
+        final String id = (mask & BATCH_ID) != 0 ? reader.getString() : null;
+        final String displayName = (mask & BATCH_DISPLAY_NAME) != 0 ? reader.getString() : null;
+        final String brushColor = (mask & BATCH_BRUSH_COLOR) != 0 ? reader.getString() : null;
+        final String strokeId = (mask & BATCH_STROKE_ID) != 0 ? reader.getString() : null;
+        return new DrawBatchDto(id, boardId, displayName, timestamp, strokeId, tool, brushColor, brushSize,
+                (mask & BATCH_START) != 0, (mask & BATCH_END) != 0, points, seq);
+    }
+
+    /**
+     * Growable byte buffer with varint, double and string support.
+     */
+    private static final class Writer {
+        private byte[] buffer = new byte[128];
+        private int position;
+        private Map<String, Integer> strings;
+
+        private void put(final byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        private void putVarint(final long value) {
+            ensureCapacity(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        private void putSignedVarint(final long value) {
+            putVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void putDouble(final double value) {
+            ensureCapacity(Double.BYTES);
+            final long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (bits >>> shift);
+            }
+        }
+
+        /**
+         * Writes {@code length << 1} and the UTF-8 bytes for a new string,
+         * or {@code index << 1 | 1} for a string already written to this message.
+         */
+        private void putString(final String value) {
+            if (value == null) {
+                return;
+            }
+            if (strings == null) {
+                strings = new HashMap<>();
+            }
+            final Integer index = strings.get(value);
+            if (index != null) {
+                putVarint(((long) index << 1) | 1);
+                return;
+            }
+            strings.put(value, strings.size());
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarint((long) bytes.length << 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(final int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * Bounds-checked reader over an encoded message.
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+        private List<String> strings;
+
+        private Reader(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private byte get() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Encoded message is truncated");
+            }
+            return buffer[position++];
+        }
+
+        private long getVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = get();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in encoded message");
+        }
+
+        private long getSignedVarint() {
+            final long value = getVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private double getDouble() {
+            if (remaining() < Double.BYTES) {
+                throw new IllegalArgumentException("Encoded message is truncated");
+            }
+            long bits = 0;
+            for (int i = 0; i < Double.BYTES; i++) {
+                bits = (bits << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private String getString() {
+            if (strings == null) {
+                strings = new ArrayList<>();
+            }
+            final long header = getVarint();
+            if ((header & 1) != 0) {
+                final long index = header >>> 1;
+                if (index >= strings.size()) {
+                    throw new IllegalArgumentException("Invalid string reference in encoded message: " + index);
+                }
+                return strings.get((int) index);
+            }
+            final long length = header >>> 1;
+            if (length > remaining()) {
+                throw new IllegalArgumentException("Encoded message is truncated");
+            }
+            final String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            strings.add(value);
+            return value;
+        }
+
+        private int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
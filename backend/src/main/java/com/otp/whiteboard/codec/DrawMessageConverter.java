@@ -0,0 +1,55 @@
+package com.otp.whiteboard.codec;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+/**
+ * STOMP message converter for the {@link DrawMessageCodec} wire format.
+ * <p>
+ * Only messages whose {@code content-type} is {@link #DRAW_BINARY} are handled; everything else,
+ * including frames without a content type, falls through to the JSON converter.
+ */
+public class DrawMessageConverter extends AbstractMessageConverter {
+    public static final MimeType DRAW_BINARY = new MimeType("application", "x-whiteboard-draw");
+
+    public DrawMessageConverter() {
+        super(DRAW_BINARY);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return DrawMessageCodec.supports(clazz);
+    }
+
+    @Override
+    @Nullable
+    protected Object convertFromInternal(final Message<?> message, final Class<?> targetClass,
+                                         @Nullable final Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] bytes)) {
+            return null;
+        }
+        final Object payload;
+        try {
+            payload = DrawMessageCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException(message, "Malformed " + DRAW_BINARY + " payload: " + e.getMessage(), e);
+        }
+        if (!targetClass.isInstance(payload)) {
+            throw new MessageConversionException(message, "Expected " + targetClass.getSimpleName()
+                    + " but the payload holds " + payload.getClass().getSimpleName());
+        }
+        return payload;
+    }
+
+    @Override
+    @Nullable
+    protected Object convertToInternal(final Object payload, @Nullable final MessageHeaders headers,
+                                       @Nullable final Object conversionHint) {
+        return DrawMessageCodec.encode(payload);
+    }
+}
@@ -0,0 +1,81 @@
+package com.otp.whiteboard.codec;
+
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs stroke geometry, given as interleaved {@code x0, y0, x1, y1, ...} coordinates, into a byte array.
+ * The first byte is a format tag so that stored geometry stays readable when the encoding changes.
+ */
+public final class PackedPoints {
+    /** Raw big-endian IEEE-754 doubles, two per point. */
+    public static final byte FORMAT_RAW = 1;
+
+    private PackedPoints() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Packs interleaved coordinates.
+     *
+     * @param xy the coordinates, two values per point.
+     * @return the packed geometry.
+     * @throws IllegalArgumentException if the array does not contain whole points.
+     */
+    @Nonnull
+    public static byte[] pack(@NotNull final double[] xy) {
+        if (xy.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinate array must contain x/y pairs, got length " + xy.length);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + xy.length * Double.BYTES);
+        buffer.put(FORMAT_RAW);
+        for (final double value : xy) {
+            buffer.putDouble(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Packs interleaved coordinates with the compact {@link StrokeGeometryCodec} encoding.
+     *
+     * @param xy        the coordinates, two values per point.
+     * @param precision the number of decimal digits to keep.
+     * @return the packed geometry.
+     */
+    @Nonnull
+    public static byte[] pack(@NotNull final double[] xy, final int precision) {
+        return StrokeGeometryCodec.encode(xy, precision);
+    }
+
+    /**
+     * Unpacks geometry produced by either {@code pack} method.
+     *
+     * @param packed the packed geometry.
+     * @return the interleaved coordinates.
+     * @throws IllegalArgumentException if the format tag is unknown or the data is truncated.
+     */
+    @Nonnull
+    public static double[] unpack(@NotNull final byte[] packed) {
+        if (packed.length == 0) {
+            throw new IllegalArgumentException("Packed geometry is empty");
+        }
+        if (packed[0] == StrokeGeometryCodec.FORMAT_DELTA_VARINT) {
+            return StrokeGeometryCodec.decode(packed);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(packed);
+        final byte format = buffer.get();
+        if (format != FORMAT_RAW) {
+            throw new IllegalArgumentException("Unknown packed geometry format: " + format);
+        }
+        if (buffer.remaining() % (2 * Double.BYTES) != 0) {
+            throw new IllegalArgumentException("Packed geometry is truncated");
+        }
+        final double[] xy = new double[buffer.remaining() / Double.BYTES];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = buffer.getDouble();
+        }
+        return xy;
+    }
+}
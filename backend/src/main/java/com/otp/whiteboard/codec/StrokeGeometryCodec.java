@@ -0,0 +1,196 @@
+package com.otp.whiteboard.codec;
+
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding for stroke geometry.
+ * <p>
+ * Coordinates are rounded to a fixed-point grid of {@code 10^-precision}. The first point is stored
+ * absolutely and every following point as the difference to its predecessor. All values are
+ * zig-zag encoded and written as variable-length integers, so the small steps of a freehand line
+ * take one or two bytes per coordinate instead of eight.
+ * <p>
+ * Layout: {@code [format][precision][varint pointCount][x0][y0][dx1][dy1]...}
+ */
+public final class StrokeGeometryCodec {
+    /** Format tag written as the first byte; shares the tag space of {@link PackedPoints}. */
+    public static final byte FORMAT_DELTA_VARINT = 2;
+    /** Highest supported number of decimal digits. */
+    public static final int MAX_PRECISION = 6;
+
+    private static final long[] SCALES = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+    private static final double MAX_FIXED_POINT = (double) (1L << 53);
+
+    private StrokeGeometryCodec() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Encodes interleaved coordinates.
+     *
+     * @param xy        the coordinates, two values per point.
+     * @param precision the number of decimal digits to keep, from 0 to {@link #MAX_PRECISION}.
+     * @return the encoded geometry.
+     * @throws IllegalArgumentException if the input is not whole points, contains non-finite values,
+     *                                  or a value is too large for the chosen precision.
+     */
+    @Nonnull
+    public static byte[] encode(@NotNull final double[] xy, final int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ", got " + precision);
+        }
+        if (xy.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinate array must contain x/y pairs, got length " + xy.length);
+        }
+        final long scale = SCALES[precision];
+        final Writer writer = new Writer(8 + xy.length * 2);
+        writer.put(FORMAT_DELTA_VARINT);
+        writer.put((byte) precision);
+        writer.putVarint(xy.length / 2);
+
+        long previousX = 0;
+        long previousY = 0;
+        for (int i = 0; i < xy.length; i += 2) {
+            final long x = toFixedPoint(xy[i], scale);
+            final long y = toFixedPoint(xy[i + 1], scale);
+            writer.putVarint(zigZag(x - previousX));
+            writer.putVarint(zigZag(y - previousY));
+            previousX = x;
+            previousY = y;
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes geometry produced by {@link #encode(double[], int)}.
+     *
+     * @param encoded the encoded geometry.
+     * @return the interleaved coordinates, rounded to the precision used when encoding.
+     * @throws IllegalArgumentException if the data is not in this format or is truncated.
+     */
+    @Nonnull
+    public static double[] decode(@NotNull final byte[] encoded) {
+        final Reader reader = new Reader(encoded);
+        final byte format = reader.get();
+        if (format != FORMAT_DELTA_VARINT) {
+            throw new IllegalArgumentException("Not delta-varint geometry, format tag: " + format);
+        }
+        final int precision = reader.get();
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision in encoded geometry: " + precision);
+        }
+        final long pointCount = reader.getVarint();
+        // Every coordinate takes at least one byte, which bounds the allocation for corrupted input.
+        if (pointCount < 0 || pointCount * 2 > reader.remaining()) {
+            throw new IllegalArgumentException("Encoded geometry is truncated");
+        }
+        final double scale = SCALES[precision];
+        final double[] xy = new double[(int) pointCount * 2];
+        long x = 0;
+        long y = 0;
+        for (int i = 0; i < xy.length; i += 2) {
+            x += unZigZag(reader.getVarint());
+            y += unZigZag(reader.getVarint());
+            xy[i] = x / scale;
+            xy[i + 1] = y / scale;
+        }
+        if (reader.remaining() != 0) {
+            throw new IllegalArgumentException("Unexpected trailing bytes in encoded geometry");
+        }
+        return xy;
+    }
+
+    private static long toFixedPoint(final double value, final long scale) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Coordinate is not finite: " + value);
+        }
+        final double scaled = Math.rint(value * scale);
+        if (Math.abs(scaled) >= MAX_FIXED_POINT) {
+            throw new IllegalArgumentException("Coordinate " + value + " is out of range for the chosen precision");
+        }
+        return (long) scaled;
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable byte buffer with varint support.
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        private Writer(final int initialCapacity) {
+            this.buffer = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        private void put(final byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        private void putVarint(final long value) {
+            ensureCapacity(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        private void ensureCapacity(final int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * Bounds-checked reader over an encoded array.
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private byte get() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Encoded geometry is truncated");
+            }
+            return buffer[position++];
+        }
+
+        private long getVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = get();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in encoded geometry");
+        }
+
+        private int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.otp.whiteboard.config;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.EventStoreType;
+import com.otp.whiteboard.service.BoardEventStore;
+import com.otp.whiteboard.service.HistoryRehydrator;
+import com.otp.whiteboard.service.MappedBoardEventStore;
+import com.otp.whiteboard.service.RedisBoardEventStore;
+import com.otp.whiteboard.service.RedisEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.file.Path;
+
+@Configuration
+public class BoardEventStoreConfig {
+
+    /**
+     * The store of the boards' hot draw history, chosen with {@code app.draw.event-store.type}.
+     */
+    @Bean
+    public BoardEventStore boardEventStore(
+            @Value("${app.draw.event-store.type:REDIS}") final EventStoreType type,
+            final RedisTemplate<String, DrawDto> drawEventRedisTemplate,
+            final RedisEventPublisher redisEventPublisher,
+            final HistoryRehydrator historyRehydrator,
+            @Value("${app.draw.event-store.directory:data/board-events}") final String directory,
+            @Value("${app.draw.event-store.initial-segment-size:1048576}") final int initialSegmentSize,
+            @Value("${app.draw.event-store.fsync:false}") final boolean fsync,
+            @Value("${app.draw.event-store.idle-timeout:600000}") final long idleTimeoutMillis) {
+        return switch (type) {
+            case REDIS -> new RedisBoardEventStore(drawEventRedisTemplate, redisEventPublisher, historyRehydrator);
+            case MAPPED -> new MappedBoardEventStore(Path.of(directory), initialSegmentSize, fsync,
+                    idleTimeoutMillis);
+        };
+    }
+}
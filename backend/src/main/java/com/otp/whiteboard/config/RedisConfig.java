@@ -1,5 +1,7 @@
 package com.otp.whiteboard.config;
 
+import com.otp.whiteboard.codec.DrawDtoRedisSerializer;
+import com.otp.whiteboard.dto.drawing.DrawDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +12,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -37,6 +40,31 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Template for the {@code drawing-events-board-*} history lists, whose entries are stored in the
+     * compact binary draw format rather than as typed JSON.
+     */
+    @Bean
+    public RedisTemplate<String, DrawDto> drawEventRedisTemplate(final RedisConnectionFactory redisConnectionFactory) {
+        final RedisTemplate<String, DrawDto> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new DrawDtoRedisSerializer());
+        return template;
+    }
+
+    /**
+     * Template for values that are already encoded, such as the {@code drawing-snapshot-board-*} board snapshots.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(final RedisConnectionFactory redisConnectionFactory) {
+        final RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
     @Bean
     public ChannelTopic drawTopic() {
         return new ChannelTopic("drawing-events");
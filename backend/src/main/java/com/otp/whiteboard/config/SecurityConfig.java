@@ -1,6 +1,7 @@
 package com.otp.whiteboard.config;
 
 import com.otp.whiteboard.api.Endpoint;
+import com.otp.whiteboard.api.controller.BoardTileController;
 import com.otp.whiteboard.security.CustomUserDetailService;
 import com.otp.whiteboard.security.JwtAuthenticationFilter;
 import com.otp.whiteboard.security.JwtUtil;
@@ -74,6 +75,7 @@ public class SecurityConfig {
         configuration.addAllowedOriginPattern("*");
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader(BoardTileController.SEQUENCE_HEADER);
         configuration.setAllowCredentials(true);
 
         final UrlBasedCorsConfigurationSource source = new org.springframework.web.cors.UrlBasedCorsConfigurationSource();
@@ -1,25 +1,49 @@
 package com.otp.whiteboard.config;
 
 
+import com.otp.whiteboard.codec.DrawMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final int messageSizeLimit;
+    private final int sendBufferSizeLimit;
+    private final int sendTimeLimit;
+
+    public WebSocketConfig(@Value("${app.websocket.message-size-limit:131072}") final int messageSizeLimit,
+                           @Value("${app.websocket.send-buffer-size-limit:1048576}") final int sendBufferSizeLimit,
+                           @Value("${app.websocket.send-time-limit:20000}") final int sendTimeLimit) {
+        if (messageSizeLimit <= 0 || sendBufferSizeLimit <= 0 || sendTimeLimit <= 0) {
+            throw new IllegalArgumentException("WebSocket message size, send buffer and send time limits must be positive");
+        }
+        this.messageSizeLimit = messageSizeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimit = sendTimeLimit;
+    }
 
     @Override
     public void configureMessageBroker(final MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Keep each session's outbound messages in order, so clients replay points in the order they were drawn.
+        config.setPreservePublishOrder(true);
     }
 
     @Override
     public void registerStompEndpoints(final StompEndpointRegistry registry) {
+        // Handle each session's inbound messages in order, so the board lanes receive points as they were sent.
+        registry.setPreserveReceiveOrder(true);
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:3000", "http://localhost:5173");
 
@@ -30,4 +54,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setHttpMessageCacheSize(1000)
                 .setDisconnectDelay(30 * 1000);
     }
+
+    @Override
+    public void configureWebSocketTransport(final WebSocketTransportRegistration registration) {
+        // The send buffer holds a slow session's queued messages; history streams keep their unacknowledged
+        // chunks within it, so a large board does not get the session closed for exceeding it.
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimit);
+    }
+
+    @Override
+    public boolean configureMessageConverters(final List<MessageConverter> messageConverters) {
+        // Draw and cursor frames sent with the binary content type skip Jackson; everything else,
+        // including frames without a content type, is still handled by the default JSON converter.
+        messageConverters.add(new DrawMessageConverter());
+        return true;
+    }
 }
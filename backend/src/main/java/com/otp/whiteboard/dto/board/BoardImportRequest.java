@@ -0,0 +1,17 @@
+package com.otp.whiteboard.dto.board;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Strokes to add to a board in one bulk import, in drawing order.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record BoardImportRequest(
+        @NotEmpty
+        List<@Valid ImportedStrokeDto> strokes
+) {
+}
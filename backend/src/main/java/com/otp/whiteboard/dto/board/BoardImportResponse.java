@@ -0,0 +1,15 @@
+package com.otp.whiteboard.dto.board;
+
+/**
+ * Result of a board import.
+ *
+ * @param strokes the number of strokes imported.
+ * @param rows    the number of stroke path rows written; long strokes are split into several segments.
+ * @param points  the number of points imported.
+ */
+public record BoardImportResponse(
+        int strokes,
+        long rows,
+        long points
+) {
+}
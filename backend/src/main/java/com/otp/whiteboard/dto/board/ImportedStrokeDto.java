@@ -0,0 +1,36 @@
+package com.otp.whiteboard.dto.board;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One complete stroke of a board import, with its points as a flat {@code [x0, y0, x1, y1, ...]} array.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record ImportedStrokeDto(
+        @NotBlank
+        String strokeId,
+
+        @NotNull
+        DrawingTool tool,
+
+        @Nullable
+        String brushColor,
+
+        @Nullable
+        Long brushSize,
+
+        @NotEmpty
+        double[] points
+) {
+    /**
+     * @return the number of points in the stroke.
+     */
+    public int pointCount() {
+        return points == null ? 0 : points.length / 2;
+    }
+}
@@ -0,0 +1,25 @@
+package com.otp.whiteboard.dto.drawing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * What a client needs to draw a board when it joins: the strokes compacted into a snapshot at
+ * {@code sequence}, followed by the draw events received after it, oldest first.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record BoardSnapshotDto(
+        @NotNull
+        Long boardId,
+
+        long sequence,
+
+        @NotNull
+        List<SnapshotStrokeDto> strokes,
+
+        @NotNull
+        List<DrawDto> tail
+) {
+}
@@ -0,0 +1,72 @@
+package com.otp.whiteboard.dto.drawing;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Several consecutive points of one stroke sent in a single frame.
+ * The style is sent once in the header and the points as a flat {@code [x0, y0, x1, y1, ...]} array.
+ * {@code start} marks the first point as the start of the stroke, {@code end} the last point as its end;
+ * the remaining points are plain draw events.
+ * {@code seq} is set by the server on broadcast: the sequence number of the last point, the earlier points
+ * numbered consecutively before it.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record DrawBatchDto(
+        @NotNull
+        String id,
+
+        @NotNull
+        Long boardId,
+
+        @NotNull
+        String displayName,
+
+        long timestamp,
+
+        @NotNull
+        String strokeId,
+
+        @NotNull
+        DrawingTool tool,
+
+        @Nullable
+        String brushColor,
+
+        @Nullable
+        Long brushSize,
+
+        boolean start,
+
+        boolean end,
+
+        @NotEmpty
+        double[] points,
+
+        @Nullable
+        Long seq
+) {
+    public DrawBatchDto(final String id, final Long boardId, final String displayName, final long timestamp,
+                        final String strokeId, final DrawingTool tool, final String brushColor, final Long brushSize,
+                        final boolean start, final boolean end, final double[] points) {
+        this(id, boardId, displayName, timestamp, strokeId, tool, brushColor, brushSize, start, end, points, null);
+    }
+
+    /**
+     * @return this batch with the given sequence number.
+     */
+    public DrawBatchDto withSeq(final Long seq) {
+        return new DrawBatchDto(id, boardId, displayName, timestamp, strokeId, tool, brushColor, brushSize,
+                start, end, points, seq);
+    }
+
+    /**
+     * @return the number of points in the batch.
+     */
+    public int pointCount() {
+        return points == null ? 0 : points.length / 2;
+    }
+}
@@ -3,6 +3,12 @@ package com.otp.whiteboard.dto.drawing;
 import com.otp.whiteboard.enums.DrawEventType;
 import com.otp.whiteboard.enums.DrawingTool;
 
+/**
+ * A single point of a stroke.
+ * {@code seq} is the event's position in the board's history, increasing per board; the server sets it on
+ * broadcast and history-since events, and a reconnecting client resumes after the highest one it received.
+ * It is carried in the compact binary format as well, so binary clients resume the same way.
+ */
 public record DrawDto(
         String id,
         Long boardId,
@@ -14,7 +20,19 @@ public record DrawDto(
         double y,
         Long brushSize,
         String brushColor,
-        String strokeId
+        String strokeId,
+        Long seq
 ) {
+    public DrawDto(final String id, final Long boardId, final String displayName, final long timestamp,
+                   final DrawEventType type, final DrawingTool tool, final double x, final double y,
+                   final Long brushSize, final String brushColor, final String strokeId) {
+        this(id, boardId, displayName, timestamp, type, tool, x, y, brushSize, brushColor, strokeId, null);
+    }
 
+    /**
+     * @return this event with the given sequence number.
+     */
+    public DrawDto withSeq(final Long seq) {
+        return new DrawDto(id, boardId, displayName, timestamp, type, tool, x, y, brushSize, brushColor, strokeId, seq);
+    }
 }
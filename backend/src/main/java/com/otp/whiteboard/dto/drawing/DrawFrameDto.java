@@ -0,0 +1,22 @@
+package com.otp.whiteboard.dto.drawing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * All draw events a board received during one broadcast tick, in the order they were received.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record DrawFrameDto(
+        @NotNull
+        Long boardId,
+
+        long timestamp,
+
+        @NotEmpty
+        List<DrawDto> events
+) {
+}
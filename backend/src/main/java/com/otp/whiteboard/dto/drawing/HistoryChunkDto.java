@@ -0,0 +1,30 @@
+package com.otp.whiteboard.dto.drawing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * One chunk of a streamed board history. Chunks are numbered from 0 by {@code seq}, oldest events first.
+ * The stream ends with a completion frame: {@code complete} is set, {@code events} is empty and
+ * {@code totalEvents} is the number of events sent in the stream.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record HistoryChunkDto(
+        @NotNull
+        Long boardId,
+
+        @NotNull
+        String streamId,
+
+        long seq,
+
+        @NotNull
+        List<DrawDto> events,
+
+        boolean complete,
+
+        long totalEvents
+) {
+}
@@ -0,0 +1,24 @@
+package com.otp.whiteboard.dto.drawing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * One page of a board's draw history.
+ * {@code nextCursor} is an opaque token for the following page, or {@code null} when the history is exhausted.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record HistoryPageDto(
+        @NotNull
+        Long boardId,
+
+        @NotNull
+        List<DrawDto> events,
+
+        @Nullable
+        String nextCursor
+) {
+}
@@ -1,12 +1,21 @@
 package com.otp.whiteboard.dto.drawing;
 
+import com.otp.whiteboard.enums.HistoryOrder;
+
 /**
  * Simple request object for asking drawing history.
  * Sent from the client with boardId and optional limit.
+ * A page is continued with the {@code cursor} of the previous {@link HistoryPageDto};
+ * {@code order} defaults to {@link HistoryOrder#OLDEST_FIRST}.
  */
 
 public record HistoryRequest(
         Long boardId,
-        Integer limit
+        Integer limit,
+        String cursor,
+        HistoryOrder order
 ) {
+    public HistoryRequest(final Long boardId, final Integer limit) {
+        this(boardId, limit, null, null);
+    }
 }
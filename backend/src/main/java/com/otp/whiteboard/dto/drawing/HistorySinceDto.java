@@ -0,0 +1,27 @@
+package com.otp.whiteboard.dto.drawing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * The draw events after {@code since}, oldest first and numbered, and the board's last sequence number.
+ * When {@code resync} is set the events cannot be served and the list is empty: the client reloads the board,
+ * for example with {@code /history/snapshot}, and resumes from the live events it receives afterwards.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record HistorySinceDto(
+        @NotNull
+        Long boardId,
+
+        long since,
+
+        long lastSeq,
+
+        boolean resync,
+
+        @NotNull
+        List<DrawDto> events
+) {
+}
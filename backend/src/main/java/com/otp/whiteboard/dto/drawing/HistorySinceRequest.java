@@ -0,0 +1,15 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request for the draw events a reconnecting client missed.
+ * {@code since} is the highest {@code seq} of the events the client received.
+ */
+public record HistorySinceRequest(
+        @NotNull
+        Long boardId,
+
+        long since
+) {
+}
@@ -0,0 +1,14 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Acknowledges the chunks of a history stream up to and including {@code seq}, so the server sends more.
+ */
+public record HistoryStreamAck(
+        @NotNull
+        String streamId,
+
+        long seq
+) {
+}
@@ -0,0 +1,21 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request to stream a board's draw history in chunks.
+ * {@code streamId} is chosen by the client and echoed in every chunk; {@code chunkSize} limits the events
+ * per chunk, {@code null} for the server's default, and is capped at it.
+ */
+public record HistoryStreamRequest(
+        @NotNull
+        Long boardId,
+
+        @NotNull
+        String streamId,
+
+        @Nullable
+        Integer chunkSize
+) {
+}
@@ -0,0 +1,41 @@
+package com.otp.whiteboard.dto.drawing;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotEmpty;
+
+/**
+ * One stroke of a board snapshot: the style once and the points as a flat {@code [x0, y0, x1, y1, ...]} array.
+ * {@code ended} is {@code false} for a stroke that was still being drawn when the snapshot was taken;
+ * its remaining points follow in the snapshot tail.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record SnapshotStrokeDto(
+        @Nullable
+        String strokeId,
+
+        @Nullable
+        String displayName,
+
+        @Nullable
+        DrawingTool tool,
+
+        @Nullable
+        String brushColor,
+
+        @Nullable
+        Long brushSize,
+
+        boolean ended,
+
+        @NotEmpty
+        double[] points
+) {
+    /**
+     * @return the number of points in the stroke.
+     */
+    public int pointCount() {
+        return points == null ? 0 : points.length / 2;
+    }
+}
@@ -0,0 +1,21 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request for the draw history of the part of a board a client is looking at.
+ * The viewport is given in board coordinates; only strokes intersecting it are returned.
+ */
+public record ViewportHistoryRequest(
+        @NotNull
+        Long boardId,
+
+        double minX,
+
+        double minY,
+
+        double maxX,
+
+        double maxY
+) {
+}
@@ -0,0 +1,11 @@
+package com.otp.whiteboard.enums;
+
+/**
+ * How draw events are broadcast to the subscribers of a board.
+ */
+public enum BroadcastMode {
+    /** Every event is sent as its own message to {@code /topic/draw}. */
+    IMMEDIATE,
+    /** Events are collected per board and sent once per tick as one frame to {@code /topic/draw/frame}. */
+    COALESCED
+}
@@ -4,14 +4,17 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum DrawEventType {
-    START("start"),
-    DRAW("draw"),
-    END("end");
+    START("start", 0),
+    DRAW("draw", 1),
+    END("end", 2);
 
     private final String value;
+    /** Stable code of the constant in binary formats; never reuse or change one, stored history depends on it. */
+    private final int code;
 
-    DrawEventType(final String value) {
+    DrawEventType(final String value, final int code) {
         this.value = value;
+        this.code = code;
     }
 
     @JsonValue
@@ -19,6 +22,10 @@ public enum DrawEventType {
         return value;
     }
 
+    public int getCode() {
+        return code;
+    }
+
     @JsonCreator
     public static DrawEventType fromValue(final String value) {
         if (value == null) return null;
@@ -29,4 +36,13 @@ public enum DrawEventType {
         }
         throw new IllegalArgumentException("Unknown DrawEventType: " + value);
     }
+
+    public static DrawEventType fromCode(final int code) {
+        for (final DrawEventType type : DrawEventType.values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown DrawEventType code: " + code);
+    }
 }
\ No newline at end of file
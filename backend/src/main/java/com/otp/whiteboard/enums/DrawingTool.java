@@ -4,14 +4,17 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum DrawingTool {
-    PEN("pen"),
-    ERASER("eraser"),
-    HAND("hand");
+    PEN("pen", 0),
+    ERASER("eraser", 1),
+    HAND("hand", 2);
 
     private final String value;
+    /** Stable code of the constant in binary formats; never reuse or change one, stored history depends on it. */
+    private final int code;
 
-    DrawingTool(final String value) {
+    DrawingTool(final String value, final int code) {
         this.value = value;
+        this.code = code;
     }
 
     @JsonValue
@@ -19,6 +22,10 @@ public enum DrawingTool {
         return value;
     }
 
+    public int getCode() {
+        return code;
+    }
+
     @JsonCreator
     public static DrawingTool fromValue(final String value) {
         if (value == null) return null;
@@ -30,6 +37,15 @@ public enum DrawingTool {
         throw new IllegalArgumentException("Unknown DrawingTool: " + value);
     }
 
+    public static DrawingTool fromCode(final int code) {
+        for (final DrawingTool tool : DrawingTool.values()) {
+            if (tool.code == code) {
+                return tool;
+            }
+        }
+        throw new IllegalArgumentException("Unknown DrawingTool code: " + code);
+    }
+
     public boolean canDraw() {
         return this == PEN;
     }
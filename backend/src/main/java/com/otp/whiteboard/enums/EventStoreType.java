@@ -0,0 +1,11 @@
+package com.otp.whiteboard.enums;
+
+/**
+ * Where the hot draw history of each board is kept.
+ */
+public enum EventStoreType {
+    /** Redis lists that expire after {@code app.draw.redis.history-ttl}, shared by all instances. */
+    REDIS,
+    /** An append-only, memory-mapped segment file per board on the local disk, for single-instance deployments. */
+    MAPPED
+}
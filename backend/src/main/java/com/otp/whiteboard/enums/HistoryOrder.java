@@ -0,0 +1,11 @@
+package com.otp.whiteboard.enums;
+
+/**
+ * The order in which a page of board history is returned.
+ */
+public enum HistoryOrder {
+    /** Events in the order they were drawn; pages move forward in time. */
+    OLDEST_FIRST,
+    /** The latest events first; pages move back in time. */
+    NEWEST_FIRST
+}
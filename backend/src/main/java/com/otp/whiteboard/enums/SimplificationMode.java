@@ -0,0 +1,15 @@
+package com.otp.whiteboard.enums;
+
+/**
+ * How stored stroke geometry is simplified before it is persisted.
+ */
+public enum SimplificationMode {
+    /** Store every point as drawn. */
+    NONE,
+    /** Drop points closer than the tolerance to the previous kept point. */
+    RADIAL,
+    /** Ramer–Douglas–Peucker: drop points closer than the tolerance to the simplified line. */
+    RDP,
+    /** A radial pass to thin out dense input, followed by Ramer–Douglas–Peucker. */
+    RADIAL_RDP
+}
@@ -0,0 +1,98 @@
+package com.otp.whiteboard.listener;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the subscribers of each broadcast topic under {@value #TOPIC_PREFIX}. The simple broker sends the
+ * same bytes to every subscriber of a destination, so clients of the compact wire format subscribe to the
+ * {@value #BINARY_SUFFIX} variant of a topic, and the server only encodes a format while someone is
+ * subscribed to it.
+ */
+@Component
+public class TopicSubscriptionTracker {
+    public static final String TOPIC_PREFIX = "/topic/";
+    public static final String BINARY_SUFFIX = ".bin";
+
+    /** Topic subscriptions by session, then subscription id, to their destination. */
+    private final Map<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscribersByDestination = new ConcurrentHashMap<>();
+
+    /**
+     * @param destination a topic such as {@code /topic/draw}.
+     * @return the binary variant of the topic.
+     */
+    @NotNull
+    public static String binaryDestination(@NotNull final String destination) {
+        return destination + BINARY_SUFFIX;
+    }
+
+    /**
+     * @param destination a topic or its binary variant.
+     * @return {@code true} if at least one session is subscribed to it.
+     */
+    public boolean hasSubscribers(@NotNull final String destination) {
+        return subscribersByDestination.containsKey(destination);
+    }
+
+    @EventListener
+    public void onSubscribe(final SessionSubscribeEvent event) {
+        final SimpMessageHeaderAccessor accessor = accessor(event.getMessage());
+        final String destination = accessor.getDestination();
+        final String sessionId = accessor.getSessionId();
+        final String subscriptionId = accessor.getSubscriptionId();
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX) || sessionId == null || subscriptionId == null) {
+            return;
+        }
+        final String previous = subscriptionsBySession
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            release(previous);
+        }
+        subscribersByDestination.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(final SessionUnsubscribeEvent event) {
+        final SimpMessageHeaderAccessor accessor = accessor(event.getMessage());
+        final String sessionId = accessor.getSessionId();
+        final String subscriptionId = accessor.getSubscriptionId();
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        final Map<String, String> subscriptions = subscriptionsBySession.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        final String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) {
+            release(destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(final SessionDisconnectEvent event) {
+        final Map<String, String> subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(final String destination) {
+        subscribersByDestination.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static SimpMessageHeaderAccessor accessor(final Message<?> message) {
+        return SimpMessageHeaderAccessor.wrap(message);
+    }
+}
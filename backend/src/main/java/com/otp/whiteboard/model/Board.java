@@ -26,7 +26,11 @@ public class Board {
     @Column(name = "amount_of_users")
     private Integer amountOfUsers = 0;
 
-    @Column(name = "number_of_strokes", columnDefinition = "INT DEFAULT 0")
+    /**
+     * Only written on insert; afterwards it is changed in place by {@code BoardRepository}, so saving a board
+     * loaded before a {@link com.otp.whiteboard.service.BoardStrokeCounter} flush does not overwrite the count.
+     */
+    @Column(name = "number_of_strokes", columnDefinition = "INT DEFAULT 0", updatable = false)
     private Integer numberOfStrokes = 0;
 
     @Column(name = "created_at", updatable = false)
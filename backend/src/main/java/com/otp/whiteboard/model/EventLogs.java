@@ -8,8 +8,15 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "event_logs")
 public class EventLogs implements Serializable {
+    /**
+     * Ids come from the {@code event_logs_pooled_id_seq} sequence in blocks of 50 (pooled-lo), so inserts can be batched
+     * instead of each one waiting for its generated key. Hibernate creates the sequence with an increment that
+     * matches the block size; {@link com.otp.whiteboard.repository.PooledIdSequenceInitializer} moves it past
+     * the ids the table already holds.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_log_id_generator")
+    @SequenceGenerator(name = "event_log_id_generator", sequenceName = "event_logs_pooled_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
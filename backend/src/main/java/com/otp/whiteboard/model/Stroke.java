@@ -8,10 +8,18 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "strokes")
+@Table(name = "strokes",
+        indexes = @Index(name = "idx_strokes_board_id", columnList = "board_id, id"))
 public class Stroke implements Serializable {
+    /**
+     * Ids come from the {@code strokes_pooled_id_seq} sequence in blocks of 50 (pooled-lo), so inserts can be batched
+     * instead of each one waiting for its generated key. Hibernate creates the sequence with an increment that
+     * matches the block size; {@link com.otp.whiteboard.repository.PooledIdSequenceInitializer} moves it past
+     * the ids the table already holds.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stroke_id_generator")
+    @SequenceGenerator(name = "stroke_id_generator", sequenceName = "strokes_pooled_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
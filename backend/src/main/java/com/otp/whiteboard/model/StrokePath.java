@@ -0,0 +1,278 @@
+package com.otp.whiteboard.model;
+
+import com.otp.whiteboard.codec.PackedPoints;
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * A whole stroke (START..END) stored as one row. Style fields are kept once
+ * and the geometry is stored as a packed point array, together with its bounding box
+ * so viewport queries can skip strokes without unpacking them.
+ */
+@Entity
+@Table(name = "stroke_paths",
+        uniqueConstraints = @UniqueConstraint(name = "uq_stroke_paths_board_stroke_segment",
+                columnNames = {"board_id", "stroke_id", "segment"}),
+        indexes = @Index(name = "idx_stroke_paths_board_bbox", columnList = "board_id, min_x, max_x, min_y, max_y"))
+public class StrokePath implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "board_id", referencedColumnName = "id", nullable = false)
+    private Board board;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    private User user;
+
+    @Column(name = "stroke_id", nullable = false)
+    private String strokeId;
+
+    @Column(name = "segment", nullable = false)
+    private int segment;
+
+    @Column(name = "color")
+    private String color;
+
+    @Column(name = "thickness")
+    private Long thickness;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tool", length = 50)
+    private DrawingTool tool;
+
+    @Column(name = "point_count", nullable = false)
+    private int pointCount;
+
+    @Column(name = "ended", nullable = false)
+    private boolean ended;
+
+    @Column(name = "points", nullable = false)
+    private byte[] points;
+
+    @Column(name = "min_x")
+    private Double minX;
+
+    @Column(name = "min_y")
+    private Double minY;
+
+    @Column(name = "max_x")
+    private Double maxX;
+
+    @Column(name = "max_y")
+    private Double maxY;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_seq")
+    private Long lastSeq;
+
+    @Transient
+    private long[] sequences = new long[0];
+
+    public StrokePath() {
+        // Default constructor for JPA
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(final Long id) {
+        this.id = id;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public void setBoard(final Board board) {
+        this.board = board;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(final User user) {
+        this.user = user;
+    }
+
+    public String getStrokeId() {
+        return strokeId;
+    }
+
+    public void setStrokeId(final String strokeId) {
+        this.strokeId = strokeId;
+    }
+
+    public int getSegment() {
+        return segment;
+    }
+
+    public void setSegment(final int segment) {
+        this.segment = segment;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(final String color) {
+        this.color = color;
+    }
+
+    public Long getThickness() {
+        return thickness;
+    }
+
+    public void setThickness(final Long thickness) {
+        this.thickness = thickness;
+    }
+
+    public DrawingTool getTool() {
+        return tool;
+    }
+
+    public void setTool(final DrawingTool tool) {
+        this.tool = tool;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public void setEnded(final boolean ended) {
+        this.ended = ended;
+    }
+
+    /**
+     * @return the interleaved {@code x, y} coordinates of this stroke.
+     */
+    public double[] getPoints() {
+        return PackedPoints.unpack(points);
+    }
+
+    /**
+     * Stores the geometry losslessly and updates the point count and bounding box.
+     *
+     * @param xy the interleaved {@code x, y} coordinates.
+     */
+    public void setPoints(final double[] xy) {
+        this.points = PackedPoints.pack(xy);
+        this.pointCount = xy.length / 2;
+        updateBounds(xy);
+    }
+
+    /**
+     * Stores the geometry delta-encoded on a fixed-point grid and updates the point count and bounding box.
+     *
+     * @param xy        the interleaved {@code x, y} coordinates.
+     * @param precision the number of decimal digits to keep.
+     */
+    public void setPoints(final double[] xy, final int precision) {
+        this.points = PackedPoints.pack(xy, precision);
+        this.pointCount = xy.length / 2;
+        updateBounds(xy);
+    }
+
+    /**
+     * @return the smallest x coordinate of the points, or {@code null} for rows stored before bounds were kept.
+     */
+    public Double getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return the smallest y coordinate of the points, or {@code null} for rows stored before bounds were kept.
+     */
+    public Double getMinY() {
+        return minY;
+    }
+
+    /**
+     * @return the largest x coordinate of the points, or {@code null} for rows stored before bounds were kept.
+     */
+    public Double getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return the largest y coordinate of the points, or {@code null} for rows stored before bounds were kept.
+     */
+    public Double getMaxY() {
+        return maxY;
+    }
+
+    private void updateBounds(final double[] xy) {
+        if (xy.length < 2) {
+            minX = minY = maxX = maxY = null;
+            return;
+        }
+        double left = xy[0];
+        double top = xy[1];
+        double right = xy[0];
+        double bottom = xy[1];
+        for (int i = 2; i + 1 < xy.length; i += 2) {
+            left = Math.min(left, xy[i]);
+            right = Math.max(right, xy[i]);
+            top = Math.min(top, xy[i + 1]);
+            bottom = Math.max(bottom, xy[i + 1]);
+        }
+        minX = left;
+        minY = top;
+        maxX = right;
+        maxY = bottom;
+    }
+
+    /**
+     * @return the stored geometry in its packed form.
+     */
+    public byte[] getPackedPoints() {
+        return points;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(final LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the highest sequence number of the draw events this row was assembled from, or {@code null} for rows
+     * stored before it was recorded.
+     */
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(final Long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    /**
+     * @return the sequence numbers of the draw events this row was assembled from; only the highest one is stored.
+     */
+    public long[] getSequences() {
+        return sequences;
+    }
+
+    public void setSequences(final long[] sequences) {
+        this.sequences = sequences;
+        this.lastSeq = sequences.length > 0 ? Arrays.stream(sequences).max().getAsLong() : null;
+    }
+}
@@ -3,6 +3,10 @@ package com.otp.whiteboard.repository;
 import com.otp.whiteboard.model.Board;
 import jakarta.annotation.Nonnull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,4 +19,28 @@ public interface BoardRepository  extends JpaRepository<Board, Long> {
      */
     @Nonnull Optional<Board> findBoardsByName(String name);
 
+    /**
+     * Atomically adds to the stroke count of a board without loading the entity.
+     *
+     * @param boardId the ID of the board.
+     * @param delta   the number of strokes to add.
+     * @return the number of updated rows, 0 if the board does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Board b SET b.numberOfStrokes = COALESCE(b.numberOfStrokes, 0) + :delta WHERE b.id = :boardId")
+    int incrementNumberOfStrokes(@Param("boardId") Long boardId, @Param("delta") int delta);
+
+    /**
+     * Sets the stroke count of a board without loading the entity, since saving the entity does not write it.
+     *
+     * @param boardId         the ID of the board.
+     * @param numberOfStrokes the new stroke count.
+     * @return the number of updated rows, 0 if the board does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Board b SET b.numberOfStrokes = :numberOfStrokes WHERE b.id = :boardId")
+    int updateNumberOfStrokes(@Param("boardId") Long boardId, @Param("numberOfStrokes") int numberOfStrokes);
+
 }
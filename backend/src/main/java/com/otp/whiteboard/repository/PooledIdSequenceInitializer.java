@@ -0,0 +1,83 @@
+package com.otp.whiteboard.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prepares the sequences that {@link com.otp.whiteboard.model.Stroke} and {@link com.otp.whiteboard.model.EventLogs}
+ * take their ids from in pooled-lo blocks. The schema is managed with {@code ddl-auto}, which creates a missing
+ * sequence starting at 1, while the tables may already hold rows with ids from their {@code SERIAL} columns.
+ * Before anything is inserted, each sequence is moved past the highest id of its table unless a block it handed
+ * out already covers that id, so it only ever moves forward and blocks other instances hold stay valid.
+ * <p>
+ * Runs on PostgreSQL only; other databases, such as the in-memory one of the tests, start with empty tables.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PooledIdSequenceInitializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledIdSequenceInitializer.class);
+
+    /** Ids per block; matches the {@code allocationSize} of the entities and {@code hibernate.jdbc.batch_size}. */
+    static final int ALLOCATION_SIZE = 50;
+
+    /** Sequences by the table whose ids they issue. */
+    static final Map<String, String> SEQUENCES = Map.of(
+            "strokes", "strokes_pooled_id_seq",
+            "event_logs", "event_logs_pooled_id_seq");
+
+    private final DataSource dataSource;
+
+    public PooledIdSequenceInitializer(final DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource must not be null");
+    }
+
+    /**
+     * Creates the SQL that moves a sequence past the ids of its table. A sequence that was never called issues its
+     * {@code last_value} next; one that was issued blocks up to {@code last_value + ALLOCATION_SIZE - 1}.
+     */
+    static String alignSql(final String table, final String sequence) {
+        return "SELECT setval('" + sequence + "', t.max_id + 1, false)"
+                + " FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") t, " + sequence + " s"
+                + " WHERE t.max_id >= s.last_value + CASE WHEN s.is_called THEN " + ALLOCATION_SIZE + " ELSE 0 END";
+    }
+
+    @PostConstruct
+    public void initialize() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+            for (final Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+                align(connection, entry.getKey(), entry.getValue());
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not prepare the pooled id sequences", e);
+        }
+    }
+
+    private static void align(final Connection connection, final String table, final String sequence)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY "
+                    + ALLOCATION_SIZE);
+            try (ResultSet moved = statement.executeQuery(alignSql(table, sequence))) {
+                if (moved.next()) {
+                    LOGGER.info("Moved id sequence {} past the existing ids of {} to {}", sequence, table,
+                            moved.getLong(1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.otp.whiteboard.repository;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the complete stored history of a board: the legacy one-row-per-point strokes, then the stroke paths.
+ * Each table is read in one scan as a projection of the columns the draw events need, so no board or user
+ * entities are loaded per row. The rows are streamed in a read-only transaction, which lets the driver
+ * fetch them in chunks instead of materializing the whole result.
+ */
+@Repository
+public class StoredHistoryReader {
+    private final StrokeRepository strokeRepository;
+    private final StrokePathRepository strokePathRepository;
+
+    public StoredHistoryReader(final StrokeRepository strokeRepository,
+                               final StrokePathRepository strokePathRepository) {
+        this.strokeRepository = Objects.requireNonNull(strokeRepository, "strokeRepository must not be null");
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+    }
+
+    /**
+     * Passes every stored row of a board to the consumers, oldest first.
+     *
+     * @param boardId     the ID of the board.
+     * @param strokes     receives the legacy stroke rows.
+     * @param strokePaths receives the stroke path rows, after all legacy rows.
+     */
+    @Transactional(readOnly = true)
+    public void readBoard(@NotNull final Long boardId,
+                          @NotNull final Consumer<StrokeEventRow> strokes,
+                          @NotNull final Consumer<StrokePathRow> strokePaths) {
+        try (Stream<StrokeEventRow> rows = strokeRepository.streamEventRowsByBoardId(boardId)) {
+            rows.forEach(strokes);
+        }
+        try (Stream<StrokePathRow> rows = strokePathRepository.streamRowsByBoardId(boardId)) {
+            rows.forEach(strokePaths);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.otp.whiteboard.repository;
+
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a legacy one-row-per-point stroke that its draw event needs, read without loading
+ * the stroke, its board or its user as entities.
+ */
+public record StrokeEventRow(
+        Long id,
+        Long boardId,
+        String displayName,
+        LocalDateTime createdAt,
+        DrawEventType type,
+        DrawingTool tool,
+        Double x,
+        Double y,
+        Long thickness,
+        String color
+) {
+}
@@ -0,0 +1,201 @@
+package com.otp.whiteboard.repository;
+
+import com.otp.whiteboard.model.StrokePath;
+import jakarta.validation.constraints.NotNull;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes stroke paths in bulk. On PostgreSQL the rows are streamed with {@code COPY ... FROM STDIN} in the
+ * binary format, which needs one round-trip per batch; {@code saveAll} needs one per row, because
+ * {@code IDENTITY} ids disable Hibernate's JDBC batching. Other databases fall back to {@code saveAll}.
+ * <p>
+ * {@code COPY} cannot skip conflicting rows, so it fills a per-session staging table that is then moved into
+ * {@code stroke_paths} with {@code ON CONFLICT DO NOTHING}: a stroke segment that was already stored, for example
+ * after a client resent its events, is skipped instead of failing the whole batch.
+ * Rows written this way do not get their generated ids assigned to the entities.
+ */
+@Repository
+public class StrokePathBulkWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrokePathBulkWriter.class);
+
+    private static final String COLUMNS = "board_id, user_id, stroke_id, segment, color, thickness, tool,"
+            + " point_count, ended, points, min_x, min_y, max_x, max_y, created_at, last_seq";
+
+    static final String STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS stroke_paths_staging (ord BIGSERIAL,"
+            + " board_id INT, user_id INT, stroke_id VARCHAR(255), segment INT, color VARCHAR(50), thickness INT,"
+            + " tool VARCHAR(50), point_count INT, ended BOOLEAN, points BYTEA, min_x FLOAT8,"
+            + " min_y FLOAT8, max_x FLOAT8, max_y FLOAT8, created_at TIMESTAMP, last_seq BIGINT);"
+            + " TRUNCATE stroke_paths_staging RESTART IDENTITY";
+    static final String COPY_SQL = "COPY stroke_paths_staging (" + COLUMNS + ") FROM STDIN (FORMAT BINARY)";
+    static final String MERGE_SQL = "INSERT INTO stroke_paths (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM stroke_paths_staging ORDER BY ord ON CONFLICT (board_id, stroke_id, segment) DO NOTHING";
+
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short COLUMN_COUNT = 16;
+    private static final int NULL_LENGTH = -1;
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final StrokePathRepository strokePathRepository;
+    private final boolean copyEnabled;
+
+    public StrokePathBulkWriter(final DataSource dataSource,
+                                final StrokePathRepository strokePathRepository,
+                                @Value("${app.draw.persistence.copy.enabled:true}") final boolean copyEnabled) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource must not be null");
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+        this.copyEnabled = copyEnabled;
+    }
+
+    /**
+     * Inserts the given stroke paths.
+     *
+     * @param strokes the stroke paths to insert.
+     * @return the number of rows written; with {@code COPY}, segments that were already stored are not counted.
+     */
+    public long writeAll(@NotNull final List<StrokePath> strokes) {
+        if (strokes.isEmpty()) {
+            return 0;
+        }
+        if (!copyEnabled) {
+            strokePathRepository.saveAll(strokes);
+            return strokes.size();
+        }
+        final Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                strokePathRepository.saveAll(strokes);
+                return strokes.size();
+            }
+            return copy(connection, strokes);
+        } catch (SQLException | IOException e) {
+            throw new DataAccessResourceFailureException("COPY of " + strokes.size() + " stroke paths failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private long copy(final Connection connection, final List<StrokePath> strokes) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(STAGING_SQL);
+        }
+        final PGCopyOutputStream copyStream =
+                new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, COPY_BUFFER_SIZE);
+        try {
+            final DataOutputStream out = new DataOutputStream(copyStream);
+            writeRows(out, strokes);
+            out.flush();
+            copyStream.endCopy();
+        } finally {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            final long rows = statement.executeLargeUpdate(MERGE_SQL);
+            if (rows < strokes.size()) {
+                LOGGER.debug("Skipped {} stroke paths that were already stored", strokes.size() - rows);
+            }
+            LOGGER.debug("Copied {} stroke paths", rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Writes the rows in the PostgreSQL binary {@code COPY} format: a signature, flags and header extension,
+     * then per row the column count and each value as a length followed by its bytes, and a {@code -1} trailer.
+     * The value encodings follow the column types of the {@code stroke_paths} migration.
+     *
+     * @param out     the stream to write to.
+     * @param strokes the rows to write.
+     */
+    static void writeRows(final DataOutput out, final List<StrokePath> strokes) throws IOException {
+        out.write(COPY_SIGNATURE);
+        out.writeInt(0);
+        out.writeInt(0);
+        for (final StrokePath stroke : strokes) {
+            out.writeShort(COLUMN_COUNT);
+            writeInt4(out, Math.toIntExact(stroke.getBoard().getId()));
+            writeInt4(out, Math.toIntExact(stroke.getUser().getId()));
+            writeText(out, stroke.getStrokeId());
+            writeInt4(out, stroke.getSegment());
+            writeText(out, stroke.getColor());
+            writeInt4(out, stroke.getThickness() != null ? Math.toIntExact(stroke.getThickness()) : null);
+            writeText(out, stroke.getTool() != null ? stroke.getTool().name() : null);
+            writeInt4(out, stroke.getPointCount());
+            out.writeInt(1);
+            out.writeByte(stroke.isEnded() ? 1 : 0);
+            writeBytes(out, stroke.getPackedPoints());
+            writeFloat8(out, stroke.getMinX());
+            writeFloat8(out, stroke.getMinY());
+            writeFloat8(out, stroke.getMaxX());
+            writeFloat8(out, stroke.getMaxY());
+            final LocalDateTime createdAt = stroke.getCreatedAt() != null ? stroke.getCreatedAt() : LocalDateTime.now();
+            out.writeInt(Long.BYTES);
+            out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, createdAt));
+            writeInt8(out, stroke.getLastSeq());
+        }
+        out.writeShort(-1);
+    }
+
+    private static void writeInt4(final DataOutput out, final Integer value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(Integer.BYTES);
+        out.writeInt(value);
+    }
+
+    private static void writeInt8(final DataOutput out, final Long value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(value);
+    }
+
+    private static void writeFloat8(final DataOutput out, final Double value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(Double.BYTES);
+        out.writeDouble(value);
+    }
+
+    private static void writeText(final DataOutput out, final String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static void writeBytes(final DataOutput out, final byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+}
@@ -0,0 +1,104 @@
+package com.otp.whiteboard.repository;
+
+import com.otp.whiteboard.model.StrokePath;
+import jakarta.persistence.QueryHint;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface StrokePathRepository extends JpaRepository<StrokePath, Long> {
+    /**
+     * Finds all stroke paths of a board in the order they were stored.
+     *
+     * @param boardId the ID of the board.
+     * @return the stroke paths of the board, oldest first.
+     */
+    List<StrokePath> findAllByBoardIdOrderByIdAsc(@NotNull Long boardId);
+
+    /**
+     * Finds the draw event columns of a board's stroke paths from a given id onwards, oldest first.
+     *
+     * @param boardId the ID of the board.
+     * @param fromId  the smallest stroke path id to return.
+     * @param limit   the maximum number of stroke paths.
+     * @return the rows, ordered by id.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokePathRow(p.id, p.board.id, u.displayName, p.strokeId,"
+            + " p.segment, p.color, p.thickness, p.tool, p.ended, p.points, p.createdAt)"
+            + " FROM StrokePath p JOIN p.user u WHERE p.board.id = :boardId AND p.id >= :fromId ORDER BY p.id")
+    List<StrokePathRow> findRowsFrom(@Param("boardId") Long boardId, @Param("fromId") Long fromId, Limit limit);
+
+    /**
+     * Finds the draw event columns of a board's stroke paths up to a given id, newest first.
+     *
+     * @param boardId the ID of the board.
+     * @param toId    the largest stroke path id to return.
+     * @param limit   the maximum number of stroke paths.
+     * @return the rows, ordered by id descending.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokePathRow(p.id, p.board.id, u.displayName, p.strokeId,"
+            + " p.segment, p.color, p.thickness, p.tool, p.ended, p.points, p.createdAt)"
+            + " FROM StrokePath p JOIN p.user u WHERE p.board.id = :boardId AND p.id <= :toId ORDER BY p.id DESC")
+    List<StrokePathRow> findRowsUpTo(@Param("boardId") Long boardId, @Param("toId") Long toId, Limit limit);
+
+    /**
+     * Finds the highest segment stored for a stroke.
+     *
+     * @param boardId  the ID of the board.
+     * @param strokeId the client-side id of the stroke.
+     * @return the highest segment, or {@code null} if no segment of the stroke is stored.
+     */
+    @Query("SELECT MAX(p.segment) FROM StrokePath p WHERE p.board.id = :boardId AND p.strokeId = :strokeId")
+    Integer findMaxSegment(@Param("boardId") Long boardId, @Param("strokeId") String strokeId);
+
+    /**
+     * Finds the highest sequence number stored with the stroke paths of a board.
+     *
+     * @param boardId the ID of the board.
+     * @return the highest sequence number, or {@code null} if no stroke path of the board has one.
+     */
+    @Query("SELECT MAX(p.lastSeq) FROM StrokePath p WHERE p.board.id = :boardId")
+    Long findMaxLastSeq(@Param("boardId") Long boardId);
+
+    /**
+     * Finds the draw event columns of the stroke paths of a board whose bounding box intersects a rectangle, in the
+     * order they were stored.
+     * Rows stored without a bounding box are always included.
+     *
+     * @param boardId the ID of the board.
+     * @param minX    the left edge of the rectangle.
+     * @param minY    the top edge of the rectangle.
+     * @param maxX    the right edge of the rectangle.
+     * @param maxY    the bottom edge of the rectangle.
+     * @return the rows of the intersecting stroke paths, oldest first.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokePathRow(p.id, p.board.id, u.displayName, p.strokeId,"
+            + " p.segment, p.color, p.thickness, p.tool, p.ended, p.points, p.createdAt)"
+            + " FROM StrokePath p JOIN p.user u WHERE p.board.id = :boardId AND (p.minX IS NULL"
+            + " OR (p.minX <= :maxX AND p.maxX >= :minX AND p.minY <= :maxY AND p.maxY >= :minY)) ORDER BY p.id")
+    List<StrokePathRow> findAllInViewport(@Param("boardId") Long boardId, @Param("minX") double minX,
+                                       @Param("minY") double minY, @Param("maxX") double maxX,
+                                       @Param("maxY") double maxY);
+
+    /**
+     * Streams the draw event columns of a board's stroke paths in one scan, in the order they were stored.
+     * Must be consumed within a transaction and closed afterwards.
+     *
+     * @param boardId the ID of the board.
+     * @return the rows, ordered by id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StrokeRepository.HISTORY_FETCH_SIZE))
+    @Query("SELECT new com.otp.whiteboard.repository.StrokePathRow(p.id, p.board.id, u.displayName, p.strokeId,"
+            + " p.segment, p.color, p.thickness, p.tool, p.ended, p.points, p.createdAt)"
+            + " FROM StrokePath p JOIN p.user u WHERE p.board.id = :boardId ORDER BY p.id")
+    Stream<StrokePathRow> streamRowsByBoardId(@Param("boardId") Long boardId);
+}
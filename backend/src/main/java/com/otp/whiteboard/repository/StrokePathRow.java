@@ -0,0 +1,36 @@
+package com.otp.whiteboard.repository;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.StrokePath;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a stored stroke path that its draw events need, read without loading
+ * the path, its board or its user as entities. {@code points} is the packed geometry.
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public record StrokePathRow(
+        Long id,
+        Long boardId,
+        String displayName,
+        String strokeId,
+        int segment,
+        String color,
+        Long thickness,
+        DrawingTool tool,
+        boolean ended,
+        byte[] points,
+        LocalDateTime createdAt
+) {
+    /**
+     * @return the row of a loaded stroke path entity.
+     */
+    public static StrokePathRow of(@NotNull final StrokePath path) {
+        return new StrokePathRow(path.getId(), path.getBoard().getId(), path.getUser().getDisplayName(),
+                path.getStrokeId(), path.getSegment(), path.getColor(), path.getThickness(), path.getTool(),
+                path.isEnded(), path.getPackedPoints(), path.getCreatedAt());
+    }
+}
@@ -1,14 +1,26 @@
 package com.otp.whiteboard.repository;
 
 import com.otp.whiteboard.model.Stroke;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StrokeRepository extends JpaRepository<Stroke, Long> {
+    /**
+     * Rows fetched per round-trip when streaming a board's history.
+     */
+    String HISTORY_FETCH_SIZE = "500";
+
     /**
      * Finds all strokes associated with a specific board ID.
      *
@@ -16,4 +28,63 @@ public interface StrokeRepository extends JpaRepository<Stroke, Long> {
      * @return a list of strokes associated with the given board ID.
      */
     public List<Stroke> findAllByBoardId(@NotNull Long boardId);
+
+    /**
+     * Finds the draw event columns of a board's strokes from a given id onwards, oldest first.
+     *
+     * @param boardId the ID of the board.
+     * @param fromId  the smallest stroke id to return.
+     * @param limit   the maximum number of strokes.
+     * @return the rows, ordered by id.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokeEventRow(s.id, s.board.id, u.displayName, s.createdAt,"
+            + " s.type, s.tool, s.xCord, s.yCord, s.thickness, s.color)"
+            + " FROM Stroke s JOIN s.user u WHERE s.board.id = :boardId AND s.id >= :fromId ORDER BY s.id")
+    List<StrokeEventRow> findEventRowsFrom(@Param("boardId") Long boardId, @Param("fromId") Long fromId,
+                                           Limit limit);
+
+    /**
+     * Finds the draw event columns of a board's strokes up to a given id, newest first.
+     *
+     * @param boardId the ID of the board.
+     * @param toId    the largest stroke id to return.
+     * @param limit   the maximum number of strokes.
+     * @return the rows, ordered by id descending.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokeEventRow(s.id, s.board.id, u.displayName, s.createdAt,"
+            + " s.type, s.tool, s.xCord, s.yCord, s.thickness, s.color)"
+            + " FROM Stroke s JOIN s.user u WHERE s.board.id = :boardId AND s.id <= :toId ORDER BY s.id DESC")
+    List<StrokeEventRow> findEventRowsUpTo(@Param("boardId") Long boardId, @Param("toId") Long toId,
+                                           Limit limit);
+
+    /**
+     * Finds the draw event columns of the strokes of a board whose point lies within a rectangle, oldest first.
+     *
+     * @param boardId the ID of the board.
+     * @param minX    the left edge of the rectangle.
+     * @param minY    the top edge of the rectangle.
+     * @param maxX    the right edge of the rectangle.
+     * @param maxY    the bottom edge of the rectangle.
+     * @return the rows, ordered by id.
+     */
+    @Query("SELECT new com.otp.whiteboard.repository.StrokeEventRow(s.id, s.board.id, u.displayName, s.createdAt,"
+            + " s.type, s.tool, s.xCord, s.yCord, s.thickness, s.color)"
+            + " FROM Stroke s JOIN s.user u WHERE s.board.id = :boardId AND s.xCord BETWEEN :minX AND :maxX"
+            + " AND s.yCord BETWEEN :minY AND :maxY ORDER BY s.id")
+    List<StrokeEventRow> findAllInViewport(@Param("boardId") Long boardId, @Param("minX") double minX,
+                                   @Param("minY") double minY, @Param("maxX") double maxX,
+                                   @Param("maxY") double maxY);
+
+    /**
+     * Streams the draw event columns of a board's strokes in one scan, oldest first.
+     * Must be consumed within a transaction and closed afterwards.
+     *
+     * @param boardId the ID of the board.
+     * @return the rows, ordered by id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = HISTORY_FETCH_SIZE))
+    @Query("SELECT new com.otp.whiteboard.repository.StrokeEventRow(s.id, s.board.id, u.displayName, s.createdAt,"
+            + " s.type, s.tool, s.xCord, s.yCord, s.thickness, s.color)"
+            + " FROM Stroke s JOIN s.user u WHERE s.board.id = :boardId ORDER BY s.id")
+    Stream<StrokeEventRow> streamEventRowsByBoardId(@Param("boardId") Long boardId);
 }
@@ -0,0 +1,117 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.enums.EventStoreType;
+import com.otp.whiteboard.enums.HistoryOrder;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The hot draw history of each board: the events appended while the board is active, numbered per board,
+ * which joins, history pages and reconnecting clients read before falling back to the database.
+ * The implementation is chosen with {@code app.draw.event-store.type}, see {@link EventStoreType}.
+ */
+public interface BoardEventStore {
+
+    /**
+     * The result of an append.
+     *
+     * @param length       the number of events in the board's history after the append.
+     * @param lastSequence the sequence number of the last appended event.
+     */
+    record Appended(long length, long lastSequence) {
+    }
+
+    /**
+     * A page of a board's history, read by sequence number.
+     *
+     * @param firstSequence the sequence number of the first event in the history, {@code 0} if there is none. A
+     *                      history that expired and was rebuilt starts at another one.
+     * @param events        the numbered events, in the order of the page.
+     */
+    record Page(long firstSequence, List<DrawDto> events) {
+    }
+
+    /**
+     * Appends events of one board in order, and publishes the message they arrived in where the store
+     * shares events between instances.
+     *
+     * @param boardId the ID of the board.
+     * @param message the event or batch the events arrived in.
+     * @param events  the point events to append.
+     * @return the history length and the sequence number of the last appended event, or {@code null} if the store
+     * did not report them.
+     */
+    Appended append(@NotNull Long boardId, @NotNull Object message, @NotNull List<DrawDto> events);
+
+    /**
+     * Reads events by their index in the board's history, oldest first.
+     *
+     * @param boardId the ID of the board.
+     * @param start   the index of the first event.
+     * @param end     the index of the last event, inclusive; negative indexes count back from the newest event.
+     * @return the events, empty if there are none in the range.
+     */
+    @NotNull
+    List<DrawDto> range(@NotNull Long boardId, long start, long end);
+
+    /**
+     * Reads events by their sequence number, from {@code from} towards newer events, or towards older ones when
+     * newest first. Unlike an index, a sequence number keeps naming the same event while the history lives.
+     *
+     * @param boardId the ID of the board.
+     * @param from    the sequence number of the first event to read; clamped to the history, so {@code 0} starts at
+     *                the oldest event and {@link Long#MAX_VALUE} at the newest.
+     * @param limit   the most events to read.
+     * @param order   the direction to read in.
+     * @return the events and the first sequence number of the history they were read from.
+     */
+    @NotNull
+    Page readPage(@NotNull Long boardId, long from, int limit, @NotNull HistoryOrder order);
+
+    /**
+     * @param boardId the ID of the board.
+     * @return the number of events in the board's history.
+     */
+    long size(@NotNull Long boardId);
+
+    /**
+     * @param boardId the ID of the board.
+     * @return the sequence number of the board's last appended event, {@code 0} if none was appended.
+     */
+    long lastSequence(@NotNull Long boardId);
+
+    /**
+     * Reads the events after a sequence number, numbered, or tells the client to resync when they are not all
+     * available or there are more than {@code maxEvents}.
+     *
+     * @param boardId   the ID of the board.
+     * @param since     the highest sequence number the client received.
+     * @param maxEvents the most events to return.
+     * @return the missed events and the board's last sequence number, or the resync signal.
+     */
+    @NotNull
+    HistorySinceDto readSince(@NotNull Long boardId, long since, int maxEvents);
+
+    /**
+     * Tells whether the board's stored history has to be loaded with {@link #loadOnMiss} before events are appended,
+     * because a history started by a live event would hide it.
+     *
+     * @param boardId the ID of the board.
+     * @return {@code true} if the history has to be loaded first.
+     */
+    boolean needsLoadBeforeAppend(@NotNull Long boardId);
+
+    /**
+     * Loads the history of a board whose history is empty and keeps it, so later reads are served by the store.
+     *
+     * @param boardId the ID of the board.
+     * @param loader  reads the history from the database.
+     * @return the loaded history.
+     */
+    @NotNull
+    List<DrawDto> loadOnMiss(@NotNull Long boardId, @NotNull Supplier<List<DrawDto>> loader);
+}
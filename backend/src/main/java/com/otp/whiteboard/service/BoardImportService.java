@@ -0,0 +1,155 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.board.BoardImportRequest;
+import com.otp.whiteboard.dto.board.BoardImportResponse;
+import com.otp.whiteboard.dto.board.ImportedStrokeDto;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.repository.StrokePathBulkWriter;
+import com.otp.whiteboard.repository.UserBoardRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Imports complete strokes into a board. The rows are written in chunks with {@link StrokePathBulkWriter},
+ * all in one transaction, so an import either lands completely or not at all.
+ */
+@Service
+public class BoardImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardImportService.class);
+
+    private final BoardRepository boardRepository;
+    private final UserBoardRepository userBoardRepository;
+    private final StrokePathBulkWriter strokePathBulkWriter;
+    private final BoardStrokeCounter boardStrokeCounter;
+    private final BoardTileService boardTileService;
+    private final int maxPointsPerSegment;
+    private final int geometryPrecision;
+    private final int chunkSize;
+
+    public BoardImportService(final BoardRepository boardRepository,
+                              final UserBoardRepository userBoardRepository,
+                              final StrokePathBulkWriter strokePathBulkWriter,
+                              final BoardStrokeCounter boardStrokeCounter,
+                              final BoardTileService boardTileService,
+                              @Value("${app.draw.stroke.max-points:10000}") final int maxPointsPerSegment,
+                              @Value("${app.draw.geometry.precision:2}") final int geometryPrecision,
+                              @Value("${spring.jpa.batch-saving.batch-size:500}") final int chunkSize) {
+        this.boardRepository = Objects.requireNonNull(boardRepository, "boardRepository must not be null");
+        this.userBoardRepository = Objects.requireNonNull(userBoardRepository, "userBoardRepository must not be null");
+        this.strokePathBulkWriter = Objects.requireNonNull(strokePathBulkWriter, "strokePathBulkWriter must not be null");
+        this.boardStrokeCounter = Objects.requireNonNull(boardStrokeCounter, "boardStrokeCounter must not be null");
+        this.boardTileService = Objects.requireNonNull(boardTileService, "boardTileService must not be null");
+        if (maxPointsPerSegment <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Segment size and chunk size must be positive");
+        }
+        this.maxPointsPerSegment = maxPointsPerSegment;
+        this.geometryPrecision = geometryPrecision;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports strokes into a board on behalf of one of its members.
+     *
+     * @param boardId the ID of the board.
+     * @param request the strokes to import.
+     * @param user    the importing user, recorded as the author of every stroke.
+     * @return the number of strokes, rows and points imported.
+     * @throws IllegalArgumentException if the board does not exist, the user is not a member of it,
+     *                                  or a stroke does not consist of whole points.
+     */
+    @Nonnull
+    @Transactional
+    public BoardImportResponse importStrokes(@NotNull final Long boardId,
+                                             @NotNull @Valid final BoardImportRequest request,
+                                             @NotNull final User user) {
+        final Board board = boardRepository.findById(boardId)
+                .orElseThrow(() -> new IllegalArgumentException("Board not found with ID: " + boardId));
+        if (userBoardRepository.findUserBoardByBoardIdAndUserId(boardId, user.getId()) == null) {
+            throw new IllegalArgumentException("User is not a member of board " + boardId);
+        }
+        for (final ImportedStrokeDto stroke : request.strokes()) {
+            if (stroke.points() == null || stroke.points().length == 0 || stroke.points().length % 2 != 0) {
+                throw new IllegalArgumentException("Stroke " + stroke.strokeId() + " must be a non-empty list of x, y pairs");
+            }
+        }
+
+        final LocalDateTime importedAt = LocalDateTime.now();
+        final List<StrokePath> chunk = new ArrayList<>(chunkSize);
+        final List<StrokePath> written = new ArrayList<>();
+        long rows = 0;
+        long points = 0;
+        for (final ImportedStrokeDto stroke : request.strokes()) {
+            final double[] xy = stroke.points();
+            final int segmentLength = maxPointsPerSegment * 2;
+            for (int from = 0, segment = 0; from < xy.length; from += segmentLength, segment++) {
+                final int to = Math.min(from + segmentLength, xy.length);
+                final StrokePath path = toPath(board, user, stroke, segment, Arrays.copyOfRange(xy, from, to),
+                        to == xy.length, importedAt);
+                chunk.add(path);
+                written.add(path);
+                if (chunk.size() == chunkSize) {
+                    rows += strokePathBulkWriter.writeAll(chunk);
+                    chunk.clear();
+                }
+            }
+            points += stroke.pointCount();
+        }
+        if (!chunk.isEmpty()) {
+            rows += strokePathBulkWriter.writeAll(chunk);
+        }
+        boardStrokeCounter.add(boardId, request.strokes().size());
+        invalidateTilesAfterCommit(written);
+        LOGGER.info("Imported {} strokes ({} rows, {} points) into board {}", request.strokes().size(), rows, points, boardId);
+        return new BoardImportResponse(request.strokes().size(), rows, points);
+    }
+
+    /**
+     * Drops the touched tiles once the import is committed, so a tile rendered while it is still in flight
+     * is not cached without the imported strokes.
+     */
+    private void invalidateTilesAfterCommit(final List<StrokePath> written) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            boardTileService.invalidate(written);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                boardTileService.invalidate(written);
+            }
+        });
+    }
+
+    private StrokePath toPath(final Board board, final User user, final ImportedStrokeDto stroke, final int segment,
+                              final double[] xy, final boolean ended, final LocalDateTime createdAt) {
+        final StrokePath path = new StrokePath();
+        path.setBoard(board);
+        path.setUser(user);
+        path.setStrokeId(stroke.strokeId());
+        path.setSegment(segment);
+        path.setColor(stroke.brushColor());
+        path.setThickness(stroke.brushSize());
+        path.setTool(stroke.tool());
+        path.setEnded(ended);
+        path.setPoints(xy, geometryPrecision);
+        path.setCreatedAt(createdAt);
+        return path;
+    }
+}
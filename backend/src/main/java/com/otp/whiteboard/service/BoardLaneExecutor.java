@@ -0,0 +1,207 @@
+package com.otp.whiteboard.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed number of serial lanes, each with its own thread and bounded queue.
+ * All tasks for one board are hashed to the same lane, so they run one at a time in submission order,
+ * and different boards spread across lanes. A caller that must know a task will be queued before it commits to
+ * anything reserves a slot on the lane first, with {@link #tryReserve}, and queues the task with
+ * {@link #submitReserved} once it is ready; a reserved slot is held until its task is taken off the lane.
+ * <p>
+ * Only persistence runs on the lanes. The event store append that assigns sequence numbers, and the broadcast,
+ * run on the STOMP inbound thread that received the event, so the lanes order a board's persistence, not its
+ * history or broadcast. The inbound channel keeps each session's messages in order, so the points of one
+ * client, and with them every stroke, reach the lanes in the order they were sent; events of different clients
+ * on a board are persisted in the order they were submitted, which can differ from their sequence numbers.
+ * State shared with threads outside the lanes, such as the {@link StrokeAssembler}'s open strokes that its
+ * idle sweep closes and the {@link BoardStrokeCounter} that is flushed on a schedule, still uses concurrent maps.
+ */
+@Component
+public class BoardLaneExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardLaneExecutor.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final Lane[] lanes;
+    private volatile boolean running = true;
+    private volatile boolean started = false;
+
+    public BoardLaneExecutor(final MeterRegistry meterRegistry,
+                             @Value("${app.draw.lanes.count:0}") final int laneCount,
+                             @Value("${app.draw.lanes.queue-capacity:8192}") final int queueCapacity) {
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Lane queue capacity must be positive");
+        }
+        final int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+            Gauge.builder("whiteboard.draw.lanes.queue", lanes[i].tasks, Collection::size)
+                    .tag("lane", Integer.toString(i))
+                    .description("Tasks waiting on a board lane")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (final Lane lane : lanes) {
+            lane.thread.start();
+        }
+        LOGGER.info("Started {} board lanes", lanes.length);
+    }
+
+    /**
+     * Queues a task on the lane of a board without blocking.
+     *
+     * @param boardId the ID of the board the task belongs to.
+     * @param task    the task to run.
+     * @return {@code true} if the task was queued, {@code false} if the lane is full or shutting down.
+     */
+    public boolean offer(@NotNull final Long boardId, @NotNull final Runnable task) {
+        return tryReserve(boardId) && submitReserved(boardId, task);
+    }
+
+    /**
+     * Reserves a slot for one task on the lane of a board without blocking.
+     *
+     * @param boardId the ID of the board the task belongs to.
+     * @return {@code true} if a slot was reserved, {@code false} if the lane is full or shutting down.
+     */
+    public boolean tryReserve(@NotNull final Long boardId) {
+        return running && lanes[laneOf(boardId)].slots.tryAcquire();
+    }
+
+    /**
+     * Gives back a slot reserved with {@link #tryReserve} whose task will not be submitted.
+     *
+     * @param boardId the ID of the board the slot was reserved for.
+     */
+    public void cancelReservation(@NotNull final Long boardId) {
+        lanes[laneOf(boardId)].slots.release();
+    }
+
+    /**
+     * Queues a task in a slot reserved with {@link #tryReserve}.
+     *
+     * @param boardId the ID of the board the slot was reserved for.
+     * @param task    the task to run.
+     * @return {@code true} if the task was queued, {@code false} if the executor is shutting down; the slot is
+     * given back either way once the task is not queued.
+     */
+    public boolean submitReserved(@NotNull final Long boardId, @NotNull final Runnable task) {
+        final Lane lane = lanes[laneOf(boardId)];
+        if (!running || !lane.tasks.offer(task)) {
+            lane.slots.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param boardId the ID of the board.
+     * @return the index of the lane that runs the board's tasks.
+     */
+    public int laneOf(@NotNull final Long boardId) {
+        return Math.floorMod(Long.hashCode(boardId), lanes.length);
+    }
+
+    /**
+     * @return the number of lanes.
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @return the number of tasks waiting on all lanes.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (final Lane lane : lanes) {
+            depth += lane.tasks.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Stops accepting tasks, lets each lane finish its current task and runs whatever is still queued
+     * on the caller thread, lane by lane, so per-board order is kept. Safe to call more than once.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (final Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (final Lane lane : lanes) {
+            Runnable task;
+            while ((task = lane.tasks.poll()) != null) {
+                lane.slots.release();
+                lane.run(task);
+            }
+        }
+    }
+
+    private final class Lane {
+        private final BlockingQueue<Runnable> tasks;
+        /** One permit per free queue slot, taken when a slot is reserved and given back when its task is taken. */
+        private final Semaphore slots;
+        private final Thread thread;
+
+        private Lane(final int index, final int capacity) {
+            this.tasks = new ArrayBlockingQueue<>(capacity);
+            this.slots = new Semaphore(capacity);
+            this.thread = new Thread(this::loop, "board-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void loop() {
+            while (running) {
+                try {
+                    final Runnable task = tasks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        slots.release();
+                        run(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void run(final Runnable task) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.error("Board lane task failed on {}", thread.getName(), e);
+            }
+        }
+    }
+}
@@ -33,13 +33,15 @@ public class BoardService {
 
     private final UserService userService;
     private final LocalizationService localizationService;
+    private final DrawReferenceCache drawReferenceCache;
 
-    public BoardService(final BoardRepository boardRepository,final UserRepository userRepository,final UserBoardRepository userBoardRepository,final UserService userService,final LocalizationService localizationService) {
+    public BoardService(final BoardRepository boardRepository,final UserRepository userRepository,final UserBoardRepository userBoardRepository,final UserService userService,final LocalizationService localizationService,final DrawReferenceCache drawReferenceCache) {
         this.boardRepository = Objects.requireNonNull(boardRepository, "boardRepository must not be null");
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
         this.userBoardRepository = Objects.requireNonNull(userBoardRepository, "userBoardRepository must not be null");
         this.localizationService = Objects.requireNonNull(localizationService, "localizationService must not be null");
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
+        this.drawReferenceCache = Objects.requireNonNull(drawReferenceCache, "drawReferenceCache must not be null");
     }
 
     /**
@@ -158,6 +160,7 @@ public class BoardService {
 
             board.addUser(userAdded);
             boardRepository.save(board);
+            drawReferenceCache.evictBoard(boardId);
 
             final String message = board.getCustomMessage() != null ? board.getCustomMessage() : defaultWelcome;
             return new BoardDto(board).withMotd(motdLabel, message);
@@ -194,6 +197,7 @@ public class BoardService {
 
             board.removeUser(user);
             boardRepository.save(board);
+            drawReferenceCache.evictBoard(boardId);
 
             userBoardRepository.delete(userBoard);
 
@@ -222,6 +226,10 @@ public class BoardService {
                 return new BoardDto(board);
             }
             boardRepository.save(board);
+            if (request.numberOfStrokes() != null) {
+                boardRepository.updateNumberOfStrokes(boardId, request.numberOfStrokes());
+            }
+            drawReferenceCache.evictBoard(boardId);
             LOGGER.info("Board updated successfully with ID: {}", board.getId());
             return new BoardDto(board);
         } catch (Exception error) {
@@ -0,0 +1,290 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.codec.BoardSnapshotCodec;
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.SnapshotStrokeDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a snapshot of every active board in Redis, so a joining client gets the strokes drawn so far as one
+ * polyline each instead of replaying every point. The history is read through the {@link BoardEventStore}, so
+ * snapshots are built whichever store keeps it.
+ * <p>
+ * A snapshot at sequence {@code N} holds the strokes built from the first {@code N} events of the history;
+ * the history of the board is the snapshot plus the events from index {@code N} on. Snapshots are extended in the
+ * background, from the previous snapshot and the events appended since, once a board has collected
+ * {@code app.draw.snapshot.event-threshold} new events or its oldest new event is {@code app.draw.snapshot.max-age}
+ * old. The tail a client replays therefore stays bounded however long the board has been drawn on.
+ */
+@Service
+public class BoardSnapshotService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardSnapshotService.class);
+
+    static final String SNAPSHOT_PREFIX = "drawing-snapshot-board-";
+
+    private final BoardEventStore boardEventStore;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final int eventThreshold;
+    private final long maxAgeMillis;
+    private final int maxEventsPerBuild;
+    private final Duration snapshotTtl;
+    private final int geometryPrecision;
+    private final Timer buildTimer;
+
+    private final Map<Long, PendingEvents> pendingBoards = new ConcurrentHashMap<>();
+
+    /**
+     * Events appended to a board's history that are not in its snapshot yet.
+     *
+     * @param historyLength    the length of the history after the latest append.
+     * @param snapshotSequence the sequence of the latest snapshot known to this instance.
+     * @param pendingSince     when the oldest event that is not in the snapshot was appended.
+     */
+    private record PendingEvents(long historyLength, long snapshotSequence, long pendingSince) {
+    }
+
+    public BoardSnapshotService(final BoardEventStore boardEventStore,
+                                final RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                final MeterRegistry meterRegistry,
+                                @Value("${app.draw.snapshot.event-threshold:5000}") final int eventThreshold,
+                                @Value("${app.draw.snapshot.max-age:60000}") final long maxAgeMillis,
+                                @Value("${app.draw.snapshot.max-events-per-build:50000}") final int maxEventsPerBuild,
+                                @Value("${app.draw.redis.history-ttl:3600000}") final long historyTtlMillis,
+                                @Value("${app.draw.geometry.precision:2}") final int geometryPrecision) {
+        this.boardEventStore = Objects.requireNonNull(boardEventStore, "boardEventStore must not be null");
+        this.binaryRedisTemplate = Objects.requireNonNull(binaryRedisTemplate, "binaryRedisTemplate must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (eventThreshold <= 0 || maxEventsPerBuild <= 0) {
+            throw new IllegalArgumentException("Snapshot event threshold and build size must be positive");
+        }
+        this.eventThreshold = eventThreshold;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxEventsPerBuild = maxEventsPerBuild;
+        this.snapshotTtl = Duration.ofMillis(historyTtlMillis);
+        this.geometryPrecision = geometryPrecision;
+        this.buildTimer = Timer.builder("whiteboard.draw.snapshot.build")
+                .description("Time to extend a board snapshot with the events appended since the last one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that events were appended to a board's history.
+     *
+     * @param boardId       the ID of the board.
+     * @param historyLength the length of the history after the append.
+     */
+    public void recordAppend(@NotNull final Long boardId, final long historyLength) {
+        final long now = System.currentTimeMillis();
+        pendingBoards.merge(boardId, new PendingEvents(historyLength, 0, now),
+                (pending, appended) -> new PendingEvents(Math.max(pending.historyLength(), historyLength),
+                        pending.snapshotSequence(), pending.pendingSince()));
+    }
+
+    /**
+     * Extends the snapshots of the boards that reached the event-count or age threshold.
+     */
+    @Scheduled(fixedDelayString = "${app.draw.snapshot.check-interval:5000}")
+    public void buildDueSnapshots() {
+        final long now = System.currentTimeMillis();
+        pendingBoards.forEach((boardId, pending) -> {
+            final long newEvents = pending.historyLength() - pending.snapshotSequence();
+            if (newEvents >= eventThreshold || now - pending.pendingSince() >= maxAgeMillis) {
+                try {
+                    final long sequence = buildSnapshot(boardId);
+                    // A sequence of 0 means the history has expired, so there is nothing to snapshot.
+                    pendingBoards.computeIfPresent(boardId, (id, current) -> sequence == 0
+                            || current.historyLength() <= sequence
+                            ? null
+                            : new PendingEvents(current.historyLength(), sequence, System.currentTimeMillis()));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not build the snapshot of board {}", boardId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Extends the board's snapshot with up to {@code app.draw.snapshot.max-events-per-build} events that were
+     * appended to its history since. A stale snapshot of an expired history is rebuilt from the start.
+     *
+     * @param boardId the ID of the board.
+     * @return the sequence of the board's snapshot after the build.
+     */
+    public long buildSnapshot(@NotNull final Long boardId) {
+        final long startedAt = System.nanoTime();
+        try {
+            final DrawDto first = firstEvent(boardId);
+            if (first == null) {
+                return 0;
+            }
+            final BoardSnapshotCodec.Snapshot current = readSnapshot(boardId, first);
+            final List<DrawDto> events = boardEventStore.range(boardId, current.sequence(),
+                    current.sequence() + maxEventsPerBuild - 1);
+            if (events.isEmpty()) {
+                return current.sequence();
+            }
+            final BoardSnapshotCodec.Snapshot next = new BoardSnapshotCodec.Snapshot(first.id(),
+                    current.sequence() + events.size(), fold(current.strokes(), events));
+            binaryRedisTemplate.opsForValue().set(SNAPSHOT_PREFIX + boardId,
+                    BoardSnapshotCodec.encode(next, geometryPrecision), snapshotTtl);
+            LOGGER.debug("Board {} snapshot extended to sequence {} ({} strokes)",
+                    boardId, next.sequence(), next.strokes().size());
+            return next.sequence();
+        } finally {
+            buildTimer.record(Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+
+    /**
+     * Returns the board's latest snapshot and the history events after it, or {@code null} when the board has
+     * no history in the {@link BoardEventStore}. Without a usable snapshot the whole history is the tail.
+     *
+     * @param boardId the ID of the board.
+     * @return the snapshot and its tail, or {@code null}.
+     */
+    public BoardSnapshotDto getSnapshot(@NotNull final Long boardId) {
+        final DrawDto first = firstEvent(boardId);
+        if (first == null) {
+            return null;
+        }
+        final BoardSnapshotCodec.Snapshot snapshot = readSnapshot(boardId, first);
+        return new BoardSnapshotDto(boardId, snapshot.sequence(), snapshot.strokes(),
+                boardEventStore.range(boardId, snapshot.sequence(), -1));
+    }
+
+    /**
+     * @return the oldest event of the board's history, which anchors its snapshot, or {@code null} if it is empty.
+     */
+    private DrawDto firstEvent(final Long boardId) {
+        final List<DrawDto> first = boardEventStore.range(boardId, 0, 0);
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    /**
+     * Reads the stored snapshot of a board, or an empty one if there is none, it cannot be read, or it was
+     * taken of a history that has expired since.
+     */
+    private BoardSnapshotCodec.Snapshot readSnapshot(final Long boardId, final DrawDto firstEvent) {
+        final byte[] stored = binaryRedisTemplate.opsForValue().get(SNAPSHOT_PREFIX + boardId);
+        if (stored != null && stored.length > 0) {
+            try {
+                final BoardSnapshotCodec.Snapshot snapshot = BoardSnapshotCodec.decode(stored);
+                if (Objects.equals(snapshot.anchorEventId(), firstEvent.id())) {
+                    return snapshot;
+                }
+                LOGGER.debug("Board {} snapshot belongs to an expired history, rebuilding", boardId);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Board {} snapshot could not be read, rebuilding", boardId, e);
+            }
+        }
+        return new BoardSnapshotCodec.Snapshot(firstEvent.id(), 0, List.of());
+    }
+
+    /**
+     * Appends draw events to the strokes of a snapshot. Points are added to the open stroke with the same
+     * stroke id; a START for a stroke that already has points, or any point after its END, begins a new stroke.
+     * Strokes keep the order in which they were started.
+     *
+     * @param strokes the strokes of the previous snapshot.
+     * @param events  the events appended after it, oldest first.
+     * @return the strokes of the new snapshot.
+     */
+    @Nonnull
+    static List<SnapshotStrokeDto> fold(@NotNull final List<SnapshotStrokeDto> strokes,
+                                        @NotNull final List<DrawDto> events) {
+        final List<StrokeBuilder> builders = new ArrayList<>(strokes.size() + 16);
+        final Map<String, StrokeBuilder> open = new HashMap<>();
+        for (final SnapshotStrokeDto stroke : strokes) {
+            final StrokeBuilder builder = new StrokeBuilder(stroke);
+            builders.add(builder);
+            if (!stroke.ended() && stroke.strokeId() != null) {
+                open.put(stroke.strokeId(), builder);
+            }
+        }
+        for (final DrawDto event : events) {
+            final String key = event.strokeId() != null ? event.strokeId() : event.id();
+            StrokeBuilder builder = open.get(key);
+            if (builder == null || (event.type() == DrawEventType.START && builder.size > 0)) {
+                builder = new StrokeBuilder(event);
+                builders.add(builder);
+                open.put(key, builder);
+            }
+            builder.add(event.x(), event.y());
+            if (event.type() == DrawEventType.END) {
+                builder.ended = true;
+                open.remove(key);
+            }
+        }
+        final List<SnapshotStrokeDto> folded = new ArrayList<>(builders.size());
+        builders.forEach(builder -> folded.add(builder.build()));
+        return folded;
+    }
+
+    /**
+     * Mutable stroke while events are folded into a snapshot.
+     */
+    private static final class StrokeBuilder {
+        private final String strokeId;
+        private final String displayName;
+        private final DrawingTool tool;
+        private final String brushColor;
+        private final Long brushSize;
+        private boolean ended;
+        private double[] xy;
+        private int size;
+
+        StrokeBuilder(final SnapshotStrokeDto stroke) {
+            this.strokeId = stroke.strokeId();
+            this.displayName = stroke.displayName();
+            this.tool = stroke.tool();
+            this.brushColor = stroke.brushColor();
+            this.brushSize = stroke.brushSize();
+            this.ended = stroke.ended();
+            this.xy = stroke.points();
+            this.size = stroke.points().length;
+        }
+
+        StrokeBuilder(final DrawDto event) {
+            this.strokeId = event.strokeId();
+            this.displayName = event.displayName();
+            this.tool = event.tool();
+            this.brushColor = event.brushColor();
+            this.brushSize = event.brushSize();
+            this.xy = new double[16];
+        }
+
+        void add(final double x, final double y) {
+            if (size + 2 > xy.length) {
+                xy = Arrays.copyOf(xy, Math.max(16, xy.length * 2));
+            }
+            xy[size++] = x;
+            xy[size++] = y;
+        }
+
+        SnapshotStrokeDto build() {
+            return new SnapshotStrokeDto(strokeId, displayName, tool, brushColor, brushSize, ended,
+                    size == xy.length ? xy : Arrays.copyOf(xy, size));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.repository.BoardRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts draw events per board in memory and periodically adds the totals to
+ * {@code boards.number_of_strokes} with an atomic in-place update.
+ * Concurrent drawers on the same board no longer write the board row on every point, and add to a striped
+ * {@link LongAdder} instead of contending on one counter.
+ * A board's counter is retired and removed when its count is taken for a flush, so only boards drawn on since the
+ * last flush are kept; an increment that lands on a retired counter moves its count to the board's next one.
+ */
+@Service
+public class BoardStrokeCounter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardStrokeCounter.class);
+
+    private final BoardRepository boardRepository;
+    private final Map<Long, Counter> pendingCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The count of one board since the last flush. Once retired, the flush takes whatever is added before the
+     * adder sees the flag, and the adder moves whatever the flush may have missed.
+     */
+    private static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private volatile boolean retired;
+    }
+
+    public BoardStrokeCounter(final BoardRepository boardRepository) {
+        this.boardRepository = Objects.requireNonNull(boardRepository, "boardRepository must not be null");
+    }
+
+    /**
+     * Records one draw event for a board.
+     *
+     * @param boardId the ID of the board.
+     */
+    public void increment(@NotNull final Long boardId) {
+        add(boardId, 1);
+    }
+
+    /**
+     * Records several draw events for a board.
+     *
+     * @param boardId the ID of the board.
+     * @param count   the number of events.
+     */
+    public void add(@NotNull final Long boardId, long count) {
+        while (true) {
+            final Counter counter = pendingCounts.computeIfAbsent(boardId, id -> new Counter());
+            counter.count.add(count);
+            if (!counter.retired) {
+                return;
+            }
+            pendingCounts.remove(boardId, counter);
+            final long missed = counter.count.sumThenReset();
+            if (missed == 0) {
+                return;
+            }
+            count = missed;
+        }
+    }
+
+    /**
+     * @param boardId the ID of the board.
+     * @return the number of events counted for the board but not yet written to the database.
+     */
+    public long getPending(@NotNull final Long boardId) {
+        final Counter counter = pendingCounts.get(boardId);
+        return counter != null ? counter.count.sum() : 0;
+    }
+
+    /**
+     * @return the number of boards with events not yet written to the database.
+     */
+    public int getPendingBoardCount() {
+        return pendingCounts.size();
+    }
+
+    /**
+     * Writes the counted events to the database. A failed update is added back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.draw.stroke-counter.flush-interval:5000}")
+    public void flush() {
+        pendingCounts.forEach((boardId, counter) -> {
+            counter.retired = true;
+            pendingCounts.remove(boardId, counter);
+            final long delta = counter.count.sumThenReset();
+            if (delta == 0) {
+                return;
+            }
+            try {
+                final int updated = boardRepository.incrementNumberOfStrokes(boardId, (int) delta);
+                if (updated == 0) {
+                    LOGGER.warn("Board {} no longer exists, discarding {} counted strokes", boardId, delta);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Failed to flush {} strokes for board {}, will retry", delta, boardId, e);
+                add(boardId, delta);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
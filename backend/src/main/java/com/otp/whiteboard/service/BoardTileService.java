@@ -0,0 +1,311 @@
+package com.otp.whiteboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.otp.whiteboard.codec.PackedPoints;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import com.otp.whiteboard.repository.StrokePathRow;
+import com.otp.whiteboard.repository.UserBoardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Renders the persisted strokes of a board into 256x256 PNG tiles, so a client joining a large board can paint
+ * the visible area from a handful of images instead of replaying every stroke.
+ * <p>
+ * Tiles are addressed as {@code z/x/y}. The highest zoom level renders the board at its native scale; every
+ * level below halves it, so a tile at level {@code z} covers {@code 256 * 2^(maxZoom - z)} board units per side.
+ * Rendered tiles are cached by size; when strokes are written, only the tiles their bounds touch are dropped.
+ * <p>
+ * Tiles show persisted strokes only, so they lag behind live drawing: a stroke reaches the database after its board
+ * lane persisted it, it ended, or was closed as idle after {@code spring.jpa.batch-saving.cleanup-interval}, and the
+ * write-behind buffer flushed it, at the latest after {@code spring.jpa.batch-saving.interval} — by default several
+ * minutes for a stroke that never ends. Each tile is therefore returned with the sequence number it covers: every
+ * event of the board up to it that this instance appended and persisted is drawn, so clients paint the tile and
+ * replay the events after it from the board's history. Events whose persistence was shed or dropped never appear on
+ * tiles, and with several instances drawing on one board, events of the other instances are only covered once
+ * written.
+ */
+@Service
+public class BoardTileService {
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * Beyond this many touched tiles on one level, all tiles of the board on that level are dropped instead.
+     */
+    private static final int MAX_INVALIDATED_TILES_PER_LEVEL = 1024;
+
+    private final StrokePathRepository strokePathRepository;
+    private final UserBoardRepository userBoardRepository;
+    private final BoardEventStore boardEventStore;
+    private final PersistedSequenceTracker persistedSequenceTracker;
+    private final int maxZoom;
+    private final int maxTileIndex;
+    private final double viewportMargin;
+    private final Cache<TileKey, byte[]> tiles;
+    private final Timer renderTimer;
+
+    /**
+     * A rendered tile.
+     *
+     * @param png      the tile as a PNG image; tiles without strokes are fully transparent.
+     * @param sequence the board's sequence number up to which the tile includes the persisted strokes.
+     */
+    public record Tile(byte[] png, long sequence) {
+    }
+
+    public BoardTileService(final StrokePathRepository strokePathRepository,
+                            final UserBoardRepository userBoardRepository,
+                            final BoardEventStore boardEventStore,
+                            final PersistedSequenceTracker persistedSequenceTracker,
+                            final MeterRegistry meterRegistry,
+                            @Value("${app.draw.tiles.max-zoom:4}") final int maxZoom,
+                            @Value("${app.draw.tiles.max-index:4096}") final int maxTileIndex,
+                            @Value("${app.draw.tiles.cache-max-bytes:67108864}") final long cacheMaxBytes,
+                            @Value("${app.draw.viewport.margin:50}") final double viewportMargin) {
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+        this.userBoardRepository = Objects.requireNonNull(userBoardRepository, "userBoardRepository must not be null");
+        this.boardEventStore = Objects.requireNonNull(boardEventStore, "boardEventStore must not be null");
+        this.persistedSequenceTracker = Objects.requireNonNull(persistedSequenceTracker,
+                "persistedSequenceTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (maxZoom < 0 || maxZoom > 16 || maxTileIndex <= 0) {
+            throw new IllegalArgumentException("Tile zoom must be between 0 and 16 and the tile index limit positive");
+        }
+        this.maxZoom = maxZoom;
+        this.maxTileIndex = maxTileIndex;
+        this.viewportMargin = viewportMargin;
+        this.tiles = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((TileKey key, byte[] png) -> png.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tiles, "draw.tiles");
+        this.renderTimer = Timer.builder("whiteboard.draw.tiles.render")
+                .description("Time spent loading and rendering a board tile")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a tile of a board on behalf of one of its members, rendering it on a cache miss.
+     *
+     * @param boardId the ID of the board.
+     * @param z       the zoom level, from 0 up to the configured maximum.
+     * @param x       the tile column, counted from the board origin.
+     * @param y       the tile row, counted from the board origin.
+     * @param user    the requesting user.
+     * @return the tile and the sequence number it covers.
+     * @throws IllegalArgumentException if the user is not a member of the board or the tile is out of range.
+     */
+    @Nonnull
+    public Tile getTile(@NotNull final Long boardId, final int z, final int x, final int y, @NotNull final User user) {
+        if (z < 0 || z > maxZoom || x < 0 || y < 0 || x >= maxTileIndex || y >= maxTileIndex) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " is out of range");
+        }
+        if (userBoardRepository.findUserBoardByBoardIdAndUserId(boardId, user.getId()) == null) {
+            throw new IllegalArgumentException("User is not a member of board " + boardId);
+        }
+        // Read before the tile: strokes are written and their tiles dropped before their events are released, so
+        // a cached tile, or one rendered from the rows read next, includes every stroke released by now.
+        final long sequence = persistedSequenceTracker.persistedThrough(boardId, boardEventStore.lastSequence(boardId));
+        final byte[] png = tiles.get(new TileKey(boardId, z, x, y), key -> renderTimer.record(() -> render(key)));
+        return new Tile(png, sequence);
+    }
+
+    /**
+     * Drops the cached tiles that newly written strokes touch, on every zoom level.
+     *
+     * @param paths the written stroke rows.
+     */
+    public void invalidate(@NotNull final Collection<StrokePath> paths) {
+        final Set<TileKey> touched = new HashSet<>();
+        final Set<BoardLevel> wholeLevels = new HashSet<>();
+        for (final StrokePath path : paths) {
+            final Long boardId = path.getBoard().getId();
+            final double[] bounds = bounds(path.getPoints(), path.getThickness());
+            if (bounds == null) {
+                continue;
+            }
+            for (int z = 0; z <= maxZoom; z++) {
+                final double span = tileSpan(z);
+                if (bounds[2] < 0 || bounds[3] < 0 || bounds[0] >= maxTileIndex * span || bounds[1] >= maxTileIndex * span) {
+                    continue;
+                }
+                final int minX = tileIndex(bounds[0], span);
+                final int minY = tileIndex(bounds[1], span);
+                final int maxX = tileIndex(bounds[2], span);
+                final int maxY = tileIndex(bounds[3], span);
+                if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_INVALIDATED_TILES_PER_LEVEL) {
+                    wholeLevels.add(new BoardLevel(boardId, z));
+                    continue;
+                }
+                for (int x = minX; x <= maxX; x++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        touched.add(new TileKey(boardId, z, x, y));
+                    }
+                }
+            }
+        }
+        tiles.invalidateAll(touched);
+        if (!wholeLevels.isEmpty()) {
+            tiles.asMap().keySet().removeIf(key -> wholeLevels.contains(new BoardLevel(key.boardId(), key.z())));
+        }
+    }
+
+    /**
+     * @return the number of tiles currently cached.
+     */
+    public long getCachedTileCount() {
+        return tiles.estimatedSize();
+    }
+
+    private byte[] render(final TileKey key) {
+        final double span = tileSpan(key.z());
+        final double scale = TILE_SIZE / span;
+        final double left = key.x() * span;
+        final double top = key.y() * span;
+
+        final BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            for (final StrokePathRow path : loadPaths(key.boardId(), left, top, span)) {
+                if (path.tool() == DrawingTool.HAND) {
+                    continue;
+                }
+                final double[] xy = PackedPoints.unpack(path.points());
+                if (touches(bounds(xy, path.thickness()), left, top, span)) {
+                    draw(graphics, path, xy, left, top, scale);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode tile " + key, e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Loads the rows whose point bounds come within the margin of the tile; the exact test, which includes
+     * each stroke's width, is done while drawing.
+     */
+    private List<StrokePathRow> loadPaths(final Long boardId, final double left, final double top, final double span) {
+        return strokePathRepository.findAllInViewport(boardId, left - viewportMargin, top - viewportMargin,
+                left + span + viewportMargin, top + span + viewportMargin);
+    }
+
+    private static void draw(final Graphics2D graphics, final StrokePathRow path, final double[] xy,
+                             final double left, final double top, final double scale) {
+        final float width = (float) Math.max(thickness(path.thickness()) * scale, 1.0);
+        if (path.tool() == DrawingTool.ERASER) {
+            graphics.setComposite(AlphaComposite.Clear);
+        } else {
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.setColor(color(path.color()));
+        }
+
+        if (xy.length == 2) {
+            final double cx = (xy[0] - left) * scale;
+            final double cy = (xy[1] - top) * scale;
+            graphics.fill(new Ellipse2D.Double(cx - width / 2.0, cy - width / 2.0, width, width));
+            return;
+        }
+        final Path2D.Double line = new Path2D.Double(Path2D.WIND_NON_ZERO, xy.length / 2);
+        line.moveTo((xy[0] - left) * scale, (xy[1] - top) * scale);
+        for (int i = 2; i < xy.length; i += 2) {
+            line.lineTo((xy[i] - left) * scale, (xy[i + 1] - top) * scale);
+        }
+        graphics.setStroke(new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        graphics.draw(line);
+    }
+
+    /**
+     * @return {@code [minX, minY, maxX, maxY]} of a row's points including its stroke width, or {@code null}
+     * without points.
+     */
+    private static double[] bounds(final double[] xy, final Long thickness) {
+        if (xy.length < 2) {
+            return null;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i + 1 < xy.length; i += 2) {
+            minX = Math.min(minX, xy[i]);
+            maxX = Math.max(maxX, xy[i]);
+            minY = Math.min(minY, xy[i + 1]);
+            maxY = Math.max(maxY, xy[i + 1]);
+        }
+        final double pad = thickness(thickness) / 2.0 + 1.0;
+        return new double[]{minX - pad, minY - pad, maxX + pad, maxY + pad};
+    }
+
+    private static boolean touches(final double[] bounds, final double left, final double top, final double span) {
+        return bounds != null
+                && bounds[2] >= left && bounds[0] < left + span
+                && bounds[3] >= top && bounds[1] < top + span;
+    }
+
+    private static double thickness(final Long thickness) {
+        return thickness != null && thickness > 0 ? thickness : 1.0;
+    }
+
+    private static Color color(final String value) {
+        if (value == null) {
+            return Color.BLACK;
+        }
+        try {
+            return Color.decode(value.trim());
+        } catch (NumberFormatException e) {
+            return Color.BLACK;
+        }
+    }
+
+    private double tileSpan(final int z) {
+        return (double) TILE_SIZE * (1L << (maxZoom - z));
+    }
+
+    private int tileIndex(final double coordinate, final double span) {
+        return (int) Math.max(0.0, Math.min(Math.floor(coordinate / span), maxTileIndex - 1.0));
+    }
+
+    private record TileKey(Long boardId, int z, int x, int y) {
+    }
+
+    private record BoardLevel(Long boardId, int z) {
+    }
+}
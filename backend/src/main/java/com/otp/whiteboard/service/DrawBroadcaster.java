@@ -0,0 +1,187 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.codec.DrawMessageCodec;
+import com.otp.whiteboard.codec.DrawMessageConverter;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.DrawFrameDto;
+import com.otp.whiteboard.enums.BroadcastMode;
+import com.otp.whiteboard.listener.TopicSubscriptionTracker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces draw broadcasts per board. In {@link BroadcastMode#COALESCED} mode the events a board receives
+ * are collected and sent once per tick as a single {@link DrawFrameDto} to {@code /topic/draw/frame},
+ * instead of one message per point to {@code /topic/draw}. Each event waits at most one tick;
+ * the actual wait is published as {@code whiteboard.draw.broadcast.delay}.
+ * <p>
+ * Clients that use the compact wire format subscribe to the {@code .bin} variant of a topic. Every broadcast
+ * is serialized once per format that has subscribers: as JSON to the topic, and encoded with
+ * {@link DrawMessageCodec} to its binary variant. A format nobody subscribed to is not encoded at all.
+ */
+@Service
+public class DrawBroadcaster {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrawBroadcaster.class);
+
+    static final String FRAME_DESTINATION = "/topic/draw/frame";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicSubscriptionTracker topicSubscriptionTracker;
+    private final BroadcastMode mode;
+    private final long tickMillis;
+
+    private final Map<Long, List<PendingEvent>> pendingByBoard = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    private final Timer delayTimer;
+    private final DistributionSummary frameSizeSummary;
+
+    private record PendingEvent(DrawDto event, long receivedAtNanos) {
+    }
+
+    public DrawBroadcaster(final SimpMessagingTemplate messagingTemplate,
+                           final TopicSubscriptionTracker topicSubscriptionTracker,
+                           final MeterRegistry meterRegistry,
+                           @Value("${app.draw.broadcast.mode:IMMEDIATE}") final BroadcastMode mode,
+                           @Value("${app.draw.broadcast.tick:16}") final long tickMillis) {
+        this.messagingTemplate = Objects.requireNonNull(messagingTemplate, "messagingTemplate must not be null");
+        this.topicSubscriptionTracker = Objects.requireNonNull(topicSubscriptionTracker,
+                "topicSubscriptionTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.mode = Objects.requireNonNull(mode, "mode must not be null");
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Broadcast tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+
+        this.delayTimer = Timer.builder("whiteboard.draw.broadcast.delay")
+                .description("Time a draw event is held back before its frame is broadcast")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.frameSizeSummary = DistributionSummary.builder("whiteboard.draw.broadcast.frame_size")
+                .description("Draw events per broadcast frame")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode != BroadcastMode.COALESCED) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "draw-broadcast-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::flush, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info("Coalescing draw broadcasts every {} ms", tickMillis);
+    }
+
+    /**
+     * Takes an event into the board's next frame when coalescing is enabled.
+     *
+     * @param event the draw event.
+     * @return {@code true} if the event will be broadcast with the next frame,
+     * {@code false} if the caller should broadcast it immediately.
+     */
+    public boolean coalesce(@NotNull final DrawDto event) {
+        if (mode != BroadcastMode.COALESCED) {
+            return false;
+        }
+        final PendingEvent pending = new PendingEvent(event, System.nanoTime());
+        pendingByBoard.compute(event.boardId(), (boardId, events) -> {
+            final List<PendingEvent> frame = events != null ? events : new ArrayList<>();
+            frame.add(pending);
+            return frame;
+        });
+        return true;
+    }
+
+    /**
+     * Sends one frame for every board that received events since the last tick.
+     */
+    public void flush() {
+        for (final Long boardId : pendingByBoard.keySet()) {
+            final List<List<PendingEvent>> taken = new ArrayList<>(1);
+            pendingByBoard.computeIfPresent(boardId, (id, events) -> {
+                taken.add(events);
+                return null;
+            });
+            if (taken.isEmpty()) {
+                continue;
+            }
+            final List<PendingEvent> frame = taken.get(0);
+            final List<DrawDto> events = new ArrayList<>(frame.size());
+            frame.forEach(pending -> events.add(pending.event()));
+            try {
+                final DrawFrameDto drawFrame = new DrawFrameDto(boardId, System.currentTimeMillis(), events);
+                broadcast(FRAME_DESTINATION, drawFrame);
+            } catch (Exception e) {
+                LOGGER.error("Failed to broadcast a frame of {} events for board {}", events.size(), boardId, e);
+                continue;
+            }
+            final long sentAt = System.nanoTime();
+            frame.forEach(pending -> delayTimer.record(sentAt - pending.receivedAtNanos(), TimeUnit.NANOSECONDS));
+            frameSizeSummary.record(events.size());
+        }
+    }
+
+    /**
+     * Sends a payload to the subscribers of a topic in each format that has any.
+     *
+     * @param destination the JSON topic, such as {@code /topic/draw}.
+     * @param payload     a payload supported by {@link DrawMessageCodec}.
+     */
+    public void broadcast(@NotNull final String destination, @NotNull final Object payload) {
+        if (topicSubscriptionTracker.hasSubscribers(destination)) {
+            messagingTemplate.convertAndSend(destination, payload);
+        }
+        sendBinary(destination, payload);
+    }
+
+    private void sendBinary(final String destination, final Object payload) {
+        final String binaryDestination = TopicSubscriptionTracker.binaryDestination(destination);
+        if (!topicSubscriptionTracker.hasSubscribers(binaryDestination)) {
+            return;
+        }
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(DrawMessageConverter.DRAW_BINARY);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(binaryDestination,
+                MessageBuilder.createMessage(DrawMessageCodec.encode(payload), accessor.getMessageHeaders()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdown();
+            try {
+                ticker.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+}
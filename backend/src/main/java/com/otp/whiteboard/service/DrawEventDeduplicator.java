@@ -0,0 +1,112 @@
+package com.otp.whiteboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the most recent draw event ids of each board, so an event that a client resends after a reconnect
+ * or a SockJS retry is dropped before it is queued, published or broadcast. Each board keeps a bounded
+ * least-recently-seen window; boards without traffic are forgotten after a while.
+ * <p>
+ * The window only covers this instance and its uptime. Strokes that are persisted twice anyway are caught by
+ * the unique constraint on {@code stroke_paths}.
+ */
+@Service
+public class DrawEventDeduplicator {
+    private final Cache<Long, SeenIds> boards;
+    private final int windowSize;
+    private final Counter duplicateCounter;
+
+    public DrawEventDeduplicator(final MeterRegistry meterRegistry,
+                                 @Value("${app.draw.dedup.window-size:4096}") final int windowSize,
+                                 @Value("${app.draw.dedup.max-boards:10000}") final long maxBoards,
+                                 @Value("${app.draw.dedup.idle-timeout:600000}") final long idleTimeoutMillis) {
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Deduplication window size must be positive");
+        }
+        this.windowSize = windowSize;
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(maxBoards)
+                .expireAfterAccess(Duration.ofMillis(idleTimeoutMillis))
+                .build();
+        this.duplicateCounter = Counter.builder("whiteboard.draw.duplicates")
+                .description("Resent draw events and batches that were dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records an event id for a board.
+     *
+     * @param boardId the ID of the board.
+     * @param eventId the id of the event or batch; events without an id are never treated as duplicates.
+     * @return {@code true} the first time the id is seen, {@code false} if it is a duplicate that should be dropped.
+     */
+    public boolean firstSeen(@NotNull final Long boardId, final String eventId) {
+        if (eventId == null) {
+            return true;
+        }
+        final boolean first = boards.get(boardId, id -> new SeenIds(windowSize)).add(eventId);
+        if (!first) {
+            duplicateCounter.increment();
+        }
+        return first;
+    }
+
+    /**
+     * Forgets an event id again, so a resend of an event that was not accepted is not dropped.
+     *
+     * @param boardId the ID of the board.
+     * @param eventId the id of the event or batch.
+     */
+    public void forget(@NotNull final Long boardId, final String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        final SeenIds seen = boards.getIfPresent(boardId);
+        if (seen != null) {
+            seen.remove(eventId);
+        }
+    }
+
+    /**
+     * @return the number of dropped duplicates.
+     */
+    public long getDuplicateCount() {
+        return (long) duplicateCounter.count();
+    }
+
+    /**
+     * Bounded set of ids that evicts the id seen least recently.
+     */
+    private static final class SeenIds {
+        private final Map<String, Boolean> ids;
+
+        SeenIds(final int capacity) {
+            this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized boolean add(final String id) {
+            return ids.put(id, Boolean.TRUE) == null;
+        }
+
+        synchronized void remove(final String id) {
+            ids.remove(id);
+        }
+    }
+}
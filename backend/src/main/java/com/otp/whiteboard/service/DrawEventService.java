@@ -1,134 +1,609 @@
 package com.otp.whiteboard.service;
 
+import com.otp.whiteboard.codec.PackedPoints;
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
 import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
 import com.otp.whiteboard.dto.drawing.DrawDto;
-import com.otp.whiteboard.model.Board;
-import com.otp.whiteboard.model.Stroke;
-import com.otp.whiteboard.model.User;
-import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.dto.drawing.SnapshotStrokeDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.HistoryOrder;
+import com.otp.whiteboard.repository.StoredHistoryReader;
+import com.otp.whiteboard.repository.StrokeEventRow;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import com.otp.whiteboard.repository.StrokePathRow;
 import com.otp.whiteboard.repository.StrokeRepository;
-import com.otp.whiteboard.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import reactor.util.annotation.NonNull;
 
-import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
 
 @Service
 public class DrawEventService {
     private static final Logger LOGGER = LoggerFactory.getLogger(DrawEventService.class);
 
-    private static final String DRAWING_CHANNEL_PREFIX = "drawing-session-";
     private static final String CURSOR_CHANNEL_PREFIX  = "cursor-session-";
 
     private static final String CURSOR_EVENTS_PREFIX   = "cursor-events";
-    private static final String DRAWING_EVENTS_PREFIX  = "drawing-events-board-";
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    /** Rows read per keyset query; stroke paths can hold thousands of points each. */
+    private static final int HISTORY_ROW_BATCH = 32;
+
+    private final BoardEventStore boardEventStore;
     private final StrokeRepository strokeRepository;
-    private final UserRepository userRepository;
-    private final BoardRepository boardRepository;
+    private final StrokePathRepository strokePathRepository;
+    private final StoredHistoryReader storedHistoryReader;
+    private final RedisEventPublisher redisEventPublisher;
+    private final DrawIngestPipeline drawIngestPipeline;
+    private final DrawEventDeduplicator drawEventDeduplicator;
+    private final BoardSnapshotService boardSnapshotService;
+    private final PersistedSequenceTracker persistedSequenceTracker;
+    private final Timer fanoutTimer;
+    private final int maxBatchPoints;
+    private final int historyPageSize;
+    private final int historyMaxPageSize;
+    private final double viewportMargin;
+    private final int sinceMaxEvents;
+    private final Counter sinceDeltaCounter;
+    private final Counter sinceResyncCounter;
 
-    public DrawEventService(final RedisTemplate<String, Object> redisTemplate,
+    public DrawEventService(final BoardEventStore boardEventStore,
                             final StrokeRepository strokeRepository,
-                            final UserRepository userRepository,
-                            final BoardRepository boardRepository) {
-        this.redisTemplate = Objects.requireNonNull(redisTemplate, "redisTemplate must not be null");
+                            final StrokePathRepository strokePathRepository,
+                            final StoredHistoryReader storedHistoryReader,
+                            final RedisEventPublisher redisEventPublisher,
+                            final DrawIngestPipeline drawIngestPipeline,
+                            final DrawEventDeduplicator drawEventDeduplicator,
+                            final BoardSnapshotService boardSnapshotService,
+                            final PersistedSequenceTracker persistedSequenceTracker,
+                            final MeterRegistry meterRegistry,
+                            @Value("${app.draw.batch.max-points:1000}") final int maxBatchPoints,
+                            @Value("${app.draw.history.page-size:1000}") final int historyPageSize,
+                            @Value("${app.draw.history.max-page-size:10000}") final int historyMaxPageSize,
+                            @Value("${app.draw.viewport.margin:50}") final double viewportMargin,
+                            @Value("${app.draw.history.since-max-events:5000}") final int sinceMaxEvents) {
+        this.boardEventStore = Objects.requireNonNull(boardEventStore, "boardEventStore must not be null");
         this.strokeRepository = Objects.requireNonNull(strokeRepository, "strokeRepository must not be null");
-        this.boardRepository = Objects.requireNonNull(boardRepository, "boardRepository must not be null");
-        this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+        this.storedHistoryReader = Objects.requireNonNull(storedHistoryReader, "storedHistoryReader must not be null");
+        this.redisEventPublisher = Objects.requireNonNull(redisEventPublisher, "redisEventPublisher must not be null");
+        this.drawIngestPipeline = Objects.requireNonNull(drawIngestPipeline, "drawIngestPipeline must not be null");
+        this.drawEventDeduplicator = Objects.requireNonNull(drawEventDeduplicator, "drawEventDeduplicator must not be null");
+        this.boardSnapshotService = Objects.requireNonNull(boardSnapshotService, "boardSnapshotService must not be null");
+        this.persistedSequenceTracker = Objects.requireNonNull(persistedSequenceTracker,
+                "persistedSequenceTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.fanoutTimer = DrawIngestPipeline.stageTimer(meterRegistry, "fanout", "Time to publish a draw event to Redis");
+        this.maxBatchPoints = maxBatchPoints;
+        if (historyPageSize <= 0 || historyMaxPageSize < historyPageSize) {
+            throw new IllegalArgumentException("History page size must be positive and not exceed the maximum page size");
+        }
+        this.historyPageSize = historyPageSize;
+        this.historyMaxPageSize = historyMaxPageSize;
+        this.viewportMargin = viewportMargin;
+        if (sinceMaxEvents <= 0) {
+            throw new IllegalArgumentException("History since max events must be positive");
+        }
+        this.sinceMaxEvents = sinceMaxEvents;
+        this.sinceDeltaCounter = Counter.builder("whiteboard.draw.history.since")
+                .description("History since requests answered with the missed events")
+                .tag("outcome", "delta")
+                .register(meterRegistry);
+        this.sinceResyncCounter = Counter.builder("whiteboard.draw.history.since")
+                .description("History since requests answered with a resync")
+                .tag("outcome", "resync")
+                .register(meterRegistry);
     }
 
     /**
-     * Publish a drawing event to Redis and save it to the database.
+     * Append a drawing event to the board's {@link BoardEventStore} and then queue it for persistence.
+     * Fan-out comes first, so a slow database never holds back live drawing; a slot on the board's persistence
+     * lane is reserved before, so an event that is broadcast is also persisted.
+     * An event whose id was already seen for the board is dropped before anything is queued or published; when
+     * the lane is full or the append fails, nothing is queued and the id is forgotten, so the client can resend
+     * the event.
+     *
+     * @return the accepted event with its sequence number, or {@code null} if it was a duplicate and must not be
+     * broadcast.
+     * @throws IllegalStateException if the board's persistence lane is full; the message names the event id.
      */
-    public void publishDrawEvent(@NotNull @Valid final DrawDto event) {
-        final String redisChannel = DRAWING_CHANNEL_PREFIX + event.boardId();
+    public DrawDto publishDrawEvent(@NotNull @Valid final DrawDto event) {
+        if (!drawEventDeduplicator.firstSeen(event.boardId(), event.id())) {
+            LOGGER.debug("Dropping duplicate draw event {} for board {}", event.id(), event.boardId());
+            return null;
+        }
+        final BoardEventStore.Appended appended = append(event.boardId(), event.id(), event, List.of(event));
+        final DrawDto accepted = appended != null ? event.withSeq(appended.lastSequence()) : event;
+        drawIngestPipeline.submit(accepted);
+        return accepted;
+    }
 
-        redisTemplate.convertAndSend(redisChannel, event);
-        redisTemplate.opsForList().rightPush(DRAWING_EVENTS_PREFIX + event.boardId(), event);
-        redisTemplate.expire(DRAWING_EVENTS_PREFIX + event.boardId(), java.time.Duration.ofHours(1));
+    /**
+     * Append a batch of points of one stroke to the board's {@link BoardEventStore} and then queue it for
+     * persistence, as a single unit in one reserved lane slot, like single draws.
+     * Subscribers receive the batch; the board history keeps one event per point, like single draws.
+     * A batch whose id was already seen for the board is dropped before anything is queued or published; when
+     * the lane is full or the append fails, nothing is queued and the id is forgotten, so the client can resend
+     * the batch.
+     *
+     * @return the accepted batch with the sequence number of its last point, or {@code null} if it was a duplicate
+     * and must not be broadcast.
+     * @throws IllegalArgumentException if the batch has no points, an odd number of coordinates or too many points.
+     * @throws IllegalStateException    if the board's persistence lane is full; the message names the batch id.
+     */
+    public DrawBatchDto publishDrawBatch(@NotNull @Valid final DrawBatchDto batch) {
+        if (batch.points() == null || batch.points().length == 0 || batch.points().length % 2 != 0) {
+            throw new IllegalArgumentException("Batch points must be a non-empty list of x, y pairs");
+        }
+        if (batch.pointCount() > maxBatchPoints) {
+            throw new IllegalArgumentException("Batch must not contain more than " + maxBatchPoints + " points");
+        }
+        if (!drawEventDeduplicator.firstSeen(batch.boardId(), batch.id())) {
+            LOGGER.debug("Dropping duplicate draw batch {} for board {}", batch.id(), batch.boardId());
+            return null;
+        }
+        final List<DrawDto> events = toDrawEvents(batch);
+        final BoardEventStore.Appended appended = append(batch.boardId(), batch.id(), batch, events);
+        if (appended == null) {
+            drawIngestPipeline.submitAll(batch.boardId(), events);
+            return batch;
+        }
+        final long first = appended.lastSequence() - events.size() + 1;
+        final List<DrawDto> numbered = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            numbered.add(events.get(i).withSeq(first + i));
+        }
+        drawIngestPipeline.submitAll(batch.boardId(), numbered);
+        return batch.withSeq(appended.lastSequence());
+    }
 
+    /**
+     * Appends events to the board's store, after loading the board's stored history if the store needs it first,
+     * and registers their sequence numbers with the {@link PersistedSequenceTracker} until they are persisted.
+     * A slot on the board's persistence lane is reserved before the append, for the caller to submit the events in.
+     * When the lane is full or the append fails, the message id is forgotten, so the client can resend it.
+     */
+    private BoardEventStore.Appended append(final Long boardId, final String messageId, final Object message,
+                                            final List<DrawDto> events) {
+        if (boardEventStore.needsLoadBeforeAppend(boardId)) {
+            boardEventStore.loadOnMiss(boardId, () -> readStoredHistory(boardId));
+        }
+        if (!drawIngestPipeline.tryReserve(boardId)) {
+            drawEventDeduplicator.forget(boardId, messageId);
+            throw new IllegalStateException("Board " + boardId + " is busy, draw " + messageId
+                    + " was not accepted; resend it");
+        }
+        final long token = persistedSequenceTracker.beginAppend(boardId);
+        final long startedAt = System.nanoTime();
+        final BoardEventStore.Appended appended;
         try {
-            final Board board = boardRepository.findById(event.boardId()).orElseThrow(
-                    () -> {
-                        LOGGER.warn("publishDrawEvent: board {} not found – skipping DB save (event id={})",
-                                event.boardId(), event.id());
-                        return new IllegalArgumentException("Board not found: " + event.boardId());
-                    }
-            );
-
-            final User user = userRepository.findUserByDisplayName(event.displayName()).orElseThrow(
-                    () -> {
-                        LOGGER.warn("publishDrawEvent: user {} not found – skipping DB save (event id={})",
-                                event.displayName(), event.id());
-                        return new IllegalArgumentException("User not found: " + event.displayName());
-                    }
-            );
-
-            final Stroke newStroke = new Stroke();
-            newStroke.setBoard(board);
-            newStroke.setUser(user);
-            newStroke.setColor(event.brushColor());
-            newStroke.setThickness(event.brushSize());
-            newStroke.setType(event.type());
-            newStroke.setTool(event.tool());
-            newStroke.setXCord(event.x());
-            newStroke.setYCord(event.y());
-            newStroke.setCreatedAt(LocalDateTime.now());
-
-            strokeRepository.save(newStroke);
-
-            board.incrementStrokes();
-            boardRepository.save(board);
-        } catch (Exception e) {
-            LOGGER.error("Error during removing user from board", e);
+            appended = boardEventStore.append(boardId, message, events);
+        } catch (RuntimeException e) {
+            persistedSequenceTracker.abortAppend(boardId, token);
+            drawIngestPipeline.cancelReservation(boardId);
+            drawEventDeduplicator.forget(boardId, messageId);
             throw e;
+        } finally {
+            fanoutTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
-
+        if (appended == null) {
+            persistedSequenceTracker.abortAppend(boardId, token);
+            return null;
+        }
+        persistedSequenceTracker.appended(boardId, token, appended.lastSequence() - events.size() + 1,
+                appended.lastSequence());
+        boardSnapshotService.recordAppend(boardId, appended.length());
+        return appended;
     }
 
     /**
      * Publish a cursor event to Redis.
      */
     public void publishCursorEvent(@NotNull @Valid final CursorDto event) {
-        final String cursorChannel = CURSOR_CHANNEL_PREFIX + event.displayName();
-
-        redisTemplate.convertAndSend(cursorChannel, event);
-        redisTemplate.opsForList().rightPush(CURSOR_EVENTS_PREFIX + event.displayName(), event);
-        redisTemplate.expire(CURSOR_EVENTS_PREFIX + event.displayName(), java.time.Duration.ofHours(1));
+        redisEventPublisher.publishAndAppend(
+                CURSOR_CHANNEL_PREFIX + event.displayName(), CURSOR_EVENTS_PREFIX + event.displayName(), event);
     }
 
     /**
      * Retrieve all drawing strokes for a given board.
+     * Without a history in the {@link BoardEventStore}, the stored rows are streamed as projections by
+     * {@link StoredHistoryReader}; concurrent misses share one load, which the store keeps.
      */
     @NonNull
     public List<DrawDto> getBoardStrokes(@NotNull final Long boardId) {
-        final String redisKey = DRAWING_EVENTS_PREFIX + boardId;
-        final List<Object> cached = redisTemplate.opsForList().range(redisKey, 0, -1);
-
-        if (cached == null || cached.isEmpty()) {
-            final List<Stroke> strokes = strokeRepository.findAllByBoardId(boardId);
-            return strokes.stream().map(st -> new DrawDto(
-                    st.getId().toString(),
-                    st.getBoard().getId(),
-                    st.getUser().getDisplayName(),
-                    st.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                    st.getType(),
-                    st.getTool(),
-                    st.getXCord(),
-                    st.getYCord(),
-                    st.getThickness(),
-                    st.getColor(),
-                    st.getId().toString()
-            )).toList();
-        }
-        return cached.stream().map(e -> (DrawDto) e).toList();
+        final List<DrawDto> cached = boardEventStore.range(boardId, 0, -1);
+        if (cached.isEmpty()) {
+            return boardEventStore.loadOnMiss(boardId, () -> readStoredHistory(boardId));
+        }
+        return cached;
+    }
+
+    @NonNull
+    private List<DrawDto> readStoredHistory(@NotNull final Long boardId) {
+        final List<DrawDto> history = new ArrayList<>();
+        // Rows written before strokes were stored as whole paths, one row per point.
+        storedHistoryReader.readBoard(boardId,
+                row -> history.add(toDrawEvent(row)),
+                row -> history.addAll(toDrawEvents(row)));
+        return history;
+    }
+
+    /**
+     * Returns the draw events a reconnecting client missed: those after the last sequence number it received,
+     * numbered. The client has to resync, reloading the board, when the board's history no longer reaches back to
+     * that sequence number, has been reloaded from the database since, or more than
+     * {@code app.draw.history.since-max-events} events were missed.
+     *
+     * @param boardId the ID of the board.
+     * @param since   the highest sequence number the client received.
+     * @return the missed events and the board's last sequence number, or the resync signal.
+     */
+    @NonNull
+    public HistorySinceDto getBoardStrokesSince(@NotNull final Long boardId, final long since) {
+        final HistorySinceDto result = boardEventStore.readSince(boardId, since, sinceMaxEvents);
+        (result.resync() ? sinceResyncCounter : sinceDeltaCounter).increment();
+        return result;
+    }
+
+    /**
+     * Retrieve the drawing strokes of a board that intersect a viewport. The viewport is widened by a margin,
+     * so strokes whose points lie just outside it but whose width reaches into it are included.
+     * Stored stroke paths are selected by their bounding box, legacy one-row-per-point strokes by their point, and
+     * only the events that are not written yet are read from the {@link BoardEventStore}: those after the sequence
+     * number the {@link PersistedSequenceTracker} reports as persisted and not known to be written. The tail keeps
+     * each stroke whose tail events' bounding box intersects the viewport; stored segments, and stored parts of a
+     * stroke still being drawn, are selected on their own. When the tail is no longer in the store, the store's
+     * whole history is filtered instead. With several instances, events another instance appended before this
+     * instance's last append count as written here, so they are missing until that instance writes them.
+     *
+     * @param boardId the ID of the board.
+     * @param minX    the left edge of the viewport.
+     * @param minY    the top edge of the viewport.
+     * @param maxX    the right edge of the viewport.
+     * @param maxY    the bottom edge of the viewport.
+     * @return the draw events of the intersecting strokes.
+     * @throws IllegalArgumentException if the viewport is not a finite rectangle.
+     */
+    @NonNull
+    public List<DrawDto> getBoardStrokesInViewport(@NotNull final Long boardId, final double minX, final double minY,
+                                                   final double maxX, final double maxY) {
+        if (!Double.isFinite(minX) || !Double.isFinite(minY) || !Double.isFinite(maxX) || !Double.isFinite(maxY)
+                || minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("Viewport must be a finite rectangle with min <= max");
+        }
+        final double left = minX - viewportMargin;
+        final double top = minY - viewportMargin;
+        final double right = maxX + viewportMargin;
+        final double bottom = maxY + viewportMargin;
+
+        final long persisted = persistedSequenceTracker.persistedThrough(boardId,
+                boardEventStore.lastSequence(boardId));
+        final HistorySinceDto tail = boardEventStore.readSince(boardId, persisted, Integer.MAX_VALUE);
+        if (tail.resync()) {
+            final List<DrawDto> cached = boardEventStore.range(boardId, 0, -1);
+            if (!cached.isEmpty()) {
+                return filterByStrokeBounds(cached, left, top, right, bottom);
+            }
+        }
+        // Taken before the rows are read, so every tail event it reports as written is in them.
+        final LongPredicate unwritten = persistedSequenceTracker.unwritten(boardId);
+        final List<DrawDto> history = new ArrayList<>();
+        strokeRepository.findAllInViewport(boardId, left, top, right, bottom)
+                .forEach(st -> history.add(toDrawEvent(st)));
+        strokePathRepository.findAllInViewport(boardId, left, top, right, bottom)
+                .forEach(path -> history.addAll(toDrawEvents(path)));
+        final List<DrawDto> pending = new ArrayList<>(tail.events().size());
+        for (final DrawDto event : tail.events()) {
+            if (unwritten.test(event.seq())) {
+                pending.add(event);
+            }
+        }
+        history.addAll(filterByStrokeBounds(pending, left, top, right, bottom));
+        return history;
+    }
+
+    /**
+     * Keeps the events of the strokes whose points' bounding box intersects the rectangle.
+     * Events without a stroke id are kept when their own point is inside it.
+     */
+    @NonNull
+    private static List<DrawDto> filterByStrokeBounds(@NotNull final List<DrawDto> events, final double left,
+                                                      final double top, final double right, final double bottom) {
+        final Map<String, double[]> bounds = new HashMap<>();
+        for (final DrawDto event : events) {
+            if (event.strokeId() == null) {
+                continue;
+            }
+            final double[] box = bounds.computeIfAbsent(event.strokeId(), id -> new double[]{
+                    Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY});
+            box[0] = Math.min(box[0], event.x());
+            box[1] = Math.min(box[1], event.y());
+            box[2] = Math.max(box[2], event.x());
+            box[3] = Math.max(box[3], event.y());
+        }
+        final List<DrawDto> visible = new ArrayList<>();
+        for (final DrawDto event : events) {
+            final double[] box = event.strokeId() != null
+                    ? bounds.get(event.strokeId())
+                    : new double[]{event.x(), event.y(), event.x(), event.y()};
+            if (box[0] <= right && box[2] >= left && box[1] <= bottom && box[3] >= top) {
+                visible.add(event);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Returns what a joining client needs to draw a board: the latest snapshot and the events after it.
+     * When the board has no history, the stored stroke paths are returned as the snapshot strokes,
+     * since they are already one row per stroke, and legacy one-row-per-point strokes as the tail.
+     *
+     * @param boardId the ID of the board.
+     * @return the snapshot strokes and the tail events.
+     */
+    @NonNull
+    public BoardSnapshotDto getBoardSnapshot(@NotNull final Long boardId) {
+        final BoardSnapshotDto snapshot = boardSnapshotService.getSnapshot(boardId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        final List<DrawDto> legacy = new ArrayList<>();
+        final List<SnapshotStrokeDto> strokes = new ArrayList<>();
+        storedHistoryReader.readBoard(boardId,
+                row -> legacy.add(toDrawEvent(row)),
+                row -> strokes.add(new SnapshotStrokeDto(
+                        row.strokeId(),
+                        row.displayName(),
+                        row.tool(),
+                        row.color(),
+                        row.thickness(),
+                        row.ended(),
+                        PackedPoints.unpack(row.points())
+                )));
+        return new BoardSnapshotDto(boardId, 0, strokes, legacy);
+    }
+
+    /**
+     * Returns one page of a board's draw history. The board's {@link BoardEventStore} history is paged by sequence
+     * number, and a cursor from a history that has since been rebuilt is rejected; when it is empty
+     * the stored strokes are paged with keyset queries on {@code (board_id, id)}, legacy strokes before stroke
+     * paths when oldest first. A history that was started on one source is continued on it.
+     *
+     * @param boardId the ID of the board.
+     * @param limit   the maximum number of events, {@code null} for the default page size;
+     *                capped at the maximum page size.
+     * @param cursor  the cursor of the previous page, {@code null} for the first page.
+     * @param order   the order of the events, {@code null} for oldest first.
+     * @return the page and the cursor of the next one.
+     * @throws IllegalArgumentException if the limit is not positive, or the cursor is invalid or has expired.
+     */
+    @NonNull
+    public HistoryPageDto getBoardHistory(@NotNull final Long boardId, final Integer limit, final String cursor,
+                                          final HistoryOrder order) {
+        final HistoryOrder pageOrder = order != null ? order : HistoryOrder.OLDEST_FIRST;
+        final int pageSize = historyPageSize(limit);
+        HistoryCursor position = cursor != null ? HistoryCursor.decode(cursor, pageOrder) : null;
+        if (position == null) {
+            final long length = boardEventStore.size(boardId);
+            if (length > 0) {
+                position = new HistoryCursor(pageOrder, HistoryCursor.Source.REDIS,
+                        pageOrder == HistoryOrder.OLDEST_FIRST ? 0 : Long.MAX_VALUE, 0);
+            } else if (pageOrder == HistoryOrder.OLDEST_FIRST) {
+                position = new HistoryCursor(pageOrder, HistoryCursor.Source.STROKES, 0, 0);
+            } else {
+                position = new HistoryCursor(pageOrder, HistoryCursor.Source.PATHS, Long.MAX_VALUE, 0);
+            }
+        }
+
+        final List<DrawDto> events = new ArrayList<>(pageSize);
+        HistoryCursor next;
+        if (position.source() == HistoryCursor.Source.REDIS) {
+            next = readStorePage(boardId, position, pageSize, events);
+        } else {
+            next = position;
+            while (next != null && events.size() < pageSize) {
+                next = next.source() == HistoryCursor.Source.STROKES
+                        ? readStrokes(boardId, next, pageSize, events)
+                        : readStrokePaths(boardId, next, pageSize, events);
+            }
+        }
+        return new HistoryPageDto(boardId, events, next != null ? next.encode() : null);
+    }
+
+    private int historyPageSize(final Integer limit) {
+        if (limit == null) {
+            return historyPageSize;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("History limit must be positive");
+        }
+        return Math.min(limit, historyMaxPageSize);
+    }
+
+    /**
+     * Reads a page from the board's history in the store by sequence number. The store's history can expire and be
+     * rebuilt from the database with other events under the same numbers, so a cursor is only continued on the
+     * history it was issued on.
+     */
+    private HistoryCursor readStorePage(final Long boardId, final HistoryCursor cursor, final int pageSize,
+                                        final List<DrawDto> events) {
+        final BoardEventStore.Page page = boardEventStore.readPage(boardId, cursor.position(), pageSize,
+                cursor.order());
+        if (cursor.base() != 0 && page.firstSequence() != cursor.base()) {
+            throw new IllegalArgumentException("History cursor has expired, the board's history was rebuilt");
+        }
+        if (page.events().isEmpty()) {
+            return null;
+        }
+        events.addAll(page.events());
+        final long lastRead = page.events().get(page.events().size() - 1).seq();
+        if (cursor.order() == HistoryOrder.OLDEST_FIRST) {
+            return page.events().size() < pageSize ? null
+                    : new HistoryCursor(cursor.order(), HistoryCursor.Source.REDIS, lastRead + 1, 0, page.firstSequence());
+        }
+        return lastRead > page.firstSequence()
+                ? new HistoryCursor(cursor.order(), HistoryCursor.Source.REDIS, lastRead - 1, 0, page.firstSequence())
+                : null;
+    }
+
+    /**
+     * Reads legacy stroke rows from the cursor on. Returns where the next read continues, {@code null} when
+     * nothing is left.
+     */
+    private HistoryCursor readStrokes(final Long boardId, final HistoryCursor cursor, final int pageSize,
+                                      final List<DrawDto> events) {
+        final boolean ascending = cursor.order() == HistoryOrder.OLDEST_FIRST;
+        final Limit limit = Limit.of(Math.min(pageSize - events.size(), HISTORY_ROW_BATCH));
+        final List<StrokeEventRow> rows = ascending
+                ? strokeRepository.findEventRowsFrom(boardId, cursor.position(), limit)
+                : strokeRepository.findEventRowsUpTo(boardId, cursor.position(), limit);
+        rows.forEach(row -> events.add(toDrawEvent(row)));
+        if (rows.size() < limit.max()) {
+            // Legacy strokes are older than every stroke path.
+            return ascending ? new HistoryCursor(cursor.order(), HistoryCursor.Source.PATHS, 0, 0) : null;
+        }
+        final long lastId = rows.get(rows.size() - 1).id();
+        return new HistoryCursor(cursor.order(), HistoryCursor.Source.STROKES, ascending ? lastId + 1 : lastId - 1, 0);
+    }
+
+    /**
+     * Reads stroke paths from the cursor on, stopping inside a path when the page is full.
+     * Returns where the next read continues, {@code null} when nothing is left.
+     */
+    private HistoryCursor readStrokePaths(final Long boardId, final HistoryCursor cursor, final int pageSize,
+                                          final List<DrawDto> events) {
+        final boolean ascending = cursor.order() == HistoryOrder.OLDEST_FIRST;
+        final Limit limit = Limit.of(Math.min(pageSize - events.size(), HISTORY_ROW_BATCH));
+        final List<StrokePathRow> rows = ascending
+                ? strokePathRepository.findRowsFrom(boardId, cursor.position(), limit)
+                : strokePathRepository.findRowsUpTo(boardId, cursor.position(), limit);
+        for (final StrokePathRow path : rows) {
+            final List<DrawDto> pathEvents = toDrawEvents(path);
+            if (!ascending) {
+                Collections.reverse(pathEvents);
+            }
+            final int from = path.id() == cursor.position() ? Math.min(cursor.offset(), pathEvents.size()) : 0;
+            final int to = Math.min(pathEvents.size(), from + pageSize - events.size());
+            events.addAll(pathEvents.subList(from, to));
+            if (to < pathEvents.size()) {
+                return new HistoryCursor(cursor.order(), HistoryCursor.Source.PATHS, path.id(), to);
+            }
+        }
+        if (rows.size() < limit.max()) {
+            return ascending ? null : new HistoryCursor(cursor.order(), HistoryCursor.Source.STROKES, Long.MAX_VALUE, 0);
+        }
+        final long lastId = rows.get(rows.size() - 1).id();
+        return new HistoryCursor(cursor.order(), HistoryCursor.Source.PATHS, ascending ? lastId + 1 : lastId - 1, 0);
+    }
+
+    /**
+     * Maps a legacy one-row-per-point stroke to its draw event.
+     */
+    @NonNull
+    private DrawDto toDrawEvent(@NotNull final StrokeEventRow row) {
+        return new DrawDto(
+                row.id().toString(),
+                row.boardId(),
+                row.displayName(),
+                row.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                row.type(),
+                row.tool(),
+                row.x(),
+                row.y(),
+                row.thickness(),
+                row.color(),
+                row.id().toString()
+        );
+    }
+
+    /**
+     * Expands a batch into the point events a single-point client would have sent.
+     * Timestamps are spaced by one millisecond so clients that sort by timestamp keep the point order.
+     */
+    @NonNull
+    private List<DrawDto> toDrawEvents(@NotNull final DrawBatchDto batch) {
+        final double[] xy = batch.points();
+        final int pointCount = batch.pointCount();
+        final List<DrawDto> events = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            final DrawEventType type;
+            if (i == 0 && batch.start()) {
+                type = DrawEventType.START;
+            } else if (i == pointCount - 1 && batch.end()) {
+                type = DrawEventType.END;
+            } else {
+                type = DrawEventType.DRAW;
+            }
+            events.add(new DrawDto(
+                    batch.id() + "-" + i,
+                    batch.boardId(),
+                    batch.displayName(),
+                    batch.timestamp() + i,
+                    type,
+                    batch.tool(),
+                    xy[2 * i],
+                    xy[2 * i + 1],
+                    batch.brushSize(),
+                    batch.brushColor(),
+                    batch.strokeId()
+            ));
+        }
+        return events;
+    }
+
+    /**
+     * Expands a stored stroke path back into the point events the client replays.
+     * Timestamps are spaced by one millisecond so clients that sort by timestamp keep the point order.
+     */
+    @NonNull
+    private List<DrawDto> toDrawEvents(@NotNull final StrokePathRow path) {
+        final double[] xy = PackedPoints.unpack(path.points());
+        final int pointCount = xy.length / 2;
+        final long startedAt = path.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        final String displayName = path.displayName();
+        final List<DrawDto> events = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            final DrawEventType type;
+            if (i == 0 && path.segment() == 0) {
+                type = DrawEventType.START;
+            } else if (i == pointCount - 1 && path.ended()) {
+                type = DrawEventType.END;
+            } else {
+                type = DrawEventType.DRAW;
+            }
+            events.add(new DrawDto(
+                    path.id() + "-" + i,
+                    path.boardId(),
+                    displayName,
+                    startedAt + i,
+                    type,
+                    path.tool(),
+                    xy[2 * i],
+                    xy[2 * i + 1],
+                    path.thickness(),
+                    path.color(),
+                    path.strokeId()
+            ));
+        }
+        return events;
     }
 }
@@ -0,0 +1,215 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistence stage of the draw path. Draw events are queued on their board's {@link BoardLaneExecutor} lane,
+ * which resolves the board and user and hands them to the {@link StrokeAssembler}, so database latency never
+ * reaches the STOMP thread that broadcasts the event. Events of one board are persisted by a single lane
+ * in the order they were submitted; see {@link BoardLaneExecutor} for what that order covers. A caller reserves a
+ * lane slot with {@link #tryReserve} before it fans an event out, so when the lane is full the draw is rejected,
+ * counted as {@code whiteboard.draw.ingest.rejected}, before anything is published, instead of being broadcast
+ * without ever being persisted; the sender is told and can resend it. Only events submitted while the lanes shut
+ * down are shed, counted as {@code whiteboard.draw.ingest.shed}.
+ * Numbered events that are shed or cannot be persisted are released from the {@link PersistedSequenceTracker}
+ * right away; the others are released by the {@link StrokeWriteBehindService} once written.
+ */
+@Service
+public class DrawIngestPipeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrawIngestPipeline.class);
+
+    static final String STAGE_TIMER = "whiteboard.draw.ingest.stage";
+
+    private final DrawReferenceCache drawReferenceCache;
+    private final StrokeAssembler strokeAssembler;
+    private final BoardStrokeCounter boardStrokeCounter;
+    private final BoardLaneExecutor boardLaneExecutor;
+    private final PersistedSequenceTracker persistedSequenceTracker;
+
+    private final Timer queueWaitTimer;
+    private final Timer persistTimer;
+    private final Counter rejectedCounter;
+    private final Counter shedCounter;
+    private final Counter failedCounter;
+
+    public DrawIngestPipeline(final DrawReferenceCache drawReferenceCache,
+                              final StrokeAssembler strokeAssembler,
+                              final BoardStrokeCounter boardStrokeCounter,
+                              final BoardLaneExecutor boardLaneExecutor,
+                              final PersistedSequenceTracker persistedSequenceTracker,
+                              final MeterRegistry meterRegistry) {
+        this.drawReferenceCache = Objects.requireNonNull(drawReferenceCache, "drawReferenceCache must not be null");
+        this.strokeAssembler = Objects.requireNonNull(strokeAssembler, "strokeAssembler must not be null");
+        this.boardStrokeCounter = Objects.requireNonNull(boardStrokeCounter, "boardStrokeCounter must not be null");
+        this.boardLaneExecutor = Objects.requireNonNull(boardLaneExecutor, "boardLaneExecutor must not be null");
+        this.persistedSequenceTracker = Objects.requireNonNull(persistedSequenceTracker,
+                "persistedSequenceTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+
+        Gauge.builder("whiteboard.draw.ingest.queue", boardLaneExecutor, BoardLaneExecutor::getQueueDepth)
+                .description("Draw events and batches waiting to be persisted")
+                .register(meterRegistry);
+        this.queueWaitTimer = stageTimer(meterRegistry, "queue_wait", "Time a draw event waits in the ingest queue");
+        this.persistTimer = stageTimer(meterRegistry, "persist", "Time to resolve and assemble a queued draw event");
+        this.rejectedCounter = Counter.builder("whiteboard.draw.ingest.rejected")
+                .description("Draw events and batches rejected before fan-out because their lane was full")
+                .register(meterRegistry);
+        this.shedCounter = Counter.builder("whiteboard.draw.ingest.shed")
+                .description("Broadcast draw events that were not persisted because the lanes were shutting down")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("whiteboard.draw.ingest.failed")
+                .description("Queued draw events that could not be persisted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the timer for one stage of the draw path. Shared with {@link DrawEventService} for the fan-out stage.
+     */
+    static Timer stageTimer(final MeterRegistry meterRegistry, final String stage, final String description) {
+        return Timer.builder(STAGE_TIMER)
+                .tag("stage", stage)
+                .description(description)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves a slot on the board's lane for one {@link #submit} or {@link #submitAll} without blocking.
+     * Reserve before fanning an event out, and give the slot back with {@link #cancelReservation} if nothing is
+     * submitted after all.
+     *
+     * @param boardId the ID of the board.
+     * @return {@code true} if a slot was reserved, {@code false} if the lane is full and the draw must be rejected.
+     */
+    public boolean tryReserve(@NotNull final Long boardId) {
+        if (boardLaneExecutor.tryReserve(boardId)) {
+            return true;
+        }
+        rejectedCounter.increment();
+        LOGGER.warn("Draw ingest lane {} is full, rejecting a draw for board {}",
+                boardLaneExecutor.laneOf(boardId), boardId);
+        return false;
+    }
+
+    /**
+     * Gives back a slot reserved with {@link #tryReserve} that will not be used.
+     *
+     * @param boardId the ID of the board.
+     */
+    public void cancelReservation(@NotNull final Long boardId) {
+        boardLaneExecutor.cancelReservation(boardId);
+    }
+
+    /**
+     * Queues a draw event for persistence in a slot reserved with {@link #tryReserve}.
+     *
+     * @param event the draw event.
+     * @return {@code true} if the event was queued, {@code false} if the lanes are shutting down and it will not be
+     * persisted.
+     */
+    public boolean submit(@NotNull final DrawDto event) {
+        final long enqueuedAt = System.nanoTime();
+        if (!boardLaneExecutor.submitReserved(event.boardId(), () -> process(event, enqueuedAt))) {
+            shedCounter.increment();
+            release(event);
+            LOGGER.warn("Draw ingest lanes are shutting down, not persisting event {} for board {}",
+                    event.id(), event.boardId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues consecutive draw events of one board as a single unit, in a slot reserved with {@link #tryReserve},
+     * so they are persisted together and in order.
+     *
+     * @param boardId the ID of the board all events belong to.
+     * @param events  the draw events.
+     * @return {@code true} if the events were queued, {@code false} if the lanes are shutting down and they will not
+     * be persisted.
+     */
+    public boolean submitAll(@NotNull final Long boardId, @NotNull final List<DrawDto> events) {
+        final long enqueuedAt = System.nanoTime();
+        if (!boardLaneExecutor.submitReserved(boardId, () -> events.forEach(event -> process(event, enqueuedAt)))) {
+            shedCounter.increment(events.size());
+            events.forEach(this::release);
+            LOGGER.warn("Draw ingest lanes are shutting down, not persisting a batch of {} events for board {}",
+                    events.size(), boardId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of queued persistence tasks; a batch counts as one.
+     */
+    public int getQueueDepth() {
+        return boardLaneExecutor.getQueueDepth();
+    }
+
+    /**
+     * Drains the board lanes while the assembler is still running. Spring destroys this bean before its dependencies.
+     */
+    @PreDestroy
+    public void shutdown() {
+        LOGGER.info("Persisting {} queued draw events before shutdown", boardLaneExecutor.getQueueDepth());
+        boardLaneExecutor.shutdown();
+    }
+
+    private void process(final DrawDto event, final long enqueuedAt) {
+        final long startedAt = System.nanoTime();
+        queueWaitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            final Optional<Board> board = drawReferenceCache.findBoard(event.boardId());
+            if (board.isEmpty()) {
+                failedCounter.increment();
+                release(event);
+                LOGGER.warn("Draw ingest: board {} not found – skipping DB save (event id={})",
+                        event.boardId(), event.id());
+                return;
+            }
+            final Optional<User> user = drawReferenceCache.findUser(event.displayName());
+            if (user.isEmpty()) {
+                failedCounter.increment();
+                release(event);
+                LOGGER.warn("Draw ingest: user {} not found – skipping DB save (event id={})",
+                        event.displayName(), event.id());
+                return;
+            }
+
+            strokeAssembler.append(event, board.get(), user.get());
+            boardStrokeCounter.increment(board.get().getId());
+        } catch (Exception e) {
+            failedCounter.increment();
+            release(event);
+            LOGGER.error("Error during draw event persistence (event id={})", event.id(), e);
+        } finally {
+            persistTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Marks a numbered event that will not be persisted, so it does not hold back what counts as persisted.
+     */
+    private void release(final DrawDto event) {
+        if (event.seq() != null) {
+            persistedSequenceTracker.written(event.boardId(), event.seq());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.otp.whiteboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Bounded, expiring cache of the board and user entities the draw path needs for every point.
+ * Entries are evicted by {@link BoardService} and {@link UserService} when the entity changes.
+ * Hits and misses are published as the {@code cache.gets} meter for the
+ * {@code draw.boards} and {@code draw.users} caches.
+ */
+@Service
+public class DrawReferenceCache {
+    private final BoardRepository boardRepository;
+    private final UserRepository userRepository;
+
+    private final Cache<Long, Board> boards;
+    private final Cache<String, User> users;
+
+    public DrawReferenceCache(final BoardRepository boardRepository,
+                              final UserRepository userRepository,
+                              final MeterRegistry meterRegistry,
+                              @Value("${app.draw.reference-cache.max-size:10000}") final long maxSize,
+                              @Value("${app.draw.reference-cache.ttl:300000}") final long ttlMillis) {
+        this.boardRepository = Objects.requireNonNull(boardRepository, "boardRepository must not be null");
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, boards, "draw.boards");
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "draw.users");
+    }
+
+    /**
+     * Finds a board, loading it from the database on a miss. Missing boards are not cached.
+     *
+     * @param boardId the ID of the board.
+     * @return an {@link Optional} containing the board if found, or empty if not.
+     */
+    @Nonnull
+    public Optional<Board> findBoard(@NotNull final Long boardId) {
+        return Optional.ofNullable(boards.get(boardId, id -> boardRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * Finds a user by display name, loading it from the database on a miss. Missing users are not cached.
+     *
+     * @param displayName the display name of the user.
+     * @return an {@link Optional} containing the user if found, or empty if not.
+     */
+    @Nonnull
+    public Optional<User> findUser(@NotNull final String displayName) {
+        return Optional.ofNullable(users.get(displayName, name -> userRepository.findUserByDisplayName(name).orElse(null)));
+    }
+
+    /**
+     * Removes a board from the cache after it was changed.
+     *
+     * @param boardId the ID of the board.
+     */
+    public void evictBoard(@NotNull final Long boardId) {
+        boards.invalidate(boardId);
+    }
+
+    /**
+     * Removes a user from the cache after it was changed.
+     *
+     * @param displayName the display name the user was cached under.
+     */
+    public void evictUser(final String displayName) {
+        if (displayName != null) {
+            users.invalidate(displayName);
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from the cache, boards and users combined.
+     */
+    public long getHitCount() {
+        return boards.stats().hitCount() + users.stats().hitCount();
+    }
+
+    /**
+     * @return the number of lookups that went to the database, boards and users combined.
+     */
+    public long getMissCount() {
+        return boards.stats().missCount() + users.stats().missCount();
+    }
+}
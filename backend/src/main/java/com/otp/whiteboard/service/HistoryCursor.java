@@ -0,0 +1,76 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.enums.HistoryOrder;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a board's history, handed to clients as an opaque string.
+ * <ul>
+ *     <li>{@link Source#REDIS}: {@code position} is the sequence number of the next event in the
+ *     {@link BoardEventStore} history, and {@code base} the first sequence number of that history, {@code 0} for
+ *     the first page. A history that expired and was rebuilt starts at another sequence number and numbers other
+ *     events, so its earlier cursors are rejected.</li>
+ *     <li>{@link Source#STROKES} and {@link Source#PATHS}: {@code position} is the inclusive keyset bound on the row
+ *     id, and {@code offset} the number of points of that row that were already returned.</li>
+ * </ul>
+ * The order is part of the cursor, so a page cannot be continued in the other direction.
+ */
+record HistoryCursor(HistoryOrder order, Source source, long position, int offset, long base) {
+
+    HistoryCursor(final HistoryOrder order, final Source source, final long position, final int offset) {
+        this(order, source, position, offset, 0);
+    }
+
+    enum Source {
+        /** The {@link BoardEventStore} history. */
+        REDIS,
+        /** Legacy one-row-per-point {@code strokes} rows. */
+        STROKES,
+        /** Whole strokes stored as {@code stroke_paths} rows. */
+        PATHS
+    }
+
+    private static final String SEPARATOR = ":";
+
+    @Nonnull
+    String encode() {
+        final String raw = order.name() + SEPARATOR + source.name() + SEPARATOR + position + SEPARATOR + offset
+                + SEPARATOR + base;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Parses a cursor that was returned with a previous page.
+     *
+     * @param encoded the opaque cursor.
+     * @param order   the order of the requested page.
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for the other order.
+     */
+    @Nonnull
+    static HistoryCursor decode(@NotNull final String encoded, @NotNull final HistoryOrder order) {
+        final HistoryCursor cursor;
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.US_ASCII)
+                    .split(SEPARATOR, -1);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+            cursor = new HistoryCursor(HistoryOrder.valueOf(parts[0]), Source.valueOf(parts[1]),
+                    Long.parseLong(parts[2]), Integer.parseInt(parts[3]), Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException e) {
+            // also covers bad Base64, unknown enum names and NumberFormatException
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+        if (cursor.order() != order) {
+            throw new IllegalArgumentException("History cursor was issued for " + cursor.order() + " pages");
+        }
+        if (cursor.offset() < 0 || cursor.base() < 0) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,184 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Handles misses on the Redis draw history of a board. Concurrent misses for the same board share one load
+ * from the database, and the loaded history is written back to Redis, so later joins read it from there again.
+ * <p>
+ * The history is pushed to a staging list in pipelined chunks and then renamed onto the history key in one
+ * script call, but only if the history key still does not exist: if a live event recreated the list while the
+ * history was loading, the staging list is dropped rather than mixing the loaded history behind newer events.
+ * The swapped-in events are numbered up to the board's last sequence number, and clients have to resync
+ * from there, since the loaded history need not match the events they were sent.
+ */
+@Service
+public class HistoryRehydrator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryRehydrator.class);
+
+    private static final String STAGING_SUFFIX = ":rehydrate";
+
+    /**
+     * KEYS[1] history list, KEYS[2] staging list, KEYS[3] sequence hash, ARGV[1] TTL in milliseconds.
+     * Returns 1 if the staging list became the history, 0 if the history already existed.
+     */
+    static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                redis.call('DEL', KEYS[2])
+                return 0
+            end
+            redis.call('RENAME', KEYS[2], KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            local length = redis.call('LLEN', KEYS[1])
+            local last = redis.call('HINCRBY', KEYS[3], 'last', 0)
+            if last < length then
+                last = length
+            end
+            redis.call('HSET', KEYS[3], 'last', last, 'base', last - length + 1, 'floor', last)
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, DrawDto> drawEventRedisTemplate;
+    private final long historyTtlMillis;
+    private final int chunkSize;
+    private final Map<Long, CompletableFuture<List<DrawDto>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loadCounter;
+    private final Counter sharedCounter;
+    private final Counter rehydratedCounter;
+
+    public HistoryRehydrator(final RedisTemplate<String, DrawDto> drawEventRedisTemplate,
+                             final MeterRegistry meterRegistry,
+                             @Value("${app.draw.redis.history-ttl:3600000}") final long historyTtlMillis,
+                             @Value("${app.draw.history.rehydrate-chunk-size:1000}") final int chunkSize) {
+        this.drawEventRedisTemplate = Objects.requireNonNull(drawEventRedisTemplate,
+                "drawEventRedisTemplate must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (historyTtlMillis <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("History TTL and rehydration chunk size must be positive");
+        }
+        this.historyTtlMillis = historyTtlMillis;
+        this.chunkSize = chunkSize;
+        this.loadCounter = Counter.builder("whiteboard.draw.history.miss_loads")
+                .description("History misses that loaded the board from the database")
+                .register(meterRegistry);
+        this.sharedCounter = Counter.builder("whiteboard.draw.history.shared_loads")
+                .description("History misses that waited for a load already in flight")
+                .register(meterRegistry);
+        this.rehydratedCounter = Counter.builder("whiteboard.draw.history.rehydrated")
+                .description("Histories written back to Redis after a miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the history of a board after a Redis miss, sharing the load with concurrent misses for the board,
+     * and writes it back to the history list.
+     *
+     * @param boardId     the ID of the board.
+     * @param historyKey  the Redis list that holds the board's history.
+     * @param sequenceKey the Redis hash that holds the sequence numbers of the history list.
+     * @param loader      reads the history from the database.
+     * @return the loaded history.
+     */
+    @NotNull
+    public List<DrawDto> load(@NotNull final Long boardId, @NotNull final String historyKey,
+                              @NotNull final String sequenceKey, @NotNull final Supplier<List<DrawDto>> loader) {
+        final CompletableFuture<List<DrawDto>> load = new CompletableFuture<>();
+        final CompletableFuture<List<DrawDto>> existing = inFlight.putIfAbsent(boardId, load);
+        if (existing != null) {
+            sharedCounter.increment();
+            return await(existing);
+        }
+        try {
+            loadCounter.increment();
+            final List<DrawDto> history;
+            try {
+                history = loader.get();
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+            // Waiting joins are answered first; the load stays registered until the write-back is done,
+            // so joins arriving meanwhile do not start another one.
+            load.complete(history);
+            rehydrate(historyKey, sequenceKey, history);
+            return history;
+        } finally {
+            inFlight.remove(boardId, load);
+        }
+    }
+
+    /**
+     * @return the number of boards whose history is currently being loaded.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private void rehydrate(final String historyKey, final String sequenceKey, final List<DrawDto> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        final String stagingKey = historyKey + STAGING_SUFFIX;
+        try {
+            drawEventRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(final RedisOperations<K, V> operations) {
+                    final RedisOperations<String, DrawDto> ops = (RedisOperations<String, DrawDto>) operations;
+                    ops.delete(stagingKey);
+                    for (int from = 0; from < history.size(); from += chunkSize) {
+                        ops.opsForList().rightPushAll(stagingKey,
+                                history.subList(from, Math.min(from + chunkSize, history.size())));
+                    }
+                    ops.expire(stagingKey, historyTtlMillis, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+            final Long swapped = drawEventRedisTemplate.execute(SWAP_SCRIPT, RedisSerializer.string(),
+                    new GenericToStringSerializer<>(Long.class), List.of(historyKey, stagingKey, sequenceKey),
+                    Long.toString(historyTtlMillis));
+            if (swapped != null && swapped == 1L) {
+                rehydratedCounter.increment();
+                LOGGER.debug("Rehydrated {} history events into {}", history.size(), historyKey);
+            } else {
+                LOGGER.debug("Skipped rehydrating {}, it was recreated while loading", historyKey);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to rehydrate {} history events into {}", history.size(), historyKey, e);
+        }
+    }
+
+    private static List<DrawDto> await(final CompletableFuture<List<DrawDto>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistoryChunkDto;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
+import com.otp.whiteboard.dto.drawing.HistoryStreamAck;
+import com.otp.whiteboard.dto.drawing.HistoryStreamRequest;
+import com.otp.whiteboard.enums.HistoryOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams a board's draw history to one session in chunks, instead of one message that can exceed the
+ * WebSocket message and send-buffer limits on large boards.
+ * <p>
+ * Chunks hold at most {@code app.draw.history.stream.chunk-size} events and an estimated
+ * {@code app.draw.history.stream.max-chunk-bytes} of JSON. At most {@code app.draw.history.stream.window} chunks
+ * are sent ahead of the client's acknowledgements, so a slow client holds back its own stream rather than
+ * filling its send buffer; the window times the chunk byte budget must fit in
+ * {@code app.websocket.send-buffer-size-limit}. The history is read page by page with the cursors of
+ * {@link DrawEventService#getBoardHistory}, so only the unsent part of the current page is held in memory.
+ * Each session has at most one stream; a new request replaces it and a disconnect drops it.
+ */
+@Service
+public class HistoryStreamer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryStreamer.class);
+
+    static final String STREAM_DESTINATION = "/queue/history/stream";
+
+    /** Field names, numbers and punctuation of a serialized {@link DrawDto}, without its strings. */
+    private static final int EVENT_JSON_OVERHEAD = 224;
+    /** Worst case UTF-8 bytes per character of a string field. */
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    private final DrawEventService drawEventService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int chunkSize;
+    private final int maxChunkBytes;
+    private final int window;
+    private final Map<String, Stream> streamsBySession = new ConcurrentHashMap<>();
+    private final Counter chunkCounter;
+    private final Counter completedCounter;
+
+    private static final class Stream {
+        private final Long boardId;
+        private final String streamId;
+        private final int chunkSize;
+        private final Deque<DrawDto> pending = new ArrayDeque<>();
+        private String cursor;
+        private boolean exhausted;
+        private long nextSeq;
+        private long ackedSeq = -1;
+        private long sentEvents;
+        private boolean closed;
+
+        private Stream(final Long boardId, final String streamId, final int chunkSize) {
+            this.boardId = boardId;
+            this.streamId = streamId;
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public HistoryStreamer(final DrawEventService drawEventService,
+                           final SimpMessagingTemplate messagingTemplate,
+                           final MeterRegistry meterRegistry,
+                           @Value("${app.draw.history.stream.chunk-size:250}") final int chunkSize,
+                           @Value("${app.draw.history.stream.max-chunk-bytes:65536}") final int maxChunkBytes,
+                           @Value("${app.draw.history.stream.window:4}") final int window,
+                           @Value("${app.websocket.send-buffer-size-limit:1048576}") final int sendBufferSizeLimit) {
+        this.drawEventService = Objects.requireNonNull(drawEventService, "drawEventService must not be null");
+        this.messagingTemplate = Objects.requireNonNull(messagingTemplate, "messagingTemplate must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (chunkSize <= 0 || maxChunkBytes <= 0 || window <= 0) {
+            throw new IllegalArgumentException("History stream chunk size, chunk bytes and window must be positive");
+        }
+        if ((long) maxChunkBytes * window > sendBufferSizeLimit) {
+            throw new IllegalArgumentException("History stream window times chunk bytes must fit in the send buffer");
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunkBytes = maxChunkBytes;
+        this.window = window;
+        this.chunkCounter = Counter.builder("whiteboard.draw.history.stream.chunks")
+                .description("History chunks sent to streaming clients")
+                .register(meterRegistry);
+        this.completedCounter = Counter.builder("whiteboard.draw.history.stream.completed")
+                .description("History streams sent to the end")
+                .register(meterRegistry);
+        Gauge.builder("whiteboard.draw.history.stream.active", streamsBySession, Map::size)
+                .description("History streams waiting for acknowledgements")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts streaming a board's history to a session, replacing the session's previous stream,
+     * and sends the first window of chunks.
+     *
+     * @param sessionId the WebSocket session to stream to.
+     * @param request   the board, the client's stream id and an optional smaller chunk size.
+     * @throws IllegalArgumentException if the chunk size is not positive.
+     */
+    public void start(@NotNull final String sessionId, @NotNull final HistoryStreamRequest request) {
+        Objects.requireNonNull(request.boardId(), "boardId must not be null");
+        Objects.requireNonNull(request.streamId(), "streamId must not be null");
+        if (request.chunkSize() != null && request.chunkSize() <= 0) {
+            throw new IllegalArgumentException("History stream chunk size must be positive");
+        }
+        final int size = request.chunkSize() != null ? Math.min(request.chunkSize(), chunkSize) : chunkSize;
+        final Stream stream = new Stream(request.boardId(), request.streamId(), size);
+        final Stream previous = streamsBySession.put(sessionId, stream);
+        if (previous != null) {
+            close(previous);
+        }
+        pump(sessionId, stream);
+    }
+
+    /**
+     * Records the client's acknowledgement and sends the chunks the window allows again.
+     * Acknowledgements for another stream than the session's current one are ignored.
+     *
+     * @param sessionId the WebSocket session.
+     * @param ack       the stream id and the last chunk the client received.
+     */
+    public void ack(@NotNull final String sessionId, @NotNull final HistoryStreamAck ack) {
+        final Stream stream = streamsBySession.get(sessionId);
+        if (stream == null || !stream.streamId.equals(ack.streamId())) {
+            return;
+        }
+        synchronized (stream) {
+            stream.ackedSeq = Math.max(stream.ackedSeq, Math.min(ack.seq(), stream.nextSeq - 1));
+        }
+        pump(sessionId, stream);
+    }
+
+    @EventListener
+    public void onDisconnect(final SessionDisconnectEvent event) {
+        final Stream stream = streamsBySession.remove(event.getSessionId());
+        if (stream != null) {
+            close(stream);
+        }
+    }
+
+    /**
+     * @return the number of sessions with a stream in progress.
+     */
+    public int getActiveStreamCount() {
+        return streamsBySession.size();
+    }
+
+    private void pump(final String sessionId, final Stream stream) {
+        synchronized (stream) {
+            try {
+                sendWindow(sessionId, stream);
+            } catch (RuntimeException e) {
+                // A stream that failed to read or send cannot resume; the client has to request it again.
+                streamsBySession.remove(sessionId, stream);
+                close(stream);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sends chunks until the window is full, and the completion frame once the history is exhausted.
+     */
+    private void sendWindow(final String sessionId, final Stream stream) {
+        while (!stream.closed && stream.nextSeq - stream.ackedSeq <= window) {
+            final List<DrawDto> events = nextChunk(stream);
+            if (events.isEmpty()) {
+                send(sessionId, new HistoryChunkDto(stream.boardId, stream.streamId, stream.nextSeq++,
+                        List.of(), true, stream.sentEvents));
+                stream.closed = true;
+                streamsBySession.remove(sessionId, stream);
+                completedCounter.increment();
+                return;
+            }
+            stream.sentEvents += events.size();
+            send(sessionId, new HistoryChunkDto(stream.boardId, stream.streamId, stream.nextSeq++,
+                    events, false, stream.sentEvents));
+            chunkCounter.increment();
+        }
+    }
+
+    /**
+     * Takes the next chunk from the pending page, reading the following page when it runs out.
+     * A chunk always holds at least one event, even one larger than the byte budget.
+     */
+    private List<DrawDto> nextChunk(final Stream stream) {
+        final List<DrawDto> chunk = new ArrayList<>(stream.chunkSize);
+        long bytes = 0;
+        while (chunk.size() < stream.chunkSize) {
+            if (stream.pending.isEmpty()) {
+                if (stream.exhausted) {
+                    break;
+                }
+                final HistoryPageDto page = drawEventService.getBoardHistory(stream.boardId, stream.chunkSize,
+                        stream.cursor, HistoryOrder.OLDEST_FIRST);
+                stream.pending.addAll(page.events());
+                stream.cursor = page.nextCursor();
+                stream.exhausted = page.nextCursor() == null;
+                continue;
+            }
+            final long size = estimatedJsonBytes(stream.pending.peekFirst());
+            if (!chunk.isEmpty() && bytes + size > maxChunkBytes) {
+                break;
+            }
+            chunk.add(stream.pending.pollFirst());
+            bytes += size;
+        }
+        return chunk;
+    }
+
+    private void send(final String sessionId, final HistoryChunkDto chunk) {
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, STREAM_DESTINATION, chunk, accessor.getMessageHeaders());
+        LOGGER.debug("Sent history chunk {} of stream {} with {} events", chunk.seq(), chunk.streamId(),
+                chunk.events().size());
+    }
+
+    private static void close(final Stream stream) {
+        synchronized (stream) {
+            stream.closed = true;
+            stream.pending.clear();
+        }
+    }
+
+    static long estimatedJsonBytes(final DrawDto event) {
+        return EVENT_JSON_OVERHEAD + (long) MAX_BYTES_PER_CHAR * (length(event.id()) + length(event.displayName())
+                + length(event.brushColor()) + length(event.strokeId()));
+    }
+
+    private static int length(final String value) {
+        return value != null ? value.length() : 0;
+    }
+}
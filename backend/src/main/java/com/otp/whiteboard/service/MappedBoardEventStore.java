@@ -0,0 +1,583 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.codec.DrawMessageCodec;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.enums.HistoryOrder;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps each board's history in an append-only segment file {@code board-<id>.log} in
+ * {@code app.draw.event-store.directory}, memory-mapped so appends and reads are local memory copies rather than
+ * Redis round trips. Reads are not zero-copy: each record is copied out of the mapping and decoded into a
+ * {@link DrawDto}, so a range costs a copy and a decode per event.
+ * <p>
+ * A record is {@code [int length][int crc32][payload]}, the payload being the event in the compact binary draw
+ * format. The payload and checksum are written before the length, so a record whose length is still zero was
+ * never completed. When a segment is opened its records are scanned into an offset index up to the first zero
+ * length; an incomplete or corrupt record found there is cleared, together with anything after it. Segments start at
+ * {@code app.draw.event-store.initial-segment-size} bytes and are remapped at twice the size when full.
+ * Writes reach the page cache, so they survive a crash of the process; with {@code app.draw.event-store.fsync}
+ * each append is also forced to disk before it is acknowledged, so they survive a crash of the host.
+ * Segments not read or appended to for {@code app.draw.event-store.idle-timeout} are forced to disk, unmapped and
+ * dropped from memory, and reopened on the next access.
+ * <p>
+ * Events are numbered by their position, the first event of a board being 1, and segments are never truncated,
+ * so a reconnecting client can resync from any sequence number as long as it missed at most
+ * {@code maxEvents} events. A board without a segment needs its stored history loaded before its first append
+ * (see {@link #needsLoadBeforeAppend}), so the segment starts with it instead of hiding it behind live events.
+ * <p>
+ * Appends are not published to other instances, so the store only serves single-instance deployments; the
+ * directory is locked when the store opens, so a second instance on the same directory fails to start.
+ */
+public class MappedBoardEventStore implements BoardEventStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedBoardEventStore.class);
+
+    private static final String SEGMENT_PREFIX = "board-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "store.lock";
+    /** The record length and the CRC32 of its payload. */
+    static final int RECORD_HEADER_BYTES = 8;
+
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    private final Path directory;
+    private final int initialSegmentSize;
+    private final boolean fsync;
+    private final long idleTimeoutMillis;
+    private final FileChannel lockChannel;
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<List<DrawDto>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * One board's segment file, its mapping and the offsets of its records. The mapping is replaced when the
+     * segment grows and released when it is closed, so it is only read under the read lock and replaced under the
+     * write lock; a closed segment has been dropped from the open segments and is opened again.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private MappedByteBuffer buffer;
+        private int[] offsets = new int[64];
+        private int count;
+        private int end;
+        private boolean closed;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private Segment(final Path path) {
+            this.path = path;
+        }
+    }
+
+    public MappedBoardEventStore(@NotNull final Path directory, final int initialSegmentSize, final boolean fsync,
+                                 final long idleTimeoutMillis) {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        if (initialSegmentSize < RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("Initial segment size must hold at least one record header");
+        }
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Segment idle timeout must be positive");
+        }
+        this.initialSegmentSize = initialSegmentSize;
+        this.fsync = fsync;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create the event store directory " + directory, e);
+        }
+        this.lockChannel = lock(directory.resolve(LOCK_FILE));
+        LOGGER.warn("Board history is kept in {} and appends are not published to other instances; "
+                + "run a single instance with app.draw.event-store.type=MAPPED", directory);
+    }
+
+    /**
+     * Writes the events to the board's segment, growing it if needed.
+     *
+     * @return the sequence number of the last event.
+     * @throws IllegalStateException if the segment cannot be opened or grown.
+     */
+    @Override
+    public Appended append(@NotNull final Long boardId, @NotNull final Object message,
+                           @NotNull final List<DrawDto> events) {
+        // The history starts at sequence 1 and is never trimmed, so its length is the last sequence number.
+        final long last = appendTo(boardId, events, false);
+        return new Appended(last, last);
+    }
+
+    /**
+     * Copies each record in the range out of the mapping and decodes it.
+     */
+    @Override
+    @NotNull
+    public List<DrawDto> range(@NotNull final Long boardId, final long start, final long end) {
+        return read(boardId, List.of(), segment -> {
+            final long from = Math.max(0, start < 0 ? segment.count + start : start);
+            final long to = Math.min(segment.count - 1L, end < 0 ? segment.count + end : end);
+            if (from > to) {
+                return List.of();
+            }
+            final List<DrawDto> events = new ArrayList<>((int) (to - from + 1));
+            for (long i = from; i <= to; i++) {
+                events.add(read(segment, (int) i));
+            }
+            return events;
+        });
+    }
+
+    /**
+     * The history starts at sequence 1 and is never rebuilt, so every page comes from the same history.
+     */
+    @Override
+    @NotNull
+    public Page readPage(@NotNull final Long boardId, final long from, final int limit,
+                         @NotNull final HistoryOrder order) {
+        return read(boardId, new Page(0, List.of()), segment -> {
+            if (segment.count == 0) {
+                return new Page(0, List.of());
+            }
+            final long first;
+            final long last;
+            if (order == HistoryOrder.NEWEST_FIRST) {
+                last = Math.min(from, segment.count);
+                first = Math.max(last - limit + 1, 1);
+            } else {
+                first = Math.max(from, 1);
+                last = Math.min(first + limit - 1, segment.count);
+            }
+            final List<DrawDto> events = new ArrayList<>();
+            for (long seq = first; seq <= last; seq++) {
+                events.add(read(segment, (int) (seq - 1)).withSeq(seq));
+            }
+            if (order == HistoryOrder.NEWEST_FIRST) {
+                Collections.reverse(events);
+            }
+            return new Page(1, events);
+        });
+    }
+
+    @Override
+    public long size(@NotNull final Long boardId) {
+        return read(boardId, 0L, segment -> (long) segment.count);
+    }
+
+    /**
+     * The history starts at sequence 1 and is never trimmed, so this is its size.
+     */
+    @Override
+    public long lastSequence(@NotNull final Long boardId) {
+        return size(boardId);
+    }
+
+    /**
+     * Copies and decodes the missed records, like {@link #range}.
+     */
+    @Override
+    @NotNull
+    public HistorySinceDto readSince(@NotNull final Long boardId, final long since, final int maxEvents) {
+        return read(boardId, new HistorySinceDto(boardId, since, 0, true, List.of()), segment -> {
+            final long last = segment.count;
+            if (since < 0 || since > last || last - since > maxEvents) {
+                return new HistorySinceDto(boardId, since, last, true, List.of());
+            }
+            final List<DrawDto> events = new ArrayList<>((int) (last - since));
+            for (long seq = since + 1; seq <= last; seq++) {
+                events.add(read(segment, (int) (seq - 1)).withSeq(seq));
+            }
+            return new HistorySinceDto(boardId, since, last, false, events);
+        });
+    }
+
+    /**
+     * A board needs its history loaded until it has a segment file.
+     */
+    @Override
+    public boolean needsLoadBeforeAppend(@NotNull final Long boardId) {
+        return !segments.containsKey(boardId) && !Files.exists(segmentPath(boardId));
+    }
+
+    /**
+     * Concurrent misses for a board share one load, which is appended to the board's segment unless a live
+     * event started the segment while the history was loading.
+     */
+    @Override
+    @NotNull
+    public List<DrawDto> loadOnMiss(@NotNull final Long boardId, @NotNull final Supplier<List<DrawDto>> loader) {
+        final CompletableFuture<List<DrawDto>> load = new CompletableFuture<>();
+        final CompletableFuture<List<DrawDto>> existing = inFlight.putIfAbsent(boardId, load);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            final List<DrawDto> history;
+            try {
+                history = loader.get();
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+            // Seeded before the waiting callers are released, so none of them appends ahead of the history.
+            if (!history.isEmpty()) {
+                seed(boardId, history);
+            }
+            load.complete(history);
+            return history;
+        } finally {
+            inFlight.remove(boardId, load);
+        }
+    }
+
+    /**
+     * Forces segments that were not read or appended to for the idle timeout to disk and unmaps them.
+     */
+    @Scheduled(fixedDelayString = "${app.draw.event-store.idle-timeout:600000}")
+    public void evictIdleSegments() {
+        final long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (final Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            if (entry.getValue().lastAccessMillis < cutoff) {
+                release(entry.getKey(), entry.getValue(), cutoff);
+            }
+        }
+    }
+
+    /**
+     * @return the number of segments currently mapped.
+     */
+    public int getOpenSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forces every open segment to disk, unmaps them and unlocks the directory.
+     */
+    @PreDestroy
+    public void close() {
+        for (final Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            release(entry.getKey(), entry.getValue(), Long.MAX_VALUE);
+        }
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not unlock the event store directory {}", directory, e);
+        }
+    }
+
+    private void seed(final Long boardId, final List<DrawDto> history) {
+        try {
+            if (appendTo(boardId, history, true) < 0) {
+                LOGGER.debug("Skipped seeding board {} history, it was started while loading", boardId);
+            } else {
+                LOGGER.debug("Seeded board {} history with {} events", boardId, history.size());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to seed board {} history with {} events", boardId, history.size(), e);
+        }
+    }
+
+    /**
+     * Writes the events to the board's segment, growing it if needed, and forces them to disk if configured.
+     *
+     * @return the sequence number of the last event, or -1 if {@code onlyIfEmpty} is set and the segment is not.
+     * @throws IllegalStateException if the segment cannot be opened or grown.
+     */
+    private int appendTo(final Long boardId, final List<DrawDto> events, final boolean onlyIfEmpty) {
+        final List<byte[]> payloads = new ArrayList<>(events.size());
+        long bytes = 0;
+        for (final DrawDto event : events) {
+            final byte[] payload = DrawMessageCodec.encode(event);
+            payloads.add(payload);
+            bytes += RECORD_HEADER_BYTES + payload.length;
+        }
+        while (true) {
+            final Segment segment = segment(boardId, true);
+            segment.lock.writeLock().lock();
+            try {
+                if (segment.closed) {
+                    continue;
+                }
+                if (onlyIfEmpty && segment.count > 0) {
+                    return -1;
+                }
+                ensureCapacity(segment, bytes);
+                final int start = segment.end;
+                for (final byte[] payload : payloads) {
+                    write(segment, payload);
+                }
+                if (fsync && segment.end > start) {
+                    segment.buffer.force(start, segment.end - start);
+                }
+                return segment.count;
+            } finally {
+                segment.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs a read on the board's segment under its read lock, opening the segment again if it was closed meanwhile.
+     *
+     * @return the result of the read, or {@code absent} if the board has no segment.
+     */
+    private <T> T read(final Long boardId, final T absent, final Function<Segment, T> reader) {
+        while (true) {
+            final Segment segment = segment(boardId, false);
+            if (segment == null) {
+                return absent;
+            }
+            segment.lock.readLock().lock();
+            try {
+                if (!segment.closed) {
+                    return reader.apply(segment);
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the open segment of a board, opening its file if it exists or {@code create} is set.
+     */
+    private Segment segment(final Long boardId, final boolean create) {
+        Segment segment = segments.get(boardId);
+        if (segment == null) {
+            final Path path = segmentPath(boardId);
+            if (!create && !Files.exists(path)) {
+                return null;
+            }
+            segment = segments.computeIfAbsent(boardId, id -> open(path));
+        }
+        segment.lastAccessMillis = System.currentTimeMillis();
+        return segment;
+    }
+
+    private Path segmentPath(final Long boardId) {
+        return directory.resolve(SEGMENT_PREFIX + boardId + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Closes a segment that was not accessed since the cutoff: forces it to disk, drops it from the open segments
+     * and unmaps it. Readers waiting for the segment find it closed and open it again.
+     */
+    private void release(final Long boardId, final Segment segment, final long cutoff) {
+        segment.lock.writeLock().lock();
+        try {
+            if (segment.closed || segment.lastAccessMillis >= cutoff) {
+                return;
+            }
+            if (segment.end > 0) {
+                segment.buffer.force(0, segment.end);
+            }
+            segments.remove(boardId, segment);
+            segment.closed = true;
+            unmap(segment.buffer);
+            segment.buffer = null;
+            segment.offsets = null;
+            LOGGER.debug("Released the idle history segment of board {}", boardId);
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    private Segment open(final Path path) {
+        final Segment segment = new Segment(path);
+        try {
+            final long length = Files.exists(path) ? Files.size(path) : 0;
+            map(segment, Math.max(length, initialSegmentSize));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open board history segment " + path, e);
+        }
+        recover(segment);
+        return segment;
+    }
+
+    /**
+     * Rebuilds the offset index up to the first zero length. An incomplete or corrupt record found there is cleared,
+     * together with anything after it, so the next append does not leave a readable record behind a gap.
+     */
+    private static void recover(final Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            final int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+                break;
+            }
+            final byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_BYTES, payload);
+            if (checksum(payload) != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            addOffset(segment, position);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        segment.end = position;
+        // A clean end is a zero header; a record torn before its length was written still has its checksum.
+        if (position + RECORD_HEADER_BYTES <= buffer.capacity()
+                && (buffer.getInt(position) != 0 || buffer.getInt(position + Integer.BYTES) != 0)) {
+            LOGGER.warn("Dropping the incomplete tail of board history segment {} after {} events",
+                    segment.path, segment.count);
+            final byte[] zeros = new byte[4096];
+            for (int offset = position; offset < buffer.capacity(); offset += zeros.length) {
+                buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+            }
+            buffer.force();
+        }
+    }
+
+    private void ensureCapacity(final Segment segment, final long bytes) {
+        final long needed = segment.end + bytes;
+        if (needed <= segment.buffer.capacity()) {
+            return;
+        }
+        if (needed > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Board history segment " + segment.path + " is full");
+        }
+        final long grown = Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * segment.buffer.capacity()));
+        try {
+            map(segment, grown);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow board history segment " + segment.path, e);
+        }
+    }
+
+    /**
+     * Maps the segment file at the given size, extending the file if it is shorter, and unmaps the mapping it
+     * replaces. The mapping stays valid after its channel is closed.
+     */
+    private static void map(final Segment segment, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer replaced = segment.buffer;
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (replaced != null) {
+                unmap(replaced);
+            }
+        }
+    }
+
+    /**
+     * Releases a mapping right away instead of when it is garbage collected. Only called under the segment's write
+     * lock after the buffer was dropped from the segment, so no reader can touch it afterwards.
+     */
+    private static void unmap(final MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            LOGGER.warn("Could not unmap a board history segment, it is released when collected", e);
+        }
+    }
+
+    private static MethodHandle findCleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Board history segments cannot be unmapped explicitly and are released when collected", e);
+            return null;
+        }
+    }
+
+    /**
+     * Locks the directory for this store, so a second instance cannot append to the same segments.
+     *
+     * @throws IllegalStateException if the directory is locked by another store.
+     */
+    private static FileChannel lock(final Path lockFile) {
+        try {
+            final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                if (channel.tryLock() != null) {
+                    return channel;
+                }
+            } catch (OverlappingFileLockException e) {
+                // Locked by another store in this JVM.
+            }
+            channel.close();
+            throw new IllegalStateException("The event store directory " + lockFile.getParent()
+                    + " is used by another instance");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not lock the event store directory " + lockFile.getParent(), e);
+        }
+    }
+
+    private static void write(final Segment segment, final byte[] payload) {
+        final int position = segment.end;
+        segment.buffer.putInt(position + Integer.BYTES, checksum(payload));
+        segment.buffer.put(position + RECORD_HEADER_BYTES, payload);
+        segment.buffer.putInt(position, payload.length);
+        addOffset(segment, position);
+        segment.end = position + RECORD_HEADER_BYTES + payload.length;
+    }
+
+    private static DrawDto read(final Segment segment, final int index) {
+        final int position = segment.offsets[index];
+        final byte[] payload = new byte[segment.buffer.getInt(position)];
+        segment.buffer.get(position + RECORD_HEADER_BYTES, payload);
+        if (!(DrawMessageCodec.decode(payload) instanceof DrawDto event)) {
+            throw new IllegalStateException("Board history segment " + segment.path + " holds a record that is not a draw event");
+        }
+        return event;
+    }
+
+    private static void addOffset(final Segment segment, final int position) {
+        if (segment.count == segment.offsets.length) {
+            segment.offsets = Arrays.copyOf(segment.offsets, segment.offsets.length * 2);
+        }
+        segment.offsets[segment.count++] = position;
+    }
+
+    private static int checksum(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static List<DrawDto> await(final CompletableFuture<List<DrawDto>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
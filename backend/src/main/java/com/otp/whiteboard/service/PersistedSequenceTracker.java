@@ -0,0 +1,286 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.repository.StrokePathRepository;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Tracks, per board, the sequence numbers this instance appended but has not written to the database yet, so
+ * readers of the stored stroke paths know up to which sequence number they are complete, and clients can replay
+ * the history from there.
+ * <p>
+ * An append is registered in two steps: {@link #beginAppend} before the store assigns its sequence numbers, and
+ * {@link #appended} with the numbers it assigned. Events leave the tracker with {@link #written} once their stroke
+ * path is in the database, or once it is certain they never will be: their persistence was shed, they could not be
+ * resolved, or their batch was dropped after repeated failures. Only appends of this instance are tracked; with
+ * several instances drawing on one board, each one vouches for its own writes only.
+ * <p>
+ * A board is tracked from the highest sequence number stored with its stroke paths, looked up when this instance
+ * first needs it. Events after that number which this instance did not append, such as the ones a previous run
+ * appended but never wrote before it crashed, are not known to be written and stay that way, so the stored rows
+ * are only reported as complete up to where they are. Boards whose stroke paths carry no sequence numbers yet
+ * are trusted to be complete. A board without appends in flight or events not written is forgotten once it has
+ * not been appended to or written for {@code app.draw.sequence-tracker.idle-timeout}, and looked up again on its
+ * next use.
+ */
+@Component
+public class PersistedSequenceTracker {
+    /**
+     * Pending bits are moved down once this many leading bits are clear.
+     */
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    private final Map<Long, BoardState> boards = new ConcurrentHashMap<>();
+    private final StrokePathRepository strokePathRepository;
+    private final long idleTimeoutMillis;
+
+    public PersistedSequenceTracker(final StrokePathRepository strokePathRepository,
+                                    @Value("${app.draw.sequence-tracker.idle-timeout:600000}") final long idleTimeoutMillis) {
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Appends in flight and events not written yet of one board. Only touched inside {@code ConcurrentHashMap.compute}.
+     */
+    private static final class BoardState {
+        /** The last sequence number registered when each in-flight append began, with the number of appends. */
+        private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+        /** Bit {@code i} is set while sequence number {@code base + i} is not written. */
+        private BitSet pending = new BitSet();
+        private long base;
+        private long lastAppended;
+        /** The sequence number the stored rows were complete up to, until the first append of this instance. */
+        private long storedThrough;
+        private boolean restored;
+        private long lastTouchedMillis = System.currentTimeMillis();
+
+        private BoardState(final Long storedThrough) {
+            if (storedThrough != null) {
+                this.storedThrough = storedThrough;
+                this.lastAppended = storedThrough;
+                this.restored = true;
+            }
+        }
+
+        private void endAppend(final long token) {
+            inFlight.computeIfPresent(token, (key, count) -> count > 1 ? count - 1 : null);
+            lastTouchedMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Marks the events between the stored rows and the first append of this instance as not written.
+         */
+        private void endRestore(final long first) {
+            if (restored && first > storedThrough + 1) {
+                markPending(storedThrough + 1, first - 1);
+            }
+            restored = false;
+        }
+
+        private boolean idleSince(final long cutoffMillis) {
+            return inFlight.isEmpty() && pending.isEmpty() && lastTouchedMillis < cutoffMillis;
+        }
+
+        private void markPending(final long first, final long last) {
+            if (pending.isEmpty()) {
+                base = first;
+            } else if (first < base) {
+                rebase(first);
+            }
+            pending.set(Math.toIntExact(first - base), Math.toIntExact(last - base + 1));
+        }
+
+        private void clear(final long sequence) {
+            if (sequence >= base && sequence - base <= Integer.MAX_VALUE) {
+                pending.clear((int) (sequence - base));
+            }
+        }
+
+        private void compact() {
+            final int first = pending.nextSetBit(0);
+            if (first < 0) {
+                pending = new BitSet();
+                base = 0;
+            } else if (first >= COMPACT_THRESHOLD) {
+                rebase(base + first);
+            }
+        }
+
+        private void rebase(final long newBase) {
+            final BitSet moved = new BitSet();
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                moved.set(Math.toIntExact(base + i - newBase));
+            }
+            pending = moved;
+            base = newBase;
+        }
+    }
+
+    /**
+     * Registers an append that is about to be assigned sequence numbers.
+     *
+     * @param boardId the ID of the board.
+     * @return the token to pass to {@link #appended} or {@link #abortAppend}.
+     */
+    public long beginAppend(@NotNull final Long boardId) {
+        final long[] token = new long[1];
+        update(boardId, state -> {
+            token[0] = state.lastAppended;
+            state.inFlight.merge(token[0], 1, Integer::sum);
+            state.lastTouchedMillis = System.currentTimeMillis();
+        });
+        return token[0];
+    }
+
+    /**
+     * Ends an append and marks the sequence numbers it was assigned as not written.
+     *
+     * @param boardId  the ID of the board.
+     * @param token    the token returned by {@link #beginAppend}.
+     * @param first    the sequence number of the first appended event.
+     * @param last     the sequence number of the last appended event.
+     */
+    public void appended(@NotNull final Long boardId, final long token, final long first, final long last) {
+        if (first > last) {
+            throw new IllegalArgumentException("The first sequence number must not be after the last");
+        }
+        boards.computeIfPresent(boardId, (id, state) -> {
+            state.endAppend(token);
+            state.endRestore(first);
+            state.markPending(first, last);
+            state.lastAppended = last;
+            return state;
+        });
+    }
+
+    /**
+     * Ends an append that failed or was not assigned sequence numbers.
+     *
+     * @param boardId the ID of the board.
+     * @param token   the token returned by {@link #beginAppend}.
+     */
+    public void abortAppend(@NotNull final Long boardId, final long token) {
+        boards.computeIfPresent(boardId, (id, state) -> {
+            state.endAppend(token);
+            return state;
+        });
+    }
+
+    /**
+     * Marks events as written, or as never going to be written.
+     *
+     * @param boardId   the ID of the board.
+     * @param sequences the sequence numbers of the events.
+     */
+    public void written(@NotNull final Long boardId, @NotNull final long... sequences) {
+        if (sequences.length == 0) {
+            return;
+        }
+        boards.computeIfPresent(boardId, (id, state) -> {
+            for (final long sequence : sequences) {
+                state.clear(sequence);
+            }
+            state.compact();
+            state.lastTouchedMillis = System.currentTimeMillis();
+            return state;
+        });
+    }
+
+    /**
+     * Returns the highest sequence number up to which every event of the board is in the database, as far as this
+     * instance knows. Read the board's last sequence number before calling, so an append that completes in between
+     * is either in it or still tracked here.
+     *
+     * @param boardId      the ID of the board.
+     * @param lastSequence the board's last sequence number.
+     * @return {@code lastSequence}, or the sequence number before the oldest event that is not written yet.
+     */
+    public long persistedThrough(@NotNull final Long boardId, final long lastSequence) {
+        final long[] bound = {lastSequence};
+        update(boardId, state -> {
+            if (state.restored) {
+                bound[0] = Math.min(bound[0], state.storedThrough);
+            }
+            if (!state.inFlight.isEmpty()) {
+                bound[0] = Math.min(bound[0], state.inFlight.firstKey());
+            }
+            final int first = state.pending.nextSetBit(0);
+            if (first >= 0) {
+                bound[0] = Math.min(bound[0], state.base + first - 1);
+            }
+        });
+        return bound[0];
+    }
+
+    /**
+     * Returns a snapshot of the board's events that are not known to be written: those not written yet, and those
+     * after the oldest append in flight or after the last registered append, whose numbers are not known yet. Take
+     * the snapshot before reading the stored rows, so an event it reports as written is in them.
+     *
+     * @param boardId the ID of the board.
+     * @return tests whether the event with a sequence number may be missing from the stored rows.
+     */
+    @NotNull
+    public LongPredicate unwritten(@NotNull final Long boardId) {
+        final LongPredicate[] snapshot = new LongPredicate[1];
+        update(boardId, state -> {
+            final long known = state.inFlight.isEmpty()
+                    ? state.lastAppended
+                    : Math.min(state.lastAppended, state.inFlight.firstKey());
+            final BitSet pending = (BitSet) state.pending.clone();
+            final long base = state.base;
+            snapshot[0] = sequence -> sequence > known
+                    || sequence >= base && sequence - base <= Integer.MAX_VALUE && pending.get((int) (sequence - base));
+        });
+        return snapshot[0];
+    }
+
+    /**
+     * Forgets boards that have nothing in flight or pending and were not appended to or written for a while.
+     */
+    @Scheduled(fixedDelayString = "${app.draw.sequence-tracker.idle-timeout:600000}")
+    public void evictIdleBoards() {
+        final long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (final Long boardId : boards.keySet()) {
+            boards.computeIfPresent(boardId, (id, state) -> state.idleSince(cutoff) ? null : state);
+        }
+    }
+
+    /**
+     * @return the number of boards currently tracked.
+     */
+    public int getTrackedBoardCount() {
+        return boards.size();
+    }
+
+    /**
+     * Applies an update to the board's state, first looking up where its stored rows end if it is not tracked.
+     * The lookup runs outside the map, and is repeated if the board is evicted before the update.
+     */
+    private void update(final Long boardId, final Consumer<BoardState> action) {
+        while (true) {
+            if (!boards.containsKey(boardId)) {
+                final Long storedThrough = strokePathRepository.findMaxLastSeq(boardId);
+                boards.putIfAbsent(boardId, new BoardState(storedThrough));
+            }
+            final BoardState updated = boards.computeIfPresent(boardId, (id, state) -> {
+                action.accept(state);
+                return state;
+            });
+            if (updated != null) {
+                return;
+            }
+        }
+    }
+}
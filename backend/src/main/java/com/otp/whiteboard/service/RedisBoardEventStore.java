@@ -0,0 +1,195 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.enums.HistoryOrder;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Keeps each board's history in the Redis list {@code drawing-events-board-<id>}, numbered by the sequence hash
+ * {@code drawing-seq-board-<id>}. Appends are published to {@code drawing-session-<id>} in the same script call;
+ * misses are loaded once and written back by
+ * {@link HistoryRehydrator}. The lists expire after {@code app.draw.redis.history-ttl} without appends.
+ */
+public class RedisBoardEventStore implements BoardEventStore {
+    private static final String DRAWING_CHANNEL_PREFIX = "drawing-session-";
+    private static final String DRAWING_EVENTS_PREFIX = "drawing-events-board-";
+    private static final String DRAWING_SEQUENCE_PREFIX = "drawing-seq-board-";
+
+    /**
+     * KEYS[1] history list, KEYS[2] sequence hash, ARGV[1] the last sequence number the client received,
+     * ARGV[2] the most events to return. Returns {1, last, events after ARGV[1]}, or {0, last} when the client
+     * has to resync: the list is gone, ARGV[1] is older than the list or not issued yet, or the gap is too large.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> READ_SINCE_SCRIPT = new DefaultRedisScript<>("""
+            local last = tonumber(redis.call('HGET', KEYS[2], 'last') or '0')
+            local base = redis.call('HGET', KEYS[2], 'base')
+            local floor = redis.call('HGET', KEYS[2], 'floor')
+            local since = tonumber(ARGV[1])
+            if not base or not floor or since < tonumber(floor) or since > last or last - since > tonumber(ARGV[2])
+                    or redis.call('EXISTS', KEYS[1]) == 0 then
+                return {0, last}
+            end
+            return {1, last, redis.call('LRANGE', KEYS[1], since - tonumber(base) + 1, -1)}
+            """, List.class);
+
+    /**
+     * KEYS[1] history list, KEYS[2] sequence hash, ARGV[1] the sequence number to start at, ARGV[2] the most events
+     * to return, ARGV[3] "1" to read towards older events. Returns {base, sequence number of the first returned
+     * entry, entries oldest first}, or {0} when the list is gone or predates its sequence numbers.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> READ_PAGE_SCRIPT = new DefaultRedisScript<>("""
+            local base = tonumber(redis.call('HGET', KEYS[2], 'base') or '0')
+            local length = redis.call('LLEN', KEYS[1])
+            if base == 0 or length == 0 then
+                return {0}
+            end
+            local from = tonumber(ARGV[1])
+            local limit = tonumber(ARGV[2])
+            local first = base
+            local last = base + length - 1
+            if ARGV[3] == '1' then
+                last = math.min(from, last)
+                first = math.max(last - limit + 1, base)
+            else
+                first = math.max(from, base)
+                last = math.min(first + limit - 1, last)
+            end
+            if first > last then
+                return {base, first, {}}
+            end
+            return {base, first, redis.call('LRANGE', KEYS[1], first - base, last - base)}
+            """, List.class);
+
+    /**
+     * KEYS[1] sequence hash. Returns the last issued sequence number, 0 when none was issued.
+     */
+    static final RedisScript<Long> LAST_SEQUENCE_SCRIPT = new DefaultRedisScript<>(
+            "return tonumber(redis.call('HGET', KEYS[1], 'last') or '0')", Long.class);
+
+    private final RedisTemplate<String, DrawDto> drawEventRedisTemplate;
+    private final RedisSerializer<DrawDto> historySerializer;
+    private final RedisEventPublisher redisEventPublisher;
+    private final HistoryRehydrator historyRehydrator;
+
+    @SuppressWarnings("unchecked")
+    public RedisBoardEventStore(final RedisTemplate<String, DrawDto> drawEventRedisTemplate,
+                                final RedisEventPublisher redisEventPublisher,
+                                final HistoryRehydrator historyRehydrator) {
+        this.drawEventRedisTemplate = Objects.requireNonNull(drawEventRedisTemplate,
+                "drawEventRedisTemplate must not be null");
+        this.historySerializer = Objects.requireNonNull(
+                (RedisSerializer<DrawDto>) drawEventRedisTemplate.getValueSerializer(),
+                "drawEventRedisTemplate must have a value serializer");
+        this.redisEventPublisher = Objects.requireNonNull(redisEventPublisher, "redisEventPublisher must not be null");
+        this.historyRehydrator = Objects.requireNonNull(historyRehydrator, "historyRehydrator must not be null");
+    }
+
+    /**
+     * Subscribers receive the message as JSON; the history stores the events in the compact binary format.
+     */
+    @Override
+    public Appended append(@NotNull final Long boardId, @NotNull final Object message,
+                           @NotNull final List<DrawDto> events) {
+        final RedisEventPublisher.Appended appended = redisEventPublisher.publishAndAppendSequenced(
+                DRAWING_CHANNEL_PREFIX + boardId, DRAWING_EVENTS_PREFIX + boardId, DRAWING_SEQUENCE_PREFIX + boardId,
+                message, events, historySerializer);
+        return appended != null ? new Appended(appended.length(), appended.lastSequence()) : null;
+    }
+
+    @Override
+    @NotNull
+    public List<DrawDto> range(@NotNull final Long boardId, final long start, final long end) {
+        final List<DrawDto> events = drawEventRedisTemplate.opsForList().range(DRAWING_EVENTS_PREFIX + boardId, start, end);
+        return events != null ? events : List.of();
+    }
+
+    @Override
+    @NotNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Page readPage(@NotNull final Long boardId, final long from, final int limit,
+                         @NotNull final HistoryOrder order) {
+        final List<Object> result = drawEventRedisTemplate.execute(READ_PAGE_SCRIPT, RedisSerializer.string(),
+                (RedisSerializer<List>) (RedisSerializer) historySerializer,
+                List.of(DRAWING_EVENTS_PREFIX + boardId, DRAWING_SEQUENCE_PREFIX + boardId),
+                Long.toString(from), Integer.toString(limit), order == HistoryOrder.NEWEST_FIRST ? "1" : "0");
+        if (result == null || result.size() < 3) {
+            return new Page(0, List.of());
+        }
+        final long first = ((Number) result.get(1)).longValue();
+        final List<DrawDto> entries = (List<DrawDto>) result.get(2);
+        final List<DrawDto> events = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            events.add(entries.get(i).withSeq(first + i));
+        }
+        if (order == HistoryOrder.NEWEST_FIRST) {
+            Collections.reverse(events);
+        }
+        return new Page(((Number) result.get(0)).longValue(), events);
+    }
+
+    @Override
+    public long size(@NotNull final Long boardId) {
+        final Long length = drawEventRedisTemplate.opsForList().size(DRAWING_EVENTS_PREFIX + boardId);
+        return length != null ? length : 0;
+    }
+
+    @Override
+    public long lastSequence(@NotNull final Long boardId) {
+        final Long last = drawEventRedisTemplate.execute(LAST_SEQUENCE_SCRIPT, RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class), List.of(DRAWING_SEQUENCE_PREFIX + boardId));
+        return last != null ? last : 0L;
+    }
+
+    @Override
+    @NotNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HistorySinceDto readSince(@NotNull final Long boardId, final long since, final int maxEvents) {
+        final List<Object> result = drawEventRedisTemplate.execute(READ_SINCE_SCRIPT, RedisSerializer.string(),
+                (RedisSerializer<List>) (RedisSerializer) historySerializer,
+                List.of(DRAWING_EVENTS_PREFIX + boardId, DRAWING_SEQUENCE_PREFIX + boardId),
+                Long.toString(since), Integer.toString(maxEvents));
+        final long last = result != null && result.size() > 1 ? ((Number) result.get(1)).longValue() : 0L;
+        if (result == null || result.size() < 3 || ((Number) result.get(0)).longValue() != 1L) {
+            return new HistorySinceDto(boardId, since, last, true, List.of());
+        }
+        final List<DrawDto> missed = (List<DrawDto>) result.get(2);
+        final List<DrawDto> events = new ArrayList<>(missed.size());
+        for (int i = 0; i < missed.size(); i++) {
+            events.add(missed.get(i).withSeq(since + 1 + i));
+        }
+        return new HistorySinceDto(boardId, since, last, false, events);
+    }
+
+    /**
+     * Checking Redis before every append would cost a round trip per event, so a list started by a live event holds
+     * only the events from then on, until it expires and the next miss loads the whole stored history.
+     */
+    @Override
+    public boolean needsLoadBeforeAppend(@NotNull final Long boardId) {
+        return false;
+    }
+
+    /**
+     * Concurrent misses for a board share one load, which is written back to the history list.
+     */
+    @Override
+    @NotNull
+    public List<DrawDto> loadOnMiss(@NotNull final Long boardId, @NotNull final Supplier<List<DrawDto>> loader) {
+        return historyRehydrator.load(boardId, DRAWING_EVENTS_PREFIX + boardId, DRAWING_SEQUENCE_PREFIX + boardId,
+                loader);
+    }
+}
@@ -0,0 +1,228 @@
+package com.otp.whiteboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Publishes an event to a Redis channel and appends it to a history list in a single atomic script call,
+ * so each event costs one round-trip instead of three. Script arguments are passed as raw bytes, so history
+ * entries may use a binary encoding.
+ * The history TTL is only refreshed once per {@code app.draw.redis.ttl-refresh-interval} for each key,
+ * and always when the append created the list.
+ */
+@Service
+public class RedisEventPublisher {
+    /**
+     * Appends ARGV[5..] (or ARGV[1] when absent) to the list KEYS[1] and refreshes its TTL when ARGV[3] is "1"
+     * or the append created the list. Leaves the new list length in {@code length} and the number of
+     * appended entries in {@code pushed}.
+     */
+    private static final String APPEND = """
+            local length
+            local pushed = 1
+            if #ARGV > 4 then
+                length = redis.call('RPUSH', KEYS[1], unpack(ARGV, 5))
+                pushed = #ARGV - 4
+            else
+                length = redis.call('RPUSH', KEYS[1], ARGV[1])
+            end
+            if ARGV[3] == '1' or length == pushed then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            """;
+
+    /**
+     * KEYS[1] history list, ARGV[1] published payload, ARGV[2] TTL in milliseconds,
+     * ARGV[3] "1" to refresh the TTL, ARGV[4] channel, ARGV[5..] history entries (the published payload when absent).
+     * Returns the new list length.
+     */
+    static final RedisScript<Long> PUBLISH_AND_APPEND_SCRIPT = new DefaultRedisScript<>(APPEND + """
+            redis.call('PUBLISH', ARGV[4], ARGV[1])
+            return length
+            """, Long.class);
+
+    /**
+     * Like {@link #PUBLISH_AND_APPEND_SCRIPT}, and numbers the appended entries with the sequence hash KEYS[2]:
+     * {@code last} is the sequence number of the newest entry, {@code base} the one of the list's first entry and
+     * {@code floor} the oldest sequence number a client can resume after. When the append created the list, or the
+     * list predates its sequence numbers, the list starts at the appended entries.
+     * Returns the new list length and the sequence number of the last appended entry.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SEQUENCED_PUBLISH_AND_APPEND_SCRIPT = new DefaultRedisScript<>(APPEND + """
+            local last = redis.call('HINCRBY', KEYS[2], 'last', pushed)
+            if length == pushed or redis.call('HEXISTS', KEYS[2], 'base') == 0 then
+                redis.call('HSET', KEYS[2], 'base', last - length + 1, 'floor', last - pushed)
+            end
+            redis.call('PUBLISH', ARGV[4], ARGV[1])
+            return {length, last}
+            """, List.class);
+
+    /**
+     * The result of a sequenced append.
+     *
+     * @param length       the length of the history list after the append.
+     * @param lastSequence the sequence number of the last appended entry.
+     */
+    public record Appended(long length, long lastSequence) {
+    }
+
+    private static final String REFRESH = "1";
+    private static final String NO_REFRESH = "0";
+    private static final long MAX_TRACKED_KEYS = 100_000L;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long historyTtlMillis;
+    private final long ttlRefreshIntervalMillis;
+    private final Cache<String, Boolean> recentlyRefreshed;
+    private final RedisSerializer<Long> resultSerializer = new GenericToStringSerializer<>(Long.class);
+
+    public RedisEventPublisher(final RedisTemplate<String, Object> redisTemplate,
+                               @Value("${app.draw.redis.history-ttl:3600000}") final long historyTtlMillis,
+                               @Value("${app.draw.redis.ttl-refresh-interval:60000}") final long ttlRefreshIntervalMillis) {
+        this.redisTemplate = Objects.requireNonNull(redisTemplate, "redisTemplate must not be null");
+        if (historyTtlMillis <= 0) {
+            throw new IllegalArgumentException("History TTL must be positive");
+        }
+        if (ttlRefreshIntervalMillis >= historyTtlMillis) {
+            throw new IllegalArgumentException("TTL refresh interval must be shorter than the history TTL");
+        }
+        this.historyTtlMillis = historyTtlMillis;
+        this.ttlRefreshIntervalMillis = ttlRefreshIntervalMillis;
+        this.recentlyRefreshed = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterWrite(Duration.ofMillis(Math.max(ttlRefreshIntervalMillis, 1)))
+                .build();
+    }
+
+    /**
+     * Publishes an event to a channel and appends it to a history list in one round-trip.
+     *
+     * @param channel    the channel to publish to.
+     * @param historyKey the list the event is appended to.
+     * @param event      the event, serialized with the template's value serializer.
+     * @return the length of the history list after the append.
+     */
+    public Long publishAndAppend(@NotNull final String channel, @NotNull final String historyKey,
+                                 @NotNull final Object event) {
+        return execute(historyKey,
+                serialize(event),
+                utf8(Long.toString(historyTtlMillis)),
+                utf8(shouldRefreshTtl(historyKey) ? REFRESH : NO_REFRESH),
+                utf8(channel));
+    }
+
+    /**
+     * Publishes one message to a channel and appends several entries to a history list in one round-trip.
+     * Used for batched events, where subscribers get the batch and the history keeps the individual events,
+     * and for history lists that are stored in a different format than the published message.
+     *
+     * @param channel           the channel to publish to.
+     * @param historyKey        the list the entries are appended to.
+     * @param message           the message to publish, serialized with the template's value serializer.
+     * @param historyEntries    the entries to append, in order.
+     * @param historySerializer the serializer for the history entries.
+     * @return the length of the history list after the append.
+     */
+    public <T> Long publishAndAppendAll(@NotNull final String channel, @NotNull final String historyKey,
+                                        @NotNull final Object message, @NotNull final List<? extends T> historyEntries,
+                                        @NotNull final RedisSerializer<T> historySerializer) {
+        return execute(historyKey, appendArgs(channel, historyKey, message, historyEntries, historySerializer));
+    }
+
+    private <T> Object[] appendArgs(final String channel, final String historyKey, final Object message,
+                                    final List<? extends T> historyEntries, final RedisSerializer<T> historySerializer) {
+        if (historyEntries.isEmpty()) {
+            throw new IllegalArgumentException("History entries must not be empty");
+        }
+        final Object[] args = new Object[4 + historyEntries.size()];
+        args[0] = serialize(message);
+        args[1] = utf8(Long.toString(historyTtlMillis));
+        args[2] = utf8(shouldRefreshTtl(historyKey) ? REFRESH : NO_REFRESH);
+        args[3] = utf8(channel);
+        for (int i = 0; i < historyEntries.size(); i++) {
+            final byte[] entry = historySerializer.serialize(historyEntries.get(i));
+            args[4 + i] = entry != null ? entry : new byte[0];
+        }
+        return args;
+    }
+
+    /**
+     * Like {@link #publishAndAppendAll}, and numbers the appended entries in the board's sequence hash,
+     * so clients can later ask for the entries after the last sequence number they received.
+     * The sequence hash has no TTL: its numbers keep increasing when the history list expires and is recreated.
+     *
+     * @param sequenceKey the hash that holds the sequence numbers of the history list.
+     * @return the length of the history list and the sequence number of the last appended entry,
+     * {@code null} if the script returned nothing.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Appended publishAndAppendSequenced(@NotNull final String channel, @NotNull final String historyKey,
+                                                  @NotNull final String sequenceKey, @NotNull final Object message,
+                                                  @NotNull final List<? extends T> historyEntries,
+                                                  @NotNull final RedisSerializer<T> historySerializer) {
+        final List<Object> result;
+        try {
+            // The script returns integers only, so the result serializer is never applied.
+            result = redisTemplate.execute(
+                    SEQUENCED_PUBLISH_AND_APPEND_SCRIPT,
+                    RedisSerializer.byteArray(),
+                    (RedisSerializer<List>) (RedisSerializer) resultSerializer,
+                    List.of(historyKey, sequenceKey),
+                    appendArgs(channel, historyKey, message, historyEntries, historySerializer));
+        } catch (RuntimeException e) {
+            recentlyRefreshed.invalidate(historyKey);
+            throw e;
+        }
+        if (result == null || result.size() < 2) {
+            return null;
+        }
+        return new Appended(((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue());
+    }
+
+    private Long execute(final String historyKey, final Object... args) {
+        try {
+            return redisTemplate.execute(
+                    PUBLISH_AND_APPEND_SCRIPT,
+                    RedisSerializer.byteArray(),
+                    resultSerializer,
+                    List.of(historyKey),
+                    args);
+        } catch (RuntimeException e) {
+            // The TTL may not have been set; let the next event try again.
+            recentlyRefreshed.invalidate(historyKey);
+            throw e;
+        }
+    }
+
+    private boolean shouldRefreshTtl(final String historyKey) {
+        if (ttlRefreshIntervalMillis <= 0) {
+            return true;
+        }
+        return recentlyRefreshed.asMap().putIfAbsent(historyKey, Boolean.TRUE) == null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(final Object event) {
+        final RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        final byte[] bytes = valueSerializer.serialize(event);
+        return bytes != null ? bytes : new byte[0];
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
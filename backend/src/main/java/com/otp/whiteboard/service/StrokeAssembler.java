@@ -0,0 +1,260 @@
+package com.otp.whiteboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Collects the START..END points of a stroke and hands the completed stroke
+ * to the write-behind buffer as a single {@link StrokePath}.
+ * Stored geometry is thinned out by the {@link StrokeSimplifier}; live broadcast and Redis history keep every point.
+ * Each path carries the sequence numbers of the events it was assembled from, so the write-behind buffer can
+ * release them from the {@link PersistedSequenceTracker}. A stroke that never ends is only handed over when it
+ * is closed as idle, after {@code spring.jpa.batch-saving.cleanup-interval}.
+ * <p>
+ * Segments of a stroke are unique per board and stroke id, and a segment that is stored again is dropped as a
+ * resend. A stroke that continues without a START after it was closed as idle or the server restarted therefore
+ * carries on after the last segment it was given, remembered for strokes closed here and looked up otherwise.
+ */
+@Service
+public class StrokeAssembler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrokeAssembler.class);
+
+    private final StrokeWriteBehindService strokeWriteBehindService;
+    private final StrokeSimplifier strokeSimplifier;
+    private final StrokePathRepository strokePathRepository;
+    private final int maxPointsPerSegment;
+    private final long idleTimeoutMillis;
+    private final int geometryPrecision;
+
+    private final Map<String, OpenStroke> openStrokes = new ConcurrentHashMap<>();
+    /** Next segment of strokes closed without an END, until their last segment is surely stored. */
+    private final Cache<String, Integer> closedSegments;
+
+    public StrokeAssembler(final StrokeWriteBehindService strokeWriteBehindService,
+                           final StrokeSimplifier strokeSimplifier,
+                           final StrokePathRepository strokePathRepository,
+                           @Value("${app.draw.stroke.max-points:10000}") final int maxPointsPerSegment,
+                           @Value("${spring.jpa.batch-saving.cleanup-interval}") final long idleTimeoutMillis,
+                           @Value("${app.draw.geometry.precision:2}") final int geometryPrecision) {
+        this.strokeWriteBehindService = Objects.requireNonNull(strokeWriteBehindService, "strokeWriteBehindService must not be null");
+        this.strokeSimplifier = Objects.requireNonNull(strokeSimplifier, "strokeSimplifier must not be null");
+        this.strokePathRepository = Objects.requireNonNull(strokePathRepository, "strokePathRepository must not be null");
+        this.maxPointsPerSegment = maxPointsPerSegment;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.geometryPrecision = geometryPrecision;
+        this.closedSegments = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(idleTimeoutMillis))
+                .build();
+    }
+
+    /**
+     * Adds a point to its stroke. The stroke is queued for persistence when the END point arrives,
+     * or as a segment when it grows beyond the configured number of points.
+     *
+     * @param event the draw event.
+     * @param board the board the event belongs to.
+     * @param user  the user who drew the point.
+     */
+    public void append(@NotNull final DrawDto event, @NotNull final Board board, @NotNull final User user) {
+        final String key = keyOf(event);
+        final List<StrokePath> completed = new ArrayList<>(2);
+        final int resumedSegment = openStrokes.containsKey(key) ? 0 : resumedSegment(key, event);
+
+        openStrokes.compute(key, (k, open) -> {
+            OpenStroke current = open;
+            if (current != null && event.type() == DrawEventType.START && current.size() > 0) {
+                // A new START for a stroke id that is still open: keep what we have as its own segment.
+                completed.add(toPath(current, false));
+                current = current.nextSegment();
+            }
+            if (current == null) {
+                final Integer closed = event.type() == DrawEventType.START ? null : closedSegments.getIfPresent(k);
+                current = new OpenStroke(event, board, user,
+                        Math.max(resumedSegment, closed != null ? closed : 0));
+            }
+            current.add(event.x(), event.y(), event.seq());
+
+            if (event.type() == DrawEventType.END) {
+                completed.add(toPath(current, true));
+                return null;
+            }
+            if (current.size() >= maxPointsPerSegment) {
+                completed.add(toPath(current, false));
+                return current.nextSegment();
+            }
+            return current;
+        });
+
+        completed.forEach(strokeWriteBehindService::enqueue);
+    }
+
+    /**
+     * @return the number of strokes that have started but not ended yet.
+     */
+    public int getOpenStrokeCount() {
+        return openStrokes.size();
+    }
+
+    /**
+     * Persists strokes that never received an END point, e.g. because the client disconnected mid-stroke.
+     */
+    @Scheduled(fixedDelayString = "${spring.jpa.batch-saving.cleanup-interval}")
+    public void closeIdleStrokes() {
+        final long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        closeMatching(open -> open.lastTouchedMillis < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOGGER.info("Closing {} open strokes before shutdown", openStrokes.size());
+        closeMatching(open -> true);
+    }
+
+    /**
+     * Finds the segment a stroke continues with when one of its points arrives while it is not open. A START
+     * begins the stroke at segment 0, so a resent stroke is dropped again; any other point follows the segments
+     * this instance closed or, after a restart, the ones already stored.
+     */
+    private int resumedSegment(final String key, final DrawDto event) {
+        if (event.type() == DrawEventType.START || event.strokeId() == null) {
+            return 0;
+        }
+        final Integer closed = closedSegments.getIfPresent(key);
+        if (closed != null) {
+            return closed;
+        }
+        final Integer stored = strokePathRepository.findMaxSegment(event.boardId(), event.strokeId());
+        return stored != null ? stored + 1 : 0;
+    }
+
+    private void closeMatching(final Predicate<OpenStroke> predicate) {
+        for (final String key : openStrokes.keySet()) {
+            final StrokePath[] closed = new StrokePath[1];
+            openStrokes.computeIfPresent(key, (k, open) -> {
+                if (!predicate.test(open)) {
+                    return open;
+                }
+                if (open.size() > 0) {
+                    closed[0] = toPath(open, false);
+                    closedSegments.put(k, open.segment + 1);
+                }
+                return null;
+            });
+            if (closed[0] != null) {
+                strokeWriteBehindService.enqueue(closed[0]);
+            }
+        }
+    }
+
+    private StrokePath toPath(final OpenStroke stroke, final boolean ended) {
+        return stroke.toPath(ended, strokeSimplifier.simplify(stroke.points()), geometryPrecision);
+    }
+
+    private static String keyOf(final DrawDto event) {
+        final String strokeId = event.strokeId() != null ? event.strokeId() : "user:" + event.displayName();
+        return event.boardId() + ":" + strokeId;
+    }
+
+    /**
+     * Mutable state of a stroke that is still being drawn. Only touched inside {@code ConcurrentHashMap.compute}.
+     */
+    private static final class OpenStroke {
+        private final Board board;
+        private final User user;
+        private final String strokeId;
+        private final String color;
+        private final Long thickness;
+        private final DrawingTool tool;
+        private final int segment;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        private double[] xy = new double[64];
+        private int length;
+        private long[] sequences = new long[32];
+        private int sequenceCount;
+        private long lastTouchedMillis = System.currentTimeMillis();
+
+        private OpenStroke(final DrawDto first, final Board board, final User user, final int segment) {
+            this(board, user, first.strokeId() != null ? first.strokeId() : first.id(),
+                    first.brushColor(), first.brushSize(), first.tool(), segment);
+        }
+
+        private OpenStroke(final Board board, final User user, final String strokeId, final String color,
+                           final Long thickness, final DrawingTool tool, final int segment) {
+            this.board = board;
+            this.user = user;
+            this.strokeId = strokeId;
+            this.color = color;
+            this.thickness = thickness;
+            this.tool = tool;
+            this.segment = segment;
+        }
+
+        private void add(final double x, final double y, final Long sequence) {
+            if (length + 2 > xy.length) {
+                xy = Arrays.copyOf(xy, xy.length * 2);
+            }
+            xy[length++] = x;
+            xy[length++] = y;
+            if (sequence != null) {
+                if (sequenceCount == sequences.length) {
+                    sequences = Arrays.copyOf(sequences, sequences.length * 2);
+                }
+                sequences[sequenceCount++] = sequence;
+            }
+            lastTouchedMillis = System.currentTimeMillis();
+        }
+
+        private int size() {
+            return length / 2;
+        }
+
+        private double[] points() {
+            return Arrays.copyOf(xy, length);
+        }
+
+        private OpenStroke nextSegment() {
+            return new OpenStroke(board, user, strokeId, color, thickness, tool, segment + 1);
+        }
+
+        private StrokePath toPath(final boolean ended, final double[] points, final int precision) {
+            final StrokePath path = new StrokePath();
+            path.setBoard(board);
+            path.setUser(user);
+            path.setStrokeId(strokeId);
+            path.setSegment(segment);
+            path.setColor(color);
+            path.setThickness(thickness);
+            path.setTool(tool);
+            path.setEnded(ended);
+            path.setPoints(points, precision);
+            path.setCreatedAt(createdAt);
+            path.setSequences(Arrays.copyOf(sequences, sequenceCount));
+            return path;
+        }
+    }
+}
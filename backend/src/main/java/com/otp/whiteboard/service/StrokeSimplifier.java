@@ -0,0 +1,192 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.enums.SimplificationMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Removes points that do not change the visible shape of a stroke before it is stored.
+ * The first and last point of a stroke are always kept, so consecutive segments still join up.
+ * The fraction of points removed per stroke is published as {@code whiteboard.strokes.simplify.reduction}.
+ */
+@Service
+public class StrokeSimplifier {
+    private final SimplificationMode mode;
+    private final double tolerance;
+
+    private final DistributionSummary reductionSummary;
+    private final Counter pointsInCounter;
+    private final Counter pointsOutCounter;
+
+    public StrokeSimplifier(final MeterRegistry meterRegistry,
+                            @Value("${app.draw.simplify.mode:RADIAL_RDP}") final SimplificationMode mode,
+                            @Value("${app.draw.simplify.tolerance:0.5}") final double tolerance) {
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.mode = Objects.requireNonNull(mode, "mode must not be null");
+        if (tolerance < 0 || Double.isNaN(tolerance)) {
+            throw new IllegalArgumentException("Simplification tolerance must not be negative");
+        }
+        this.tolerance = tolerance;
+
+        this.reductionSummary = DistributionSummary.builder("whiteboard.strokes.simplify.reduction")
+                .description("Fraction of a stroke's points removed by simplification")
+                .publishPercentiles(0.5, 0.9)
+                .register(meterRegistry);
+        this.pointsInCounter = Counter.builder("whiteboard.strokes.simplify.points_in")
+                .description("Points received by the stroke simplifier")
+                .register(meterRegistry);
+        this.pointsOutCounter = Counter.builder("whiteboard.strokes.simplify.points_out")
+                .description("Points kept by the stroke simplifier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Simplifies a stroke with the configured mode and tolerance.
+     *
+     * @param xy the interleaved {@code x, y} coordinates.
+     * @return the kept coordinates; the input array itself if nothing was removed.
+     */
+    @NotNull
+    public double[] simplify(@NotNull final double[] xy) {
+        final double[] simplified = switch (mode) {
+            case NONE -> xy;
+            case RADIAL -> radialDistance(xy, tolerance);
+            case RDP -> douglasPeucker(xy, tolerance);
+            case RADIAL_RDP -> douglasPeucker(radialDistance(xy, tolerance), tolerance);
+        };
+        final int pointsIn = xy.length / 2;
+        if (pointsIn > 0) {
+            final int pointsOut = simplified.length / 2;
+            pointsInCounter.increment(pointsIn);
+            pointsOutCounter.increment(pointsOut);
+            reductionSummary.record(1.0 - (double) pointsOut / pointsIn);
+        }
+        return simplified;
+    }
+
+    /**
+     * Keeps a point only if it is further than the tolerance from the last kept point. Runs in linear time.
+     *
+     * @param xy        the interleaved {@code x, y} coordinates.
+     * @param tolerance the minimum distance between kept points.
+     * @return the kept coordinates; the input array itself if nothing was removed.
+     */
+    static double[] radialDistance(final double[] xy, final double tolerance) {
+        final int points = xy.length / 2;
+        if (points <= 2) {
+            return xy;
+        }
+        final double toleranceSquared = tolerance * tolerance;
+        final double[] kept = new double[xy.length];
+        kept[0] = xy[0];
+        kept[1] = xy[1];
+        int length = 2;
+        for (int i = 1; i < points - 1; i++) {
+            final double dx = xy[2 * i] - kept[length - 2];
+            final double dy = xy[2 * i + 1] - kept[length - 1];
+            if (dx * dx + dy * dy > toleranceSquared) {
+                kept[length++] = xy[2 * i];
+                kept[length++] = xy[2 * i + 1];
+            }
+        }
+        kept[length++] = xy[xy.length - 2];
+        kept[length++] = xy[xy.length - 1];
+        return length == xy.length ? xy : Arrays.copyOf(kept, length);
+    }
+
+    /**
+     * Ramer–Douglas–Peucker simplification: keeps the point furthest from the line between two kept points
+     * while it is further than the tolerance, and drops everything else in between.
+     * Uses an explicit stack, so long strokes cannot overflow the thread stack.
+     *
+     * @param xy        the interleaved {@code x, y} coordinates.
+     * @param tolerance the maximum distance of a dropped point from the simplified line.
+     * @return the kept coordinates; the input array itself if nothing was removed.
+     */
+    static double[] douglasPeucker(final double[] xy, final double tolerance) {
+        final int points = xy.length / 2;
+        if (points <= 2) {
+            return xy;
+        }
+        final double toleranceSquared = tolerance * tolerance;
+        final boolean[] keep = new boolean[points];
+        keep[0] = true;
+        keep[points - 1] = true;
+
+        final int[] stack = new int[2 * points];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = points - 1;
+        while (top > 0) {
+            final int last = stack[--top];
+            final int first = stack[--top];
+            double maxDistance = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                final double distance = segmentDistanceSquared(xy, i, first, last);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+            if (index != -1 && maxDistance > toleranceSquared) {
+                keep[index] = true;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (final boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        if (kept == points) {
+            return xy;
+        }
+        final double[] result = new double[kept * 2];
+        int length = 0;
+        for (int i = 0; i < points; i++) {
+            if (keep[i]) {
+                result[length++] = xy[2 * i];
+                result[length++] = xy[2 * i + 1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the squared distance of point {@code p} from the segment between points {@code a} and {@code b}.
+     */
+    private static double segmentDistanceSquared(final double[] xy, final int p, final int a, final int b) {
+        final double px = xy[2 * p];
+        final double py = xy[2 * p + 1];
+        double x = xy[2 * a];
+        double y = xy[2 * a + 1];
+        double dx = xy[2 * b] - x;
+        double dy = xy[2 * b + 1] - y;
+        if (dx != 0 || dy != 0) {
+            final double t = ((px - x) * dx + (py - y) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                x = xy[2 * b];
+                y = xy[2 * b + 1];
+            } else if (t > 0) {
+                x += dx * t;
+                y += dy * t;
+            }
+        }
+        dx = px - x;
+        dy = py - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,208 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.repository.StrokePathBulkWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers completed strokes in memory and writes them to the database in batches, so the
+ * draw path does not pay for a database round-trip per stroke.
+ * A flush is triggered when the buffer reaches the batch size or when the flush interval elapses.
+ * Each batch is written with {@link StrokePathBulkWriter}, as a single {@code COPY} on PostgreSQL,
+ * after which the board tiles it touches are dropped from the {@link BoardTileService} cache, and only then are
+ * its events released from the {@link PersistedSequenceTracker}, so a tile is never reported as covering an
+ * event it was rendered without. Strokes that are dropped are released as well.
+ */
+@Service
+public class StrokeWriteBehindService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrokeWriteBehindService.class);
+
+    private final StrokePathBulkWriter strokePathBulkWriter;
+    private final BoardTileService boardTileService;
+    private final PersistedSequenceTracker persistedSequenceTracker;
+
+    private final int batchSize;
+    private final BlockingQueue<StrokePath> pending;
+    private final ConcurrentLinkedQueue<List<StrokePath>> failedBatches = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ExecutorService flushExecutor;
+
+    private final Counter flushedCounter;
+    private final Counter droppedCounter;
+
+    public StrokeWriteBehindService(final StrokePathBulkWriter strokePathBulkWriter,
+                                    final BoardTileService boardTileService,
+                                    final PersistedSequenceTracker persistedSequenceTracker,
+                                    final MeterRegistry meterRegistry,
+                                    @Value("${spring.jpa.batch-saving.batch-size:500}") final int batchSize,
+                                    @Value("${spring.jpa.batch-saving.queue-capacity:100000}") final int queueCapacity) {
+        this.strokePathBulkWriter = Objects.requireNonNull(strokePathBulkWriter, "strokePathBulkWriter must not be null");
+        this.boardTileService = Objects.requireNonNull(boardTileService, "boardTileService must not be null");
+        this.persistedSequenceTracker = Objects.requireNonNull(persistedSequenceTracker,
+                "persistedSequenceTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.batchSize = batchSize;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+        this.flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "stroke-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("whiteboard.strokes.write_behind.queue", pending, Collection::size)
+                .description("Strokes waiting to be written to the database")
+                .register(meterRegistry);
+        Gauge.builder("whiteboard.strokes.write_behind.failed_batches", failedBatches, Collection::size)
+                .description("Batches waiting for a retry after a failed flush")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("whiteboard.strokes.write_behind.flushed")
+                .description("Strokes written to the database")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("whiteboard.strokes.write_behind.dropped")
+                .description("Strokes dropped after repeated flush failures")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a stroke for persistence. Triggers an asynchronous flush once a full batch is waiting.
+     *
+     * @param stroke the stroke to persist.
+     */
+    public void enqueue(@NotNull final StrokePath stroke) {
+        if (!pending.offer(stroke)) {
+            LOGGER.warn("Write-behind queue is full ({} strokes), flushing on caller thread", pending.size());
+            flush();
+            if (!pending.offer(stroke)) {
+                droppedCounter.increment();
+                release(stroke);
+                LOGGER.error("Write-behind queue still full after flush, dropping stroke for board {}",
+                        stroke.getBoard().getId());
+                return;
+            }
+        }
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flushIfIdle);
+        }
+    }
+
+    /**
+     * @return the number of strokes waiting to be written.
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Time-triggered flush of everything currently buffered.
+     */
+    @Scheduled(fixedDelayString = "${spring.jpa.batch-saving.interval}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Retries batches whose earlier flush failed. Batches that fail again are dropped,
+     * so a permanently broken row (e.g. its board was deleted) cannot block the buffer forever.
+     */
+    @Scheduled(fixedDelayString = "${spring.jpa.batch-saving.cleanup-interval}")
+    public void retryFailedBatches() {
+        List<StrokePath> batch;
+        while ((batch = failedBatches.poll()) != null) {
+            try {
+                writeBatch(batch);
+            } catch (Exception e) {
+                droppedCounter.increment(batch.size());
+                batch.forEach(this::release);
+                LOGGER.error("Dropping {} strokes after repeated write-behind failure", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Drains the buffer and writes it in batches. Only one flush runs at a time.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Flushing {} buffered strokes before shutdown", pending.size());
+        flush();
+        retryFailedBatches();
+    }
+
+    private void flushIfIdle() {
+        flushScheduled.set(false);
+        if (pending.size() < batchSize || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            final List<StrokePath> batch = new ArrayList<>(batchSize);
+            pending.drainTo(batch, batchSize);
+            try {
+                writeBatch(batch);
+            } catch (Exception e) {
+                LOGGER.error("Write-behind flush of {} strokes failed, will retry", batch.size(), e);
+                failedBatches.add(batch);
+            }
+        }
+    }
+
+    private void writeBatch(final List<StrokePath> batch) {
+        strokePathBulkWriter.writeAll(batch);
+        boardTileService.invalidate(batch);
+        batch.forEach(this::release);
+        flushedCounter.increment(batch.size());
+        LOGGER.debug("Write-behind flushed {} strokes", batch.size());
+    }
+
+    private void release(final StrokePath stroke) {
+        persistedSequenceTracker.written(stroke.getBoard().getId(), stroke.getSequences());
+    }
+}
@@ -26,10 +26,12 @@ public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DrawReferenceCache drawReferenceCache;
 
-    public UserService(@NonNull @Valid final  UserRepository userRepository, @NotNull @Valid final PasswordEncoder passwordEncoder) {
+    public UserService(@NonNull @Valid final  UserRepository userRepository, @NotNull @Valid final PasswordEncoder passwordEncoder, @NotNull final DrawReferenceCache drawReferenceCache) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
         this.passwordEncoder = Objects.requireNonNull(passwordEncoder, "passwordEncoder must not be null");
+        this.drawReferenceCache = Objects.requireNonNull(drawReferenceCache, "drawReferenceCache must not be null");
     }
     /**
      * Creates a new user in the system.
@@ -77,12 +79,15 @@ public class UserService {
             final User user = userRepository.findById(id)
                     .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
 
+            final String previousDisplayName = user.getDisplayName();
             final boolean isUpdated = updateUserFields(user, request);
             if (!isUpdated) {
                 LOGGER.info("No fields to update for user with ID: {}", id);
                 return new UserDto(user);
             }
             final User updatedUser = userRepository.save(user);
+            drawReferenceCache.evictUser(previousDisplayName);
+            drawReferenceCache.evictUser(updatedUser.getDisplayName());
             LOGGER.info("User updated successfully with ID: {}", updatedUser.getId());
             return new UserDto(updatedUser);
         } catch (Exception error) {
@@ -0,0 +1,19 @@
+CREATE TABLE stroke_paths
+(
+    id          SERIAL PRIMARY KEY,
+    board_id    INT          NOT NULL,
+    user_id     INT          NOT NULL,
+    stroke_id   VARCHAR(255) NOT NULL,
+    segment     INT          NOT NULL DEFAULT 0,
+    color       VARCHAR(50),
+    thickness   INT,
+    tool        VARCHAR(50),
+    point_count INT          NOT NULL,
+    ended       BOOLEAN      NOT NULL DEFAULT FALSE,
+    points      BYTEA        NOT NULL,
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_stroke_path_board FOREIGN KEY (board_id) REFERENCES boards (id),
+    CONSTRAINT fk_stroke_path_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_stroke_paths_board_id ON stroke_paths (board_id, id);
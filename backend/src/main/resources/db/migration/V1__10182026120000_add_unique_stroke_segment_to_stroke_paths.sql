@@ -0,0 +1,10 @@
+-- A stroke segment is stored once per board, so resent draw events cannot persist a stroke twice.
+DELETE FROM stroke_paths duplicate
+    USING stroke_paths original
+WHERE duplicate.board_id = original.board_id
+  AND duplicate.stroke_id = original.stroke_id
+  AND duplicate.segment = original.segment
+  AND duplicate.id > original.id;
+
+ALTER TABLE stroke_paths
+    ADD CONSTRAINT uq_stroke_paths_board_stroke_segment UNIQUE (board_id, stroke_id, segment);
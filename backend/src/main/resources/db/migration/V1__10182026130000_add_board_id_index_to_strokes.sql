@@ -0,0 +1,2 @@
+-- Keyset pagination of a board's legacy strokes runs on (board_id, id), like stroke_paths.
+CREATE INDEX IF NOT EXISTS idx_strokes_board_id ON strokes (board_id, id);
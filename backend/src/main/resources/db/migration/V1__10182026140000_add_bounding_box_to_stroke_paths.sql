@@ -0,0 +1,10 @@
+-- Bounding box of each stroke path, so a viewport only reads the strokes it intersects.
+-- Rows stored before this migration keep NULL bounds and are returned for every viewport.
+ALTER TABLE stroke_paths
+    ADD COLUMN min_x DOUBLE PRECISION,
+    ADD COLUMN min_y DOUBLE PRECISION,
+    ADD COLUMN max_x DOUBLE PRECISION,
+    ADD COLUMN max_y DOUBLE PRECISION;
+
+-- The range condition on min_x drives the scan; the other bounds are checked from the index entries.
+CREATE INDEX IF NOT EXISTS idx_stroke_paths_board_bbox ON stroke_paths (board_id, min_x, max_x, min_y, max_y);
@@ -0,0 +1,6 @@
+-- Strokes and event logs take their ids from their own sequences in blocks of 50 (pooled-lo),
+-- starting past the ids the SERIAL columns already issued.
+CREATE SEQUENCE IF NOT EXISTS strokes_pooled_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS event_logs_pooled_id_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('strokes_pooled_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM strokes;
+SELECT setval('event_logs_pooled_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM event_logs;
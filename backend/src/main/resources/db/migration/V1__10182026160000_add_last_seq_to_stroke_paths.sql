@@ -0,0 +1,4 @@
+-- Highest sequence number of the draw events each stroke path was assembled from, so after a restart the
+-- history is only reported as persisted up to what the rows hold. Rows stored before this migration keep NULL.
+ALTER TABLE stroke_paths
+    ADD COLUMN last_seq BIGINT;
@@ -2,10 +2,15 @@ package com.otp.whiteboard.api.controller;
 
 import com.otp.whiteboard.dto.board.BoardCreatingRequest;
 import com.otp.whiteboard.dto.board.BoardDto;
+import com.otp.whiteboard.dto.board.BoardImportRequest;
+import com.otp.whiteboard.dto.board.BoardImportResponse;
+import com.otp.whiteboard.dto.board.ImportedStrokeDto;
+import com.otp.whiteboard.enums.DrawingTool;
 import com.otp.whiteboard.dto.board.BoardUpdateRequest;
 import com.otp.whiteboard.dto.board.ModifyBoardUserRequest;
 import com.otp.whiteboard.model.User;
 import com.otp.whiteboard.security.CustomUserDetails;
+import com.otp.whiteboard.service.BoardImportService;
 import com.otp.whiteboard.service.BoardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -45,6 +50,9 @@ class BoardControllerTest {
     @Mock
     private BoardService boardService;
 
+    @Mock
+    private BoardImportService boardImportService;
+
     @BeforeEach
     void init() {
         setupMockData();
@@ -140,7 +148,7 @@ class BoardControllerTest {
     }
 
     private void setupTestTarget() {
-        boardController = new BoardController(boardService);
+        boardController = new BoardController(boardService, boardImportService);
     }
 
 
@@ -301,4 +309,23 @@ class BoardControllerTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @DisplayName("As a user, I want to import strokes into my board, so that I can bring in existing drawings.")
+    @Test
+    void importStrokes() {
+        // Given
+        final User currentUser = new User();
+        currentUser.setId(USER_ID);
+        final BoardImportRequest request = new BoardImportRequest(List.of(
+                new ImportedStrokeDto("stroke-1", DrawingTool.PEN, "#000000", 3L, new double[]{1, 2, 3, 4})));
+        when(boardImportService.importStrokes(BOARD_ID, request, currentUser))
+                .thenReturn(new BoardImportResponse(1, 1, 2));
+        // When
+        final ResponseEntity<BoardImportResponse> response =
+                boardController.importStrokes(BOARD_ID, request, new CustomUserDetails(currentUser));
+        final ResponseEntity<BoardImportResponse> unauthorized = boardController.importStrokes(BOARD_ID, request, null);
+        // Then
+        assertEquals(new BoardImportResponse(1, 1, 2), response.getBody());
+        assertEquals(401, unauthorized.getStatusCode().value());
+    }
+}
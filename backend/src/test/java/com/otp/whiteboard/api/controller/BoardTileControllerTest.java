@@ -0,0 +1,85 @@
+package com.otp.whiteboard.api.controller;
+
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.security.CustomUserDetails;
+import com.otp.whiteboard.service.BoardTileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BoardTileControllerTest {
+
+    private BoardTileController boardTileController;
+
+    private static final Long BOARD_ID = 2L;
+    private static final Long USER_ID = 3L;
+    private static final byte[] TILE = {(byte) 0x89, 'P', 'N', 'G'};
+    private static final long SEQUENCE = 42L;
+
+    @Mock
+    private BoardTileService boardTileService;
+
+    private User currentUser;
+
+    @BeforeEach
+    void init() {
+        currentUser = new User();
+        currentUser.setId(USER_ID);
+        when(boardTileService.getTile(BOARD_ID, 4, 1, 2, currentUser)).thenReturn(new BoardTileService.Tile(TILE, SEQUENCE));
+        boardTileController = new BoardTileController(boardTileService);
+    }
+
+    private static ServletWebRequest webRequest(final String ifNoneMatch) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tiles");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    @DisplayName("As a user, I want to load rendered tiles of my board, so that a large board appears without replaying every stroke.")
+    @Test
+    void getTile() {
+        // When
+        final ResponseEntity<byte[]> response = boardTileController.getTile(BOARD_ID, 4, 1, 2,
+                new CustomUserDetails(currentUser), webRequest(null));
+        final ResponseEntity<byte[]> unauthorized = boardTileController.getTile(BOARD_ID, 4, 1, 2, null, webRequest(null));
+        // Then
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+        assertArrayEquals(TILE, response.getBody());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals(Long.toString(SEQUENCE), response.getHeaders().getFirst(BoardTileController.SEQUENCE_HEADER));
+        assertEquals(401, unauthorized.getStatusCode().value());
+    }
+
+    @DisplayName("As a user, I want unchanged tiles to be revalidated, so that they are not downloaded again.")
+    @Test
+    void unchangedTileIsNotSentAgain() {
+        // Given
+        final String eTag = boardTileController.getTile(BOARD_ID, 4, 1, 2,
+                new CustomUserDetails(currentUser), webRequest(null)).getHeaders().getETag();
+        final ServletWebRequest revalidation = webRequest(eTag);
+        // When
+        final ResponseEntity<byte[]> response = boardTileController.getTile(BOARD_ID, 4, 1, 2,
+                new CustomUserDetails(currentUser), revalidation);
+        // Then
+        assertNull(response);
+        assertEquals(304, revalidation.getResponse().getStatus());
+    }
+}
@@ -1,15 +1,27 @@
 package com.otp.whiteboard.api.controller;
 
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
 import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
 import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
 import com.otp.whiteboard.dto.drawing.HistoryRequest;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceRequest;
+import com.otp.whiteboard.dto.drawing.HistoryStreamAck;
+import com.otp.whiteboard.dto.drawing.HistoryStreamRequest;
+import com.otp.whiteboard.dto.drawing.ViewportHistoryRequest;
 import com.otp.whiteboard.enums.DrawEventType;
 import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.enums.HistoryOrder;
+import com.otp.whiteboard.service.DrawBroadcaster;
 import com.otp.whiteboard.service.DrawEventService;
+import com.otp.whiteboard.service.HistoryStreamer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -42,6 +54,7 @@ class DrawControllerTest {
     private static final Long BRUSH_SIZE = 5L;
     private static final String BRUSH_COLOR = "#000000";
     private static final String STROKE_ID = "stroke-1";
+    private static final long SEQ = 7L;
 
     private static final String CURSOR_ID = "456";
     private static final String CURSOR_PHOTO = "https://example.com/photo.jpg";
@@ -58,6 +71,12 @@ class DrawControllerTest {
     @Mock
     private DrawEventService drawEventService;
 
+    @Mock
+    private DrawBroadcaster drawBroadcaster;
+
+    @Mock
+    private HistoryStreamer historyStreamer;
+
     @BeforeEach
     void init() {
         setupTestTarget();
@@ -90,19 +109,58 @@ class DrawControllerTest {
     }
 
     void setupTestTarget() {
-        drawController = new DrawController(drawEventService);
+        drawController = new DrawController(drawEventService, drawBroadcaster, historyStreamer);
+        when(drawEventService.publishDrawEvent(Mockito.any()))
+                .thenAnswer(inv -> inv.<DrawDto>getArgument(0).withSeq(SEQ));
+        when(drawEventService.publishDrawBatch(Mockito.any()))
+                .thenAnswer(inv -> inv.<DrawBatchDto>getArgument(0).withSeq(SEQ));
     }
 
     @Test
     void onDraw() {
-        final DrawDto result = drawController.onDraw(drawDto);
-        assertEquals(drawDto, result);
+        drawController.onDraw(drawDto);
+        Mockito.verify(drawBroadcaster).broadcast("/topic/draw", drawDto.withSeq(SEQ));
+    }
+
+    @DisplayName("In coalesced broadcast mode the event is not sent to /topic/draw on its own")
+    @Test
+    void onDrawCoalesced() {
+        when(drawBroadcaster.coalesce(drawDto.withSeq(SEQ))).thenReturn(true);
+        drawController.onDraw(drawDto);
+        Mockito.verify(drawEventService).publishDrawEvent(drawDto);
+        Mockito.verify(drawBroadcaster, Mockito.never()).broadcast(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    void onDrawBatch() {
+        final DrawBatchDto batch = new DrawBatchDto(DRAW_ID, BOARD_ID, DISPLAY_NAME, TIMESTAMP, STROKE_ID, TOOL,
+                BRUSH_COLOR, BRUSH_SIZE, true, false, new double[]{X, Y});
+        drawController.onDrawBatch(batch);
+        final ArgumentCaptor<DrawBatchDto> broadcast = ArgumentCaptor.forClass(DrawBatchDto.class);
+        Mockito.verify(drawBroadcaster).broadcast(Mockito.eq("/topic/draw/batch"), broadcast.capture());
+        assertSame(batch.points(), broadcast.getValue().points());
+        assertEquals(SEQ, broadcast.getValue().seq());
+        Mockito.verify(drawEventService).publishDrawBatch(batch);
+    }
+
+    @DisplayName("A resent event or batch is not broadcast again")
+    @Test
+    void duplicatesAreNotBroadcast() {
+        when(drawEventService.publishDrawEvent(drawDto)).thenReturn(null);
+        final DrawBatchDto batch = new DrawBatchDto(DRAW_ID, BOARD_ID, DISPLAY_NAME, TIMESTAMP, STROKE_ID, TOOL,
+                BRUSH_COLOR, BRUSH_SIZE, true, false, new double[]{X, Y});
+        when(drawEventService.publishDrawBatch(batch)).thenReturn(null);
+
+        drawController.onDraw(drawDto);
+        drawController.onDrawBatch(batch);
+        Mockito.verifyNoInteractions(drawBroadcaster);
     }
 
     @Test
     void onCursor() {
-        final CursorDto result = drawController.onCursor(cursorDto);
-        assertEquals(cursorDto, result);
+        drawController.onCursor(cursorDto);
+        Mockito.verify(drawEventService).publishCursorEvent(cursorDto);
+        Mockito.verify(drawBroadcaster).broadcast("/topic/cursor", cursorDto);
     }
 
     @DisplayName("As a user, I want to request drawing history so that I can retrieve the exception message")
@@ -110,7 +168,7 @@ class DrawControllerTest {
     void historyShouldReturnExceptionMessage() {
         final HistoryRequest req = historyRequest;
         //when
-        when(drawEventService.getBoardStrokes(BOARD_ID))
+        when(drawEventService.getBoardHistory(HISTORY_BOARD_ID, HISTORY_LIMIT, null, null))
                 .thenThrow(new RuntimeException(EXCEPTION_MESSAGE));
         //then
         final List<DrawDto> result = drawController.history(req, SESSION_ID, null);
@@ -123,8 +181,8 @@ class DrawControllerTest {
         final HistoryRequest req = historyRequest;
         final Principal principal = Mockito.mock(Principal.class);
         //when
-        when(drawEventService.getBoardStrokes(HISTORY_BOARD_ID))
-                .thenReturn(List.of(drawDto));
+        when(drawEventService.getBoardHistory(HISTORY_BOARD_ID, HISTORY_LIMIT, null, null))
+                .thenReturn(new HistoryPageDto(HISTORY_BOARD_ID, List.of(drawDto), "next"));
         //then
         try{
             List<DrawDto> result = drawController.history(req, SESSION_ID, principal);
@@ -134,6 +192,70 @@ class DrawControllerTest {
         }
     }
 
+    @DisplayName("A history request without limit or cursor still returns the whole board")
+    @Test
+    void historyWithoutLimitReturnsWholeBoard() {
+        final HistoryRequest req = new HistoryRequest(HISTORY_BOARD_ID, null);
+        when(drawEventService.getBoardStrokes(HISTORY_BOARD_ID)).thenReturn(List.of(drawDto));
+
+        assertEquals(List.of(drawDto), drawController.history(req, SESSION_ID, null));
+        Mockito.verify(drawEventService, Mockito.never()).getBoardHistory(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any());
+    }
+
+    @DisplayName("A history page is returned with the cursor of the next page")
+    @Test
+    void historyPage() {
+        final HistoryRequest req = new HistoryRequest(HISTORY_BOARD_ID, HISTORY_LIMIT, "cursor",
+                HistoryOrder.NEWEST_FIRST);
+        final HistoryPageDto page = new HistoryPageDto(HISTORY_BOARD_ID, List.of(drawDto), "next");
+        when(drawEventService.getBoardHistory(HISTORY_BOARD_ID, HISTORY_LIMIT, "cursor", HistoryOrder.NEWEST_FIRST))
+                .thenReturn(page);
+
+        assertEquals(page, drawController.historyPage(req));
+    }
+
+    @DisplayName("A joining client gets the board snapshot and its tail")
+    @Test
+    void historySnapshot() {
+        final BoardSnapshotDto snapshot = new BoardSnapshotDto(HISTORY_BOARD_ID, 5L, List.of(), List.of(drawDto));
+        when(drawEventService.getBoardSnapshot(HISTORY_BOARD_ID)).thenReturn(snapshot);
+
+        assertEquals(snapshot, drawController.historySnapshot(historyRequest));
+    }
+
+    @DisplayName("A client panning a large board gets only the strokes in its viewport")
+    @Test
+    void historyViewport() {
+        when(drawEventService.getBoardStrokesInViewport(HISTORY_BOARD_ID, 0, 0, 800, 600)).thenReturn(List.of(drawDto));
+
+        assertEquals(List.of(drawDto),
+                drawController.historyViewport(new ViewportHistoryRequest(HISTORY_BOARD_ID, 0, 0, 800, 600)));
+    }
+
+    @DisplayName("A reconnecting client gets only the events after its last sequence number")
+    @Test
+    void historySince() {
+        final HistorySinceDto missed = new HistorySinceDto(HISTORY_BOARD_ID, SEQ, SEQ + 1, false,
+                List.of(drawDto.withSeq(SEQ + 1)));
+        when(drawEventService.getBoardStrokesSince(HISTORY_BOARD_ID, SEQ)).thenReturn(missed);
+
+        assertEquals(missed, drawController.historySince(new HistorySinceRequest(HISTORY_BOARD_ID, SEQ)));
+    }
+
+    @DisplayName("A streamed history request and its acknowledgements are handed to the streamer with the session")
+    @Test
+    void historyStream() {
+        final HistoryStreamRequest req = new HistoryStreamRequest(HISTORY_BOARD_ID, "stream-1", null);
+        final HistoryStreamAck ack = new HistoryStreamAck("stream-1", 3L);
+
+        drawController.historyStream(req, SESSION_ID);
+        drawController.historyStreamAck(ack, SESSION_ID);
+
+        Mockito.verify(historyStreamer).start(SESSION_ID, req);
+        Mockito.verify(historyStreamer).ack(SESSION_ID, ack);
+    }
+
     @DisplayName("As a user, I want to handle exceptions so that I can log the error message")
     @Test
     void handleException() {
@@ -0,0 +1,60 @@
+package com.otp.whiteboard.codec;
+
+import com.otp.whiteboard.dto.drawing.SnapshotStrokeDto;
+import com.otp.whiteboard.enums.DrawingTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSnapshotCodecTest {
+    private static final int PRECISION = 2;
+
+    @DisplayName("Snapshots round-trip with optional fields and coordinates at the configured precision")
+    @Test
+    void roundTrip() {
+        final BoardSnapshotCodec.Snapshot snapshot = new BoardSnapshotCodec.Snapshot("event-1", 42L, List.of(
+                new SnapshotStrokeDto("stroke-1", "Phong", DrawingTool.PEN, "#1e90ff", 5L, true,
+                        new double[]{1.234, 2.5, 3.0, 4.0}),
+                new SnapshotStrokeDto(null, null, null, null, null, false, new double[]{7.0, 8.0})));
+
+        final BoardSnapshotCodec.Snapshot decoded =
+                BoardSnapshotCodec.decode(BoardSnapshotCodec.encode(snapshot, PRECISION));
+
+        assertEquals("event-1", decoded.anchorEventId());
+        assertEquals(42L, decoded.sequence());
+        assertEquals(2, decoded.strokes().size());
+        final SnapshotStrokeDto first = decoded.strokes().get(0);
+        assertEquals("stroke-1", first.strokeId());
+        assertEquals("Phong", first.displayName());
+        assertEquals(DrawingTool.PEN, first.tool());
+        assertEquals("#1e90ff", first.brushColor());
+        assertEquals(5L, first.brushSize());
+        assertTrue(first.ended());
+        assertArrayEquals(new double[]{1.23, 2.5, 3.0, 4.0}, first.points(), 1e-9);
+        final SnapshotStrokeDto second = decoded.strokes().get(1);
+        assertNull(second.strokeId());
+        assertNull(second.tool());
+        assertNull(second.brushSize());
+        assertFalse(second.ended());
+        assertArrayEquals(new double[]{7.0, 8.0}, second.points(), 1e-9);
+    }
+
+    @DisplayName("Truncated snapshots and unknown versions are rejected")
+    @Test
+    void invalidSnapshotsAreRejected() {
+        final byte[] encoded = BoardSnapshotCodec.encode(new BoardSnapshotCodec.Snapshot("event-1", 1L, List.of(
+                new SnapshotStrokeDto("stroke-1", "Phong", DrawingTool.PEN, null, null, true,
+                        new double[]{1.0, 2.0}))), PRECISION);
+        final byte[] unknownVersion = encoded.clone();
+        unknownVersion[0] = 99;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardSnapshotCodec.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertThrows(IllegalArgumentException.class, () -> BoardSnapshotCodec.decode(unknownVersion));
+        assertThrows(IllegalArgumentException.class, () -> BoardSnapshotCodec.decode(new byte[0]));
+    }
+}
@@ -0,0 +1,104 @@
+package com.otp.whiteboard.codec;
+
+import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawDtoRedisSerializerTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrawDtoRedisSerializerTest.class);
+
+    private static final String BENCHMARK_PROPERTY = "whiteboard.benchmark.enabled";
+    private static final int BOARD_POINTS = 100_000;
+    private static final int POINTS_PER_STROKE = 200;
+
+    private final DrawDtoRedisSerializer serializer = new DrawDtoRedisSerializer();
+
+    private static final DrawDto DRAW = new DrawDto("event-1", 1L, "Phong", 1000L, DrawEventType.DRAW,
+            DrawingTool.PEN, 120.5, 80.3, 5L, "#000000", "stroke-1");
+
+    @DisplayName("Draw events round-trip without type metadata")
+    @Test
+    void roundTrip() {
+        final byte[] stored = serializer.serialize(DRAW);
+
+        assertEquals(DRAW, serializer.deserialize(stored));
+        assertFalse(new String(stored, StandardCharsets.ISO_8859_1).contains("DrawDto"));
+    }
+
+    @DisplayName("Entries written by the generic JSON serializer are still readable")
+    @Test
+    void legacyJsonEntriesAreReadable() {
+        final byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(DRAW);
+
+        assertEquals(DRAW, serializer.deserialize(legacy));
+    }
+
+    @DisplayName("Empty values map to null and corrupted entries are a serialization error")
+    @Test
+    void emptyAndCorruptedEntries() {
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+        assertEquals(0, serializer.serialize(null).length);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{1, 2}));
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(DrawMessageCodec.encode(new CursorDto(
+                        "Phong", null, 1.0, 2.0))));
+    }
+
+    /**
+     * @return the bytes of a board history of the given number of points, as typed JSON and in the binary format.
+     */
+    private long[] historySizes(final int points) {
+        final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        final Random random = new Random(42);
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        String strokeId = null;
+        for (int i = 0; i < points; i++) {
+            final int pointInStroke = i % POINTS_PER_STROKE;
+            if (pointInStroke == 0) {
+                strokeId = UUID.randomUUID().toString();
+            }
+            final DrawEventType type = pointInStroke == 0 ? DrawEventType.START
+                    : pointInStroke == POINTS_PER_STROKE - 1 ? DrawEventType.END : DrawEventType.DRAW;
+            final DrawDto event = new DrawDto(UUID.randomUUID().toString(), 42L, "Phong Nguyen",
+                    1_760_000_000_000L + i * 8L, type, DrawingTool.PEN, random.nextDouble() * 1920,
+                    random.nextDouble() * 1080, 5L, "#1e90ff", strokeId);
+            jsonBytes += jsonSerializer.serialize(event).length;
+            binaryBytes += serializer.serialize(event).length;
+        }
+        return new long[]{jsonBytes, binaryBytes};
+    }
+
+    @DisplayName("A stroke takes less than half the memory of typed JSON")
+    @Test
+    void historyIsSmallerThanTypedJson() {
+        final long[] sizes = historySizes(POINTS_PER_STROKE);
+
+        assertTrue(sizes[1] < sizes[0] * 0.5, "binary " + sizes[1] + " vs JSON " + sizes[0]);
+    }
+
+    @DisplayName("Benchmark: memory of a 100k-point board history as typed JSON and in the binary format")
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void benchmarkBoardHistorySize() {
+        final long[] sizes = historySizes(BOARD_POINTS);
+
+        LOGGER.info("{} points: typed JSON {} KiB, binary {} KiB ({}% of the JSON size)", BOARD_POINTS,
+                sizes[0] / 1024, sizes[1] / 1024, Math.round(100.0 * sizes[1] / sizes[0]));
+    }
+}
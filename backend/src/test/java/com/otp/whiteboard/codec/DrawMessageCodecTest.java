@@ -0,0 +1,217 @@
+package com.otp.whiteboard.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.DrawFrameDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawMessageCodecTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrawMessageCodecTest.class);
+
+    private static final String BENCHMARK_PROPERTY = "whiteboard.benchmark.enabled";
+    private static final int BENCHMARK_EVENTS = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static DrawDto event(final Random random, final String strokeId, final long timestamp) {
+        return new DrawDto(UUID.randomUUID().toString(), 42L, "Phong Nguyen", timestamp, DrawEventType.DRAW,
+                DrawingTool.PEN, random.nextDouble() * 1920, random.nextDouble() * 1080, 5L, "#1e90ff", strokeId);
+    }
+
+    @DisplayName("Draw events round-trip exactly, including negative and fractional coordinates")
+    @Test
+    void drawRoundTrip() {
+        final DrawDto draw = new DrawDto("event-1", 7L, "Zoë", 1_760_000_000_000L, DrawEventType.START,
+                DrawingTool.ERASER, -12.345678901, 0.1 + 0.2, 12L, "#ff0000", "stroke-1");
+
+        assertEquals(draw, DrawMessageCodec.decode(DrawMessageCodec.encode(draw)));
+    }
+
+    @DisplayName("Draw events keep their sequence number, on their own and inside frames")
+    @Test
+    void drawSeqRoundTrip() {
+        final DrawDto draw = new DrawDto("event-1", 7L, "Zoë", 1_760_000_000_000L, DrawEventType.DRAW,
+                DrawingTool.PEN, 1.5, 2.5, 12L, "#ff0000", "stroke-1", 300L);
+        final DrawFrameDto frame = new DrawFrameDto(7L, 1_760_000_000_010L,
+                List.of(draw, draw.withSeq(301L), draw.withSeq(null)));
+
+        assertEquals(draw, DrawMessageCodec.decode(DrawMessageCodec.encode(draw)));
+        assertEquals(frame, DrawMessageCodec.decode(DrawMessageCodec.encode(frame)));
+    }
+
+    @DisplayName("Draw events stored with a one-byte mask and no sequence number are still read")
+    @Test
+    void drawWithoutSeqIsRead() {
+        // [1][mask: id | type | stroke id][timestamp 5][type DRAW][x][y]["e"]["s"]
+        final byte[] stored = {DrawMessageCodec.TYPE_DRAW_WITHOUT_SEQ, (byte) 0x89, 10, 1,
+                0x3F, (byte) 0xF0, 0, 0, 0, 0, 0, 0, 0x40, 0, 0, 0, 0, 0, 0, 0, 2, 'e', 2, 's'};
+
+        assertEquals(new DrawDto("e", null, null, 5L, DrawEventType.DRAW, null, 1.0, 2.0, null, null, "s"),
+                DrawMessageCodec.decode(stored));
+    }
+
+    @DisplayName("Event types and tools are written as their fixed codes, not their ordinals")
+    @Test
+    void enumsAreWrittenAsCodes() {
+        final DrawDto draw = new DrawDto(null, null, null, 0L, DrawEventType.END, DrawingTool.HAND, 0, 0, null,
+                null, null);
+
+        final byte[] encoded = DrawMessageCodec.encode(draw);
+
+        // [type][mask][timestamp][event type][tool]
+        assertEquals(DrawEventType.END.getCode(), encoded[3]);
+        assertEquals(DrawingTool.HAND.getCode(), encoded[4]);
+        assertEquals(2, DrawEventType.END.getCode());
+        assertEquals(2, DrawingTool.HAND.getCode());
+        encoded[4] = 99;
+        assertThrows(IllegalArgumentException.class, () -> DrawMessageCodec.decode(encoded));
+    }
+
+    @DisplayName("Missing fields stay null")
+    @Test
+    void nullFieldsRoundTrip() {
+        final DrawDto draw = new DrawDto(null, null, null, 0L, null, null, 1.0, 2.0, null, null, null);
+        final CursorDto cursor = new CursorDto(null, null, 3.0, 4.0);
+
+        assertEquals(draw, DrawMessageCodec.decode(DrawMessageCodec.encode(draw)));
+        assertEquals(cursor, DrawMessageCodec.decode(DrawMessageCodec.encode(cursor)));
+    }
+
+    @DisplayName("Cursor positions round-trip")
+    @Test
+    void cursorRoundTrip() {
+        final CursorDto cursor = new CursorDto("Phong", "https://example.com/photo.jpg", 150.5, 90.25);
+
+        assertEquals(cursor, DrawMessageCodec.decode(DrawMessageCodec.encode(cursor)));
+    }
+
+    @DisplayName("Frames round-trip and write repeated strings only once")
+    @Test
+    void frameRoundTripSharesStrings() {
+        final Random random = new Random(1);
+        final List<DrawDto> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(event(random, "stroke-1", 1_760_000_000_000L + i * 8L));
+        }
+        final DrawFrameDto frame = new DrawFrameDto(42L, 1_760_000_000_200L, events);
+
+        final byte[] encoded = DrawMessageCodec.encode(frame);
+
+        assertEquals(frame, DrawMessageCodec.decode(encoded));
+        final int singleEvent = DrawMessageCodec.encode(events.get(0)).length;
+        assertTrue(encoded.length < singleEvent * events.size() * 0.8,
+                "frame of " + encoded.length + " bytes should share strings between events");
+    }
+
+    @DisplayName("Batches round-trip with their flags, sequence number and exact points")
+    @Test
+    void batchRoundTrip() {
+        final DrawBatchDto batch = new DrawBatchDto("batch-1", 42L, "Phong", 1_760_000_000_000L, "stroke-1",
+                DrawingTool.PEN, "#1e90ff", 5L, true, false, new double[]{-1.5, 0.1 + 0.2, 1920.0, 1080.0}, 17L);
+
+        final DrawBatchDto decoded = (DrawBatchDto) DrawMessageCodec.decode(DrawMessageCodec.encode(batch));
+
+        // Records compare arrays by reference, so the points are compared on their own.
+        assertArrayEquals(batch.points(), decoded.points());
+        assertEquals(batch, new DrawBatchDto(decoded.id(), decoded.boardId(), decoded.displayName(),
+                decoded.timestamp(), decoded.strokeId(), decoded.tool(), decoded.brushColor(), decoded.brushSize(),
+                decoded.start(), decoded.end(), batch.points(), decoded.seq()));
+
+        final DrawBatchDto bare = new DrawBatchDto(null, null, null, 0L, null, null, null, null, false, true,
+                new double[0], null);
+        final DrawBatchDto decodedBare = (DrawBatchDto) DrawMessageCodec.decode(DrawMessageCodec.encode(bare));
+        assertEquals(0, decodedBare.points().length);
+        assertEquals(bare, new DrawBatchDto(decodedBare.id(), decodedBare.boardId(), decodedBare.displayName(),
+                decodedBare.timestamp(), decodedBare.strokeId(), decodedBare.tool(), decodedBare.brushColor(),
+                decodedBare.brushSize(), decodedBare.start(), decodedBare.end(), bare.points(), decodedBare.seq()));
+    }
+
+    @DisplayName("Draw events are much smaller in the binary format than as JSON")
+    @Test
+    void binaryIsSmallerThanJson() throws Exception {
+        final Random random = new Random(42);
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (int i = 0; i < 200; i++) {
+            final DrawDto event = event(random, "stroke-1", 1_760_000_000_000L + i);
+            jsonBytes += objectMapper.writeValueAsBytes(event).length;
+            binaryBytes += DrawMessageCodec.encode(event).length;
+        }
+
+        assertTrue(binaryBytes < jsonBytes * 0.6, "binary " + binaryBytes + " vs JSON " + jsonBytes);
+    }
+
+    @DisplayName("Unsupported payloads are rejected")
+    @Test
+    void unsupportedPayloadIsRejected() {
+        assertFalse(DrawMessageCodec.supports(String.class));
+        assertThrows(IllegalArgumentException.class, () -> DrawMessageCodec.encode("text"));
+    }
+
+    @DisplayName("Malformed input is rejected instead of producing garbage")
+    @Test
+    void malformedInputIsRejected() {
+        final byte[] encoded = DrawMessageCodec.encode(event(new Random(2), "stroke-1", 1L));
+
+        assertThrows(IllegalArgumentException.class, () -> DrawMessageCodec.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> DrawMessageCodec.decode(new byte[]{99}));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrawMessageCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrawMessageCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+    }
+
+    @DisplayName("Benchmark: encode and decode time of the binary format against JSON")
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void benchmarkAgainstJson() throws Exception {
+        final Random random = new Random(42);
+        final List<DrawDto> events = new ArrayList<>(BENCHMARK_EVENTS);
+        for (int i = 0; i < BENCHMARK_EVENTS; i++) {
+            events.add(event(random, "stroke-" + (i / 200), 1_760_000_000_000L + i));
+        }
+        // Warm up both paths so the comparison is not dominated by class loading and JIT compilation.
+        for (int i = 0; i < 5_000; i++) {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(events.get(i)), DrawDto.class);
+            DrawMessageCodec.decode(DrawMessageCodec.encode(events.get(i)));
+        }
+
+        long jsonBytes = 0;
+        long startedAt = System.nanoTime();
+        for (final DrawDto event : events) {
+            final byte[] json = objectMapper.writeValueAsBytes(event);
+            jsonBytes += json.length;
+            objectMapper.readValue(json, DrawDto.class);
+        }
+        final long jsonMicros = (System.nanoTime() - startedAt) / 1000;
+
+        long binaryBytes = 0;
+        startedAt = System.nanoTime();
+        for (final DrawDto event : events) {
+            final byte[] binary = DrawMessageCodec.encode(event);
+            binaryBytes += binary.length;
+            DrawMessageCodec.decode(binary);
+        }
+        final long binaryMicros = (System.nanoTime() - startedAt) / 1000;
+
+        LOGGER.info("{} draw events: JSON {} bytes in {} us, binary {} bytes in {} us ({}% of the JSON size)",
+                BENCHMARK_EVENTS, jsonBytes, jsonMicros, binaryBytes, binaryMicros,
+                Math.round(100.0 * binaryBytes / jsonBytes));
+    }
+}
@@ -0,0 +1,87 @@
+package com.otp.whiteboard.codec;
+
+import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawMessageConverterTest {
+    private static final DrawDto DRAW = new DrawDto("event-1", 1L, "Phong", 1000L, DrawEventType.DRAW,
+            DrawingTool.PEN, 120.5, 80.3, 5L, "#000000", "stroke-1");
+
+    /** The same converter chain {@code WebSocketConfig} registers: binary first, then JSON. */
+    private final CompositeMessageConverter converter = new CompositeMessageConverter(
+            List.of(new DrawMessageConverter(), new MappingJackson2MessageConverter()));
+
+    @DisplayName("Frames with the binary content type are decoded by the binary converter")
+    @Test
+    void binaryContentTypeIsDecoded() {
+        final Message<byte[]> message = MessageBuilder.withPayload(DrawMessageCodec.encode(DRAW))
+                .setHeader(MessageHeaders.CONTENT_TYPE, DrawMessageConverter.DRAW_BINARY)
+                .build();
+
+        assertEquals(DRAW, converter.fromMessage(message, DrawDto.class));
+    }
+
+    @DisplayName("JSON frames still reach the JSON converter")
+    @Test
+    void jsonStaysAvailable() {
+        final String json = "{\"id\":\"event-1\",\"boardId\":1,\"displayName\":\"Phong\",\"timestamp\":1000,"
+                + "\"type\":\"draw\",\"tool\":\"pen\",\"x\":120.5,\"y\":80.3,\"brushSize\":5,"
+                + "\"brushColor\":\"#000000\",\"strokeId\":\"stroke-1\"}";
+        final Message<byte[]> message = MessageBuilder.withPayload(json.getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+
+        assertEquals(DRAW, converter.fromMessage(message, DrawDto.class));
+    }
+
+    @DisplayName("Outbound messages without a content type are written as JSON")
+    @Test
+    void outboundDefaultsToJson() {
+        final Message<?> message = converter.toMessage(DRAW, null);
+
+        assertNotNull(message);
+        final String json = new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"brushColor\":\"#000000\""));
+    }
+
+    @DisplayName("Outbound messages with the binary content type are encoded")
+    @Test
+    void outboundBinaryWhenRequested() {
+        final Message<?> message = converter.toMessage(DRAW,
+                new MessageHeaders(java.util.Map.of(MessageHeaders.CONTENT_TYPE, DrawMessageConverter.DRAW_BINARY)));
+
+        assertNotNull(message);
+        assertEquals(DRAW, DrawMessageCodec.decode((byte[]) message.getPayload()));
+    }
+
+    @DisplayName("A payload of the wrong message type or a malformed payload is a conversion error")
+    @Test
+    void mismatchedPayloadIsRejected() {
+        final Message<byte[]> cursor = MessageBuilder
+                .withPayload(DrawMessageCodec.encode(new CursorDto("Phong", null, 1.0, 2.0)))
+                .setHeader(MessageHeaders.CONTENT_TYPE, DrawMessageConverter.DRAW_BINARY)
+                .build();
+        final Message<byte[]> malformed = MessageBuilder.withPayload(new byte[]{1})
+                .setHeader(MessageHeaders.CONTENT_TYPE, DrawMessageConverter.DRAW_BINARY)
+                .build();
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(cursor, DrawDto.class));
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(malformed, DrawDto.class));
+    }
+}
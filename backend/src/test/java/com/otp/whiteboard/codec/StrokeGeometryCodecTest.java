@@ -0,0 +1,127 @@
+package com.otp.whiteboard.codec;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrokeGeometryCodecTest {
+    private static final int DEFAULT_PRECISION = 2;
+    private static final int RANDOM_RUNS = 200;
+
+    /**
+     * Generates a freehand-like path: a random walk with small steps around a random origin.
+     */
+    private static double[] randomStroke(final Random random, final int points, final double step) {
+        final double[] xy = new double[points * 2];
+        double x = random.nextDouble() * 4000 - 2000;
+        double y = random.nextDouble() * 4000 - 2000;
+        for (int i = 0; i < xy.length; i += 2) {
+            x += (random.nextDouble() - 0.5) * step;
+            y += (random.nextDouble() - 0.5) * step;
+            xy[i] = x;
+            xy[i + 1] = y;
+        }
+        return xy;
+    }
+
+    @DisplayName("Random strokes round-trip within half a grid step for every precision")
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6})
+    void randomRoundTripWithinPrecision(final int precision) {
+        final Random random = new Random(42L + precision);
+        final double tolerance = 0.5 / Math.pow(10, precision) + 1e-9;
+        for (int run = 0; run < RANDOM_RUNS; run++) {
+            final double[] xy = randomStroke(random, random.nextInt(300), 20);
+
+            final double[] decoded = StrokeGeometryCodec.decode(StrokeGeometryCodec.encode(xy, precision));
+
+            assertEquals(xy.length, decoded.length);
+            for (int i = 0; i < xy.length; i++) {
+                assertEquals(xy[i], decoded[i], tolerance, "coordinate " + i + " of run " + run);
+            }
+        }
+    }
+
+    @DisplayName("Values already on the fixed-point grid round-trip exactly")
+    @Test
+    void gridValuesAreLossless() {
+        final double[] xy = {0, 0, 10.25, -3.5, 10.26, -3.49, -1000.01, 2000.99, 1e9, -1e9};
+
+        final double[] decoded = StrokeGeometryCodec.decode(StrokeGeometryCodec.encode(xy, DEFAULT_PRECISION));
+
+        assertArrayEquals(xy, decoded);
+    }
+
+    @DisplayName("Re-encoding decoded geometry is stable")
+    @Test
+    void reEncodingIsIdempotent() {
+        final double[] xy = randomStroke(new Random(7), 500, 10);
+        final byte[] first = StrokeGeometryCodec.encode(xy, DEFAULT_PRECISION);
+
+        final byte[] second = StrokeGeometryCodec.encode(StrokeGeometryCodec.decode(first), DEFAULT_PRECISION);
+
+        assertArrayEquals(first, second);
+    }
+
+    @DisplayName("Empty and single-point geometry round-trips")
+    @Test
+    void emptyAndSinglePoint() {
+        assertArrayEquals(new double[0], StrokeGeometryCodec.decode(StrokeGeometryCodec.encode(new double[0], 2)));
+        assertArrayEquals(new double[]{12.5, -7.25},
+                StrokeGeometryCodec.decode(StrokeGeometryCodec.encode(new double[]{12.5, -7.25}, 2)));
+    }
+
+    @DisplayName("Freehand strokes are several times smaller than raw doubles")
+    @Test
+    void encodingIsCompact() {
+        final double[] xy = randomStroke(new Random(1), 1000, 8);
+
+        final int encodedSize = StrokeGeometryCodec.encode(xy, DEFAULT_PRECISION).length;
+        final int rawSize = PackedPoints.pack(xy).length;
+
+        assertTrue(encodedSize * 4 < rawSize, "encoded " + encodedSize + " bytes vs raw " + rawSize);
+    }
+
+    @DisplayName("PackedPoints reads both the raw and the delta-varint format")
+    @Test
+    void packedPointsDispatchesOnFormat() {
+        final double[] xy = {1.5, 2.5, 3.5, 4.5};
+
+        assertArrayEquals(xy, PackedPoints.unpack(PackedPoints.pack(xy)));
+        assertArrayEquals(xy, PackedPoints.unpack(PackedPoints.pack(xy, DEFAULT_PRECISION)));
+    }
+
+    @DisplayName("Invalid input is rejected")
+    @Test
+    void invalidInputIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.encode(new double[]{1}, 2));
+        assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.encode(new double[]{1, 2}, 7));
+        assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.encode(new double[]{1, 2}, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> StrokeGeometryCodec.encode(new double[]{Double.NaN, 0}, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> StrokeGeometryCodec.encode(new double[]{Double.POSITIVE_INFINITY, 0}, 2));
+        assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.encode(new double[]{1e17, 0}, 2));
+    }
+
+    @DisplayName("Truncated or foreign data is rejected instead of decoded as garbage")
+    @Test
+    void corruptedDataIsRejected() {
+        final byte[] encoded = StrokeGeometryCodec.encode(randomStroke(new Random(3), 50, 10), DEFAULT_PRECISION);
+
+        for (int length = 0; length < encoded.length; length++) {
+            final byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.decode(truncated),
+                    "length " + length);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> StrokeGeometryCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> StrokeGeometryCodec.decode(PackedPoints.pack(new double[]{1, 2})));
+    }
+}
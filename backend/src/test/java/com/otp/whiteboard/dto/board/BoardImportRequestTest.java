@@ -0,0 +1,51 @@
+package com.otp.whiteboard.dto.board;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardImportRequestTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test BoardImportRequest with valid strokes")
+    @Test
+    void testValidRequest() {
+        BoardImportRequest request = new BoardImportRequest(List.of(
+                new ImportedStrokeDto("stroke-1", DrawingTool.PEN, null, null, new double[]{1, 2})));
+        Set<ConstraintViolation<BoardImportRequest>> violations = validator.validate(request);
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid strokes");
+    }
+
+    @DisplayName("Test BoardImportRequest with no strokes")
+    @Test
+    void testEmptyStrokes() {
+        BoardImportRequest request = new BoardImportRequest(List.of());
+        Set<ConstraintViolation<BoardImportRequest>> violations = validator.validate(request);
+        assertFalse(violations.isEmpty(), "There should be validation violations for an empty import");
+    }
+
+    @DisplayName("Test BoardImportRequest validates each stroke")
+    @Test
+    void testInvalidStroke() {
+        BoardImportRequest request = new BoardImportRequest(List.of(
+                new ImportedStrokeDto("", DrawingTool.PEN, null, null, new double[]{1, 2})));
+        Set<ConstraintViolation<BoardImportRequest>> violations = validator.validate(request);
+        assertFalse(violations.isEmpty(), "There should be validation violations for a stroke without an id");
+    }
+}
@@ -0,0 +1,42 @@
+package com.otp.whiteboard.dto.board;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportedStrokeDtoTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test ImportedStrokeDto with valid fields")
+    @Test
+    void testValidStroke() {
+        ImportedStrokeDto stroke = new ImportedStrokeDto("stroke-1", DrawingTool.PEN, "#000000", 3L, new double[]{1, 2, 3, 4});
+        Set<ConstraintViolation<ImportedStrokeDto>> violations = validator.validate(stroke);
+        assertTrue(violations.isEmpty(), "There should be no validation violations for a valid stroke");
+        assertEquals(2, stroke.pointCount());
+    }
+
+    @DisplayName("Test ImportedStrokeDto with missing tool and points")
+    @Test
+    void testMissingFields() {
+        ImportedStrokeDto stroke = new ImportedStrokeDto("stroke-1", null, null, null, new double[0]);
+        Set<ConstraintViolation<ImportedStrokeDto>> violations = validator.validate(stroke);
+        assertEquals(2, violations.size(), "Missing tool and empty points should both be reported");
+        assertEquals(0, new ImportedStrokeDto("stroke-1", DrawingTool.PEN, null, null, null).pointCount());
+    }
+}
@@ -0,0 +1,62 @@
+package com.otp.whiteboard.dto.drawing;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawBatchDtoTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test DrawBatchDto creation and field access")
+    @Test
+    public void testCreationAndFieldAccess() {
+        final DrawBatchDto batch = new DrawBatchDto(
+                "batch",
+                1L,
+                "Alice",
+                1000L,
+                "stroke123",
+                DrawingTool.PEN,
+                "#FF0000",
+                5L,
+                true,
+                false,
+                new double[]{1.0, 2.0, 3.0, 4.0}
+        );
+        Set<ConstraintViolation<DrawBatchDto>> violations = validator.validate(batch);
+
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid DrawBatchDto");
+        assertEquals(1L, batch.boardId());
+        assertEquals("stroke123", batch.strokeId());
+        assertTrue(batch.start());
+        assertFalse(batch.end());
+        assertEquals(2, batch.pointCount());
+        assertArrayEquals(new double[]{1.0, 2.0, 3.0, 4.0}, batch.points());
+    }
+
+    @DisplayName("Test DrawBatchDto without points is invalid")
+    @Test
+    public void testEmptyPoints() {
+        final DrawBatchDto batch = new DrawBatchDto(
+                "batch", 1L, "Alice", 1000L, "stroke123", DrawingTool.PEN, null, null, false, false, new double[0]);
+        Set<ConstraintViolation<DrawBatchDto>> violations = validator.validate(batch);
+
+        assertFalse(violations.isEmpty(), "A batch without points should not be valid");
+        assertEquals(0, batch.pointCount());
+    }
+}
@@ -0,0 +1,49 @@
+package com.otp.whiteboard.dto.drawing;
+
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawFrameDtoTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test DrawFrameDto creation and field access")
+    @Test
+    public void testCreationAndFieldAccess() {
+        final DrawDto drawDto = new DrawDto("line", 1L, "Alice", 1000L, DrawEventType.DRAW, DrawingTool.PEN,
+                0.0, 0.0, 5L, "#FF0000", "stroke123");
+        final DrawFrameDto frame = new DrawFrameDto(1L, 2000L, List.of(drawDto));
+        Set<ConstraintViolation<DrawFrameDto>> violations = validator.validate(frame);
+
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid DrawFrameDto");
+        assertEquals(1L, frame.boardId());
+        assertEquals(2000L, frame.timestamp());
+        assertEquals(List.of(drawDto), frame.events());
+    }
+
+    @DisplayName("Test DrawFrameDto without events is invalid")
+    @Test
+    public void testEmptyEvents() {
+        final DrawFrameDto frame = new DrawFrameDto(1L, 2000L, List.of());
+        Set<ConstraintViolation<DrawFrameDto>> violations = validator.validate(frame);
+
+        assertFalse(violations.isEmpty(), "A frame without events should not be valid");
+    }
+}
@@ -0,0 +1,43 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorySinceRequestTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test HistorySinceRequest creation and field access")
+    @Test
+    public void testCreationAndFieldAccess() {
+        final HistorySinceRequest request = new HistorySinceRequest(10L, 42L);
+
+        Set<ConstraintViolation<HistorySinceRequest>> violations = validator.validate(request);
+
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid HistorySinceRequest");
+        assertEquals(10, request.boardId());
+        assertEquals(42L, request.since());
+    }
+
+    @DisplayName("Test HistorySinceRequest without board id")
+    @Test
+    public void testNullBoardId() {
+        final HistorySinceRequest request = new HistorySinceRequest(null, 0L);
+        Set<ConstraintViolation<HistorySinceRequest>> violations = validator.validate(request);
+        assertFalse(violations.isEmpty(), "A HistorySinceRequest without board id should be invalid");
+    }
+}
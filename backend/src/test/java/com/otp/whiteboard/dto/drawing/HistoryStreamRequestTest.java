@@ -0,0 +1,44 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryStreamRequestTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test HistoryStreamRequest creation and field access")
+    @Test
+    public void testCreationAndFieldAccess() {
+        final HistoryStreamRequest request = new HistoryStreamRequest(10L, "stream-1", 500);
+
+        Set<ConstraintViolation<HistoryStreamRequest>> violations = validator.validate(request);
+
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid HistoryStreamRequest");
+        assertEquals(10, request.boardId());
+        assertEquals("stream-1", request.streamId());
+        assertEquals(500, request.chunkSize());
+    }
+
+    @DisplayName("Test HistoryStreamRequest without board id")
+    @Test
+    public void testNullBoardId() {
+        final HistoryStreamRequest request = new HistoryStreamRequest(null, "stream-1", null);
+        Set<ConstraintViolation<HistoryStreamRequest>> violations = validator.validate(request);
+        assertFalse(violations.isEmpty(), "A HistoryStreamRequest without board id should be invalid");
+    }
+}
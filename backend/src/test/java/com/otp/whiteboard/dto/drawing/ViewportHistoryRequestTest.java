@@ -0,0 +1,44 @@
+package com.otp.whiteboard.dto.drawing;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewportHistoryRequestTest {
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @DisplayName("Test ViewportHistoryRequest creation and field access")
+    @Test
+    public void testCreationAndFieldAccess() {
+        final ViewportHistoryRequest request = new ViewportHistoryRequest(10L, -5.0, 0.0, 800.0, 600.0);
+
+        Set<ConstraintViolation<ViewportHistoryRequest>> violations = validator.validate(request);
+
+        assertTrue(violations.isEmpty(), "There should be no validation violations for valid ViewportHistoryRequest");
+        assertEquals(10, request.boardId());
+        assertEquals(-5.0, request.minX());
+        assertEquals(600.0, request.maxY());
+    }
+
+    @DisplayName("Test ViewportHistoryRequest without board id")
+    @Test
+    public void testNullBoardId() {
+        final ViewportHistoryRequest request = new ViewportHistoryRequest(null, 0.0, 0.0, 1.0, 1.0);
+        Set<ConstraintViolation<ViewportHistoryRequest>> violations = validator.validate(request);
+        assertFalse(violations.isEmpty(), "A ViewportHistoryRequest without board id should be invalid");
+    }
+}
@@ -0,0 +1,85 @@
+package com.otp.whiteboard.listener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopicSubscriptionTrackerTest {
+    private static final String DRAW_BINARY = "/topic/draw.bin";
+
+    private TopicSubscriptionTracker tracker;
+
+    @BeforeEach
+    void init() {
+        tracker = new TopicSubscriptionTracker();
+    }
+
+    private static Message<byte[]> message(final SimpMessageType type, final String sessionId,
+                                           final String subscriptionId, final String destination) {
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private void subscribe(final String sessionId, final String subscriptionId, final String destination) {
+        tracker.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, sessionId, subscriptionId, destination)));
+    }
+
+    @DisplayName("Each format of a topic is tracked on its own, and user queues are not tracked")
+    @Test
+    void onlyTopicsAreTracked() {
+        subscribe("session-1", "sub-1", "/topic/draw");
+        subscribe("session-1", "sub-2", "/user/queue/history");
+
+        assertTrue(tracker.hasSubscribers("/topic/draw"));
+        assertFalse(tracker.hasSubscribers(DRAW_BINARY));
+        assertFalse(tracker.hasSubscribers("/user/queue/history"));
+    }
+
+    @DisplayName("A destination has subscribers until the last one unsubscribes")
+    @Test
+    void unsubscribeReleasesDestination() {
+        subscribe("session-1", "sub-1", DRAW_BINARY);
+        subscribe("session-2", "sub-1", DRAW_BINARY);
+
+        tracker.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(SimpMessageType.UNSUBSCRIBE, "session-1", "sub-1", null)));
+        assertTrue(tracker.hasSubscribers(DRAW_BINARY));
+
+        tracker.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(SimpMessageType.UNSUBSCRIBE, "session-2", "sub-1", null)));
+        assertFalse(tracker.hasSubscribers(DRAW_BINARY));
+    }
+
+    @DisplayName("Disconnecting releases all subscriptions of the session")
+    @Test
+    void disconnectReleasesSession() {
+        subscribe("session-1", "sub-1", DRAW_BINARY);
+        subscribe("session-1", "sub-2", "/topic/cursor.bin");
+
+        tracker.onDisconnect(new SessionDisconnectEvent(this,
+                message(SimpMessageType.DISCONNECT, "session-1", null, null), "session-1", CloseStatus.NORMAL));
+
+        assertFalse(tracker.hasSubscribers(DRAW_BINARY));
+        assertFalse(tracker.hasSubscribers("/topic/cursor.bin"));
+    }
+
+    @DisplayName("Binary destinations are the JSON topic with a suffix")
+    @Test
+    void binaryDestination() {
+        assertEquals(DRAW_BINARY, TopicSubscriptionTracker.binaryDestination("/topic/draw"));
+    }
+}
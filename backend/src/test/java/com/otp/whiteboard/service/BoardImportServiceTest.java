@@ -0,0 +1,124 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.board.BoardImportRequest;
+import com.otp.whiteboard.dto.board.BoardImportResponse;
+import com.otp.whiteboard.dto.board.ImportedStrokeDto;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.model.UserBoard;
+import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.repository.StrokePathBulkWriter;
+import com.otp.whiteboard.repository.UserBoardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BoardImportServiceTest {
+    private BoardImportService boardImportService;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long USER_ID = 2L;
+    private static final int MAX_POINTS_PER_SEGMENT = 3;
+    private static final int PRECISION = 2;
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private BoardRepository mockBoardRepository;
+
+    @Mock
+    private UserBoardRepository mockUserBoardRepository;
+
+    @Mock
+    private StrokePathBulkWriter mockStrokePathBulkWriter;
+
+    @Mock
+    private BoardStrokeCounter mockBoardStrokeCounter;
+
+    @Mock
+    private BoardTileService mockBoardTileService;
+
+    private User user;
+    private final List<List<StrokePath>> writtenChunks = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        final Board board = new Board();
+        board.setId(BOARD_ID);
+        user = new User();
+        user.setId(USER_ID);
+        when(mockBoardRepository.findById(BOARD_ID)).thenReturn(Optional.of(board));
+        when(mockUserBoardRepository.findUserBoardByBoardIdAndUserId(BOARD_ID, USER_ID)).thenReturn(new UserBoard());
+        when(mockStrokePathBulkWriter.writeAll(anyList())).thenAnswer(invocation -> {
+            final List<StrokePath> chunk = new ArrayList<>(invocation.getArgument(0));
+            writtenChunks.add(chunk);
+            return (long) chunk.size();
+        });
+        boardImportService = new BoardImportService(mockBoardRepository, mockUserBoardRepository,
+                mockStrokePathBulkWriter, mockBoardStrokeCounter, mockBoardTileService, MAX_POINTS_PER_SEGMENT, PRECISION, CHUNK_SIZE);
+    }
+
+    private static ImportedStrokeDto stroke(final String strokeId, final double... points) {
+        return new ImportedStrokeDto(strokeId, DrawingTool.PEN, "#000000", 3L, points);
+    }
+
+    @DisplayName("Imported strokes are split into segments and written in chunks with the bulk writer")
+    @Test
+    void strokesAreSegmentedAndChunked() {
+        final BoardImportRequest request = new BoardImportRequest(List.of(
+                stroke("stroke-1", 1, 1, 2, 2, 3, 3, 4, 4, 5, 5),
+                stroke("stroke-2", 6, 6)));
+
+        final BoardImportResponse response = boardImportService.importStrokes(BOARD_ID, request, user);
+
+        assertEquals(new BoardImportResponse(2, 3, 6), response);
+        assertEquals(2, writtenChunks.size());
+        final List<StrokePath> rows = writtenChunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(0, 1, 0), rows.stream().map(StrokePath::getSegment).toList());
+        assertEquals(List.of(false, true, true), rows.stream().map(StrokePath::isEnded).toList());
+        assertArrayEquals(new double[]{1, 1, 2, 2, 3, 3}, rows.get(0).getPoints());
+        assertArrayEquals(new double[]{4, 4, 5, 5}, rows.get(1).getPoints());
+        assertEquals(user, rows.get(2).getUser());
+        verify(mockBoardStrokeCounter).add(BOARD_ID, 2);
+        verify(mockBoardTileService).invalidate(rows);
+    }
+
+    @DisplayName("Importing into an unknown board or a board the user is not a member of is rejected")
+    @Test
+    void unknownBoardOrNonMemberIsRejected() {
+        final BoardImportRequest request = new BoardImportRequest(List.of(stroke("stroke-1", 1, 1)));
+        when(mockBoardRepository.findById(99L)).thenReturn(Optional.empty());
+        final User stranger = new User();
+        stranger.setId(42L);
+
+        assertThrows(IllegalArgumentException.class, () -> boardImportService.importStrokes(99L, request, user));
+        assertThrows(IllegalArgumentException.class, () -> boardImportService.importStrokes(BOARD_ID, request, stranger));
+        verifyNoInteractions(mockStrokePathBulkWriter, mockBoardStrokeCounter, mockBoardTileService);
+    }
+
+    @DisplayName("A stroke that is not made of whole points rejects the import before anything is written")
+    @Test
+    void malformedStrokeIsRejected() {
+        final BoardImportRequest request = new BoardImportRequest(List.of(
+                stroke("stroke-1", 1, 1), stroke("stroke-2", 1, 2, 3)));
+
+        assertThrows(IllegalArgumentException.class, () -> boardImportService.importStrokes(BOARD_ID, request, user));
+        verifyNoInteractions(mockStrokePathBulkWriter, mockBoardStrokeCounter, mockBoardTileService);
+    }
+}
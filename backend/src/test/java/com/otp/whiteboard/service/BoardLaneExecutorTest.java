@@ -0,0 +1,130 @@
+package com.otp.whiteboard.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardLaneExecutorTest {
+    private BoardLaneExecutor boardLaneExecutor;
+
+    private static final int LANE_COUNT = 4;
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int BOARDS = 16;
+    private static final int EVENTS_PER_BOARD = 500;
+
+    @BeforeEach
+    void init() {
+        boardLaneExecutor = new BoardLaneExecutor(new SimpleMeterRegistry(), LANE_COUNT, QUEUE_CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        boardLaneExecutor.shutdown();
+    }
+
+    @DisplayName("Tasks of one board run serially in submission order without locks")
+    @Test
+    void perBoardOrderIsKept() throws InterruptedException {
+        // Plain ArrayLists: safe only because each board's list is mutated by a single lane.
+        final Map<Long, List<Integer>> seenPerBoard = new ConcurrentHashMap<>();
+        for (long boardId = 1; boardId <= BOARDS; boardId++) {
+            seenPerBoard.put(boardId, new ArrayList<>());
+        }
+        final CountDownLatch done = new CountDownLatch(BOARDS * EVENTS_PER_BOARD);
+        boardLaneExecutor.start();
+
+        final ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (long boardId = 1; boardId <= BOARDS; boardId++) {
+            final long board = boardId;
+            producers.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_BOARD; i++) {
+                    final int sequence = i;
+                    assertTrue(boardLaneExecutor.offer(board, () -> {
+                        seenPerBoard.get(board).add(sequence);
+                        done.countDown();
+                    }));
+                }
+            });
+        }
+        producers.shutdown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (long boardId = 1; boardId <= BOARDS; boardId++) {
+            final List<Integer> seen = seenPerBoard.get(boardId);
+            assertEquals(EVENTS_PER_BOARD, seen.size());
+            for (int i = 0; i < EVENTS_PER_BOARD; i++) {
+                assertEquals(i, seen.get(i), "board " + boardId);
+            }
+        }
+    }
+
+    @DisplayName("Boards are spread across lanes and always map to the same lane")
+    @Test
+    void boardsAreSpreadAcrossLanes() {
+        final int[] boardsPerLane = new int[LANE_COUNT];
+        for (long boardId = 1; boardId <= BOARDS; boardId++) {
+            final int lane = boardLaneExecutor.laneOf(boardId);
+            assertEquals(lane, boardLaneExecutor.laneOf(boardId));
+            boardsPerLane[lane]++;
+        }
+        for (final int count : boardsPerLane) {
+            assertEquals(BOARDS / LANE_COUNT, count);
+        }
+    }
+
+    @DisplayName("A full lane refuses new tasks instead of blocking")
+    @Test
+    void fullLaneRefuses() {
+        final BoardLaneExecutor small = new BoardLaneExecutor(new SimpleMeterRegistry(), 1, 1);
+
+        assertTrue(small.offer(1L, () -> { }));
+        assertFalse(small.offer(2L, () -> { }));
+        assertEquals(1, small.getQueueDepth());
+    }
+
+    @DisplayName("A reserved slot is held until its task is taken off the lane, or given back when cancelled")
+    @Test
+    void reservedSlotsAreHeld() {
+        final BoardLaneExecutor small = new BoardLaneExecutor(new SimpleMeterRegistry(), 1, 1);
+
+        assertTrue(small.tryReserve(1L));
+        assertFalse(small.tryReserve(2L));
+        assertFalse(small.offer(2L, () -> { }));
+        small.cancelReservation(1L);
+        assertTrue(small.tryReserve(2L));
+        assertTrue(small.submitReserved(2L, () -> { }));
+        assertFalse(small.tryReserve(1L));
+
+        small.shutdown();
+        assertFalse(small.tryReserve(1L));
+        assertFalse(small.submitReserved(1L, () -> { }));
+    }
+
+    @DisplayName("Shutdown runs the queued tasks and refuses new ones")
+    @Test
+    void shutdownRunsQueuedTasks() {
+        final List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int task = i;
+            boardLaneExecutor.offer(1L, () -> ran.add(task));
+        }
+
+        boardLaneExecutor.shutdown();
+
+        assertEquals(List.of(0, 1, 2, 3, 4), ran);
+        assertFalse(boardLaneExecutor.offer(1L, () -> ran.add(99)));
+    }
+}
@@ -26,6 +26,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,6 +66,9 @@ class BoardServiceTest {
     @Mock
     private LocalizationService mockLocalizationService2;
 
+    @Mock
+    private DrawReferenceCache mockDrawReferenceCache;
+
     private Board testBoard;
     private User testUser;
     private UserBoard testUserBoard;
@@ -132,7 +137,7 @@ class BoardServiceTest {
                 .thenReturn(null);
     }
     void setupTestTarget(){
-        boardService = new BoardService(mockBoardRepository, mockUserRepository, mockUserBoardRepository, mockUserService, mockLocalizationService2);
+        boardService = new BoardService(mockBoardRepository, mockUserRepository, mockUserBoardRepository, mockUserService, mockLocalizationService2, mockDrawReferenceCache);
     }
 
     @DisplayName("Attempt to create a board with an existing name should throw an exception")
@@ -496,6 +501,19 @@ class BoardServiceTest {
         assertEquals(boardId, result.id());
         assertEquals(UPDATED_BOARD_NAME, result.boardName());
         assertEquals(NUMBER_OF_STROKES, result.numberOfStrokes());
+        verify(mockDrawReferenceCache).evictBoard(boardId);
+        verify(mockBoardRepository).updateNumberOfStrokes(boardId, NUMBER_OF_STROKES);
+    }
 
+    @DisplayName("Renaming a board does not write its stroke count")
+    @Test
+    void updateBoardNameKeepsStrokeCount() {
+        //given
+        final BoardUpdateRequest request = new BoardUpdateRequest(UPDATED_BOARD_NAME, null, null);
+        //when
+        boardService.updateBoard(BOARD_ID, request);
+        //then
+        verify(mockBoardRepository).save(testBoard);
+        verify(mockBoardRepository, never()).updateNumberOfStrokes(anyLong(), anyInt());
     }
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.codec.DrawDtoRedisSerializer;
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.SnapshotStrokeDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BoardSnapshotServiceTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardSnapshotServiceTest.class);
+
+    private static final Long BOARD_ID = 1L;
+    private static final String SNAPSHOT_KEY = "drawing-snapshot-board-" + BOARD_ID;
+    private static final int EVENT_THRESHOLD = 4;
+    private static final long MAX_AGE_MILLIS = 60_000L;
+    private static final int MAX_EVENTS_PER_BUILD = 100_000;
+    private static final long HISTORY_TTL_MILLIS = 3_600_000L;
+    private static final int PRECISION = 2;
+    private static final String BENCHMARK_PROPERTY = "whiteboard.benchmark.enabled";
+
+    @Mock
+    private BoardEventStore mockBoardEventStore;
+
+    @Mock
+    private RedisTemplate<String, byte[]> mockBinaryRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> mockValueOperations;
+
+    private final List<DrawDto> history = new ArrayList<>();
+    private final Map<String, byte[]> values = new HashMap<>();
+    private BoardSnapshotService boardSnapshotService;
+
+    @BeforeEach
+    void init() {
+        when(mockBoardEventStore.range(eq(BOARD_ID), anyLong(), anyLong())).thenAnswer(inv -> {
+            final int start = Math.toIntExact(inv.<Long>getArgument(1));
+            final long requestedEnd = inv.<Long>getArgument(2);
+            final int end = Math.toIntExact(requestedEnd < 0 || requestedEnd >= history.size()
+                    ? history.size() - 1 : requestedEnd);
+            return start > end ? List.of() : new ArrayList<>(history.subList(start, end + 1));
+        });
+        when(mockBinaryRedisTemplate.opsForValue()).thenReturn(mockValueOperations);
+        when(mockValueOperations.get(anyString())).thenAnswer(inv -> values.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> values.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(mockValueOperations).set(anyString(), any(byte[].class), any(Duration.class));
+        boardSnapshotService = newService(EVENT_THRESHOLD, MAX_AGE_MILLIS);
+    }
+
+    private BoardSnapshotService newService(final int eventThreshold, final long maxAgeMillis) {
+        return new BoardSnapshotService(mockBoardEventStore, mockBinaryRedisTemplate,
+                new SimpleMeterRegistry(), eventThreshold, maxAgeMillis, MAX_EVENTS_PER_BUILD, HISTORY_TTL_MILLIS,
+                PRECISION);
+    }
+
+    private static DrawDto event(final String id, final String strokeId, final DrawEventType type,
+                                 final double x, final double y) {
+        return new DrawDto(id, BOARD_ID, "Phong", 1000L, type, DrawingTool.PEN, x, y, 5L, "#000000", strokeId);
+    }
+
+    /** Appends a complete stroke of the given number of points to the history. */
+    private void drawStroke(final String strokeId, final int points, final Random random) {
+        for (int i = 0; i < points; i++) {
+            final DrawEventType type = i == 0 ? DrawEventType.START
+                    : i == points - 1 ? DrawEventType.END : DrawEventType.DRAW;
+            history.add(event(strokeId + "-" + i, strokeId, type,
+                    Math.round(random.nextDouble() * 192000) / 100.0, Math.round(random.nextDouble() * 108000) / 100.0));
+        }
+    }
+
+    @DisplayName("Events are folded into one polyline per stroke, and a new START begins a new stroke")
+    @Test
+    void foldBuildsOneStrokePerStrokeId() {
+        final List<SnapshotStrokeDto> strokes = BoardSnapshotService.fold(List.of(), List.of(
+                event("e1", "a", DrawEventType.START, 1, 1),
+                event("e2", "b", DrawEventType.START, 5, 5),
+                event("e3", "a", DrawEventType.DRAW, 2, 2),
+                event("e4", "a", DrawEventType.END, 3, 3),
+                event("e5", "a", DrawEventType.START, 9, 9)));
+
+        assertEquals(3, strokes.size());
+        assertArrayEquals(new double[]{1, 1, 2, 2, 3, 3}, strokes.get(0).points());
+        assertTrue(strokes.get(0).ended());
+        assertEquals("b", strokes.get(1).strokeId());
+        assertFalse(strokes.get(1).ended());
+        assertArrayEquals(new double[]{9, 9}, strokes.get(2).points());
+
+        // the open stroke b is continued by the next build
+        final List<SnapshotStrokeDto> extended = BoardSnapshotService.fold(strokes, List.of(
+                event("e6", "b", DrawEventType.END, 6, 6)));
+        assertEquals(3, extended.size());
+        assertArrayEquals(new double[]{5, 5, 6, 6}, extended.get(1).points());
+        assertTrue(extended.get(1).ended());
+        assertArrayEquals(new double[]{1, 1, 2, 2, 3, 3}, strokes.get(0).points(), "input is left unchanged");
+    }
+
+    @DisplayName("Snapshots are extended incrementally and the join gets the snapshot plus the newer events")
+    @Test
+    void snapshotIsExtendedIncrementally() {
+        final Random random = new Random(1);
+        drawStroke("a", 3, random);
+
+        assertEquals(3, boardSnapshotService.buildSnapshot(BOARD_ID));
+        drawStroke("b", 2, random);
+        final BoardSnapshotDto beforeRebuild = boardSnapshotService.getSnapshot(BOARD_ID);
+        assertEquals(3, beforeRebuild.sequence());
+        assertEquals(1, beforeRebuild.strokes().size());
+        assertEquals(history.subList(3, 5), beforeRebuild.tail());
+
+        assertEquals(5, boardSnapshotService.buildSnapshot(BOARD_ID));
+        verify(mockBoardEventStore).range(BOARD_ID, 3L, 3L + MAX_EVENTS_PER_BUILD - 1);
+        final BoardSnapshotDto afterRebuild = boardSnapshotService.getSnapshot(BOARD_ID);
+        assertEquals(List.of("a", "b"), afterRebuild.strokes().stream().map(SnapshotStrokeDto::strokeId).toList());
+        assertTrue(afterRebuild.tail().isEmpty());
+    }
+
+    @DisplayName("A snapshot of an expired history list is ignored and rebuilt")
+    @Test
+    void staleSnapshotIsIgnored() {
+        drawStroke("a", 3, new Random(2));
+        boardSnapshotService.buildSnapshot(BOARD_ID);
+        // the list expired and a new one was started
+        history.clear();
+        drawStroke("b", 2, new Random(3));
+        history.set(0, event("new-first", "b", DrawEventType.START, 0, 0));
+
+        final BoardSnapshotDto snapshot = boardSnapshotService.getSnapshot(BOARD_ID);
+        assertEquals(0, snapshot.sequence());
+        assertTrue(snapshot.strokes().isEmpty());
+        assertEquals(history, snapshot.tail());
+
+        assertEquals(2, boardSnapshotService.buildSnapshot(BOARD_ID));
+        values.put(SNAPSHOT_KEY, new byte[]{1, 2, 3});
+        assertEquals(0, boardSnapshotService.getSnapshot(BOARD_ID).sequence(), "unreadable snapshots are ignored");
+    }
+
+    @DisplayName("Boards without history have no snapshot")
+    @Test
+    void emptyHistoryHasNoSnapshot() {
+        assertNull(boardSnapshotService.getSnapshot(BOARD_ID));
+        assertEquals(0, boardSnapshotService.buildSnapshot(BOARD_ID));
+        verify(mockValueOperations, never()).set(anyString(), any(byte[].class), any(Duration.class));
+    }
+
+    @DisplayName("Snapshots are built once the event-count or the age threshold is reached")
+    @Test
+    void snapshotsAreBuiltAtThresholds() {
+        drawStroke("a", 3, new Random(4));
+        boardSnapshotService.recordAppend(BOARD_ID, 3);
+        boardSnapshotService.buildDueSnapshots();
+        assertFalse(values.containsKey(SNAPSHOT_KEY), "3 events are below the threshold of 4");
+
+        drawStroke("b", 2, new Random(5));
+        boardSnapshotService.recordAppend(BOARD_ID, 5);
+        boardSnapshotService.buildDueSnapshots();
+        assertEquals(5, boardSnapshotService.getSnapshot(BOARD_ID).sequence());
+
+        final BoardSnapshotService ageTriggered = newService(1_000, 0L);
+        drawStroke("c", 2, new Random(6));
+        ageTriggered.recordAppend(BOARD_ID, 7);
+        ageTriggered.buildDueSnapshots();
+        assertEquals(7, ageTriggered.getSnapshot(BOARD_ID).sequence());
+    }
+
+    @DisplayName("Snapshots are built from the history of a memory-mapped store too")
+    @Test
+    void snapshotsAreBuiltFromMappedStore(@TempDir final Path directory) {
+        final MappedBoardEventStore store = new MappedBoardEventStore(directory, 256, false, 60_000L);
+        try {
+            drawStroke("a", 3, new Random(7));
+            drawStroke("b", 2, new Random(8));
+            store.append(BOARD_ID, history, history.subList(0, 3));
+            final BoardSnapshotService service = new BoardSnapshotService(store, mockBinaryRedisTemplate,
+                    new SimpleMeterRegistry(), EVENT_THRESHOLD, MAX_AGE_MILLIS, MAX_EVENTS_PER_BUILD,
+                    HISTORY_TTL_MILLIS, PRECISION);
+
+            assertEquals(3, service.buildSnapshot(BOARD_ID));
+            store.append(BOARD_ID, history, history.subList(3, 5));
+            final BoardSnapshotDto snapshot = service.getSnapshot(BOARD_ID);
+            assertEquals(3, snapshot.sequence());
+            assertEquals(List.of("a"), snapshot.strokes().stream().map(SnapshotStrokeDto::strokeId).toList());
+            assertEquals(history.subList(3, 5), snapshot.tail());
+        } finally {
+            store.close();
+        }
+    }
+
+    /** What a joining client gets for a board after the snapshot was built and one more stroke was drawn. */
+    private record Join(int historyEvents, long replayBytes, long snapshotBytes, BoardSnapshotDto snapshot,
+                        long readMicros) {
+    }
+
+    private Join joinAfter(final int strokes, final int pointsPerStroke, final Random random) {
+        final DrawDtoRedisSerializer serializer = new DrawDtoRedisSerializer();
+        history.clear();
+        values.clear();
+        final BoardSnapshotService service = newService(1_000, MAX_AGE_MILLIS);
+        for (int i = 0; i < strokes; i++) {
+            drawStroke("stroke-" + strokes + "-" + i, pointsPerStroke, random);
+        }
+        service.buildSnapshot(BOARD_ID);
+        // activity after the snapshot, below the rebuild threshold
+        drawStroke("tail-" + strokes, pointsPerStroke, random);
+
+        long replayBytes = 0;
+        for (final DrawDto event : history) {
+            replayBytes += serializer.serialize(event).length;
+        }
+        final long startedAt = System.nanoTime();
+        final BoardSnapshotDto snapshot = service.getSnapshot(BOARD_ID);
+        final long readMicros = (System.nanoTime() - startedAt) / 1_000;
+        return new Join(history.size(), replayBytes, values.get(SNAPSHOT_KEY).length, snapshot, readMicros);
+    }
+
+    @DisplayName("The join tail stays flat and the snapshot smaller than the full replay as the board grows")
+    @Test
+    void joinPayloadStaysFlat() {
+        final Random random = new Random(42);
+        final int pointsPerStroke = 20;
+        for (final int strokes : new int[]{5, 50}) {
+            final Join join = joinAfter(strokes, pointsPerStroke, random);
+
+            assertEquals(strokes, join.snapshot().strokes().size());
+            assertEquals(pointsPerStroke, join.snapshot().tail().size(), "the tail does not grow with the board");
+            assertTrue(join.snapshotBytes() < join.replayBytes() / 2);
+        }
+    }
+
+    @DisplayName("Benchmark: join payload and read time against the full replay as the board grows")
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void benchmarkJoinPayload() {
+        final Random random = new Random(42);
+        for (final int strokes : new int[]{50, 500}) {
+            final Join join = joinAfter(strokes, 200, random);
+
+            LOGGER.info("{} strokes: full replay {} events ({} KiB), snapshot {} strokes ({} KiB) + {} tail events, "
+                            + "join read {} us", strokes, join.historyEvents(), join.replayBytes() / 1024,
+                    join.snapshot().strokes().size(), join.snapshotBytes() / 1024, join.snapshot().tail().size(),
+                    join.readMicros());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.repository.BoardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BoardStrokeCounterTest {
+    private BoardStrokeCounter boardStrokeCounter;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long OTHER_BOARD_ID = 2L;
+
+    @Mock
+    private BoardRepository mockBoardRepository;
+
+    @BeforeEach
+    void init() {
+        when(mockBoardRepository.incrementNumberOfStrokes(anyLong(), anyInt())).thenReturn(1);
+        boardStrokeCounter = new BoardStrokeCounter(mockBoardRepository);
+    }
+
+    @DisplayName("Concurrent increments on one board are written as a single update")
+    @Test
+    void concurrentIncrementsAreAggregated() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> boardStrokeCounter.increment(BOARD_ID));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        boardStrokeCounter.add(OTHER_BOARD_ID, 5);
+
+        boardStrokeCounter.flush();
+
+        verify(mockBoardRepository, times(1)).incrementNumberOfStrokes(BOARD_ID, 1000);
+        verify(mockBoardRepository, times(1)).incrementNumberOfStrokes(OTHER_BOARD_ID, 5);
+        assertEquals(0, boardStrokeCounter.getPending(BOARD_ID));
+    }
+
+    @DisplayName("Increments racing with flushes are each written exactly once")
+    @Test
+    void incrementsDuringFlushesAreNotLost() throws InterruptedException {
+        final AtomicLong written = new AtomicLong();
+        when(mockBoardRepository.incrementNumberOfStrokes(eq(BOARD_ID), anyInt())).thenAnswer(invocation -> {
+            written.addAndGet(invocation.getArgument(1, Integer.class));
+            return 1;
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 20_000; i++) {
+            executor.submit(() -> boardStrokeCounter.increment(BOARD_ID));
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            boardStrokeCounter.flush();
+        }
+
+        boardStrokeCounter.flush();
+
+        assertEquals(20_000L, written.get());
+    }
+
+    @DisplayName("Flushing with nothing counted does not touch the database")
+    @Test
+    void emptyFlushIsNoOp() {
+        boardStrokeCounter.increment(BOARD_ID);
+        boardStrokeCounter.flush();
+
+        boardStrokeCounter.flush();
+
+        verify(mockBoardRepository, times(1)).incrementNumberOfStrokes(anyLong(), anyInt());
+    }
+
+    @DisplayName("A failed update keeps the count for the next flush")
+    @Test
+    void failedUpdateIsRetried() {
+        when(mockBoardRepository.incrementNumberOfStrokes(BOARD_ID, 3))
+                .thenThrow(new RuntimeException("Database down"))
+                .thenReturn(1);
+        boardStrokeCounter.add(BOARD_ID, 3);
+
+        boardStrokeCounter.flush();
+        assertEquals(3, boardStrokeCounter.getPending(BOARD_ID));
+
+        boardStrokeCounter.flush();
+        assertEquals(0, boardStrokeCounter.getPending(BOARD_ID));
+        verify(mockBoardRepository, times(2)).incrementNumberOfStrokes(BOARD_ID, 3);
+    }
+
+    @DisplayName("Pending counts are written on shutdown")
+    @Test
+    void shutdownFlushes() {
+        boardStrokeCounter.increment(BOARD_ID);
+        boardStrokeCounter.increment(BOARD_ID);
+
+        boardStrokeCounter.shutdown();
+
+        verify(mockBoardRepository).incrementNumberOfStrokes(BOARD_ID, 2);
+    }
+
+    @DisplayName("Boards are forgotten once their count is written")
+    @Test
+    void flushedBoardsAreRemoved() {
+        boardStrokeCounter.add(BOARD_ID, 2);
+        boardStrokeCounter.add(OTHER_BOARD_ID, 1);
+
+        boardStrokeCounter.flush();
+
+        assertEquals(0, boardStrokeCounter.getPendingBoardCount());
+    }
+}
@@ -0,0 +1,194 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.model.UserBoard;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import com.otp.whiteboard.repository.StrokePathRow;
+import com.otp.whiteboard.repository.UserBoardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BoardTileServiceTest {
+    private BoardTileService boardTileService;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long USER_ID = 2L;
+    private static final int MAX_ZOOM = 2;
+    private static final int MAX_INDEX = 64;
+    private static final double VIEWPORT_MARGIN = 50;
+    private static final long LAST_SEQUENCE = 20L;
+
+    @Mock
+    private StrokePathRepository mockStrokePathRepository;
+
+    @Mock
+    private UserBoardRepository mockUserBoardRepository;
+
+    @Mock
+    private BoardEventStore mockBoardEventStore;
+
+    private PersistedSequenceTracker persistedSequenceTracker;
+
+    private Board board;
+    private User user;
+    private final List<StrokePath> storedPaths = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        board = new Board();
+        board.setId(BOARD_ID);
+        user = new User();
+        user.setId(USER_ID);
+        when(mockUserBoardRepository.findUserBoardByBoardIdAndUserId(BOARD_ID, USER_ID)).thenReturn(new UserBoard());
+        when(mockStrokePathRepository.findAllInViewport(eq(BOARD_ID), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> storedPaths.stream().map(StrokePathRow::of).toList());
+        when(mockBoardEventStore.lastSequence(BOARD_ID)).thenReturn(LAST_SEQUENCE);
+        // Boards without stored sequence numbers are trusted to be complete.
+        when(mockStrokePathRepository.findMaxLastSeq(any())).thenReturn(null);
+        persistedSequenceTracker = new PersistedSequenceTracker(mockStrokePathRepository, 600_000L);
+        boardTileService = new BoardTileService(mockStrokePathRepository, mockUserBoardRepository,
+                mockBoardEventStore, persistedSequenceTracker, new SimpleMeterRegistry(), MAX_ZOOM, MAX_INDEX, 1 << 20, VIEWPORT_MARGIN);
+    }
+
+    private StrokePath path(final DrawingTool tool, final String color, final double... xy) {
+        final StrokePath path = new StrokePath();
+        path.setBoard(board);
+        path.setUser(user);
+        path.setStrokeId("stroke-" + storedPaths.size());
+        path.setTool(tool);
+        path.setColor(color);
+        path.setThickness(10L);
+        path.setEnded(true);
+        path.setPoints(xy);
+        return path;
+    }
+
+    private StrokePath store(final DrawingTool tool, final String color, final double... xy) {
+        final StrokePath path = path(tool, color, xy);
+        storedPaths.add(path);
+        return path;
+    }
+
+    private static BufferedImage decode(final byte[] png) throws IOException {
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(image);
+        assertEquals(BoardTileService.TILE_SIZE, image.getWidth());
+        assertEquals(BoardTileService.TILE_SIZE, image.getHeight());
+        return image;
+    }
+
+    private static int alpha(final BufferedImage image, final int x, final int y) {
+        return image.getRGB(x, y) >>> 24;
+    }
+
+    @DisplayName("Strokes are drawn in their colour on the tiles they cross, other tiles stay transparent")
+    @Test
+    void strokesAreRenderedOntoTheirTiles() throws IOException {
+        store(DrawingTool.PEN, "#ff0000", 10, 10, 100, 10);
+
+        final BufferedImage tile = decode(boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).png());
+        final BufferedImage empty = decode(boardTileService.getTile(BOARD_ID, MAX_ZOOM, 1, 1, user).png());
+
+        assertEquals(0xffff0000, tile.getRGB(50, 10));
+        assertEquals(0, alpha(tile, 50, 100));
+        assertEquals(0, alpha(empty, 10, 10));
+    }
+
+    @DisplayName("Lower zoom levels cover more of the board at a smaller scale")
+    @Test
+    void lowerZoomLevelsAreScaledDown() throws IOException {
+        // board (600, 600) is in tile 2/2/2 at native scale and at pixel (150, 150) of tile 0/0/0
+        store(DrawingTool.PEN, "#0000ff", 590, 600, 610, 600);
+
+        final BufferedImage overview = decode(boardTileService.getTile(BOARD_ID, 0, 0, 0, user).png());
+
+        assertTrue(alpha(overview, 150, 150) > 0);
+        assertEquals(0, alpha(overview, 10, 10));
+        verify(mockStrokePathRepository).findAllInViewport(BOARD_ID, -VIEWPORT_MARGIN, -VIEWPORT_MARGIN,
+                1024 + VIEWPORT_MARGIN, 1024 + VIEWPORT_MARGIN);
+    }
+
+    @DisplayName("Eraser strokes clear what is below them and hand strokes are not drawn")
+    @Test
+    void eraserClearsAndHandIsSkipped() throws IOException {
+        store(DrawingTool.PEN, "#000000", 10, 50, 200, 50);
+        store(DrawingTool.ERASER, null, 100, 40, 100, 60);
+        store(DrawingTool.HAND, "#000000", 10, 150, 200, 150);
+
+        final BufferedImage tile = decode(boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).png());
+
+        assertEquals(255, alpha(tile, 30, 50));
+        assertEquals(0, alpha(tile, 100, 50));
+        assertEquals(0, alpha(tile, 30, 150));
+    }
+
+    @DisplayName("Tiles are cached and only the tiles a written stroke touches are rendered again")
+    @Test
+    void writtenStrokesInvalidateOnlyTouchedTiles() throws IOException {
+        store(DrawingTool.PEN, "#000000", 10, 10, 20, 20);
+        boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user);
+        boardTileService.getTile(BOARD_ID, MAX_ZOOM, 3, 3, user);
+        boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user);
+        verify(mockStrokePathRepository, times(2)).findAllInViewport(eq(BOARD_ID), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+
+        final StrokePath added = store(DrawingTool.PEN, "#00ff00", 50, 200, 60, 200);
+        boardTileService.invalidate(List.of(added));
+        final BufferedImage updated = decode(boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).png());
+        boardTileService.getTile(BOARD_ID, MAX_ZOOM, 3, 3, user);
+
+        verify(mockStrokePathRepository, times(3)).findAllInViewport(eq(BOARD_ID), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        assertEquals(0xff00ff00, updated.getRGB(55, 200));
+    }
+
+    @DisplayName("Tiles report the sequence number up to which the board's events are persisted")
+    @Test
+    void tilesReportTheSequenceTheyCover() {
+        store(DrawingTool.PEN, "#000000", 10, 10, 20, 20);
+        assertEquals(LAST_SEQUENCE, boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).sequence());
+
+        final long token = persistedSequenceTracker.beginAppend(BOARD_ID);
+        persistedSequenceTracker.appended(BOARD_ID, token, 16L, LAST_SEQUENCE);
+        persistedSequenceTracker.written(BOARD_ID, 16L, 17L);
+        assertEquals(17L, boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).sequence());
+
+        persistedSequenceTracker.written(BOARD_ID, 18L, 19L, 20L);
+        assertEquals(LAST_SEQUENCE, boardTileService.getTile(BOARD_ID, MAX_ZOOM, 0, 0, user).sequence());
+    }
+
+    @DisplayName("Tiles out of range and requests from non-members are rejected")
+    @Test
+    void invalidTileOrNonMemberIsRejected() {
+        final User stranger = new User();
+        stranger.setId(42L);
+
+        assertThrows(IllegalArgumentException.class, () -> boardTileService.getTile(BOARD_ID, MAX_ZOOM + 1, 0, 0, user));
+        assertThrows(IllegalArgumentException.class, () -> boardTileService.getTile(BOARD_ID, 0, -1, 0, user));
+        assertThrows(IllegalArgumentException.class, () -> boardTileService.getTile(BOARD_ID, 0, 0, MAX_INDEX, user));
+        assertThrows(IllegalArgumentException.class, () -> boardTileService.getTile(BOARD_ID, 0, 0, 0, stranger));
+        verifyNoInteractions(mockStrokePathRepository);
+    }
+}
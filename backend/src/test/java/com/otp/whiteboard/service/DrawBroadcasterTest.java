@@ -0,0 +1,200 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.codec.DrawMessageCodec;
+import com.otp.whiteboard.codec.DrawMessageConverter;
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.DrawFrameDto;
+import com.otp.whiteboard.enums.BroadcastMode;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.listener.TopicSubscriptionTracker;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DrawBroadcasterTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DrawBroadcasterTest.class);
+
+    private DrawBroadcaster drawBroadcaster;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long OTHER_BOARD_ID = 2L;
+    private static final long TICK_MILLIS = 16L;
+
+    @Mock
+    private SimpMessagingTemplate mockMessagingTemplate;
+
+    @Mock
+    private TopicSubscriptionTracker mockTopicSubscriptionTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        drawBroadcaster = new DrawBroadcaster(mockMessagingTemplate, mockTopicSubscriptionTracker, meterRegistry, BroadcastMode.COALESCED, TICK_MILLIS);
+        when(mockTopicSubscriptionTracker.hasSubscribers(DrawBroadcaster.FRAME_DESTINATION)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        drawBroadcaster.shutdown();
+    }
+
+    private DrawDto event(final String id, final Long boardId) {
+        return new DrawDto(id, boardId, "Test User", System.currentTimeMillis(), DrawEventType.DRAW,
+                DrawingTool.PEN, 1.0, 2.0, 3L, "#000000", "stroke-1");
+    }
+
+    @DisplayName("Immediate mode leaves broadcasting to the caller")
+    @Test
+    void immediateModeDoesNotCoalesce() {
+        drawBroadcaster = new DrawBroadcaster(mockMessagingTemplate, mockTopicSubscriptionTracker, meterRegistry, BroadcastMode.IMMEDIATE, TICK_MILLIS);
+
+        assertFalse(drawBroadcaster.coalesce(event("event-1", BOARD_ID)));
+        drawBroadcaster.flush();
+
+        verifyNoInteractions(mockMessagingTemplate);
+    }
+
+    @DisplayName("Events of a tick are sent as one frame per board, in the order they were received")
+    @Test
+    void eventsAreSentAsOneFramePerBoard() {
+        final DrawDto first = event("event-1", BOARD_ID);
+        final DrawDto second = event("event-2", BOARD_ID);
+        final DrawDto other = event("event-3", OTHER_BOARD_ID);
+        assertTrue(drawBroadcaster.coalesce(first));
+        assertTrue(drawBroadcaster.coalesce(other));
+        assertTrue(drawBroadcaster.coalesce(second));
+
+        drawBroadcaster.flush();
+
+        final ArgumentCaptor<DrawFrameDto> frames = ArgumentCaptor.forClass(DrawFrameDto.class);
+        verify(mockMessagingTemplate, times(2)).convertAndSend(eq(DrawBroadcaster.FRAME_DESTINATION), frames.capture());
+        final DrawFrameDto boardFrame = frames.getAllValues().stream()
+                .filter(frame -> frame.boardId().equals(BOARD_ID)).findFirst().orElseThrow();
+        assertEquals(List.of(first, second), boardFrame.events());
+        assertEquals(3, meterRegistry.get("whiteboard.draw.broadcast.delay").timer().count());
+        assertEquals(2, meterRegistry.get("whiteboard.draw.broadcast.frame_size").summary().count());
+    }
+
+    @DisplayName("A tick without new events sends nothing")
+    @Test
+    void emptyTickSendsNothing() {
+        drawBroadcaster.coalesce(event("event-1", BOARD_ID));
+        drawBroadcaster.flush();
+
+        drawBroadcaster.flush();
+
+        verify(mockMessagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @DisplayName("Latency trade-off: with the ticker running, events are held back for about one tick at most")
+    @Test
+    void delayIsBoundedByTick() throws InterruptedException {
+        drawBroadcaster.start();
+        for (int i = 0; i < 50; i++) {
+            drawBroadcaster.coalesce(event("event-" + i, BOARD_ID));
+            Thread.sleep(2);
+        }
+        drawBroadcaster.shutdown();
+
+        final Timer delay = meterRegistry.get("whiteboard.draw.broadcast.delay").timer();
+        final double frames = meterRegistry.get("whiteboard.draw.broadcast.frame_size").summary().count();
+        LOGGER.info("Coalesced 50 events into {} frames, mean delay {} ms, max delay {} ms", frames,
+                delay.mean(TimeUnit.MILLISECONDS), delay.max(TimeUnit.MILLISECONDS));
+        assertEquals(50, delay.count());
+        assertTrue(frames < 50, "events should share frames");
+        // Generous bound so a loaded CI machine does not make the test flaky.
+        assertTrue(delay.mean(TimeUnit.MILLISECONDS) < TICK_MILLIS * 5);
+    }
+
+    @DisplayName("A failed send does not stop later frames")
+    @Test
+    void failedSendIsSkipped() {
+        doThrow(new RuntimeException("Broker down")).doNothing()
+                .when(mockMessagingTemplate).convertAndSend(anyString(), any(Object.class));
+        drawBroadcaster.coalesce(event("event-1", BOARD_ID));
+        drawBroadcaster.flush();
+
+        drawBroadcaster.coalesce(event("event-2", BOARD_ID));
+        drawBroadcaster.flush();
+
+        verify(mockMessagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        assertEquals(1, meterRegistry.get("whiteboard.draw.broadcast.delay").timer().count());
+    }
+
+    @DisplayName("A topic without subscribers is not serialized in any format")
+    @Test
+    void nothingIsSentWithoutSubscribers() {
+        drawBroadcaster.broadcast("/topic/draw", event("event-1", BOARD_ID));
+
+        verifyNoInteractions(mockMessagingTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    @DisplayName("Binary-only subscribers receive the encoded payload with the binary content type, and no JSON")
+    @Test
+    void binaryCopyIsSentToSubscribers() {
+        when(mockTopicSubscriptionTracker.hasSubscribers("/topic/draw.bin")).thenReturn(true);
+        final DrawDto event = event("event-1", BOARD_ID);
+
+        drawBroadcaster.broadcast("/topic/draw", event);
+
+        final ArgumentCaptor<Message<?>> message = ArgumentCaptor.forClass(Message.class);
+        verify(mockMessagingTemplate).send(eq("/topic/draw.bin"), message.capture());
+        assertEquals(event, DrawMessageCodec.decode((byte[]) message.getValue().getPayload()));
+        assertEquals(DrawMessageConverter.DRAW_BINARY,
+                message.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        verify(mockMessagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @DisplayName("JSON-only subscribers receive the payload without a binary copy being encoded")
+    @Test
+    void jsonIsSentToSubscribers() {
+        when(mockTopicSubscriptionTracker.hasSubscribers("/topic/draw")).thenReturn(true);
+        final DrawDto event = event("event-1", BOARD_ID);
+
+        drawBroadcaster.broadcast("/topic/draw", event);
+
+        verify(mockMessagingTemplate).convertAndSend("/topic/draw", event);
+        verify(mockMessagingTemplate, never()).send(anyString(), any());
+    }
+
+    @DisplayName("Coalesced frames are also sent to binary subscribers")
+    @Test
+    void framesAreMirroredToBinarySubscribers() {
+        when(mockTopicSubscriptionTracker.hasSubscribers(DrawBroadcaster.FRAME_DESTINATION + ".bin")).thenReturn(true);
+        drawBroadcaster.coalesce(event("event-1", BOARD_ID));
+
+        drawBroadcaster.flush();
+
+        verify(mockMessagingTemplate).convertAndSend(eq(DrawBroadcaster.FRAME_DESTINATION), any(DrawFrameDto.class));
+        verify(mockMessagingTemplate).send(eq(DrawBroadcaster.FRAME_DESTINATION + ".bin"), any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.otp.whiteboard.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawEventDeduplicatorTest {
+    private static final Long BOARD_ID = 1L;
+    private static final Long OTHER_BOARD_ID = 2L;
+    private static final int WINDOW_SIZE = 3;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DrawEventDeduplicator deduplicator;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new DrawEventDeduplicator(meterRegistry, WINDOW_SIZE, 100L, 60_000L);
+    }
+
+    @DisplayName("An event id is accepted once per board and counted as a duplicate afterwards")
+    @Test
+    void eventIdIsAcceptedOncePerBoard() {
+        assertTrue(deduplicator.firstSeen(BOARD_ID, "event-1"));
+        assertFalse(deduplicator.firstSeen(BOARD_ID, "event-1"));
+        assertTrue(deduplicator.firstSeen(OTHER_BOARD_ID, "event-1"));
+
+        assertEquals(1, deduplicator.getDuplicateCount());
+        assertEquals(1.0, meterRegistry.get("whiteboard.draw.duplicates").counter().count());
+    }
+
+    @DisplayName("The window keeps the most recently seen ids of a board")
+    @Test
+    void leastRecentlySeenIdIsEvicted() {
+        deduplicator.firstSeen(BOARD_ID, "event-1");
+        deduplicator.firstSeen(BOARD_ID, "event-2");
+        deduplicator.firstSeen(BOARD_ID, "event-3");
+        // seeing event-1 again makes event-2 the least recently seen
+        assertFalse(deduplicator.firstSeen(BOARD_ID, "event-1"));
+        deduplicator.firstSeen(BOARD_ID, "event-4");
+
+        assertFalse(deduplicator.firstSeen(BOARD_ID, "event-1"));
+        assertTrue(deduplicator.firstSeen(BOARD_ID, "event-2"));
+    }
+
+    @DisplayName("Forgotten ids and events without an id are always accepted")
+    @Test
+    void forgottenAndMissingIdsAreAccepted() {
+        deduplicator.firstSeen(BOARD_ID, "event-1");
+        deduplicator.forget(BOARD_ID, "event-1");
+        deduplicator.forget(OTHER_BOARD_ID, "event-1");
+        deduplicator.forget(BOARD_ID, null);
+
+        assertTrue(deduplicator.firstSeen(BOARD_ID, "event-1"));
+        assertTrue(deduplicator.firstSeen(BOARD_ID, null));
+        assertTrue(deduplicator.firstSeen(BOARD_ID, null));
+        assertEquals(0, deduplicator.getDuplicateCount());
+    }
+
+    @DisplayName("A window without room for any id is rejected")
+    @Test
+    void emptyWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new DrawEventDeduplicator(meterRegistry, 0, 100L, 60_000L));
+    }
+}
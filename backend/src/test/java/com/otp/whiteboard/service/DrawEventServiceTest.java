@@ -1,34 +1,54 @@
 package com.otp.whiteboard.service;
 
+import com.otp.whiteboard.codec.DrawDtoRedisSerializer;
+import com.otp.whiteboard.dto.drawing.BoardSnapshotDto;
 import com.otp.whiteboard.dto.drawing.CursorDto;
+import com.otp.whiteboard.dto.drawing.DrawBatchDto;
 import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
 import com.otp.whiteboard.enums.DrawEventType;
 import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.enums.HistoryOrder;
 import com.otp.whiteboard.model.Board;
 import com.otp.whiteboard.model.Stroke;
 import com.otp.whiteboard.model.User;
-import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.repository.StoredHistoryReader;
+import com.otp.whiteboard.repository.StrokeEventRow;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import com.otp.whiteboard.repository.StrokePathRow;
 import com.otp.whiteboard.repository.StrokeRepository;
-import com.otp.whiteboard.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.ListOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
-import java.time.Duration;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -41,23 +61,30 @@ class DrawEventServiceTest {
     private static final String USER_NAME = "Test User";
     private static final String USER_PHOTO_URL = "http://example.com/photo.jpg";
     private static final Long BOARD_ID = 1L;
-    private static final Long NON_EXISTENT_BOARD_ID = 999L;
     private static final String BOARD_NAME = "Test Board";
     private static final String STROKE_COLOR = "#000000";
     private static final long STROKE_THICKNESS = 5L;
     private static final double X_COORD = 100.0;
     private static final double Y_COORD = 150.0;
+    private static final int MAX_BATCH_POINTS = 3;
+    private static final int HISTORY_PAGE_SIZE = 2;
+    private static final int HISTORY_MAX_PAGE_SIZE = 4;
+    private static final double VIEWPORT_MARGIN = 10.0;
+    private static final int SINCE_MAX_EVENTS = 100;
 
     private static final String DRAWING_CHANNEL_PREFIX = "drawing-session-";
     private static final String CURSOR_CHANNEL_PREFIX = "cursor-session-";
 
     private static final String CURSOR_EVENTS_PREFIX = "cursor-events";
     private static final String DRAWING_EVENTS_PREFIX = "drawing-events-board-";
+    private static final String DRAWING_SEQUENCE_PREFIX = "drawing-seq-board-";
     @Mock
-    RedisTemplate<String, Object> mockRedisTemplate;
+    RedisTemplate<String, DrawDto> mockRedisTemplate;
 
     @Mock
-    ListOperations<String, Object> mockListOperations;
+    ListOperations<String, DrawDto> mockListOperations;
+
+    private final DrawDtoRedisSerializer historySerializer = new DrawDtoRedisSerializer();
 
     @Mock
     ChannelTopic drawTopic;
@@ -69,10 +96,23 @@ class DrawEventServiceTest {
     StrokeRepository mockStrokeRepository;
 
     @Mock
-    UserRepository mockUserRepository;
+    StrokePathRepository mockStrokePathRepository;
+
+    @Mock
+    RedisEventPublisher mockRedisEventPublisher;
+
+    @Mock
+    DrawIngestPipeline mockDrawIngestPipeline;
+
+    private DrawEventDeduplicator drawEventDeduplicator;
+
+    private PersistedSequenceTracker persistedSequenceTracker;
 
     @Mock
-    BoardRepository mockBoardRepository;
+    BoardSnapshotService mockBoardSnapshotService;
+
+    @Mock
+    HistoryRehydrator mockHistoryRehydrator;
 
     private User testUser;
     private Board testBoard;
@@ -131,123 +171,211 @@ class DrawEventServiceTest {
     }
 
     void setupMocks() {
-
-        when(mockBoardRepository.findById(BOARD_ID)).thenReturn(Optional.of(testBoard));
-        when(mockUserRepository.findUserByDisplayName(USER_NAME)).thenReturn(Optional.of(testUser));
         when(mockRedisTemplate.opsForList()).thenReturn(mockListOperations);
+        when(mockDrawIngestPipeline.tryReserve(any())).thenReturn(true);
 
-        when(mockListOperations.rightPush(eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(testEvent)))
-                .thenReturn(1L);
-        when(mockListOperations.rightPush(eq(CURSOR_EVENTS_PREFIX + USER_PHOTO_URL), eq(testCursor)))
-                .thenReturn(1L);
-
-        when(mockBoardRepository.findById(NON_EXISTENT_BOARD_ID)).thenReturn(Optional.empty());
+        doReturn(historySerializer).when(mockRedisTemplate).getValueSerializer();
+        when(mockHistoryRehydrator.load(any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<List<DrawDto>>>getArgument(3).get());
     }
 
     void setupTestTarget() {
-        drawEventService = new DrawEventService(
-                mockRedisTemplate,
+        drawEventDeduplicator = new DrawEventDeduplicator(new SimpleMeterRegistry(), 100, 100, 60_000L);
+        // Boards without stored sequence numbers are trusted to be complete.
+        when(mockStrokePathRepository.findMaxLastSeq(any())).thenReturn(null);
+        persistedSequenceTracker = new PersistedSequenceTracker(mockStrokePathRepository, 600_000L);
+        drawEventService = newService(
+                new RedisBoardEventStore(mockRedisTemplate, mockRedisEventPublisher, mockHistoryRehydrator));
+    }
+
+    private DrawEventService newService(final BoardEventStore boardEventStore) {
+        return new DrawEventService(
+                boardEventStore,
                 mockStrokeRepository,
-                mockUserRepository,
-                mockBoardRepository
+                mockStrokePathRepository,
+                new StoredHistoryReader(mockStrokeRepository, mockStrokePathRepository),
+                mockRedisEventPublisher,
+                mockDrawIngestPipeline,
+                drawEventDeduplicator,
+                mockBoardSnapshotService,
+                persistedSequenceTracker,
+                new SimpleMeterRegistry(),
+                MAX_BATCH_POINTS,
+                HISTORY_PAGE_SIZE,
+                HISTORY_MAX_PAGE_SIZE,
+                VIEWPORT_MARGIN,
+                SINCE_MAX_EVENTS
         );
     }
 
-    @DisplayName("As user draws on board, draw event is published to Redis and saved to DB")
+    @DisplayName("As user draws on board, draw event is published to Redis and then queued for persistence")
     @Test
     void publishDrawEvent() {
         // given
         DrawDto drawDto = testEvent;
+        when(mockRedisEventPublisher.publishAndAppendSequenced(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new RedisEventPublisher.Appended(3L, 11L));
+        when(mockDrawIngestPipeline.submit(drawDto.withSeq(11L))).thenReturn(true);
         // when
-        drawEventService.publishDrawEvent(drawDto);
+        final DrawDto accepted = drawEventService.publishDrawEvent(drawDto);
         // then
-        // Redis interactions
-        verify(mockRedisTemplate).convertAndSend(
-                eq(DRAWING_CHANNEL_PREFIX + BOARD_ID), eq(drawDto));
-        verify(mockRedisTemplate.opsForList()).rightPush(
-                eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(drawDto));
-        verify(mockRedisTemplate).expire(
-                eq(DRAWING_EVENTS_PREFIX + BOARD_ID), any(Duration.class));
-
-        // DB persistence
-        verify(mockStrokeRepository).save(any(Stroke.class));
-        verify(mockBoardRepository).save(testBoard);
+        assertEquals(drawDto.withSeq(11L), accepted);
+        assertEquals(10L, persistedSequenceTracker.persistedThrough(BOARD_ID, 11L));
+        final InOrder inOrder = inOrder(mockRedisEventPublisher, mockDrawIngestPipeline);
+        inOrder.verify(mockRedisEventPublisher).publishAndAppendSequenced(DRAWING_CHANNEL_PREFIX + BOARD_ID,
+                DRAWING_EVENTS_PREFIX + BOARD_ID, DRAWING_SEQUENCE_PREFIX + BOARD_ID, drawDto, List.of(drawDto),
+                historySerializer);
+        inOrder.verify(mockDrawIngestPipeline).submit(drawDto.withSeq(11L));
+        // DB persistence happens off the caller thread
+        verify(mockStrokeRepository, never()).save(any(Stroke.class));
     }
 
-    @DisplayName("As user draws on board, but board not found, event is published to Redis but NOT saved to DB")
+    @DisplayName("A board's stored history is loaded into a store that needs it before the first event is appended")
     @Test
-    void publishDrawEventNoBoard() {
+    void storedHistoryIsLoadedBeforeTheFirstAppend(@TempDir final Path directory) {
         // given
-        DrawDto testEvent2 = new DrawDto(
-                "event2",
-                NON_EXISTENT_BOARD_ID,
-                USER_NAME,
-                System.currentTimeMillis(),
-                DrawEventType.DRAW,
-                DrawingTool.PEN,
-                X_COORD,
-                Y_COORD,
-                STROKE_THICKNESS,
-                STROKE_COLOR,
-                "stroke2"
-        );
-        when(mockListOperations.rightPush(eq(DRAWING_EVENTS_PREFIX + NON_EXISTENT_BOARD_ID), eq(testEvent2)))
-                .thenReturn(1L);
-        // when & then
+        final MappedBoardEventStore store = new MappedBoardEventStore(directory, 256, false, 60_000L);
         try {
-            drawEventService.publishDrawEvent(testEvent2);
-        } catch (Exception e) {
-            verify(mockRedisTemplate).convertAndSend(
-                    eq(DRAWING_CHANNEL_PREFIX + NON_EXISTENT_BOARD_ID), eq(testEvent2));
-            verify(mockRedisTemplate.opsForList()).rightPush(
-                    eq(DRAWING_EVENTS_PREFIX + NON_EXISTENT_BOARD_ID), eq(testEvent2));
-            verify(mockRedisTemplate).expire(
-                    eq(DRAWING_EVENTS_PREFIX + NON_EXISTENT_BOARD_ID), any(Duration.class));
-            verify(mockStrokeRepository, never()).save(any(Stroke.class));
-            verify(mockBoardRepository, never()).save(any(Board.class));
-            assertEquals("Board not found: " + testEvent2.boardId(), e.getMessage());
-            return;
+            final DrawEventService service = newService(store);
+            givenStoredRows(List.of(testStroke), List.of());
+            // when
+            final DrawDto accepted = service.publishDrawEvent(testEvent);
+            service.publishDrawEvent(new DrawDto("event2", BOARD_ID, USER_NAME, 2000L, DrawEventType.DRAW,
+                    DrawingTool.PEN, 1, 2, STROKE_THICKNESS, STROKE_COLOR, "stroke1"));
+            // then
+            assertEquals(2L, accepted.seq());
+            assertEquals(3, store.size(BOARD_ID));
+            assertEquals(testStroke.getId().toString(), store.range(BOARD_ID, 0, 0).get(0).id());
+            verify(mockStrokeRepository, times(1)).streamEventRowsByBoardId(BOARD_ID);
+        } finally {
+            store.close();
         }
-        fail("Expected exception was not thrown");
     }
 
-    @DisplayName("As user draws on board, but user not found, event is published to Redis but NOT saved to DB")
+    @DisplayName("As user draws on board, but the persistence lane is full, event is rejected before it is published")
     @Test
-    void publishDrawEventNoUser() {
+    void publishDrawEventRejectedWhenLaneIsFull() {
         // given
-        String nonExistentUser = "NonExistentUser";
-        DrawDto testEvent2 = new DrawDto(
-                "event2",
-                BOARD_ID,
-                nonExistentUser,
-                System.currentTimeMillis(),
-                DrawEventType.DRAW,
-                DrawingTool.PEN,
-                X_COORD,
-                Y_COORD,
-                STROKE_THICKNESS,
-                STROKE_COLOR,
-                "stroke2"
-        );
-        when(mockUserRepository.findUserByDisplayName(nonExistentUser)).thenReturn(Optional.empty());
-        when(mockListOperations.rightPush(eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(testEvent2)))
-                .thenReturn(1L);
-        // when & then
-        try {
-            drawEventService.publishDrawEvent(testEvent2);
-        } catch (Exception e) {
-            verify(mockRedisTemplate).convertAndSend(
-                    eq(DRAWING_CHANNEL_PREFIX + BOARD_ID), eq(testEvent2));
-            verify(mockRedisTemplate.opsForList()).rightPush(
-                    eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(testEvent2));
-            verify(mockRedisTemplate).expire(
-                    eq(DRAWING_EVENTS_PREFIX + BOARD_ID), any(Duration.class));
-            verify(mockStrokeRepository, never()).save(any(Stroke.class));
-            verify(mockBoardRepository, never()).save(any(Board.class));
-            assertEquals("User not found: " + testEvent2.displayName(), e.getMessage());
-            return;
+        when(mockDrawIngestPipeline.tryReserve(BOARD_ID)).thenReturn(false).thenReturn(true);
+        when(mockRedisEventPublisher.publishAndAppendSequenced(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new RedisEventPublisher.Appended(1L, 5L));
+        // when
+        final IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> drawEventService.publishDrawEvent(testEvent));
+        // then
+        assertTrue(rejected.getMessage().contains(testEvent.id()));
+        verify(mockRedisEventPublisher, never()).publishAndAppendSequenced(any(), any(), any(), any(), any(), any());
+        verify(mockDrawIngestPipeline, never()).submit(any());
+        assertEquals(testEvent.withSeq(5L), drawEventService.publishDrawEvent(testEvent));
+        verify(mockDrawIngestPipeline).submit(testEvent.withSeq(5L));
+    }
+
+    @DisplayName("A draw event whose append failed is not queued, and its resend is accepted")
+    @Test
+    void publishDrawEventAppendFailure() {
+        // given
+        when(mockRedisEventPublisher.publishAndAppendSequenced(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("Redis down"))
+                .thenReturn(new RedisEventPublisher.Appended(1L, 5L));
+        // when
+        assertThrows(RedisConnectionFailureException.class, () -> drawEventService.publishDrawEvent(testEvent));
+        verify(mockDrawIngestPipeline, never()).submit(any());
+        verify(mockDrawIngestPipeline).cancelReservation(BOARD_ID);
+        final DrawDto accepted = drawEventService.publishDrawEvent(testEvent);
+        // then
+        assertEquals(testEvent.withSeq(5L), accepted);
+        verify(mockDrawIngestPipeline, times(1)).submit(testEvent.withSeq(5L));
+        assertEquals(0, drawEventDeduplicator.getDuplicateCount());
+        assertEquals(4L, persistedSequenceTracker.persistedThrough(BOARD_ID, 5L));
+    }
+
+    @DisplayName("A resent draw event is dropped before it is queued or published")
+    @Test
+    void publishDrawEventDuplicate() {
+        // given
+        drawEventService.publishDrawEvent(testEvent);
+        // when
+        final DrawDto accepted = drawEventService.publishDrawEvent(testEvent);
+        // then
+        assertNull(accepted);
+        verify(mockDrawIngestPipeline, times(1)).submit(testEvent);
+        verify(mockRedisEventPublisher, times(1)).publishAndAppendSequenced(any(), any(), any(), any(), any(), any());
+        assertEquals(1, drawEventDeduplicator.getDuplicateCount());
+    }
+
+    @DisplayName("A batch of points is queued and published as one unit and kept as point events in the history")
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishDrawBatch() {
+        // given
+        final DrawBatchDto batch = new DrawBatchDto("batch1", BOARD_ID, USER_NAME, 1000L, "stroke1",
+                DrawingTool.PEN, STROKE_COLOR, STROKE_THICKNESS, true, true, new double[]{1, 2, 3, 4, 5, 6});
+        final ArgumentCaptor<List<DrawDto>> events = ArgumentCaptor.forClass(List.class);
+        final ArgumentCaptor<List<DrawDto>> stored = ArgumentCaptor.forClass(List.class);
+        when(mockRedisEventPublisher.publishAndAppendSequenced(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new RedisEventPublisher.Appended(3L, 12L));
+        // when
+        final DrawBatchDto accepted = drawEventService.publishDrawBatch(batch);
+        // then
+        assertEquals(12L, accepted.seq());
+        verify(mockDrawIngestPipeline).submitAll(eq(BOARD_ID), events.capture());
+        verify(mockDrawIngestPipeline, never()).submit(any());
+        verify(mockRedisEventPublisher).publishAndAppendSequenced(eq(DRAWING_CHANNEL_PREFIX + BOARD_ID),
+                eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(DRAWING_SEQUENCE_PREFIX + BOARD_ID), eq(batch),
+                stored.capture(), eq(historySerializer));
+        final List<DrawDto> expanded = events.getValue();
+        assertEquals(stored.getValue().stream().map(DrawDto::id).toList(), expanded.stream().map(DrawDto::id).toList());
+        assertEquals(List.of(10L, 11L, 12L), expanded.stream().map(DrawDto::seq).toList());
+        assertEquals(9L, persistedSequenceTracker.persistedThrough(BOARD_ID, 12L));
+        assertEquals(3, expanded.size());
+        assertEquals(DrawEventType.START, expanded.get(0).type());
+        assertEquals(DrawEventType.DRAW, expanded.get(1).type());
+        assertEquals(DrawEventType.END, expanded.get(2).type());
+        assertEquals(3.0, expanded.get(1).x());
+        assertEquals(4.0, expanded.get(1).y());
+        assertEquals("batch1-2", expanded.get(2).id());
+        assertEquals(1002L, expanded.get(2).timestamp());
+        assertEquals(STROKE_COLOR, expanded.get(2).brushColor());
+        assertEquals("stroke1", expanded.get(2).strokeId());
+    }
+
+    @DisplayName("A batch in the middle of a stroke contains only DRAW events")
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishDrawBatchMiddleOfStroke() {
+        final DrawBatchDto batch = new DrawBatchDto("batch2", BOARD_ID, USER_NAME, 1000L, "stroke1",
+                DrawingTool.PEN, STROKE_COLOR, STROKE_THICKNESS, false, false, new double[]{1, 2, 3, 4});
+        final ArgumentCaptor<List<DrawDto>> events = ArgumentCaptor.forClass(List.class);
+
+        drawEventService.publishDrawBatch(batch);
+
+        verify(mockDrawIngestPipeline).submitAll(eq(BOARD_ID), events.capture());
+        assertTrue(events.getValue().stream().allMatch(e -> e.type() == DrawEventType.DRAW));
+    }
+
+    @DisplayName("A resent batch is dropped before it is queued or published")
+    @Test
+    void publishDrawBatchDuplicate() {
+        final DrawBatchDto batch = new DrawBatchDto("batch4", BOARD_ID, USER_NAME, 1000L, "stroke1",
+                DrawingTool.PEN, STROKE_COLOR, STROKE_THICKNESS, false, false, new double[]{1, 2, 3, 4});
+
+        assertNotNull(drawEventService.publishDrawBatch(batch));
+        assertNull(drawEventService.publishDrawBatch(batch));
+
+        verify(mockDrawIngestPipeline, times(1)).submitAll(eq(BOARD_ID), anyList());
+        verify(mockRedisEventPublisher, times(1)).publishAndAppendSequenced(any(), any(), any(), any(), any(), any());
+    }
+
+    @DisplayName("Malformed or oversized batches are rejected before anything is queued or published")
+    @Test
+    void publishDrawBatchInvalid() {
+        final double[][] invalidPoints = {new double[0], new double[]{1, 2, 3}, new double[]{1, 2, 3, 4, 5, 6, 7, 8}};
+        for (final double[] points : invalidPoints) {
+            final DrawBatchDto batch = new DrawBatchDto("batch3", BOARD_ID, USER_NAME, 1000L, "stroke1",
+                    DrawingTool.PEN, STROKE_COLOR, STROKE_THICKNESS, true, true, points);
+            assertThrows(IllegalArgumentException.class, () -> drawEventService.publishDrawBatch(batch));
         }
-        fail("Expected exception was not thrown");
+        verifyNoInteractions(mockDrawIngestPipeline, mockRedisEventPublisher);
     }
 
     @DisplayName("As user moves cursor on board, cursor event is published to Redis")
@@ -258,12 +386,9 @@ class DrawEventServiceTest {
         // when
         drawEventService.publishCursorEvent(cursorEvent);
         // then
-        verify(mockRedisTemplate).convertAndSend(
-                eq(CURSOR_CHANNEL_PREFIX + USER_NAME), eq(cursorEvent));
-        verify(mockRedisTemplate.opsForList()).rightPush(
-                eq(CURSOR_EVENTS_PREFIX + USER_NAME), eq(cursorEvent));
-        verify(mockRedisTemplate).expire(
-                eq(CURSOR_EVENTS_PREFIX + USER_NAME), any(Duration.class));
+        verify(mockRedisEventPublisher).publishAndAppend(
+                CURSOR_CHANNEL_PREFIX + USER_NAME, CURSOR_EVENTS_PREFIX + USER_NAME, cursorEvent);
+        verify(mockRedisTemplate, never()).convertAndSend(any(), any());
     }
 
     @DisplayName("Get board strokes from Redis cache")
@@ -293,7 +418,7 @@ class DrawEventServiceTest {
         assertEquals(1, strokes.size());
         assertEquals(cachedDto, strokes.get(0));
 
-        verify(mockStrokeRepository, never()).findAllByBoardId(any());
+        verify(mockStrokeRepository, never()).streamEventRowsByBoardId(any());
     }
 
     @DisplayName("Get strokes from DB when cache is empty")
@@ -303,30 +428,42 @@ class DrawEventServiceTest {
         when(mockRedisTemplate.opsForList()).thenReturn(mockListOperations);
         when(mockListOperations.range(DRAWING_EVENTS_PREFIX + BOARD_ID, 0, -1))
                 .thenReturn(null);
-        when(mockStrokeRepository.findAllByBoardId(BOARD_ID))
-                .thenReturn(List.of(testStroke));
+        givenStoredRows(List.of(testStroke), List.of());
 
         //Then
         final List<DrawDto> strokes = drawEventService.getBoardStrokes(BOARD_ID);
         assertNotNull(strokes);
         assertEquals(1, strokes.size());
 
-        verify(mockStrokeRepository).findAllByBoardId(BOARD_ID);
+        verify(mockStrokeRepository).streamEventRowsByBoardId(BOARD_ID);
+        verify(mockStrokeRepository, never()).findAllByBoardId(any());
     }
 
 
+    @DisplayName("A history miss is loaded through the rehydrator, which shares the load and writes it back")
+    @Test
+    void historyMissIsLoadedThroughRehydrator() {
+        when(mockListOperations.range(DRAWING_EVENTS_PREFIX + BOARD_ID, 0, -1)).thenReturn(List.of());
+        givenStoredRows(List.of(testStroke), List.of());
+
+        final List<DrawDto> strokes = drawEventService.getBoardStrokes(BOARD_ID);
+
+        assertEquals(1, strokes.size());
+        verify(mockHistoryRehydrator).load(eq(BOARD_ID), eq(DRAWING_EVENTS_PREFIX + BOARD_ID),
+                eq(DRAWING_SEQUENCE_PREFIX + BOARD_ID), any());
+    }
+
     @DisplayName("Get all strokes for a board from DB")
     @Test
     void getBoardStrokes() {
         // given
-        when(mockStrokeRepository.findAllByBoardId(BOARD_ID))
-                .thenReturn(java.util.List.of(testStroke));
+        givenStoredRows(List.of(testStroke), List.of());
         // when
         var strokes = drawEventService.getBoardStrokes(BOARD_ID);
         // then
         verify(mockRedisTemplate.opsForList()).range(
                 eq(DRAWING_EVENTS_PREFIX + BOARD_ID), eq(0L), eq(-1L));
-        verify(mockStrokeRepository).findAllByBoardId(BOARD_ID);
+        verify(mockStrokeRepository).streamEventRowsByBoardId(BOARD_ID);
         assertNotNull(strokes);
         assertEquals(1, strokes.size());
         DrawDto strokeDto = strokes.get(0);
@@ -340,4 +477,319 @@ class DrawEventServiceTest {
         assertEquals(testEvent.y(), strokeDto.y());
     }
 
-}
\ No newline at end of file
+
+    @DisplayName("Stored stroke paths are expanded into START, DRAW and END events when the cache is empty")
+    @Test
+    void getBoardStrokesFromStrokePaths() {
+        // given
+        final StrokePath path = new StrokePath();
+        path.setId(7L);
+        path.setBoard(testBoard);
+        path.setUser(testUser);
+        path.setStrokeId("stroke1");
+        path.setColor(STROKE_COLOR);
+        path.setThickness(STROKE_THICKNESS);
+        path.setTool(DrawingTool.PEN);
+        path.setEnded(true);
+        path.setPoints(new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0});
+        path.setCreatedAt(LocalDateTime.now());
+        givenStoredRows(List.of(), List.of(path));
+        // when
+        final List<DrawDto> strokes = drawEventService.getBoardStrokes(BOARD_ID);
+        // then
+        assertEquals(3, strokes.size());
+        assertEquals(DrawEventType.START, strokes.get(0).type());
+        assertEquals(DrawEventType.DRAW, strokes.get(1).type());
+        assertEquals(DrawEventType.END, strokes.get(2).type());
+        assertEquals(3.0, strokes.get(1).x());
+        assertEquals(6.0, strokes.get(2).y());
+        assertEquals("stroke1", strokes.get(2).strokeId());
+        assertTrue(strokes.get(0).timestamp() < strokes.get(1).timestamp());
+    }
+
+    /**
+     * Answers the history projections from in-memory rows, like the database would.
+     */
+    private void givenStoredRows(final List<Stroke> strokes, final List<StrokePath> paths) {
+        when(mockStrokeRepository.streamEventRowsByBoardId(BOARD_ID))
+                .thenAnswer(inv -> strokes.stream().map(DrawEventServiceTest::eventRow));
+        when(mockStrokePathRepository.streamRowsByBoardId(BOARD_ID))
+                .thenAnswer(inv -> paths.stream().map(StrokePathRow::of));
+    }
+
+    private static StrokeEventRow eventRow(final Stroke stroke) {
+        return new StrokeEventRow(stroke.getId(), stroke.getBoard().getId(), stroke.getUser().getDisplayName(),
+                stroke.getCreatedAt(), stroke.getType(), stroke.getTool(), stroke.getXCord(), stroke.getYCord(),
+                stroke.getThickness(), stroke.getColor());
+    }
+
+    private StrokePath storedPath(final long id, final double... points) {
+        final StrokePath path = new StrokePath();
+        path.setId(id);
+        path.setBoard(testBoard);
+        path.setUser(testUser);
+        path.setStrokeId("stroke" + id);
+        path.setTool(DrawingTool.PEN);
+        path.setEnded(true);
+        path.setPoints(points);
+        path.setCreatedAt(LocalDateTime.now());
+        return path;
+    }
+
+    /**
+     * Answers the keyset queries from in-memory rows, like the database would.
+     */
+    private void givenStoredHistory(final List<Stroke> strokes, final List<StrokePath> paths) {
+        when(mockListOperations.size(DRAWING_EVENTS_PREFIX + BOARD_ID)).thenReturn(0L);
+        when(mockStrokeRepository.findEventRowsFrom(eq(BOARD_ID), anyLong(), any()))
+                .thenAnswer(inv -> strokes.stream().filter(st -> st.getId() >= inv.<Long>getArgument(1))
+                        .sorted(Comparator.comparing(Stroke::getId))
+                        .limit(inv.<Limit>getArgument(2).max()).map(DrawEventServiceTest::eventRow).toList());
+        when(mockStrokeRepository.findEventRowsUpTo(eq(BOARD_ID), anyLong(), any()))
+                .thenAnswer(inv -> strokes.stream().filter(st -> st.getId() <= inv.<Long>getArgument(1))
+                        .sorted(Comparator.comparing(Stroke::getId).reversed())
+                        .limit(inv.<Limit>getArgument(2).max()).map(DrawEventServiceTest::eventRow).toList());
+        when(mockStrokePathRepository.findRowsFrom(eq(BOARD_ID), anyLong(), any()))
+                .thenAnswer(inv -> paths.stream().filter(path -> path.getId() >= inv.<Long>getArgument(1))
+                        .sorted(Comparator.comparing(StrokePath::getId))
+                        .limit(inv.<Limit>getArgument(2).max()).map(StrokePathRow::of).toList());
+        when(mockStrokePathRepository.findRowsUpTo(eq(BOARD_ID), anyLong(), any()))
+                .thenAnswer(inv -> paths.stream().filter(path -> path.getId() <= inv.<Long>getArgument(1))
+                        .sorted(Comparator.comparing(StrokePath::getId).reversed())
+                        .limit(inv.<Limit>getArgument(2).max()).map(StrokePathRow::of).toList());
+    }
+
+    private void givenRedisHistory(final List<DrawDto> history) {
+        givenRedisHistory(history, 1L);
+    }
+
+    /**
+     * Answers the page script like Redis would for a list whose first entry has sequence number {@code base}.
+     */
+    private void givenRedisHistory(final List<DrawDto> history, final long base) {
+        when(mockListOperations.size(DRAWING_EVENTS_PREFIX + BOARD_ID)).thenReturn((long) history.size());
+        when(mockRedisTemplate.execute(eq(RedisBoardEventStore.READ_PAGE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenAnswer(inv -> {
+                    final long from = Long.parseLong(inv.getArgument(4));
+                    final int limit = Integer.parseInt(inv.getArgument(5));
+                    final long last = base + history.size() - 1;
+                    final long first = "1".equals(inv.getArgument(6))
+                            ? Math.max(Math.min(from, last) - limit + 1, base) : Math.max(from, base);
+                    final long end = "1".equals(inv.getArgument(6))
+                            ? Math.min(from, last) : Math.min(first + limit - 1, last);
+                    return List.of(base, first, first > end ? List.of()
+                            : history.subList((int) (first - base), (int) (end - base + 1)));
+                });
+    }
+
+    private List<List<Double>> readAllPages(final HistoryOrder order, final Integer limit) {
+        final List<List<Double>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            final HistoryPageDto page = drawEventService.getBoardHistory(BOARD_ID, limit, cursor, order);
+            pages.add(page.events().stream().map(DrawDto::x).toList());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private DrawDto historyEvent(final double x) {
+        return new DrawDto("event" + x, BOARD_ID, USER_NAME, 1000L, DrawEventType.DRAW, DrawingTool.PEN,
+                x, 0, STROKE_THICKNESS, STROKE_COLOR, "stroke1");
+    }
+
+    @DisplayName("The Redis history is paged by sequence number, oldest first and newest first")
+    @Test
+    void getBoardHistoryFromRedis() {
+        givenRedisHistory(List.of(historyEvent(0), historyEvent(1), historyEvent(2), historyEvent(3), historyEvent(4)));
+
+        assertEquals(List.of(List.of(0.0, 1.0), List.of(2.0, 3.0), List.of(4.0)),
+                readAllPages(HistoryOrder.OLDEST_FIRST, null));
+        assertEquals(List.of(List.of(4.0, 3.0, 2.0, 1.0), List.of(0.0)),
+                readAllPages(HistoryOrder.NEWEST_FIRST, 4));
+        verify(mockStrokePathRepository, never()).findRowsFrom(any(), any(), any());
+    }
+
+    @DisplayName("Stored history is paged with keyset queries and a page can end inside a stroke path")
+    @Test
+    void getBoardHistoryFromDb() {
+        testStroke.setXCord(1.0);
+        givenStoredHistory(List.of(testStroke),
+                List.of(storedPath(7L, 2, 0, 3, 0, 4, 0), storedPath(9L, 5, 0, 6, 0)));
+
+        assertEquals(List.of(List.of(1.0, 2.0, 3.0, 4.0), List.of(5.0, 6.0)),
+                readAllPages(HistoryOrder.OLDEST_FIRST, 4));
+        assertEquals(List.of(List.of(6.0, 5.0, 4.0), List.of(3.0, 2.0, 1.0), List.of()),
+                readAllPages(HistoryOrder.NEWEST_FIRST, 3));
+        verify(mockStrokeRepository, never()).streamEventRowsByBoardId(any());
+        verify(mockStrokePathRepository, never()).streamRowsByBoardId(any());
+    }
+
+    @DisplayName("The page size is capped, and invalid limits and cursors are rejected")
+    @Test
+    void getBoardHistoryLimitsAndCursors() {
+        givenRedisHistory(List.of(historyEvent(0), historyEvent(1), historyEvent(2), historyEvent(3), historyEvent(4)));
+
+        final HistoryPageDto page = drawEventService.getBoardHistory(BOARD_ID, 100, null, null);
+        assertEquals(HISTORY_MAX_PAGE_SIZE, page.events().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardHistory(BOARD_ID, 0, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardHistory(BOARD_ID, 2, page.nextCursor(), HistoryOrder.NEWEST_FIRST));
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardHistory(BOARD_ID, 2, "not-a-cursor", null));
+    }
+
+    @DisplayName("A cursor from a Redis history that has since been rebuilt is rejected")
+    @Test
+    void getBoardHistoryRejectsCursorOfRebuiltHistory() {
+        givenRedisHistory(List.of(historyEvent(0), historyEvent(1), historyEvent(2), historyEvent(3)), 1L);
+        final HistoryPageDto first = drawEventService.getBoardHistory(BOARD_ID, 2, null, null);
+        assertEquals(List.of(1L, 2L), first.events().stream().map(DrawDto::seq).toList());
+
+        // the list expired and was loaded again from the database, numbered after the old one
+        givenRedisHistory(List.of(historyEvent(10), historyEvent(11), historyEvent(12)), 3L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardHistory(BOARD_ID, 2, first.nextCursor(), null));
+    }
+
+    @DisplayName("The history length after each append is reported to the snapshot service")
+    @Test
+    void appendsAreReportedForSnapshots() {
+        when(mockRedisEventPublisher.publishAndAppendSequenced(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new RedisEventPublisher.Appended(42L, 50L));
+
+        drawEventService.publishDrawEvent(testEvent);
+
+        verify(mockBoardSnapshotService).recordAppend(BOARD_ID, 42L);
+    }
+
+    @DisplayName("A reconnecting client gets the events after its sequence number, numbered from there")
+    @Test
+    void getBoardStrokesSince() {
+        final DrawDto next = new DrawDto("event2", BOARD_ID, USER_NAME, 2000L, DrawEventType.DRAW, DrawingTool.PEN,
+                1, 2, STROKE_THICKNESS, STROKE_COLOR, "stroke1");
+        when(mockRedisTemplate.execute(eq(RedisBoardEventStore.READ_SINCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 9L, List.of(testEvent, next)));
+
+        final HistorySinceDto missed = drawEventService.getBoardStrokesSince(BOARD_ID, 7L);
+
+        assertFalse(missed.resync());
+        assertEquals(9L, missed.lastSeq());
+        assertEquals(List.of(testEvent.withSeq(8L), next.withSeq(9L)), missed.events());
+        verify(mockRedisTemplate).execute(eq(RedisBoardEventStore.READ_SINCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), eq(List.of(DRAWING_EVENTS_PREFIX + BOARD_ID, DRAWING_SEQUENCE_PREFIX + BOARD_ID)),
+                eq(new Object[]{"7", Integer.toString(SINCE_MAX_EVENTS)}));
+    }
+
+    @DisplayName("A reconnecting client whose events are gone from Redis is told to resync")
+    @Test
+    void getBoardStrokesSinceResync() {
+        when(mockRedisTemplate.execute(eq(RedisBoardEventStore.READ_SINCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 500L));
+
+        final HistorySinceDto resync = drawEventService.getBoardStrokesSince(BOARD_ID, 3L);
+
+        assertTrue(resync.resync());
+        assertEquals(500L, resync.lastSeq());
+        assertTrue(resync.events().isEmpty());
+    }
+
+    @DisplayName("A joining client gets the board snapshot, or the stored stroke paths when the board has no history")
+    @Test
+    void getBoardSnapshot() {
+        final BoardSnapshotDto redisSnapshot = new BoardSnapshotDto(BOARD_ID, 3L, List.of(), List.of(testEvent));
+        when(mockBoardSnapshotService.getSnapshot(BOARD_ID)).thenReturn(redisSnapshot);
+        assertEquals(redisSnapshot, drawEventService.getBoardSnapshot(BOARD_ID));
+
+        when(mockBoardSnapshotService.getSnapshot(BOARD_ID)).thenReturn(null);
+        givenStoredRows(List.of(testStroke), List.of(storedPath(7L, 1, 2, 3, 4)));
+        final BoardSnapshotDto stored = drawEventService.getBoardSnapshot(BOARD_ID);
+        assertEquals(1, stored.strokes().size());
+        assertEquals("stroke7", stored.strokes().get(0).strokeId());
+        assertEquals(USER_NAME, stored.strokes().get(0).displayName());
+        assertArrayEquals(new double[]{1, 2, 3, 4}, stored.strokes().get(0).points());
+        assertEquals(1, stored.tail().size());
+        assertEquals(X_COORD, stored.tail().get(0).x());
+    }
+
+    private DrawDto strokeEvent(final String strokeId, final double x, final double y) {
+        return new DrawDto(strokeId + "-" + x, BOARD_ID, USER_NAME, 1000L, DrawEventType.DRAW, DrawingTool.PEN,
+                x, y, STROKE_THICKNESS, STROKE_COLOR, strokeId);
+    }
+
+    @DisplayName("A viewport reads the stored paths by bounding box and only the events not written yet from the store")
+    @Test
+    void getBoardStrokesInViewportMergesUnwrittenTail() {
+        // given: events 1..5 were appended, 1, 2 and 4 are written, so the tail after 2 is read and 4 skipped
+        final DrawDto crossing = strokeEvent("stroke1", -100, 50).withSeq(3L);
+        final DrawDto written = strokeEvent("stroke2", 20, 20).withSeq(4L);
+        final DrawDto crossingEnd = strokeEvent("stroke1", 300, 50).withSeq(5L);
+        persistedSequenceTracker.appended(BOARD_ID, persistedSequenceTracker.beginAppend(BOARD_ID), 1L, 5L);
+        persistedSequenceTracker.written(BOARD_ID, 1L, 2L, 4L);
+        when(mockRedisTemplate.execute(eq(RedisBoardEventStore.LAST_SEQUENCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList())).thenReturn(5L);
+        when(mockRedisTemplate.execute(eq(RedisBoardEventStore.READ_SINCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 5L, List.of(crossing, written, crossingEnd)));
+        when(mockStrokePathRepository.findAllInViewport(BOARD_ID, -10.0, -10.0, 210.0, 110.0))
+                .thenReturn(List.of(StrokePathRow.of(storedPath(7L, 1, 2, 3, 4))));
+        // when
+        final List<DrawDto> visible = drawEventService.getBoardStrokesInViewport(BOARD_ID, 0, 0, 200, 100);
+        // then
+        assertEquals(4, visible.size());
+        assertEquals("stroke7", visible.get(0).strokeId());
+        assertEquals(List.of(crossing, crossingEnd), visible.subList(2, 4));
+        verify(mockRedisTemplate).execute(eq(RedisBoardEventStore.READ_SINCE_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), eq(new Object[]{"2", Integer.toString(Integer.MAX_VALUE)}));
+        verify(mockListOperations, never()).range(any(), anyLong(), anyLong());
+    }
+
+    @DisplayName("A viewport whose tail is gone from the store filters the store's history, keeping whole strokes")
+    @Test
+    void getBoardStrokesInViewportFromRedis() {
+        // given: stroke1 crosses the viewport without a point inside it, stroke2 is far away
+        final List<DrawDto> history = List.of(
+                strokeEvent("stroke1", -100, 50), strokeEvent("stroke2", 1000, 1000),
+                strokeEvent("stroke1", 300, 50), strokeEvent("stroke2", 1100, 1000),
+                strokeEvent("stroke3", 205, 50));
+        when(mockListOperations.range(DRAWING_EVENTS_PREFIX + BOARD_ID, 0, -1)).thenReturn(history);
+        // when
+        final List<DrawDto> visible = drawEventService.getBoardStrokesInViewport(BOARD_ID, 0, 0, 200, 100);
+        // then: stroke3 lies within the margin
+        assertEquals(List.of(history.get(0), history.get(2), history.get(4)), visible);
+        verifyNoInteractions(mockStrokeRepository);
+        verify(mockStrokePathRepository, never()).findAllInViewport(any(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble());
+    }
+
+    @DisplayName("A viewport over stored history queries stroke paths by bounding box and legacy strokes by point")
+    @Test
+    void getBoardStrokesInViewportFromDb() {
+        // given
+        when(mockListOperations.range(DRAWING_EVENTS_PREFIX + BOARD_ID, 0, -1)).thenReturn(List.of());
+        when(mockStrokeRepository.findAllInViewport(BOARD_ID, -10.0, -10.0, 210.0, 110.0))
+                .thenReturn(List.of(eventRow(testStroke)));
+        when(mockStrokePathRepository.findAllInViewport(BOARD_ID, -10.0, -10.0, 210.0, 110.0))
+                .thenReturn(List.of(StrokePathRow.of(storedPath(7L, 1, 2, 3, 4))));
+        // when
+        final List<DrawDto> visible = drawEventService.getBoardStrokesInViewport(BOARD_ID, 0, 0, 200, 100);
+        // then
+        assertEquals(3, visible.size());
+        assertEquals(X_COORD, visible.get(0).x());
+        assertEquals("stroke7", visible.get(2).strokeId());
+    }
+
+    @DisplayName("A viewport that is not a finite rectangle is rejected")
+    @Test
+    void invalidViewportIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardStrokesInViewport(BOARD_ID, 10, 0, 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> drawEventService.getBoardStrokesInViewport(BOARD_ID, 0, 0, Double.NaN, 10));
+    }
+}
@@ -0,0 +1,230 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DrawIngestPipelineTest {
+    private DrawIngestPipeline drawIngestPipeline;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long NON_EXISTENT_BOARD_ID = 999L;
+    private static final String USER_NAME = "Test User";
+    private static final int LANE_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 2;
+
+    @Mock
+    private DrawReferenceCache mockDrawReferenceCache;
+
+    @Mock
+    private StrokeAssembler mockStrokeAssembler;
+
+    @Mock
+    private BoardStrokeCounter mockBoardStrokeCounter;
+
+    @Mock
+    private PersistedSequenceTracker mockPersistedSequenceTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoardLaneExecutor boardLaneExecutor;
+    private Board testBoard;
+    private User testUser;
+
+    @BeforeEach
+    void init() {
+        testBoard = new Board();
+        testBoard.setId(BOARD_ID);
+        testUser = new User();
+        testUser.setDisplayName(USER_NAME);
+        when(mockDrawReferenceCache.findBoard(BOARD_ID)).thenReturn(Optional.of(testBoard));
+        when(mockDrawReferenceCache.findBoard(NON_EXISTENT_BOARD_ID)).thenReturn(Optional.empty());
+        when(mockDrawReferenceCache.findUser(USER_NAME)).thenReturn(Optional.of(testUser));
+
+        meterRegistry = new SimpleMeterRegistry();
+        boardLaneExecutor = new BoardLaneExecutor(meterRegistry, LANE_COUNT, QUEUE_CAPACITY);
+        drawIngestPipeline = new DrawIngestPipeline(
+                mockDrawReferenceCache, mockStrokeAssembler, mockBoardStrokeCounter, boardLaneExecutor,
+                mockPersistedSequenceTracker, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        drawIngestPipeline.shutdown();
+    }
+
+    private DrawDto event(final String id, final Long boardId, final String displayName) {
+        return new DrawDto(id, boardId, displayName, System.currentTimeMillis(), DrawEventType.DRAW,
+                DrawingTool.PEN, 1.0, 2.0, 3L, "#000000", "stroke-1");
+    }
+
+    @DisplayName("Queued events are assembled and counted on the board's lane")
+    @Test
+    void consumerPersistsQueuedEvents() throws InterruptedException {
+        final CountDownLatch persisted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            persisted.countDown();
+            return null;
+        }).when(mockBoardStrokeCounter).increment(BOARD_ID);
+        final DrawDto drawDto = event("event-1", BOARD_ID, USER_NAME);
+
+        boardLaneExecutor.start();
+        reserveAndSubmit(drawDto);
+
+        assertTrue(persisted.await(5, TimeUnit.SECONDS));
+        drawIngestPipeline.shutdown();
+        verify(mockStrokeAssembler).append(drawDto, testBoard, testUser);
+        assertEquals(1, meterRegistry.get(DrawIngestPipeline.STAGE_TIMER).tag("stage", "persist").timer().count());
+        assertEquals(1, meterRegistry.get(DrawIngestPipeline.STAGE_TIMER).tag("stage", "queue_wait").timer().count());
+    }
+
+    private boolean reserveAndSubmit(final DrawDto event) {
+        return drawIngestPipeline.tryReserve(event.boardId()) && drawIngestPipeline.submit(event);
+    }
+
+    private boolean reserveAndSubmitAll(final List<DrawDto> events) {
+        return drawIngestPipeline.tryReserve(BOARD_ID) && drawIngestPipeline.submitAll(BOARD_ID, events);
+    }
+
+    @DisplayName("A full lane rejects new draws before they are submitted instead of blocking the caller")
+    @Test
+    void fullLaneRejects() {
+        assertTrue(drawIngestPipeline.tryReserve(BOARD_ID));
+        assertTrue(reserveAndSubmit(event("event-1", BOARD_ID, USER_NAME)));
+
+        assertFalse(drawIngestPipeline.tryReserve(BOARD_ID));
+        drawIngestPipeline.cancelReservation(BOARD_ID);
+        assertTrue(reserveAndSubmitAll(List.of(event("event-2", BOARD_ID, USER_NAME),
+                event("event-3", BOARD_ID, USER_NAME))));
+        assertFalse(drawIngestPipeline.tryReserve(BOARD_ID));
+
+        assertEquals(QUEUE_CAPACITY, drawIngestPipeline.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get("whiteboard.draw.ingest.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("whiteboard.draw.ingest.shed").counter().count());
+    }
+
+    @DisplayName("Events submitted while the lanes shut down are shed")
+    @Test
+    void submitAfterShutdownSheds() {
+        assertTrue(drawIngestPipeline.tryReserve(BOARD_ID));
+        drawIngestPipeline.shutdown();
+
+        assertFalse(drawIngestPipeline.submit(event("event-1", BOARD_ID, USER_NAME).withSeq(1L)));
+
+        verify(mockStrokeAssembler, never()).append(any(), any(), any());
+        verify(mockPersistedSequenceTracker).written(BOARD_ID, 1L);
+        assertEquals(1.0, meterRegistry.get("whiteboard.draw.ingest.shed").counter().count());
+    }
+
+    @DisplayName("Events for an unknown board or user are skipped without stopping the pipeline")
+    @Test
+    void unknownBoardOrUserIsSkipped() {
+        when(mockDrawReferenceCache.findUser("NonExistentUser")).thenReturn(Optional.empty());
+        final DrawDto valid = event("event-3", BOARD_ID, USER_NAME);
+        reserveAndSubmit(event("event-1", NON_EXISTENT_BOARD_ID, USER_NAME));
+        reserveAndSubmit(event("event-2", BOARD_ID, "NonExistentUser"));
+        drawIngestPipeline.shutdown();
+
+        boardLaneExecutor = new BoardLaneExecutor(meterRegistry, LANE_COUNT, QUEUE_CAPACITY);
+        drawIngestPipeline = new DrawIngestPipeline(
+                mockDrawReferenceCache, mockStrokeAssembler, mockBoardStrokeCounter, boardLaneExecutor,
+                mockPersistedSequenceTracker, meterRegistry);
+        reserveAndSubmit(valid);
+        drawIngestPipeline.shutdown();
+
+        verify(mockStrokeAssembler, times(1)).append(any(), any(), any());
+        verify(mockStrokeAssembler).append(valid, testBoard, testUser);
+        assertEquals(2.0, meterRegistry.get("whiteboard.draw.ingest.failed").counter().count());
+    }
+
+    @DisplayName("Numbered events that are skipped are released from the sequence tracker")
+    @Test
+    void skippedEventsAreReleased() {
+        reserveAndSubmit(event("event-1", BOARD_ID, USER_NAME).withSeq(1L));
+        reserveAndSubmit(event("event-2", NON_EXISTENT_BOARD_ID, USER_NAME).withSeq(2L));
+        reserveAndSubmit(event("event-3", BOARD_ID, USER_NAME));
+
+        drawIngestPipeline.shutdown();
+
+        verify(mockPersistedSequenceTracker).written(NON_EXISTENT_BOARD_ID, 2L);
+        verify(mockPersistedSequenceTracker, never()).written(BOARD_ID, 1L);
+        verify(mockPersistedSequenceTracker, times(1)).written(any(), any(long[].class));
+    }
+
+    @DisplayName("Events of one board are persisted in submission order")
+    @Test
+    void eventsOfOneBoardKeepOrder() {
+        boardLaneExecutor = new BoardLaneExecutor(meterRegistry, LANE_COUNT, 1000);
+        drawIngestPipeline = new DrawIngestPipeline(
+                mockDrawReferenceCache, mockStrokeAssembler, mockBoardStrokeCounter, boardLaneExecutor,
+                mockPersistedSequenceTracker, meterRegistry);
+        final List<String> appended = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> appended.add(invocation.<DrawDto>getArgument(0).id()))
+                .when(mockStrokeAssembler).append(any(), any(), any());
+        final List<String> submitted = new ArrayList<>();
+
+        boardLaneExecutor.start();
+        for (int i = 0; i < 500; i++) {
+            submitted.add("event-" + i);
+            reserveAndSubmit(event("event-" + i, BOARD_ID, USER_NAME));
+        }
+        drawIngestPipeline.shutdown();
+
+        assertEquals(submitted, appended);
+    }
+
+    @DisplayName("A batch takes one lane slot and its events are persisted together")
+    @Test
+    void batchIsOneUnit() {
+        final List<DrawDto> batch = List.of(
+                event("event-1", BOARD_ID, USER_NAME),
+                event("event-2", BOARD_ID, USER_NAME),
+                event("event-3", BOARD_ID, USER_NAME));
+
+        reserveAndSubmitAll(batch);
+        assertEquals(1, drawIngestPipeline.getQueueDepth());
+        drawIngestPipeline.shutdown();
+
+        final InOrder inOrder = inOrder(mockStrokeAssembler);
+        batch.forEach(drawDto -> inOrder.verify(mockStrokeAssembler).append(drawDto, testBoard, testUser));
+        verify(mockBoardStrokeCounter, times(3)).increment(BOARD_ID);
+    }
+
+    @DisplayName("Events still queued on shutdown are persisted")
+    @Test
+    void shutdownDrainsQueue() {
+        reserveAndSubmit(event("event-1", BOARD_ID, USER_NAME));
+        reserveAndSubmit(event("event-2", BOARD_ID, USER_NAME));
+
+        drawIngestPipeline.shutdown();
+
+        verify(mockStrokeAssembler, times(2)).append(any(), eq(testBoard), eq(testUser));
+        verify(mockBoardStrokeCounter, times(2)).increment(BOARD_ID);
+        assertEquals(0, drawIngestPipeline.getQueueDepth());
+    }
+}
@@ -0,0 +1,98 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.BoardRepository;
+import com.otp.whiteboard.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DrawReferenceCacheTest {
+    private DrawReferenceCache drawReferenceCache;
+
+    private static final Long BOARD_ID = 1L;
+    private static final Long MISSING_BOARD_ID = 99L;
+    private static final String USER_NAME = "Test User";
+    private static final long MAX_SIZE = 100L;
+    private static final long TTL_MILLIS = 60_000L;
+
+    @Mock
+    private BoardRepository mockBoardRepository;
+
+    @Mock
+    private UserRepository mockUserRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Board testBoard;
+    private User testUser;
+
+    @BeforeEach
+    void init() {
+        testBoard = new Board();
+        testBoard.setId(BOARD_ID);
+        testUser = new User();
+        testUser.setDisplayName(USER_NAME);
+
+        when(mockBoardRepository.findById(BOARD_ID)).thenReturn(Optional.of(testBoard));
+        when(mockBoardRepository.findById(MISSING_BOARD_ID)).thenReturn(Optional.empty());
+        when(mockUserRepository.findUserByDisplayName(USER_NAME)).thenReturn(Optional.of(testUser));
+
+        meterRegistry = new SimpleMeterRegistry();
+        drawReferenceCache = new DrawReferenceCache(
+                mockBoardRepository, mockUserRepository, meterRegistry, MAX_SIZE, TTL_MILLIS);
+    }
+
+    @DisplayName("Repeated lookups on the draw path hit the database only once")
+    @Test
+    void repeatedLookupsAreCached() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(testBoard, drawReferenceCache.findBoard(BOARD_ID).orElseThrow());
+            assertEquals(testUser, drawReferenceCache.findUser(USER_NAME).orElseThrow());
+        }
+
+        verify(mockBoardRepository, times(1)).findById(BOARD_ID);
+        verify(mockUserRepository, times(1)).findUserByDisplayName(USER_NAME);
+        assertEquals(8, drawReferenceCache.getHitCount());
+        assertEquals(2, drawReferenceCache.getMissCount());
+        assertEquals(4.0, meterRegistry.get("cache.gets").tag("cache", "draw.boards").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @DisplayName("Evicting an entry forces the next lookup to reload it")
+    @Test
+    void evictionReloads() {
+        drawReferenceCache.findBoard(BOARD_ID);
+        drawReferenceCache.findUser(USER_NAME);
+
+        drawReferenceCache.evictBoard(BOARD_ID);
+        drawReferenceCache.evictUser(USER_NAME);
+        drawReferenceCache.findBoard(BOARD_ID);
+        drawReferenceCache.findUser(USER_NAME);
+
+        verify(mockBoardRepository, times(2)).findById(BOARD_ID);
+        verify(mockUserRepository, times(2)).findUserByDisplayName(USER_NAME);
+    }
+
+    @DisplayName("Missing entities are reported as empty and not cached")
+    @Test
+    void missingEntitiesAreNotCached() {
+        assertTrue(drawReferenceCache.findBoard(MISSING_BOARD_ID).isEmpty());
+
+        when(mockBoardRepository.findById(MISSING_BOARD_ID)).thenReturn(Optional.of(testBoard));
+        assertTrue(drawReferenceCache.findBoard(MISSING_BOARD_ID).isPresent());
+    }
+}
@@ -0,0 +1,183 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HistoryRehydratorTest {
+    private HistoryRehydrator historyRehydrator;
+
+    private static final Long BOARD_ID = 1L;
+    private static final String HISTORY_KEY = "drawing-events-board-1";
+    private static final String STAGING_KEY = HISTORY_KEY + ":rehydrate";
+    private static final String SEQUENCE_KEY = "drawing-seq-board-1";
+    private static final long HISTORY_TTL = 60_000L;
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private RedisTemplate<String, DrawDto> mockRedisTemplate;
+
+    @Mock
+    private RedisOperations<String, DrawDto> mockPipelineOperations;
+
+    @Mock
+    private ListOperations<String, DrawDto> mockPipelineListOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final List<List<DrawDto>> pushedChunks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(mockPipelineOperations.opsForList()).thenReturn(mockPipelineListOperations);
+        when(mockPipelineListOperations.rightPushAll(eq(STAGING_KEY), anyList())).thenAnswer(inv -> {
+            pushedChunks.add(List.copyOf(inv.<List<DrawDto>>getArgument(1)));
+            return (long) pushedChunks.size();
+        });
+        when(mockRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(inv -> {
+            inv.<SessionCallback<Object>>getArgument(0).execute(mockPipelineOperations);
+            return List.of();
+        });
+        when(mockRedisTemplate.execute(eq(HistoryRehydrator.SWAP_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any()))
+                .thenReturn(1L);
+        historyRehydrator = new HistoryRehydrator(mockRedisTemplate, meterRegistry, HISTORY_TTL, CHUNK_SIZE);
+    }
+
+    private static List<DrawDto> history(final int size) {
+        final List<DrawDto> events = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            events.add(new DrawDto("event-" + i, BOARD_ID, "user", 1000L + i, DrawEventType.DRAW, DrawingTool.PEN,
+                    i, i, 3L, "#000000", "stroke-1"));
+        }
+        return events;
+    }
+
+    private double count(final String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @DisplayName("Concurrent misses for a board share one database load")
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        final List<DrawDto> stored = history(3);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger();
+
+        final CompletableFuture<List<DrawDto>> leader = CompletableFuture.supplyAsync(() ->
+                historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return stored;
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<List<DrawDto>> follower = CompletableFuture.supplyAsync(() ->
+                historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> {
+                    loads.incrementAndGet();
+                    return List.of();
+                }));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("whiteboard.draw.history.shared_loads") < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(stored, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(stored, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("whiteboard.draw.history.miss_loads"));
+        assertEquals(1.0, count("whiteboard.draw.history.shared_loads"));
+        assertEquals(0, historyRehydrator.getInFlightCount());
+    }
+
+    @DisplayName("The loaded history is pushed to a staging list in pipelined chunks and swapped in with its TTL")
+    @Test
+    void loadedHistoryIsRehydratedInChunks() {
+        final List<DrawDto> stored = history(5);
+
+        assertEquals(stored, historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> stored));
+
+        verify(mockRedisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(mockPipelineOperations).delete(STAGING_KEY);
+        assertEquals(List.of(stored.subList(0, 2), stored.subList(2, 4), stored.subList(4, 5)), pushedChunks);
+        verify(mockPipelineOperations).expire(STAGING_KEY, HISTORY_TTL, TimeUnit.MILLISECONDS);
+        verify(mockRedisTemplate).execute(eq(HistoryRehydrator.SWAP_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), eq(List.of(HISTORY_KEY, STAGING_KEY, SEQUENCE_KEY)), eq(Long.toString(HISTORY_TTL)));
+        assertEquals(1.0, count("whiteboard.draw.history.rehydrated"));
+    }
+
+    @DisplayName("A history recreated by live events while loading is not overwritten")
+    @Test
+    void recreatedHistoryIsNotOverwritten() {
+        when(mockRedisTemplate.execute(eq(HistoryRehydrator.SWAP_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any()))
+                .thenReturn(0L);
+
+        assertEquals(2, historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> history(2)).size());
+
+        assertEquals(0.0, count("whiteboard.draw.history.rehydrated"));
+    }
+
+    @DisplayName("Empty histories are not written back and Redis failures do not fail the read")
+    @Test
+    void emptyHistoryAndRedisFailures() {
+        assertEquals(List.of(), historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, List::of));
+        verify(mockRedisTemplate, never()).executePipelined(any(SessionCallback.class));
+
+        when(mockRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+        assertEquals(3, historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> history(3)).size());
+        verify(mockRedisTemplate, never()).execute(eq(HistoryRehydrator.SWAP_SCRIPT), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), anyString());
+    }
+
+    @DisplayName("A failed load is reported and the next miss loads again")
+    @Test
+    void failedLoadIsRetriedByTheNextMiss() {
+        assertThrows(IllegalStateException.class, () -> historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals(1, historyRehydrator.load(BOARD_ID, HISTORY_KEY, SEQUENCE_KEY, () -> history(1)).size());
+        assertEquals(2.0, count("whiteboard.draw.history.miss_loads"));
+        assertEquals(0, historyRehydrator.getInFlightCount());
+    }
+}
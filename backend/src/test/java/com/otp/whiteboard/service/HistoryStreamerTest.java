@@ -0,0 +1,164 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistoryChunkDto;
+import com.otp.whiteboard.dto.drawing.HistoryPageDto;
+import com.otp.whiteboard.dto.drawing.HistoryStreamAck;
+import com.otp.whiteboard.dto.drawing.HistoryStreamRequest;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.enums.HistoryOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HistoryStreamerTest {
+    private HistoryStreamer historyStreamer;
+
+    private static final Long BOARD_ID = 1L;
+    private static final String SESSION_ID = "session-1";
+    private static final String STREAM_ID = "stream-1";
+    private static final int CHUNK_SIZE = 2;
+    private static final int MAX_CHUNK_BYTES = 4096;
+    private static final int WINDOW = 2;
+
+    @Mock
+    private DrawEventService mockDrawEventService;
+
+    @Mock
+    private SimpMessagingTemplate mockMessagingTemplate;
+
+    private final List<DrawDto> history = new ArrayList<>();
+    private final List<HistoryChunkDto> sent = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        when(mockDrawEventService.getBoardHistory(eq(BOARD_ID), anyInt(), any(), eq(HistoryOrder.OLDEST_FIRST)))
+                .thenAnswer(inv -> {
+                    final int limit = inv.getArgument(1);
+                    final String cursor = inv.getArgument(2);
+                    final int from = cursor != null ? Integer.parseInt(cursor) : 0;
+                    final int to = Math.min(history.size(), from + limit);
+                    return new HistoryPageDto(BOARD_ID, List.copyOf(history.subList(from, to)),
+                            to < history.size() ? Integer.toString(to) : null);
+                });
+        doAnswer(inv -> sent.add(inv.getArgument(2))).when(mockMessagingTemplate)
+                .convertAndSendToUser(eq(SESSION_ID), eq(HistoryStreamer.STREAM_DESTINATION), any(HistoryChunkDto.class),
+                        any(Map.class));
+        historyStreamer = new HistoryStreamer(mockDrawEventService, mockMessagingTemplate, new SimpleMeterRegistry(),
+                CHUNK_SIZE, MAX_CHUNK_BYTES, WINDOW, 1 << 20);
+    }
+
+    private void givenHistory(final int size, final String displayName) {
+        for (int i = 0; i < size; i++) {
+            history.add(new DrawDto("event-" + i, BOARD_ID, displayName, 1000L + i, DrawEventType.DRAW,
+                    DrawingTool.PEN, i, i, 3L, "#000000", "stroke-1"));
+        }
+    }
+
+    private void ack(final long seq) {
+        historyStreamer.ack(SESSION_ID, new HistoryStreamAck(STREAM_ID, seq));
+    }
+
+    @DisplayName("Chunks are sent up to the window and more only after they are acknowledged")
+    @Test
+    void chunksAreFlowControlledByAcks() {
+        givenHistory(7, "user");
+
+        historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, STREAM_ID, null));
+        assertEquals(2, sent.size());
+        assertEquals(List.of(0L, 1L), sent.stream().map(HistoryChunkDto::seq).toList());
+        assertEquals(history.subList(0, 2), sent.get(0).events());
+
+        ack(0);
+        assertEquals(3, sent.size());
+        ack(2);
+        assertEquals(5, sent.size());
+        final HistoryChunkDto completion = sent.get(4);
+        assertTrue(completion.complete());
+        assertTrue(completion.events().isEmpty());
+        assertEquals(7L, completion.totalEvents());
+        assertEquals(history, sent.stream().flatMap(chunk -> chunk.events().stream()).toList());
+        assertEquals(0, historyStreamer.getActiveStreamCount());
+    }
+
+    @DisplayName("A chunk is cut short when its estimated JSON size would exceed the byte budget")
+    @Test
+    @SuppressWarnings("unchecked")
+    void chunksAreBoundedByBytes() {
+        givenHistory(2, "x".repeat(1000));
+        final ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+
+        historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, STREAM_ID, null));
+
+        assertTrue(HistoryStreamer.estimatedJsonBytes(history.get(0)) * 2 > MAX_CHUNK_BYTES);
+        assertEquals(1, sent.get(0).events().size());
+        assertEquals(1, sent.get(1).events().size());
+        verify(mockMessagingTemplate, atLeastOnce()).convertAndSendToUser(eq(SESSION_ID),
+                eq(HistoryStreamer.STREAM_DESTINATION), any(HistoryChunkDto.class), headers.capture());
+        assertEquals(SESSION_ID, SimpMessageHeaderAccessor.getSessionId(headers.getValue()));
+    }
+
+    @DisplayName("An empty board is answered with the completion frame only")
+    @Test
+    void emptyHistoryCompletesAtOnce() {
+        historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, STREAM_ID, 100));
+
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).complete());
+        assertEquals(0L, sent.get(0).seq());
+        verify(mockDrawEventService).getBoardHistory(BOARD_ID, CHUNK_SIZE, null, HistoryOrder.OLDEST_FIRST);
+    }
+
+    @DisplayName("A new request replaces the session's stream, acks for another stream are ignored and a disconnect drops it")
+    @Test
+    void streamsAreReplacedAndDropped() {
+        givenHistory(10, "user");
+        historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, "old", null));
+        historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, STREAM_ID, null));
+        sent.clear();
+
+        historyStreamer.ack(SESSION_ID, new HistoryStreamAck("old", 5));
+        assertTrue(sent.isEmpty());
+
+        historyStreamer.onDisconnect(new SessionDisconnectEvent(this, mock(Message.class),
+                SESSION_ID, CloseStatus.NORMAL));
+        ack(1);
+        assertTrue(sent.isEmpty());
+        assertEquals(0, historyStreamer.getActiveStreamCount());
+    }
+
+    @DisplayName("Invalid chunk sizes and windows that do not fit in the send buffer are rejected")
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> historyStreamer.start(SESSION_ID, new HistoryStreamRequest(BOARD_ID, STREAM_ID, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new HistoryStreamer(mockDrawEventService,
+                mockMessagingTemplate, new SimpleMeterRegistry(), CHUNK_SIZE, 1 << 20, WINDOW, 1 << 20));
+    }
+}
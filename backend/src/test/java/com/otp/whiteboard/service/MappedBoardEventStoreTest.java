@@ -0,0 +1,234 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.dto.drawing.HistorySinceDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.enums.HistoryOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedBoardEventStoreTest {
+    private MappedBoardEventStore store;
+
+    private static final Long BOARD_ID = 1L;
+    private static final int INITIAL_SEGMENT_SIZE = 256;
+    private static final long IDLE_TIMEOUT_MILLIS = 60_000L;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void init() {
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, IDLE_TIMEOUT_MILLIS);
+    }
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    private static List<DrawDto> events(final int from, final int size) {
+        final List<DrawDto> events = new ArrayList<>();
+        for (int i = from; i < from + size; i++) {
+            events.add(new DrawDto("event-" + i, BOARD_ID, "user", 1000L + i, DrawEventType.DRAW, DrawingTool.PEN,
+                    i, i, 3L, "#000000", "stroke-1"));
+        }
+        return events;
+    }
+
+    private Path segmentFile() {
+        return directory.resolve("board-" + BOARD_ID + ".log");
+    }
+
+    @DisplayName("Appends are numbered from 1 and read back by index like a list range")
+    @Test
+    void appendsAreNumberedAndRanged() {
+        final List<DrawDto> stored = events(0, 5);
+
+        assertEquals(new BoardEventStore.Appended(1L, 1L), store.append(BOARD_ID, stored.get(0), stored.subList(0, 1)));
+        assertEquals(new BoardEventStore.Appended(5L, 5L), store.append(BOARD_ID, stored, stored.subList(1, 5)));
+
+        assertEquals(5, store.size(BOARD_ID));
+        assertEquals(stored, store.range(BOARD_ID, 0, -1));
+        assertEquals(stored.subList(1, 3), store.range(BOARD_ID, 1, 2));
+        assertEquals(stored.subList(3, 5), store.range(BOARD_ID, -2, 10));
+        assertEquals(List.of(), store.range(BOARD_ID, 5, 9));
+        assertEquals(0, store.size(2L));
+        assertFalse(Files.exists(directory.resolve("board-2.log")));
+    }
+
+    @DisplayName("Missed events are returned numbered, and clients too far behind or ahead have to resync")
+    @Test
+    void readSinceReturnsDeltaOrResync() {
+        final List<DrawDto> stored = events(0, 5);
+        store.append(BOARD_ID, stored, stored);
+
+        final HistorySinceDto delta = store.readSince(BOARD_ID, 3, 10);
+        assertFalse(delta.resync());
+        assertEquals(5L, delta.lastSeq());
+        assertEquals(List.of(stored.get(3).withSeq(4L), stored.get(4).withSeq(5L)), delta.events());
+
+        assertTrue(store.readSince(BOARD_ID, 0, 2).resync());
+        assertTrue(store.readSince(BOARD_ID, 6, 10).resync());
+        assertTrue(store.readSince(2L, 0, 10).resync());
+    }
+
+    @DisplayName("Pages are read by sequence number in both directions, clamped to the history")
+    @Test
+    void readPageBySequence() {
+        final List<DrawDto> stored = events(0, 5);
+        store.append(BOARD_ID, stored, stored);
+
+        assertEquals(new BoardEventStore.Page(1, List.of(stored.get(0).withSeq(1L), stored.get(1).withSeq(2L))),
+                store.readPage(BOARD_ID, 0, 2, HistoryOrder.OLDEST_FIRST));
+        assertEquals(new BoardEventStore.Page(1, List.of(stored.get(4).withSeq(5L))),
+                store.readPage(BOARD_ID, 5, 2, HistoryOrder.OLDEST_FIRST));
+        assertEquals(new BoardEventStore.Page(1, List.of(stored.get(4).withSeq(5L), stored.get(3).withSeq(4L))),
+                store.readPage(BOARD_ID, Long.MAX_VALUE, 2, HistoryOrder.NEWEST_FIRST));
+        assertEquals(new BoardEventStore.Page(1, List.of(stored.get(0).withSeq(1L))),
+                store.readPage(BOARD_ID, 1, 2, HistoryOrder.NEWEST_FIRST));
+        assertEquals(new BoardEventStore.Page(0, List.of()), store.readPage(2L, 0, 2, HistoryOrder.OLDEST_FIRST));
+    }
+
+    @DisplayName("Segments grow past their initial size and are recovered with their index after a restart")
+    @Test
+    void segmentsGrowAndAreRecovered() {
+        final List<DrawDto> stored = events(0, 40);
+        for (final DrawDto event : stored) {
+            store.append(BOARD_ID, event, List.of(event));
+        }
+        store.close();
+
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, true, IDLE_TIMEOUT_MILLIS);
+        assertEquals(40, store.size(BOARD_ID));
+        assertEquals(stored, store.range(BOARD_ID, 0, -1));
+        assertEquals(41L, store.append(BOARD_ID, events(40, 1).get(0), events(40, 1)).lastSequence());
+    }
+
+    @DisplayName("A torn record and everything after it are dropped when the segment is reopened")
+    @Test
+    void tornRecordIsTruncated() throws IOException {
+        final List<DrawDto> stored = events(0, 3);
+        store.append(BOARD_ID, stored, stored);
+        store.close();
+        final long secondRecord;
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            secondRecord = MappedBoardEventStore.RECORD_HEADER_BYTES + file.readInt();
+            file.seek(secondRecord + MappedBoardEventStore.RECORD_HEADER_BYTES);
+            file.writeByte(file.readByte() ^ 0xFF);
+        }
+
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, IDLE_TIMEOUT_MILLIS);
+        assertEquals(stored.subList(0, 1), store.range(BOARD_ID, 0, -1));
+        assertEquals(2L, store.append(BOARD_ID, stored.get(2), stored.subList(2, 3)).lastSequence());
+        store.close();
+
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, IDLE_TIMEOUT_MILLIS);
+        assertEquals(List.of(stored.get(0), stored.get(2)), store.range(BOARD_ID, 0, -1));
+    }
+
+    @DisplayName("A record torn before its length was written is cleared, a clean end is left as it is")
+    @Test
+    void tornHeaderIsCleared() throws IOException {
+        final List<DrawDto> stored = events(0, 2);
+        store.append(BOARD_ID, stored, stored);
+        store.close();
+        final long tail;
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            final long second = MappedBoardEventStore.RECORD_HEADER_BYTES + file.readInt();
+            file.seek(second);
+            tail = second + MappedBoardEventStore.RECORD_HEADER_BYTES + file.readInt();
+            file.seek(tail + Integer.BYTES);
+            file.writeInt(0x5EED);
+        }
+
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, IDLE_TIMEOUT_MILLIS);
+        assertEquals(stored, store.range(BOARD_ID, 0, -1));
+        store.close();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "r")) {
+            file.seek(tail + Integer.BYTES);
+            assertEquals(0, file.readInt());
+        }
+    }
+
+    @DisplayName("Idle segments are unmapped and reopened on the next access")
+    @Test
+    void idleSegmentsAreEvicted() throws InterruptedException {
+        store.close();
+        store = new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, 1L);
+        final List<DrawDto> stored = events(0, 3);
+        store.append(BOARD_ID, stored, stored.subList(0, 2));
+        store.append(2L, stored, stored.subList(2, 3));
+        Thread.sleep(5);
+        store.size(2L);
+
+        store.evictIdleSegments();
+
+        assertEquals(1, store.getOpenSegmentCount());
+        assertEquals(stored.subList(0, 2), store.range(BOARD_ID, 0, -1));
+        assertEquals(3L, store.append(BOARD_ID, stored, stored.subList(2, 3)).lastSequence());
+        assertEquals(2, store.getOpenSegmentCount());
+    }
+
+    @DisplayName("A board without a segment needs its history loaded before the first append")
+    @Test
+    void historyIsLoadedBeforeTheFirstAppend() {
+        final List<DrawDto> stored = events(0, 3);
+        assertTrue(store.needsLoadBeforeAppend(BOARD_ID));
+
+        store.loadOnMiss(BOARD_ID, () -> stored.subList(0, 2));
+        assertFalse(store.needsLoadBeforeAppend(BOARD_ID));
+        assertEquals(3L, store.append(BOARD_ID, stored, stored.subList(2, 3)).lastSequence());
+        assertEquals(stored, store.range(BOARD_ID, 0, -1));
+    }
+
+    @DisplayName("A second store cannot open a directory that is in use")
+    @Test
+    void directoryIsLocked() {
+        assertThrows(IllegalStateException.class,
+                () -> new MappedBoardEventStore(directory, INITIAL_SEGMENT_SIZE, false, IDLE_TIMEOUT_MILLIS));
+    }
+
+    @DisplayName("A miss loads the history once and keeps it, unless a live event started the segment first")
+    @Test
+    void missesAreLoadedIntoTheSegment() {
+        final List<DrawDto> stored = events(0, 3);
+        final AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(stored, store.loadOnMiss(BOARD_ID, () -> {
+            loads.incrementAndGet();
+            return stored;
+        }));
+        assertEquals(stored, store.range(BOARD_ID, 0, -1));
+        assertEquals(1, loads.get());
+
+        final List<DrawDto> live = events(10, 1);
+        assertEquals(live, store.loadOnMiss(2L, () -> {
+            store.append(2L, live.get(0), live);
+            return live;
+        }));
+        assertEquals(1, store.size(2L));
+        assertEquals(List.of(), store.loadOnMiss(3L, List::of));
+        assertFalse(Files.exists(directory.resolve("board-3.log")));
+    }
+
+    @DisplayName("Initial segments that cannot hold a record header are rejected")
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedBoardEventStore(directory, 4, false, IDLE_TIMEOUT_MILLIS));
+    }
+}
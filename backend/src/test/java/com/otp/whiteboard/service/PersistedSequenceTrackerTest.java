@@ -0,0 +1,165 @@
+package com.otp.whiteboard.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PersistedSequenceTrackerTest {
+    private PersistedSequenceTracker tracker;
+
+    private static final Long BOARD_ID = 1L;
+    private static final long IDLE_TIMEOUT_MILLIS = 600_000L;
+
+    @Mock
+    private StrokePathRepository mockStrokePathRepository;
+
+    @BeforeEach
+    void init() {
+        // Boards without stored sequence numbers are trusted to be complete.
+        when(mockStrokePathRepository.findMaxLastSeq(any())).thenReturn(null);
+        tracker = new PersistedSequenceTracker(mockStrokePathRepository, IDLE_TIMEOUT_MILLIS);
+    }
+
+    private void append(final long first, final long last) {
+        tracker.appended(BOARD_ID, tracker.beginAppend(BOARD_ID), first, last);
+    }
+
+    @DisplayName("Without pending events a board is persisted through its last sequence number")
+    @Test
+    void untrackedBoardIsPersisted() {
+        assertEquals(7L, tracker.persistedThrough(BOARD_ID, 7L));
+    }
+
+    @DisplayName("The oldest event that is not written yet holds back what counts as persisted")
+    @Test
+    void oldestPendingEventHoldsBack() {
+        append(1L, 3L);
+        append(4L, 6L);
+        assertEquals(0L, tracker.persistedThrough(BOARD_ID, 6L));
+
+        tracker.written(BOARD_ID, 1L, 2L, 4L);
+        assertEquals(2L, tracker.persistedThrough(BOARD_ID, 6L));
+
+        tracker.written(BOARD_ID, 3L, 5L, 6L);
+        assertEquals(6L, tracker.persistedThrough(BOARD_ID, 6L));
+    }
+
+    @DisplayName("An append in flight holds back the events after the last registered one")
+    @Test
+    void appendInFlightHoldsBack() {
+        append(1L, 4L);
+        tracker.written(BOARD_ID, 1L, 2L, 3L, 4L);
+        final long token = tracker.beginAppend(BOARD_ID);
+        assertEquals(4L, tracker.persistedThrough(BOARD_ID, 5L));
+
+        tracker.abortAppend(BOARD_ID, token);
+        assertEquals(5L, tracker.persistedThrough(BOARD_ID, 5L));
+    }
+
+    @DisplayName("Long runs of written events are compacted and a restarted sequence is tracked from its start")
+    @Test
+    void compactsAndRebases() {
+        for (long seq = 1; seq <= 10_000; seq++) {
+            append(seq, seq);
+            if (seq > 1) {
+                tracker.written(BOARD_ID, seq);
+            }
+        }
+        assertEquals(0L, tracker.persistedThrough(BOARD_ID, 10_000L));
+
+        append(1L, 2L);
+        tracker.written(BOARD_ID, 1L);
+        assertEquals(1L, tracker.persistedThrough(BOARD_ID, 10_000L));
+        tracker.written(BOARD_ID, 2L);
+        assertEquals(10_000L, tracker.persistedThrough(BOARD_ID, 10_000L));
+    }
+
+    @DisplayName("The unwritten snapshot reports pending events and those whose numbers are not known yet")
+    @Test
+    void unwrittenSnapshot() {
+        assertTrue(tracker.unwritten(BOARD_ID).test(1L));
+        append(1L, 4L);
+        tracker.written(BOARD_ID, 1L, 3L);
+        final long token = tracker.beginAppend(BOARD_ID);
+
+        final LongPredicate unwritten = tracker.unwritten(BOARD_ID);
+        tracker.written(BOARD_ID, 2L);
+
+        assertFalse(unwritten.test(1L));
+        assertTrue(unwritten.test(2L));
+        assertFalse(unwritten.test(3L));
+        assertTrue(unwritten.test(4L));
+        assertTrue(unwritten.test(5L));
+        tracker.abortAppend(BOARD_ID, token);
+    }
+
+    @DisplayName("After a restart a board is persisted only through the highest sequence number of its stored rows")
+    @Test
+    void restartedBoardIsPersistedThroughStoredRows() {
+        when(mockStrokePathRepository.findMaxLastSeq(BOARD_ID)).thenReturn(5L);
+
+        assertEquals(5L, tracker.persistedThrough(BOARD_ID, 8L));
+        assertFalse(tracker.unwritten(BOARD_ID).test(5L));
+        assertTrue(tracker.unwritten(BOARD_ID).test(6L));
+
+        // 6..8 were appended before the restart and never written.
+        append(9L, 10L);
+        tracker.written(BOARD_ID, 9L, 10L);
+        assertEquals(5L, tracker.persistedThrough(BOARD_ID, 10L));
+        final LongPredicate unwritten = tracker.unwritten(BOARD_ID);
+        assertTrue(unwritten.test(6L));
+        assertTrue(unwritten.test(8L));
+        assertFalse(unwritten.test(9L));
+        verify(mockStrokePathRepository, times(1)).findMaxLastSeq(BOARD_ID);
+    }
+
+    @DisplayName("After a restart an append that follows the stored rows leaves nothing behind")
+    @Test
+    void restartedBoardWithoutGapCatchesUp() {
+        when(mockStrokePathRepository.findMaxLastSeq(BOARD_ID)).thenReturn(8L);
+
+        append(9L, 10L);
+        tracker.written(BOARD_ID, 9L, 10L);
+
+        assertEquals(10L, tracker.persistedThrough(BOARD_ID, 10L));
+    }
+
+    @DisplayName("Idle boards with nothing pending are forgotten and looked up again on their next use")
+    @Test
+    void idleBoardsAreEvicted() {
+        tracker = new PersistedSequenceTracker(mockStrokePathRepository, -1L);
+        append(1L, 2L);
+        tracker.evictIdleBoards();
+        assertEquals(1, tracker.getTrackedBoardCount());
+
+        tracker.written(BOARD_ID, 1L, 2L);
+        tracker.evictIdleBoards();
+        assertEquals(0, tracker.getTrackedBoardCount());
+
+        when(mockStrokePathRepository.findMaxLastSeq(BOARD_ID)).thenReturn(2L);
+        assertEquals(2L, tracker.persistedThrough(BOARD_ID, 2L));
+        verify(mockStrokePathRepository, times(2)).findMaxLastSeq(BOARD_ID);
+    }
+
+    @DisplayName("A range whose first sequence number is after its last is rejected")
+    @Test
+    void invalidRangeIsRejected() {
+        final long token = tracker.beginAppend(BOARD_ID);
+        assertThrows(IllegalArgumentException.class, () -> tracker.appended(BOARD_ID, token, 5L, 4L));
+    }
+}
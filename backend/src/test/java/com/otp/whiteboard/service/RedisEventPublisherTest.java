@@ -0,0 +1,173 @@
+package com.otp.whiteboard.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RedisEventPublisherTest {
+    private RedisEventPublisher redisEventPublisher;
+
+    private static final String CHANNEL = "drawing-session-1";
+    private static final String HISTORY_KEY = "drawing-events-board-1";
+    private static final String OTHER_HISTORY_KEY = "drawing-events-board-2";
+    private static final String SEQUENCE_KEY = "drawing-seq-board-1";
+    private static final String EVENT = "event";
+    private static final long HISTORY_TTL_MILLIS = 3_600_000L;
+    private static final long REFRESH_INTERVAL_MILLIS = 60_000L;
+
+    @Mock
+    private RedisTemplate<String, Object> mockRedisTemplate;
+
+    @BeforeEach
+    void init() {
+        doReturn(new StringRedisSerializer()).when(mockRedisTemplate).getValueSerializer();
+        when(mockRedisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(Object[].class))).thenReturn(1L);
+        redisEventPublisher = new RedisEventPublisher(mockRedisTemplate, HISTORY_TTL_MILLIS, REFRESH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @return the script arguments of each call, decoded as UTF-8 strings.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedScriptArgs(final int calls) {
+        final ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(mockRedisTemplate, times(calls)).execute(eq(RedisEventPublisher.PUBLISH_AND_APPEND_SCRIPT),
+                any(RedisSerializer.class), any(RedisSerializer.class), anyList(), args.capture());
+        return args.getAllValues().stream()
+                .map(call -> Arrays.stream(call).map(arg -> new String((byte[]) arg, StandardCharsets.UTF_8)).toArray())
+                .toList();
+    }
+
+    @DisplayName("Publish, append and TTL refresh are sent as one script call")
+    @Test
+    void publishesInOneScriptCall() {
+        final Long length = redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT);
+
+        assertEquals(1L, length);
+        verify(mockRedisTemplate).execute(eq(RedisEventPublisher.PUBLISH_AND_APPEND_SCRIPT),
+                any(RedisSerializer.class), any(RedisSerializer.class), eq(List.of(HISTORY_KEY)), any(Object[].class));
+        verify(mockRedisTemplate, never()).convertAndSend(anyString(), any());
+        verify(mockRedisTemplate, never()).opsForList();
+        final Object[] args = capturedScriptArgs(1).get(0);
+        assertArrayEquals(new Object[]{EVENT, Long.toString(HISTORY_TTL_MILLIS), "1", CHANNEL}, args);
+    }
+
+    @DisplayName("The TTL is refreshed once per interval and key, not on every event")
+    @Test
+    void ttlIsRefreshedOncePerInterval() {
+        for (int i = 0; i < 5; i++) {
+            redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT);
+        }
+        redisEventPublisher.publishAndAppend(CHANNEL, OTHER_HISTORY_KEY, EVENT);
+
+        final List<Object[]> calls = capturedScriptArgs(6);
+        assertEquals("1", calls.get(0)[2]);
+        for (int i = 1; i < 5; i++) {
+            assertEquals("0", calls.get(i)[2]);
+        }
+        assertEquals("1", calls.get(5)[2]);
+    }
+
+    @DisplayName("A refresh interval of zero refreshes the TTL on every event")
+    @Test
+    void zeroIntervalAlwaysRefreshes() {
+        redisEventPublisher = new RedisEventPublisher(mockRedisTemplate, HISTORY_TTL_MILLIS, 0);
+
+        redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT);
+        redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT);
+
+        capturedScriptArgs(2).forEach(args -> assertEquals("1", args[2]));
+    }
+
+    @DisplayName("A failed call retries the TTL refresh on the next event")
+    @Test
+    void failedCallRetriesRefresh() {
+        when(mockRedisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("Redis down"))
+                .thenReturn(2L);
+
+        assertThrows(RuntimeException.class, () -> redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT));
+        redisEventPublisher.publishAndAppend(CHANNEL, HISTORY_KEY, EVENT);
+
+        capturedScriptArgs(2).forEach(args -> assertEquals("1", args[2]));
+    }
+
+    @DisplayName("A batch is published once and its entries are appended in the same script call")
+    @Test
+    void batchIsPublishedOnceAndAppendedInOneCall() {
+        redisEventPublisher.publishAndAppendAll(CHANNEL, HISTORY_KEY, "batch", List.of("point-1", "point-2"),
+                RedisSerializer.string());
+
+        final Object[] args = capturedScriptArgs(1).get(0);
+        assertArrayEquals(new Object[]{"batch", Long.toString(HISTORY_TTL_MILLIS), "1", CHANNEL, "point-1", "point-2"},
+                args);
+        assertThrows(IllegalArgumentException.class,
+                () -> redisEventPublisher.publishAndAppendAll(CHANNEL, HISTORY_KEY, "batch", List.of(),
+                        RedisSerializer.string()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @DisplayName("History entries are passed to the script as raw bytes, so binary encodings survive unchanged")
+    @Test
+    void binaryHistoryEntriesArePassedUnchanged() {
+        final byte[] binary = {1, (byte) 0xFF, 0, (byte) 0x80};
+
+        redisEventPublisher.publishAndAppendAll(CHANNEL, HISTORY_KEY, EVENT, List.of(binary), RedisSerializer.byteArray());
+
+        final ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(mockRedisTemplate).execute(eq(RedisEventPublisher.PUBLISH_AND_APPEND_SCRIPT),
+                eq(RedisSerializer.byteArray()), any(RedisSerializer.class), anyList(), args.capture());
+        assertArrayEquals(binary, (byte[]) args.getValue()[4]);
+    }
+
+    @DisplayName("A sequenced append numbers its entries in the sequence hash in the same script call")
+    @Test
+    void sequencedAppendReturnsLengthAndLastSequence() {
+        when(mockRedisTemplate.execute(eq(RedisEventPublisher.SEQUENCED_PUBLISH_AND_APPEND_SCRIPT),
+                any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(5L, 42L));
+
+        final RedisEventPublisher.Appended appended = redisEventPublisher.publishAndAppendSequenced(CHANNEL,
+                HISTORY_KEY, SEQUENCE_KEY, "batch", List.of("point-1", "point-2"), RedisSerializer.string());
+
+        assertEquals(new RedisEventPublisher.Appended(5L, 42L), appended);
+        verify(mockRedisTemplate).execute(eq(RedisEventPublisher.SEQUENCED_PUBLISH_AND_APPEND_SCRIPT),
+                any(RedisSerializer.class), any(RedisSerializer.class), eq(List.of(HISTORY_KEY, SEQUENCE_KEY)),
+                any(Object[].class));
+        verify(mockRedisTemplate, never()).execute(eq(RedisEventPublisher.PUBLISH_AND_APPEND_SCRIPT),
+                any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any(Object[].class));
+    }
+
+    @DisplayName("A refresh interval that is not shorter than the TTL is rejected")
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RedisEventPublisher(mockRedisTemplate, HISTORY_TTL_MILLIS, HISTORY_TTL_MILLIS));
+        assertThrows(IllegalArgumentException.class, () -> new RedisEventPublisher(mockRedisTemplate, 0, 0));
+    }
+}
@@ -0,0 +1,210 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.dto.drawing.DrawDto;
+import com.otp.whiteboard.enums.DrawEventType;
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.enums.SimplificationMode;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.model.User;
+import com.otp.whiteboard.repository.StrokePathRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StrokeAssemblerTest {
+    private StrokeAssembler strokeAssembler;
+
+    private static final Long BOARD_ID = 1L;
+    private static final String USER_NAME = "Test User";
+    private static final String STROKE_ID = "stroke-1";
+    private static final String STROKE_COLOR = "#ff0000";
+    private static final long STROKE_THICKNESS = 3L;
+    private static final int MAX_POINTS = 4;
+    private static final long IDLE_TIMEOUT_MILLIS = 60_000L;
+    private static final int GEOMETRY_PRECISION = 2;
+
+    @Mock
+    private StrokeWriteBehindService mockStrokeWriteBehindService;
+
+    @Mock
+    private StrokePathRepository mockStrokePathRepository;
+
+    private Board testBoard;
+    private User testUser;
+
+    @BeforeEach
+    void init() {
+        testBoard = new Board();
+        testBoard.setId(BOARD_ID);
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setDisplayName(USER_NAME);
+
+        strokeAssembler = new StrokeAssembler(mockStrokeWriteBehindService,
+                new StrokeSimplifier(new SimpleMeterRegistry(), SimplificationMode.NONE, 0), mockStrokePathRepository,
+                MAX_POINTS, IDLE_TIMEOUT_MILLIS, GEOMETRY_PRECISION);
+    }
+
+    private DrawDto event(final DrawEventType type, final double x, final double y) {
+        return new DrawDto("event-" + x, BOARD_ID, USER_NAME, System.currentTimeMillis(), type,
+                DrawingTool.PEN, x, y, STROKE_THICKNESS, STROKE_COLOR, STROKE_ID);
+    }
+
+    @DisplayName("A START..END sequence becomes a single stroke path with the style stored once")
+    @Test
+    void startToEndBecomesOnePath() {
+        strokeAssembler.append(event(DrawEventType.START, 1, 1), testBoard, testUser);
+        strokeAssembler.append(event(DrawEventType.DRAW, 2, 2), testBoard, testUser);
+        verify(mockStrokeWriteBehindService, never()).enqueue(any());
+
+        strokeAssembler.append(event(DrawEventType.END, 3, 3), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService).enqueue(captor.capture());
+        final StrokePath path = captor.getValue();
+        assertEquals(STROKE_ID, path.getStrokeId());
+        assertEquals(STROKE_COLOR, path.getColor());
+        assertEquals(STROKE_THICKNESS, path.getThickness());
+        assertEquals(3, path.getPointCount());
+        assertTrue(path.isEnded());
+        assertArrayEquals(new double[]{1, 1, 2, 2, 3, 3}, path.getPoints());
+        assertEquals(0, strokeAssembler.getOpenStrokeCount());
+    }
+
+    @DisplayName("A stroke longer than the point limit is stored as consecutive segments")
+    @Test
+    void longStrokeIsSegmented() {
+        strokeAssembler.append(event(DrawEventType.START, 0, 0), testBoard, testUser);
+        for (int i = 1; i < MAX_POINTS + 2; i++) {
+            strokeAssembler.append(event(DrawEventType.DRAW, i, i), testBoard, testUser);
+        }
+        strokeAssembler.append(event(DrawEventType.END, 99, 99), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService, times(2)).enqueue(captor.capture());
+        final List<StrokePath> paths = captor.getAllValues();
+        assertEquals(0, paths.get(0).getSegment());
+        assertEquals(MAX_POINTS, paths.get(0).getPointCount());
+        assertFalse(paths.get(0).isEnded());
+        assertEquals(1, paths.get(1).getSegment());
+        assertTrue(paths.get(1).isEnded());
+    }
+
+    @DisplayName("Each segment carries the sequence numbers of the events it was assembled from")
+    @Test
+    void segmentsCarryTheirSequences() {
+        strokeAssembler.append(event(DrawEventType.START, 0, 0).withSeq(1L), testBoard, testUser);
+        for (int i = 1; i < MAX_POINTS + 2; i++) {
+            strokeAssembler.append(event(DrawEventType.DRAW, i, i).withSeq(i + 1L), testBoard, testUser);
+        }
+        strokeAssembler.append(event(DrawEventType.END, 99, 99), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService, times(2)).enqueue(captor.capture());
+        assertArrayEquals(new long[]{1, 2, 3, 4}, captor.getAllValues().get(0).getSequences());
+        assertArrayEquals(new long[]{5, 6}, captor.getAllValues().get(1).getSequences());
+    }
+
+    @DisplayName("Completed strokes are simplified before they are stored")
+    @Test
+    void completedStrokeIsSimplified() {
+        strokeAssembler = new StrokeAssembler(mockStrokeWriteBehindService,
+                new StrokeSimplifier(new SimpleMeterRegistry(), SimplificationMode.RDP, 0.5), mockStrokePathRepository,
+                100, IDLE_TIMEOUT_MILLIS, GEOMETRY_PRECISION);
+        strokeAssembler.append(event(DrawEventType.START, 0, 0), testBoard, testUser);
+        for (int i = 1; i < 10; i++) {
+            strokeAssembler.append(event(DrawEventType.DRAW, i, i), testBoard, testUser);
+        }
+        strokeAssembler.append(event(DrawEventType.END, 10, 10), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService).enqueue(captor.capture());
+        assertEquals(2, captor.getValue().getPointCount());
+        assertArrayEquals(new double[]{0, 0, 10, 10}, captor.getValue().getPoints());
+    }
+
+    @DisplayName("Strokes without an END point are persisted on shutdown")
+    @Test
+    void openStrokesAreClosedOnShutdown() {
+        strokeAssembler.append(event(DrawEventType.START, 1, 1), testBoard, testUser);
+        strokeAssembler.append(event(DrawEventType.DRAW, 2, 2), testBoard, testUser);
+
+        strokeAssembler.shutdown();
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService).enqueue(captor.capture());
+        assertFalse(captor.getValue().isEnded());
+        assertEquals(2, captor.getValue().getPointCount());
+        assertEquals(0, strokeAssembler.getOpenStrokeCount());
+    }
+
+    @DisplayName("Recently touched strokes are not closed by the idle cleanup")
+    @Test
+    void activeStrokesSurviveIdleCleanup() {
+        strokeAssembler.append(event(DrawEventType.START, 1, 1), testBoard, testUser);
+
+        strokeAssembler.closeIdleStrokes();
+
+        verify(mockStrokeWriteBehindService, never()).enqueue(any());
+        assertEquals(1, strokeAssembler.getOpenStrokeCount());
+    }
+
+    @DisplayName("A stroke that continues after it was closed without an END carries on after its last segment")
+    @Test
+    void strokeResumedAfterCloseGetsNextSegment() {
+        strokeAssembler.append(event(DrawEventType.START, 1, 1), testBoard, testUser);
+        strokeAssembler.shutdown();
+
+        strokeAssembler.append(event(DrawEventType.DRAW, 2, 2), testBoard, testUser);
+        strokeAssembler.append(event(DrawEventType.END, 3, 3), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService, times(2)).enqueue(captor.capture());
+        assertEquals(0, captor.getAllValues().get(0).getSegment());
+        assertEquals(1, captor.getAllValues().get(1).getSegment());
+        assertTrue(captor.getAllValues().get(1).isEnded());
+    }
+
+    @DisplayName("A stroke that continues after a restart carries on after its highest stored segment")
+    @Test
+    void strokeResumedAfterRestartGetsNextStoredSegment() {
+        when(mockStrokePathRepository.findMaxSegment(BOARD_ID, STROKE_ID)).thenReturn(2);
+
+        strokeAssembler.append(event(DrawEventType.DRAW, 2, 2), testBoard, testUser);
+        strokeAssembler.append(event(DrawEventType.END, 3, 3), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService).enqueue(captor.capture());
+        assertEquals(3, captor.getValue().getSegment());
+    }
+
+    @DisplayName("A resent stroke starts at segment 0 again, so its stored copy drops it")
+    @Test
+    void resentStrokeStartsAtFirstSegment() {
+        when(mockStrokePathRepository.findMaxSegment(any(), any())).thenReturn(2);
+
+        strokeAssembler.append(event(DrawEventType.START, 1, 1), testBoard, testUser);
+        strokeAssembler.append(event(DrawEventType.END, 3, 3), testBoard, testUser);
+
+        final ArgumentCaptor<StrokePath> captor = ArgumentCaptor.forClass(StrokePath.class);
+        verify(mockStrokeWriteBehindService).enqueue(captor.capture());
+        assertEquals(0, captor.getValue().getSegment());
+        verify(mockStrokePathRepository, never()).findMaxSegment(any(), any());
+    }
+}
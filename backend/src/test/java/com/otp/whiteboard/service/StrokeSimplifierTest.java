@@ -0,0 +1,191 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.enums.SimplificationMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrokeSimplifierTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrokeSimplifierTest.class);
+
+    private static final double TOLERANCE = 0.5;
+    private static final int SAMPLED_STROKES = 50;
+    private static final String BENCHMARK_PROPERTY = "whiteboard.benchmark.enabled";
+    private static final int BENCHMARK_STROKES = 5_000;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Freehand-like strokes as a pointer sampled at a high rate produces them: a smooth curve with
+     * slowly changing speed and direction, sub-pixel sensor jitter and many closely spaced points.
+     */
+    private static List<double[]> sampledStrokes(final long seed, final int count) {
+        final Random random = new Random(seed);
+        final List<double[]> strokes = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            final int points = 20 + random.nextInt(400);
+            final double[] xy = new double[points * 2];
+            double x = random.nextDouble() * 1920;
+            double y = random.nextDouble() * 1080;
+            double heading = random.nextDouble() * 2 * Math.PI;
+            double speed = 1 + random.nextDouble() * 3;
+            for (int i = 0; i < points; i++) {
+                heading += (random.nextDouble() - 0.5) * 0.1;
+                speed = Math.max(0.2, speed + (random.nextDouble() - 0.5) * 0.2);
+                x += Math.cos(heading) * speed;
+                y += Math.sin(heading) * speed;
+                xy[2 * i] = x + (random.nextDouble() - 0.5) * 0.2;
+                xy[2 * i + 1] = y + (random.nextDouble() - 0.5) * 0.2;
+            }
+            strokes.add(xy);
+        }
+        return strokes;
+    }
+
+    /**
+     * @return the largest distance of any original point from the simplified polyline.
+     */
+    private static double maxDeviation(final double[] original, final double[] simplified) {
+        double max = 0;
+        for (int p = 0; p < original.length / 2; p++) {
+            double best = Double.MAX_VALUE;
+            for (int s = 0; s + 3 < simplified.length; s += 2) {
+                best = Math.min(best, distanceToSegment(original[2 * p], original[2 * p + 1],
+                        simplified[s], simplified[s + 1], simplified[s + 2], simplified[s + 3]));
+            }
+            max = Math.max(max, best);
+        }
+        return max;
+    }
+
+    private static double distanceToSegment(final double px, final double py, final double ax, final double ay,
+                                            final double bx, final double by) {
+        final double dx = bx - ax;
+        final double dy = by - ay;
+        final double lengthSquared = dx * dx + dy * dy;
+        final double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    @DisplayName("Collinear points collapse to the two end points")
+    @Test
+    void collinearPointsCollapse() {
+        final double[] line = {0, 0, 1, 1, 2, 2, 3, 3, 4, 4};
+
+        assertArrayEquals(new double[]{0, 0, 4, 4}, StrokeSimplifier.douglasPeucker(line, TOLERANCE));
+    }
+
+    @DisplayName("Corners further than the tolerance are kept")
+    @Test
+    void cornersAreKept() {
+        final double[] corner = {0, 0, 5, 0.1, 10, 0, 10, 5, 10, 10};
+
+        assertArrayEquals(new double[]{0, 0, 10, 0, 10, 10}, StrokeSimplifier.douglasPeucker(corner, TOLERANCE));
+    }
+
+    @DisplayName("Radial decimation drops points within the tolerance of the previous kept point")
+    @Test
+    void radialDropsClosePoints() {
+        final double[] dense = {0, 0, 0.1, 0, 0.2, 0, 1, 0, 1.1, 0, 2, 0};
+
+        assertArrayEquals(new double[]{0, 0, 1, 0, 2, 0}, StrokeSimplifier.radialDistance(dense, TOLERANCE));
+    }
+
+    @DisplayName("Strokes with up to two points and the NONE mode are left untouched")
+    @Test
+    void trivialInputIsUntouched() {
+        final double[] twoPoints = {1, 2, 3, 4};
+        final double[] line = {0, 0, 1, 1, 2, 2};
+
+        assertSame(twoPoints, StrokeSimplifier.douglasPeucker(twoPoints, TOLERANCE));
+        assertSame(twoPoints, StrokeSimplifier.radialDistance(twoPoints, TOLERANCE));
+        assertSame(line, new StrokeSimplifier(meterRegistry, SimplificationMode.NONE, TOLERANCE).simplify(line));
+        assertEquals(0, new StrokeSimplifier(meterRegistry, SimplificationMode.RDP, 0).simplify(new double[0]).length);
+    }
+
+    @DisplayName("Simplified strokes keep their end points and stay within the tolerance of the original")
+    @ParameterizedTest
+    @EnumSource(value = SimplificationMode.class, names = {"RDP", "RADIAL_RDP"})
+    void simplifiedStrokesStayWithinTolerance(final SimplificationMode mode) {
+        final StrokeSimplifier simplifier = new StrokeSimplifier(meterRegistry, mode, TOLERANCE);
+        for (final double[] xy : sampledStrokes(11, 50)) {
+            final double[] simplified = simplifier.simplify(xy);
+
+            assertEquals(xy[0], simplified[0]);
+            assertEquals(xy[1], simplified[1]);
+            assertEquals(xy[xy.length - 2], simplified[simplified.length - 2]);
+            assertEquals(xy[xy.length - 1], simplified[simplified.length - 1]);
+            // A radial pre-pass may add up to one more tolerance of error.
+            final double bound = mode == SimplificationMode.RDP ? TOLERANCE : 2 * TOLERANCE;
+            assertTrue(maxDeviation(xy, simplified) <= bound + 1e-9);
+        }
+    }
+
+    @DisplayName("Sampled freehand strokes lose most of their points, and the reduction is reported")
+    @Test
+    void sampledStrokesAreReduced() {
+        final List<double[]> strokes = sampledStrokes(42, SAMPLED_STROKES);
+        for (final SimplificationMode mode : List.of(SimplificationMode.RADIAL, SimplificationMode.RDP,
+                SimplificationMode.RADIAL_RDP)) {
+            final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            final StrokeSimplifier simplifier = new StrokeSimplifier(registry, mode, TOLERANCE);
+            long pointsIn = 0;
+            long pointsOut = 0;
+            for (final double[] xy : strokes) {
+                pointsIn += xy.length / 2;
+                pointsOut += simplifier.simplify(xy).length / 2;
+            }
+            final double reduction = 1.0 - (double) pointsOut / pointsIn;
+
+            assertEquals(SAMPLED_STROKES, registry.get("whiteboard.strokes.simplify.reduction").summary().count());
+            assertEquals(pointsIn, registry.get("whiteboard.strokes.simplify.points_in").counter().count());
+            assertEquals(pointsOut, registry.get("whiteboard.strokes.simplify.points_out").counter().count());
+            if (mode != SimplificationMode.RADIAL) {
+                assertTrue(reduction > 0.5, mode + " removed only " + reduction);
+            }
+        }
+    }
+
+    @DisplayName("Benchmark: time to simplify sampled freehand strokes per mode")
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void benchmarkSampledStrokes() {
+        final List<double[]> strokes = sampledStrokes(42, BENCHMARK_STROKES);
+        for (final SimplificationMode mode : SimplificationMode.values()) {
+            final StrokeSimplifier simplifier = new StrokeSimplifier(new SimpleMeterRegistry(), mode, TOLERANCE);
+            long pointsIn = 0;
+            long pointsOut = 0;
+            final long startedAt = System.nanoTime();
+            for (final double[] xy : strokes) {
+                pointsIn += xy.length / 2;
+                pointsOut += simplifier.simplify(xy).length / 2;
+            }
+            final long elapsedMicros = (System.nanoTime() - startedAt) / 1000;
+            LOGGER.info("{}: {} -> {} points in {} us", mode, pointsIn, pointsOut, elapsedMicros);
+        }
+    }
+
+    @DisplayName("A negative tolerance is rejected")
+    @Test
+    void negativeToleranceIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StrokeSimplifier(meterRegistry, SimplificationMode.RDP, -1));
+    }
+}
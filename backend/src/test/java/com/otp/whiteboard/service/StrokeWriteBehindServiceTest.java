@@ -0,0 +1,161 @@
+package com.otp.whiteboard.service;
+
+import com.otp.whiteboard.enums.DrawingTool;
+import com.otp.whiteboard.model.Board;
+import com.otp.whiteboard.model.StrokePath;
+import com.otp.whiteboard.repository.StrokePathBulkWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StrokeWriteBehindServiceTest {
+    private StrokeWriteBehindService writeBehindService;
+
+    private static final Long BOARD_ID = 1L;
+    private static final int BATCH_SIZE = 3;
+    private static final int QUEUE_CAPACITY = 10;
+    private static final String QUEUE_GAUGE = "whiteboard.strokes.write_behind.queue";
+
+    @Mock
+    private StrokePathBulkWriter mockStrokePathBulkWriter;
+
+    @Mock
+    private BoardTileService mockBoardTileService;
+
+    @Mock
+    private PersistedSequenceTracker mockPersistedSequenceTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Board testBoard;
+
+    @BeforeEach
+    void init() {
+        testBoard = new Board();
+        testBoard.setId(BOARD_ID);
+
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehindService = new StrokeWriteBehindService(
+                mockStrokePathBulkWriter, mockBoardTileService, mockPersistedSequenceTracker, meterRegistry,
+                BATCH_SIZE, QUEUE_CAPACITY);
+    }
+
+    private StrokePath newStroke() {
+        final StrokePath stroke = new StrokePath();
+        stroke.setBoard(testBoard);
+        stroke.setStrokeId("stroke-1");
+        stroke.setTool(DrawingTool.PEN);
+        stroke.setPoints(new double[]{1.0, 2.0, 3.0, 4.0});
+        stroke.setCreatedAt(LocalDateTime.now());
+        return stroke;
+    }
+
+    @DisplayName("Enqueued strokes are buffered and exposed as queue depth until flushed")
+    @Test
+    void enqueueBuffersStrokes() {
+        writeBehindService.enqueue(newStroke());
+        writeBehindService.enqueue(newStroke());
+
+        assertEquals(2, writeBehindService.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get(QUEUE_GAUGE).gauge().value());
+        verify(mockStrokePathBulkWriter, never()).writeAll(anyList());
+    }
+
+    @DisplayName("Flush writes buffered strokes in one batch and drops the tiles they touch")
+    @Test
+    void flushWritesBatch() {
+        writeBehindService.enqueue(newStroke());
+        writeBehindService.enqueue(newStroke());
+
+        writeBehindService.flush();
+
+        verify(mockStrokePathBulkWriter, times(1)).writeAll(argThat(batch -> ((List<?>) batch).size() == 2));
+        verify(mockBoardTileService, times(1)).invalidate(argThat(batch -> batch.size() == 2));
+        assertEquals(0, writeBehindService.getQueueDepth());
+    }
+
+    @DisplayName("Written strokes release their events only after the tiles they touch are dropped")
+    @Test
+    void writtenStrokesAreReleasedAfterTheirTiles() {
+        final StrokePath stroke = newStroke();
+        stroke.setSequences(new long[]{4L, 5L});
+        writeBehindService.enqueue(stroke);
+
+        writeBehindService.flush();
+
+        final InOrder inOrder = inOrder(mockStrokePathBulkWriter, mockBoardTileService, mockPersistedSequenceTracker);
+        inOrder.verify(mockStrokePathBulkWriter).writeAll(anyList());
+        inOrder.verify(mockBoardTileService).invalidate(anyList());
+        inOrder.verify(mockPersistedSequenceTracker).written(BOARD_ID, 4L, 5L);
+    }
+
+    @DisplayName("Reaching the batch size triggers an asynchronous flush")
+    @Test
+    void sizeTriggeredFlush() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            writeBehindService.enqueue(newStroke());
+        }
+
+        verify(mockStrokePathBulkWriter, timeout(2000)).writeAll(anyList());
+    }
+
+    @DisplayName("A failed flush is retried by the cleanup task instead of losing the batch")
+    @Test
+    void failedFlushIsRetried() {
+        when(mockStrokePathBulkWriter.writeAll(anyList()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1L);
+        writeBehindService.enqueue(newStroke());
+
+        writeBehindService.flush();
+        assertEquals(1.0, meterRegistry.get("whiteboard.strokes.write_behind.failed_batches").gauge().value());
+        verify(mockBoardTileService, never()).invalidate(anyList());
+
+        writeBehindService.retryFailedBatches();
+        verify(mockStrokePathBulkWriter, times(2)).writeAll(anyList());
+        assertEquals(0.0, meterRegistry.get("whiteboard.strokes.write_behind.failed_batches").gauge().value());
+    }
+
+    @DisplayName("A batch that fails again is dropped and its events are released")
+    @Test
+    void droppedBatchIsReleased() {
+        when(mockStrokePathBulkWriter.writeAll(anyList())).thenThrow(new RuntimeException("db down"));
+        final StrokePath stroke = newStroke();
+        stroke.setSequences(new long[]{7L});
+        writeBehindService.enqueue(stroke);
+
+        writeBehindService.flush();
+        verify(mockPersistedSequenceTracker, never()).written(any(), any(long[].class));
+        writeBehindService.retryFailedBatches();
+
+        verify(mockPersistedSequenceTracker).written(BOARD_ID, 7L);
+        assertEquals(1.0, meterRegistry.get("whiteboard.strokes.write_behind.dropped").counter().count());
+    }
+
+    @DisplayName("Shutdown flushes everything still buffered")
+    @Test
+    void shutdownFlushes() {
+        writeBehindService.enqueue(newStroke());
+
+        writeBehindService.shutdown();
+
+        verify(mockStrokePathBulkWriter).writeAll(anyList());
+        assertEquals(0, writeBehindService.getQueueDepth());
+    }
+}
@@ -48,6 +48,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private DrawReferenceCache drawReferenceCache;
+
     private User testUser;
 
     @BeforeEach
@@ -89,7 +92,7 @@ class UserServiceTest {
 
     }
     void setupTestTarget(){
-        userService = new UserService(userRepository, passwordEncoder);
+        userService = new UserService(userRepository, passwordEncoder, drawReferenceCache);
     }
 
     @DisplayName("As a user, I want to create a new user but saving fails so that an exception is rethrown")
@@ -207,6 +210,7 @@ class UserServiceTest {
         final User result = userCaptor.getValue();
         assertNotNull(result);
         assertEquals(updatedUser.getId(), result.getId());
+        verify(drawReferenceCache).evictUser(request.displayName());
     }
 
     @DisplayName("As a user, I want to update my profile information with a non-existing user ID so that I receive an error message")